@@ -0,0 +1,119 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks of the Ada lexer over Ada sources of several sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AdaLexerBenchmark {
+	
+	/**
+	 * The Ada source text to lex.
+	 */
+	@State(Scope.Benchmark)
+	public static class Source {
+		
+		/**
+		 * The size of the text, in characters.
+		 */
+		@Param({ "4096", "65536", "1048576" })
+		public int size;
+		
+		/**
+		 * The corpus from which to build the text (see `BenchmarkCorpus`).
+		 */
+		@Param({ "TEMPLATES", "STRUCTURED", "RANDOM" })
+		public String corpus;
+		
+		/**
+		 * The text.
+		 */
+		String text;
+		
+		/**
+		 * Builds the text from the chosen benchmark corpus.
+		 *
+		 * @throws IOException If the benchmark sources cannot be read.
+		 */
+		@Setup
+		public void setUp() throws IOException {
+			text = BenchmarkCorpus.text(corpus, size, SourceGenerator.Language.ADA, ".ads", ".adb");
+		}
+		
+	}
+	
+	/**
+	 * The lexer engine to benchmark.
+	 */
+	@State(Scope.Benchmark)
+	public static class EngineChoice {
+		
+		/**
+		 * The name of the engine.
+		 */
+		@Param({ "AUTOMATON", "DERIVATIVES" })
+		public String engine;
+		
+	}
+	
+	/**
+	 * Lexes the whole text through `Lexer.textTokens`, which is how
+	 * the plugin lexes documents outside of the editor.
+	 *
+	 * @param source The text to lex.
+	 * @param throughput The character and token counters.
+	 * @param blackhole The blackhole consuming tokens.
+	 */
+	@Benchmark
+	public void textTokens(Source source, LexerThroughput throughput, Blackhole blackhole) {
+		
+		Iterator<Lexer.Token> tokens = Lexer.textTokens(source.text);
+		
+		while (tokens.hasNext()) {
+			blackhole.consume(tokens.next());
+			throughput.tokens++;
+		}
+		
+		throughput.characters += source.text.length();
+		
+	}
+	
+	/**
+	 * Lexes the whole text by advancing a lexer with the chosen engine
+	 * directly, which is how the editor lexes documents.
+	 *
+	 * @param source The text to lex.
+	 * @param engineChoice The engine to use.
+	 * @param throughput The character and token counters.
+	 * @param blackhole The blackhole consuming token types.
+	 */
+	@Benchmark
+	public void advance(
+		Source          source,
+		EngineChoice    engineChoice,
+		LexerThroughput throughput,
+		Blackhole       blackhole
+	) {
+		
+		AdaLexer lexer = new AdaLexer(Lexer.Engine.valueOf(engineChoice.engine));
+		
+		lexer.start(source.text, 0, source.text.length(), 0);
+		
+		while (lexer.getTokenType() != null) {
+			blackhole.consume(lexer.getTokenType());
+			throughput.tokens++;
+			lexer.advance();
+		}
+		
+		throughput.characters += source.text.length();
+		
+	}
+	
+}
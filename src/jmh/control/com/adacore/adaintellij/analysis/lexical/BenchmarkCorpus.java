@@ -0,0 +1,131 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.jetbrains.annotations.*;
+
+/**
+ * Source texts on which lexer benchmarks are run, either built from
+ * the Ada and GPR files of the project templates shipped with the
+ * plugin, or generated by SourceGenerator to any size.
+ * The directory containing the project template files is given by
+ * the system property SOURCES_PROPERTY, which the Gradle build sets
+ * for JMH runs.
+ */
+final class BenchmarkCorpus {
+	
+	/*
+		Constants
+	*/
+	
+	/**
+	 * The system property giving the directory of benchmark sources.
+	 */
+	private static final String SOURCES_PROPERTY = "adaintellij.benchmark.sources";
+	
+	/**
+	 * The directory of benchmark sources used if SOURCES_PROPERTY
+	 * is not set, relative to the root directory of the project.
+	 */
+	private static final String DEFAULT_SOURCES = "src/main/resources/project-templates";
+	
+	/**
+	 * The seed from which synthetic texts are generated, so that
+	 * the same texts are generated on every run.
+	 */
+	private static final long SEED = 0;
+	
+	/**
+	 * Private default constructor to prevent instantiation.
+	 */
+	private BenchmarkCorpus() {}
+	
+	/**
+	 * Returns a text of about the given size from the given corpus:
+	 * TEMPLATES    => The project template files, as described in
+	 *                 `text(int, String...)`
+	 * STRUCTURED   => A structured text generated by SourceGenerator
+	 * RANDOM       => A random text generated by SourceGenerator
+	 *
+	 * @param corpus The name of the corpus.
+	 * @param size The size of the text, in characters.
+	 * @param language The language of the text.
+	 * @param extensions The extensions of the template files to use.
+	 * @return The benchmark text.
+	 * @throws IOException If the benchmark sources cannot be read.
+	 * @throws IllegalArgumentException If the corpus is unknown.
+	 */
+	@NotNull
+	static String text(
+		@NotNull String                   corpus,
+		         int                      size,
+		@NotNull SourceGenerator.Language language,
+		@NotNull String...                extensions
+	) throws IOException {
+		switch (corpus) {
+			case "TEMPLATES":  return text(size, extensions);
+			case "STRUCTURED": return new SourceGenerator(language, SEED).structuredText(size);
+			case "RANDOM":     return new SourceGenerator(language, SEED).randomText(size);
+			default:           throw new IllegalArgumentException("Unknown benchmark corpus: " + corpus);
+		}
+	}
+	
+	/**
+	 * Returns a text of at most the given size (and at least one file
+	 * or line long), made of the benchmark source files with the given
+	 * extensions, concatenated as many times as necessary to reach that
+	 * size and cut at the end of a line.
+	 * Files are concatenated in path order, so that the same text is
+	 * built on every run.
+	 *
+	 * @param size The size of the text, in characters.
+	 * @param extensions The extensions of the files to use (e.g. ".adb").
+	 * @return The benchmark text.
+	 * @throws IOException If the benchmark sources cannot be read.
+	 * @throws IllegalStateException If no file has the given extensions.
+	 */
+	@NotNull
+	static String text(int size, @NotNull String... extensions) throws IOException {
+		
+		Path directory = Paths.get(System.getProperty(SOURCES_PROPERTY, DEFAULT_SOURCES));
+		
+		List<Path> files;
+		
+		try (Stream<Path> paths = Files.walk(directory)) {
+			files = paths
+				.filter(path -> Arrays.stream(extensions).anyMatch(
+					extension -> path.toString().endsWith(extension)))
+				.sorted()
+				.collect(Collectors.toList());
+		}
+		
+		if (files.isEmpty()) {
+			throw new IllegalStateException("No benchmark sources found in " + directory);
+		}
+		
+		StringBuilder builder = new StringBuilder(size);
+		
+		while (builder.length() < size) {
+			
+			for (Path file : files) {
+				
+				builder.append(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+				builder.append('\n');
+				
+				if (builder.length() >= size) { break; }
+				
+			}
+			
+		}
+		
+		int end = builder.lastIndexOf("\n", size - 1);
+		
+		return builder.substring(0, end > 0 ? end + 1 : builder.length());
+		
+	}
+	
+}
@@ -0,0 +1,95 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks of the GPR file lexer over project files.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GPRFileLexerBenchmark {
+	
+	/**
+	 * The project file text to lex.
+	 */
+	@State(Scope.Benchmark)
+	public static class Source {
+		
+		/**
+		 * The size of the text, in characters.
+		 */
+		@Param({ "1024", "16384" })
+		public int size;
+		
+		/**
+		 * The corpus from which to build the text (see `BenchmarkCorpus`).
+		 */
+		@Param({ "TEMPLATES", "STRUCTURED", "RANDOM" })
+		public String corpus;
+		
+		/**
+		 * The text.
+		 */
+		String text;
+		
+		/**
+		 * Builds the text from the chosen benchmark corpus.
+		 *
+		 * @throws IOException If the benchmark sources cannot be read.
+		 */
+		@Setup
+		public void setUp() throws IOException {
+			text = BenchmarkCorpus.text(corpus, size, SourceGenerator.Language.GPR, ".gpr");
+		}
+		
+	}
+	
+	/**
+	 * The lexer engine to benchmark.
+	 */
+	@State(Scope.Benchmark)
+	public static class EngineChoice {
+		
+		/**
+		 * The name of the engine.
+		 */
+		@Param({ "AUTOMATON", "DERIVATIVES" })
+		public String engine;
+		
+	}
+	
+	/**
+	 * Lexes the whole text by advancing a lexer with the chosen engine.
+	 *
+	 * @param source The text to lex.
+	 * @param engineChoice The engine to use.
+	 * @param throughput The character and token counters.
+	 * @param blackhole The blackhole consuming token types.
+	 */
+	@Benchmark
+	public void advance(
+		Source          source,
+		EngineChoice    engineChoice,
+		LexerThroughput throughput,
+		Blackhole       blackhole
+	) {
+		
+		GPRFileLexer lexer = new GPRFileLexer(Lexer.Engine.valueOf(engineChoice.engine));
+		
+		lexer.start(source.text, 0, source.text.length(), 0);
+		
+		while (lexer.getTokenType() != null) {
+			blackhole.consume(lexer.getTokenType());
+			throughput.tokens++;
+			lexer.advance();
+		}
+		
+		throughput.characters += source.text.length();
+		
+	}
+	
+}
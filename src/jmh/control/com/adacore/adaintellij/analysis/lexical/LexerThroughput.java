@@ -0,0 +1,33 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Auxiliary JMH counters reporting the throughput of lexer benchmarks
+ * in characters and tokens per unit of time, next to the throughput
+ * in benchmark operations.
+ */
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+@State(Scope.Thread)
+public class LexerThroughput {
+	
+	/**
+	 * The number of characters lexed during the current iteration.
+	 */
+	public long characters;
+	
+	/**
+	 * The number of tokens produced during the current iteration.
+	 */
+	public long tokens;
+	
+	/**
+	 * Resets the counters before every iteration.
+	 */
+	@Setup(Level.Iteration)
+	public void reset() {
+		characters = 0;
+		tokens     = 0;
+	}
+	
+}
@@ -0,0 +1,120 @@
+package com.adacore.adaintellij.analysis.lexical.regex;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH micro-benchmarks of regex derivatives, for every type of regex
+ * node. The `advanced` benchmark measures the memoized derivatives
+ * used by lexers once warmed up, and the `derivative` benchmark
+ * measures the computation of a derivative before it is memoized.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class LexerRegexBenchmark {
+	
+	/*
+		Constants
+	*/
+	
+	/**
+	 * Map associating regex node types with a regex of that type at
+	 * its root, and a sequence of characters matched by that regex.
+	 */
+	private static final Map<String, Object[]> NODES = new HashMap<>();
+	
+	static {
+		
+		NODES.put("unit"           , node(new UnitRegex("procedure"), "procedure"));
+		NODES.put("charClass"      , node(UnionRegex.fromRange('a', 'z'), "q"));
+		NODES.put("generalCategory", node(new GeneralCategoryRegex("Ll"), "q"));
+		NODES.put("union"          , node(UnionRegex.fromList(Arrays.asList(
+			new UnitRegex("begin"), new UnitRegex("body"), new UnitRegex("but"))), "body"));
+		NODES.put("concatenation"  , node(ConcatenationRegex.fromRegexes(
+			new UnitRegex("--"), new UnitRegex("comment")), "--comment"));
+		NODES.put("intersection"   , node(new IntersectionRegex(
+			new OneOrMoreRegex(UnionRegex.fromRange('a', 'z')),
+			new OneOrMoreRegex(new GeneralCategoryRegex("Ll"))), "identifier"));
+		NODES.put("not"            , node(new NotRegex(new UnitRegex("\n")), "x"));
+		NODES.put("zeroOrMore"     , node(new ZeroOrMoreRegex(UnionRegex.fromRange('a', 'z')), "identifier"));
+		NODES.put("oneOrMore"      , node(new OneOrMoreRegex(UnionRegex.fromRange('a', 'z')), "identifier"));
+		NODES.put("zeroOrOne"      , node(new ZeroOrOneRegex(new UnitRegex("abc")), "abc"));
+		
+	}
+	
+	/*
+		Fields
+	*/
+	
+	/**
+	 * The type of regex node to benchmark.
+	 */
+	@Param({
+		"unit", "charClass", "generalCategory", "union", "concatenation",
+		"intersection", "not", "zeroOrMore", "oneOrMore", "zeroOrOne"
+	})
+	public String node;
+	
+	/**
+	 * The benchmarked regex and the characters by which it is advanced.
+	 */
+	private LexerRegex regex;
+	private char[]     characters;
+	
+	/**
+	 * Returns the given regex and sequence of characters as an entry
+	 * of NODES.
+	 *
+	 * @param regex The regex.
+	 * @param sequence The sequence of characters matched by the regex.
+	 * @return The entry.
+	 */
+	private static Object[] node(LexerRegex regex, String sequence) {
+		return new Object[] { regex, sequence.toCharArray() };
+	}
+	
+	/**
+	 * Looks up the regex of the benchmarked node type.
+	 */
+	@Setup
+	public void setUp() {
+		
+		Object[] entry = NODES.get(node);
+		
+		regex      = (LexerRegex)entry[0];
+		characters = (char[])entry[1];
+		
+	}
+	
+	/**
+	 * Advances the regex by its whole sequence of characters, using
+	 * memoized derivatives.
+	 *
+	 * @return The fully advanced regex.
+	 */
+	@Benchmark
+	public LexerRegex advanced() {
+		
+		LexerRegex advancedRegex = regex;
+		
+		for (char character : characters) {
+			advancedRegex = advancedRegex.advanced(character);
+		}
+		
+		return advancedRegex;
+		
+	}
+	
+	/**
+	 * Computes the derivative of the regex by its first character,
+	 * without memoization.
+	 *
+	 * @return The derivative.
+	 */
+	@Benchmark
+	public LexerRegex derivative() { return regex.derivative(characters[0]); }
+	
+}
@@ -199,6 +199,19 @@ public final class Utils {
 		return fileDocumentManager.getDocument(file);
 	}
 	
+	/**
+	 * Returns the document corresponding to the given virtual file
+	 * if it is already loaded, without loading it.
+	 *
+	 * @param file The virtual file for which to get the document.
+	 * @return The file's corresponding document, or null if it is
+	 *         not loaded.
+	 */
+	@Nullable
+	public static Document getCachedVirtualFileDocument(@NotNull VirtualFile file) {
+		return fileDocumentManager.getCachedDocument(file);
+	}
+	
 	/**
 	 * Returns the virtual file corresponding to the given document.
 	 *
@@ -0,0 +1,49 @@
+package com.adacore.adaintellij.actions;
+
+import java.awt.datatransfer.StringSelection;
+
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.ide.CopyPasteManager;
+
+import com.adacore.adaintellij.analysis.lexical.LexerInstrumentation;
+import com.adacore.adaintellij.notifications.AdaIJNotification;
+
+/**
+ * Internal IntelliJ action to dump the lexer instrumentation report
+ * (see `LexerInstrumentation`) to the IDE log and to the clipboard.
+ */
+public final class LexerReportAction extends AnAction {
+	
+	/**
+	 * Class-wide logger for the LexerReportAction class.
+	 */
+	private static final Logger LOGGER = Logger.getInstance(LexerReportAction.class);
+	
+	/**
+	 * @see com.intellij.openapi.actionSystem.AnAction#actionPerformed(AnActionEvent)
+	 */
+	@Override
+	public void actionPerformed(AnActionEvent event) {
+		
+		String report = LexerInstrumentation.report();
+		
+		LOGGER.info(report);
+		CopyPasteManager.getInstance().setContents(new StringSelection(report));
+		
+		Notifications.Bus.notify(new AdaIJNotification(
+			"Lexer instrumentation report",
+			LexerInstrumentation.ENABLED ?
+				"The report on " + LexerInstrumentation.allFileStatistics().size() +
+					" files was written to the IDE log and copied to the clipboard." :
+				"Lexer instrumentation is disabled. Add -D" + LexerInstrumentation.PROPERTY +
+					"=true to the VM options of the IDE to enable it.",
+			NotificationType.INFORMATION
+		), event.getProject());
+		
+	}
+	
+}
@@ -190,103 +190,6 @@ public final class AdaLexer extends Lexer {
 			APOSTROPHE_REGEX
 		);
 	
-	// Keywords
-	
-	/**
-	 * Unit regexes for matching Ada keywords.
-	 */
-	private static final LexerRegex ABORT_KEYWORD_REGEX        = new UnitRegex(ABORT_KEYWORD.TOKEN_TEXT       , 1);
-	private static final LexerRegex ABS_KEYWORD_REGEX          = new UnitRegex(ABS_KEYWORD.TOKEN_TEXT         , 1);
-	private static final LexerRegex ABSTRACT_KEYWORD_REGEX     = new UnitRegex(ABSTRACT_KEYWORD.TOKEN_TEXT    , 1);
-	private static final LexerRegex ACCEPT_KEYWORD_REGEX       = new UnitRegex(ACCEPT_KEYWORD.TOKEN_TEXT      , 1);
-	private static final LexerRegex ACCESS_KEYWORD_REGEX       = new UnitRegex(ACCESS_KEYWORD.TOKEN_TEXT      , 1);
-	private static final LexerRegex ALIASED_KEYWORD_REGEX      = new UnitRegex(ALIASED_KEYWORD.TOKEN_TEXT     , 1);
-	private static final LexerRegex ALL_KEYWORD_REGEX          = new UnitRegex(ALL_KEYWORD.TOKEN_TEXT         , 1);
-	private static final LexerRegex AND_KEYWORD_REGEX          = new UnitRegex(AND_KEYWORD.TOKEN_TEXT         , 1);
-	private static final LexerRegex ARRAY_KEYWORD_REGEX        = new UnitRegex(ARRAY_KEYWORD.TOKEN_TEXT       , 1);
-	private static final LexerRegex AT_KEYWORD_REGEX           = new UnitRegex(AT_KEYWORD.TOKEN_TEXT          , 1);
-	
-	private static final LexerRegex BEGIN_KEYWORD_REGEX        = new UnitRegex(BEGIN_KEYWORD.TOKEN_TEXT       , 1);
-	private static final LexerRegex BODY_KEYWORD_REGEX         = new UnitRegex(BODY_KEYWORD.TOKEN_TEXT        , 1);
-	
-	private static final LexerRegex CASE_KEYWORD_REGEX         = new UnitRegex(CASE_KEYWORD.TOKEN_TEXT        , 1);
-	private static final LexerRegex CONSTANT_KEYWORD_REGEX     = new UnitRegex(CONSTANT_KEYWORD.TOKEN_TEXT    , 1);
-	
-	private static final LexerRegex DECLARE_KEYWORD_REGEX      = new UnitRegex(DECLARE_KEYWORD.TOKEN_TEXT     , 1);
-	private static final LexerRegex DELAY_KEYWORD_REGEX        = new UnitRegex(DELAY_KEYWORD.TOKEN_TEXT       , 1);
-	private static final LexerRegex DELTA_KEYWORD_REGEX        = new UnitRegex(DELTA_KEYWORD.TOKEN_TEXT       , 1);
-	private static final LexerRegex DIGITS_KEYWORD_REGEX       = new UnitRegex(DIGITS_KEYWORD.TOKEN_TEXT      , 1);
-	private static final LexerRegex DO_KEYWORD_REGEX           = new UnitRegex(DO_KEYWORD.TOKEN_TEXT          , 1);
-	
-	private static final LexerRegex ELSE_KEYWORD_REGEX         = new UnitRegex(ELSE_KEYWORD.TOKEN_TEXT        , 1);
-	private static final LexerRegex ELSIF_KEYWORD_REGEX        = new UnitRegex(ELSIF_KEYWORD.TOKEN_TEXT       , 1);
-	private static final LexerRegex END_KEYWORD_REGEX          = new UnitRegex(END_KEYWORD.TOKEN_TEXT         , 1);
-	private static final LexerRegex ENTRY_KEYWORD_REGEX        = new UnitRegex(ENTRY_KEYWORD.TOKEN_TEXT       , 1);
-	private static final LexerRegex EXCEPTION_KEYWORD_REGEX    = new UnitRegex(EXCEPTION_KEYWORD.TOKEN_TEXT   , 1);
-	private static final LexerRegex EXIT_KEYWORD_REGEX         = new UnitRegex(EXIT_KEYWORD.TOKEN_TEXT        , 1);
-	
-	private static final LexerRegex FOR_KEYWORD_REGEX          = new UnitRegex(FOR_KEYWORD.TOKEN_TEXT         , 1);
-	private static final LexerRegex FUNCTION_KEYWORD_REGEX     = new UnitRegex(FUNCTION_KEYWORD.TOKEN_TEXT    , 1);
-	
-	private static final LexerRegex GENERIC_KEYWORD_REGEX      = new UnitRegex(GENERIC_KEYWORD.TOKEN_TEXT     , 1);
-	private static final LexerRegex GOTO_KEYWORD_REGEX         = new UnitRegex(GOTO_KEYWORD.TOKEN_TEXT        , 1);
-	
-	private static final LexerRegex IF_KEYWORD_REGEX           = new UnitRegex(IF_KEYWORD.TOKEN_TEXT          , 1);
-	private static final LexerRegex IN_KEYWORD_REGEX           = new UnitRegex(IN_KEYWORD.TOKEN_TEXT          , 1);
-	private static final LexerRegex INTERFACE_KEYWORD_REGEX    = new UnitRegex(INTERFACE_KEYWORD.TOKEN_TEXT   , 1);
-	private static final LexerRegex IS_KEYWORD_REGEX           = new UnitRegex(IS_KEYWORD.TOKEN_TEXT          , 1);
-	
-	private static final LexerRegex LIMITED_KEYWORD_REGEX      = new UnitRegex(LIMITED_KEYWORD.TOKEN_TEXT     , 1);
-	private static final LexerRegex LOOP_KEYWORD_REGEX         = new UnitRegex(LOOP_KEYWORD.TOKEN_TEXT        , 1);
-	
-	private static final LexerRegex MOD_KEYWORD_REGEX          = new UnitRegex(MOD_KEYWORD.TOKEN_TEXT         , 1);
-	
-	private static final LexerRegex NEW_KEYWORD_REGEX          = new UnitRegex(NEW_KEYWORD.TOKEN_TEXT         , 1);
-	private static final LexerRegex NOT_KEYWORD_REGEX          = new UnitRegex(NOT_KEYWORD.TOKEN_TEXT         , 1);
-	private static final LexerRegex NULL_KEYWORD_REGEX         = new UnitRegex(NULL_KEYWORD.TOKEN_TEXT        , 1);
-	
-	private static final LexerRegex OF_KEYWORD_REGEX           = new UnitRegex(OF_KEYWORD.TOKEN_TEXT          , 1);
-	private static final LexerRegex OR_KEYWORD_REGEX           = new UnitRegex(OR_KEYWORD.TOKEN_TEXT          , 1);
-	private static final LexerRegex OTHERS_KEYWORD_REGEX       = new UnitRegex(OTHERS_KEYWORD.TOKEN_TEXT      , 1);
-	private static final LexerRegex OUT_KEYWORD_REGEX          = new UnitRegex(OUT_KEYWORD.TOKEN_TEXT         , 1);
-	private static final LexerRegex OVERRIDING_KEYWORD_REGEX   = new UnitRegex(OVERRIDING_KEYWORD.TOKEN_TEXT  , 1);
-	
-	private static final LexerRegex PACKAGE_KEYWORD_REGEX      = new UnitRegex(PACKAGE_KEYWORD.TOKEN_TEXT     , 1);
-	private static final LexerRegex PRAGMA_KEYWORD_REGEX       = new UnitRegex(PRAGMA_KEYWORD.TOKEN_TEXT      , 1);
-	private static final LexerRegex PRIVATE_KEYWORD_REGEX      = new UnitRegex(PRIVATE_KEYWORD.TOKEN_TEXT     , 1);
-	private static final LexerRegex PROCEDURE_KEYWORD_REGEX    = new UnitRegex(PROCEDURE_KEYWORD.TOKEN_TEXT   , 1);
-	private static final LexerRegex PROTECTED_KEYWORD_REGEX    = new UnitRegex(PROTECTED_KEYWORD.TOKEN_TEXT   , 1);
-	
-	private static final LexerRegex RAISE_KEYWORD_REGEX        = new UnitRegex(RAISE_KEYWORD.TOKEN_TEXT       , 1);
-	private static final LexerRegex RANGE_KEYWORD_REGEX        = new UnitRegex(RANGE_KEYWORD.TOKEN_TEXT       , 1);
-	private static final LexerRegex RECORD_KEYWORD_REGEX       = new UnitRegex(RECORD_KEYWORD.TOKEN_TEXT      , 1);
-	private static final LexerRegex REM_KEYWORD_REGEX          = new UnitRegex(REM_KEYWORD.TOKEN_TEXT         , 1);
-	private static final LexerRegex RENAMES_KEYWORD_REGEX      = new UnitRegex(RENAMES_KEYWORD.TOKEN_TEXT     , 1);
-	private static final LexerRegex REQUEUE_KEYWORD_REGEX      = new UnitRegex(REQUEUE_KEYWORD.TOKEN_TEXT     , 1);
-	private static final LexerRegex RETURN_KEYWORD_REGEX       = new UnitRegex(RETURN_KEYWORD.TOKEN_TEXT      , 1);
-	private static final LexerRegex REVERSE_KEYWORD_REGEX      = new UnitRegex(REVERSE_KEYWORD.TOKEN_TEXT     , 1);
-	
-	private static final LexerRegex SELECT_KEYWORD_REGEX       = new UnitRegex(SELECT_KEYWORD.TOKEN_TEXT      , 1);
-	private static final LexerRegex SEPARATE_KEYWORD_REGEX     = new UnitRegex(SEPARATE_KEYWORD.TOKEN_TEXT    , 1);
-	private static final LexerRegex SOME_KEYWORD_REGEX         = new UnitRegex(SOME_KEYWORD.TOKEN_TEXT        , 1);
-	private static final LexerRegex SUBTYPE_KEYWORD_REGEX      = new UnitRegex(SUBTYPE_KEYWORD.TOKEN_TEXT     , 1);
-	private static final LexerRegex SYNCHRONIZED_KEYWORD_REGEX = new UnitRegex(SYNCHRONIZED_KEYWORD.TOKEN_TEXT, 1);
-	
-	private static final LexerRegex TAGGED_KEYWORD_REGEX       = new UnitRegex(TAGGED_KEYWORD.TOKEN_TEXT      , 1);
-	private static final LexerRegex TASK_KEYWORD_REGEX         = new UnitRegex(TASK_KEYWORD.TOKEN_TEXT        , 1);
-	private static final LexerRegex TERMINATE_KEYWORD_REGEX    = new UnitRegex(TERMINATE_KEYWORD.TOKEN_TEXT   , 1);
-	private static final LexerRegex THEN_KEYWORD_REGEX         = new UnitRegex(THEN_KEYWORD.TOKEN_TEXT        , 1);
-	private static final LexerRegex TYPE_KEYWORD_REGEX         = new UnitRegex(TYPE_KEYWORD.TOKEN_TEXT        , 1);
-	
-	private static final LexerRegex UNTIL_KEYWORD_REGEX        = new UnitRegex(UNTIL_KEYWORD.TOKEN_TEXT       , 1);
-	private static final LexerRegex USE_KEYWORD_REGEX          = new UnitRegex(USE_KEYWORD.TOKEN_TEXT         , 1);
-	
-	private static final LexerRegex WHEN_KEYWORD_REGEX         = new UnitRegex(WHEN_KEYWORD.TOKEN_TEXT        , 1);
-	private static final LexerRegex WHILE_KEYWORD_REGEX        = new UnitRegex(WHILE_KEYWORD.TOKEN_TEXT       , 1);
-	private static final LexerRegex WITH_KEYWORD_REGEX         = new UnitRegex(WITH_KEYWORD.TOKEN_TEXT        , 1);
-	
-	private static final LexerRegex XOR_KEYWORD_REGEX          = new UnitRegex(XOR_KEYWORD.TOKEN_TEXT         , 1);
-	
 	// Lexer data
 	
 	/**
@@ -295,6 +198,27 @@ public final class AdaLexer extends Lexer {
 	 */
 	private static final Map<LexerRegex, IElementType> REGEX_TOKEN_TYPES;
 	
+	/**
+	 * The automaton compiled from the root regexes of the
+	 * regex -> token-type map.
+	 */
+	private static final LexerAutomaton AUTOMATON;
+	
+	/**
+	 * The table associating keywords with the token types they
+	 * represent, used to classify identifiers.
+	 */
+	private static final KeywordTable KEYWORDS;
+	
+	// Lexer states
+	
+	/**
+	 * The state of the lexer at the start of a token that immediately
+	 * follows an identifier, where an apostrophe is always analysed as
+	 * an apostrophe token (see `advanceContextualToken`).
+	 */
+	static final int IDENTIFIER_STATE = 1;
+	
 	/*
 		Static Initializer
 	*/
@@ -303,7 +227,7 @@ public final class AdaLexer extends Lexer {
 		
 		// Populate the regex -> token-type map
 		
-		Map<LexerRegex, IElementType> regexTokenTypes = new HashMap<>();
+		Map<LexerRegex, IElementType> regexTokenTypes = new LinkedHashMap<>();
 		
 		regexTokenTypes.put(WHITESPACES_REGEX         , WHITESPACES);
 		
@@ -343,102 +267,129 @@ public final class AdaLexer extends Lexer {
 		
 		regexTokenTypes.put(COMMENT_REGEX             , COMMENT);
 		
-		regexTokenTypes.put(ABORT_KEYWORD_REGEX       , ABORT_KEYWORD);
-		regexTokenTypes.put(ABS_KEYWORD_REGEX         , ABS_KEYWORD);
-		regexTokenTypes.put(ABSTRACT_KEYWORD_REGEX    , ABSTRACT_KEYWORD);
-		regexTokenTypes.put(ACCEPT_KEYWORD_REGEX      , ACCEPT_KEYWORD);
-		regexTokenTypes.put(ACCESS_KEYWORD_REGEX      , ACCESS_KEYWORD);
-		regexTokenTypes.put(ALIASED_KEYWORD_REGEX     , ALIASED_KEYWORD);
-		regexTokenTypes.put(ALL_KEYWORD_REGEX         , ALL_KEYWORD);
-		regexTokenTypes.put(AND_KEYWORD_REGEX         , AND_KEYWORD);
-		regexTokenTypes.put(ARRAY_KEYWORD_REGEX       , ARRAY_KEYWORD);
-		regexTokenTypes.put(AT_KEYWORD_REGEX          , AT_KEYWORD);
-		
-		regexTokenTypes.put(BEGIN_KEYWORD_REGEX       , BEGIN_KEYWORD);
-		regexTokenTypes.put(BODY_KEYWORD_REGEX        , BODY_KEYWORD);
-		
-		regexTokenTypes.put(CASE_KEYWORD_REGEX        , CASE_KEYWORD);
-		regexTokenTypes.put(CONSTANT_KEYWORD_REGEX    , CONSTANT_KEYWORD);
-		
-		regexTokenTypes.put(DECLARE_KEYWORD_REGEX     , DECLARE_KEYWORD);
-		regexTokenTypes.put(DELAY_KEYWORD_REGEX       , DELAY_KEYWORD);
-		regexTokenTypes.put(DELTA_KEYWORD_REGEX       , DELTA_KEYWORD);
-		regexTokenTypes.put(DIGITS_KEYWORD_REGEX      , DIGITS_KEYWORD);
-		regexTokenTypes.put(DO_KEYWORD_REGEX          , DO_KEYWORD);
-		
-		regexTokenTypes.put(ELSE_KEYWORD_REGEX        , ELSE_KEYWORD);
-		regexTokenTypes.put(ELSIF_KEYWORD_REGEX       , ELSIF_KEYWORD);
-		regexTokenTypes.put(END_KEYWORD_REGEX         , END_KEYWORD);
-		regexTokenTypes.put(ENTRY_KEYWORD_REGEX       , ENTRY_KEYWORD);
-		regexTokenTypes.put(EXCEPTION_KEYWORD_REGEX   , EXCEPTION_KEYWORD);
-		regexTokenTypes.put(EXIT_KEYWORD_REGEX        , EXIT_KEYWORD);
-		
-		regexTokenTypes.put(FOR_KEYWORD_REGEX         , FOR_KEYWORD);
-		regexTokenTypes.put(FUNCTION_KEYWORD_REGEX    , FUNCTION_KEYWORD);
-		
-		regexTokenTypes.put(GENERIC_KEYWORD_REGEX     , GENERIC_KEYWORD);
-		regexTokenTypes.put(GOTO_KEYWORD_REGEX        , GOTO_KEYWORD);
-		
-		regexTokenTypes.put(IF_KEYWORD_REGEX          , IF_KEYWORD);
-		regexTokenTypes.put(IN_KEYWORD_REGEX          , IN_KEYWORD);
-		regexTokenTypes.put(INTERFACE_KEYWORD_REGEX   , INTERFACE_KEYWORD);
-		regexTokenTypes.put(IS_KEYWORD_REGEX          , IS_KEYWORD);
-		
-		regexTokenTypes.put(LIMITED_KEYWORD_REGEX     , LIMITED_KEYWORD);
-		regexTokenTypes.put(LOOP_KEYWORD_REGEX        , LOOP_KEYWORD);
-		
-		regexTokenTypes.put(MOD_KEYWORD_REGEX         , MOD_KEYWORD);
-		
-		regexTokenTypes.put(NEW_KEYWORD_REGEX         , NEW_KEYWORD);
-		regexTokenTypes.put(NOT_KEYWORD_REGEX         , NOT_KEYWORD);
-		regexTokenTypes.put(NULL_KEYWORD_REGEX        , NULL_KEYWORD);
-		
-		regexTokenTypes.put(OF_KEYWORD_REGEX          , OF_KEYWORD);
-		regexTokenTypes.put(OR_KEYWORD_REGEX          , OR_KEYWORD);
-		regexTokenTypes.put(OTHERS_KEYWORD_REGEX      , OTHERS_KEYWORD);
-		regexTokenTypes.put(OUT_KEYWORD_REGEX         , OUT_KEYWORD);
-		regexTokenTypes.put(OVERRIDING_KEYWORD_REGEX  , OVERRIDING_KEYWORD);
-		
-		regexTokenTypes.put(PACKAGE_KEYWORD_REGEX     , PACKAGE_KEYWORD);
-		regexTokenTypes.put(PRAGMA_KEYWORD_REGEX      , PRAGMA_KEYWORD);
-		regexTokenTypes.put(PRIVATE_KEYWORD_REGEX     , PRIVATE_KEYWORD);
-		regexTokenTypes.put(PROCEDURE_KEYWORD_REGEX   , PROCEDURE_KEYWORD);
-		regexTokenTypes.put(PROTECTED_KEYWORD_REGEX   , PROTECTED_KEYWORD);
-		
-		regexTokenTypes.put(RAISE_KEYWORD_REGEX       , RAISE_KEYWORD);
-		regexTokenTypes.put(RANGE_KEYWORD_REGEX       , RANGE_KEYWORD);
-		regexTokenTypes.put(RECORD_KEYWORD_REGEX      , RECORD_KEYWORD);
-		regexTokenTypes.put(REM_KEYWORD_REGEX         , REM_KEYWORD);
-		regexTokenTypes.put(RENAMES_KEYWORD_REGEX     , RENAMES_KEYWORD);
-		regexTokenTypes.put(REQUEUE_KEYWORD_REGEX     , REQUEUE_KEYWORD);
-		regexTokenTypes.put(RETURN_KEYWORD_REGEX      , RETURN_KEYWORD);
-		regexTokenTypes.put(REVERSE_KEYWORD_REGEX     , REVERSE_KEYWORD);
-		
-		regexTokenTypes.put(SELECT_KEYWORD_REGEX      , SELECT_KEYWORD);
-		regexTokenTypes.put(SEPARATE_KEYWORD_REGEX    , SEPARATE_KEYWORD);
-		regexTokenTypes.put(SOME_KEYWORD_REGEX        , SOME_KEYWORD);
-		regexTokenTypes.put(SUBTYPE_KEYWORD_REGEX     , SUBTYPE_KEYWORD);
-		regexTokenTypes.put(SYNCHRONIZED_KEYWORD_REGEX, SYNCHRONIZED_KEYWORD);
-		
-		regexTokenTypes.put(TAGGED_KEYWORD_REGEX      , TAGGED_KEYWORD);
-		regexTokenTypes.put(TASK_KEYWORD_REGEX        , TASK_KEYWORD);
-		regexTokenTypes.put(TERMINATE_KEYWORD_REGEX   , TERMINATE_KEYWORD);
-		regexTokenTypes.put(THEN_KEYWORD_REGEX        , THEN_KEYWORD);
-		regexTokenTypes.put(TYPE_KEYWORD_REGEX        , TYPE_KEYWORD);
-		
-		regexTokenTypes.put(UNTIL_KEYWORD_REGEX       , UNTIL_KEYWORD);
-		regexTokenTypes.put(USE_KEYWORD_REGEX         , USE_KEYWORD);
-		
-		regexTokenTypes.put(WHEN_KEYWORD_REGEX        , WHEN_KEYWORD);
-		regexTokenTypes.put(WHILE_KEYWORD_REGEX       , WHILE_KEYWORD);
-		regexTokenTypes.put(WITH_KEYWORD_REGEX        , WITH_KEYWORD);
-		
-		regexTokenTypes.put(XOR_KEYWORD_REGEX         , XOR_KEYWORD);
-		
 		REGEX_TOKEN_TYPES = Collections.unmodifiableMap(regexTokenTypes);
 		
+		// Load the automaton shared by all lexer instances, compiled
+		// from the root regexes in the order of the map
+		
+		AUTOMATON = loadAutomaton(AdaLexer.class, REGEX_TOKEN_TYPES);
+		
+		// Populate the keyword -> token-type map
+		
+		Map<String, IElementType> keywordTokenTypes = new HashMap<>();
+		
+		keywordTokenTypes.put(ABORT_KEYWORD.TOKEN_TEXT       , ABORT_KEYWORD);
+		keywordTokenTypes.put(ABS_KEYWORD.TOKEN_TEXT         , ABS_KEYWORD);
+		keywordTokenTypes.put(ABSTRACT_KEYWORD.TOKEN_TEXT    , ABSTRACT_KEYWORD);
+		keywordTokenTypes.put(ACCEPT_KEYWORD.TOKEN_TEXT      , ACCEPT_KEYWORD);
+		keywordTokenTypes.put(ACCESS_KEYWORD.TOKEN_TEXT      , ACCESS_KEYWORD);
+		keywordTokenTypes.put(ALIASED_KEYWORD.TOKEN_TEXT     , ALIASED_KEYWORD);
+		keywordTokenTypes.put(ALL_KEYWORD.TOKEN_TEXT         , ALL_KEYWORD);
+		keywordTokenTypes.put(AND_KEYWORD.TOKEN_TEXT         , AND_KEYWORD);
+		keywordTokenTypes.put(ARRAY_KEYWORD.TOKEN_TEXT       , ARRAY_KEYWORD);
+		keywordTokenTypes.put(AT_KEYWORD.TOKEN_TEXT          , AT_KEYWORD);
+		
+		keywordTokenTypes.put(BEGIN_KEYWORD.TOKEN_TEXT       , BEGIN_KEYWORD);
+		keywordTokenTypes.put(BODY_KEYWORD.TOKEN_TEXT        , BODY_KEYWORD);
+		
+		keywordTokenTypes.put(CASE_KEYWORD.TOKEN_TEXT        , CASE_KEYWORD);
+		keywordTokenTypes.put(CONSTANT_KEYWORD.TOKEN_TEXT    , CONSTANT_KEYWORD);
+		
+		keywordTokenTypes.put(DECLARE_KEYWORD.TOKEN_TEXT     , DECLARE_KEYWORD);
+		keywordTokenTypes.put(DELAY_KEYWORD.TOKEN_TEXT       , DELAY_KEYWORD);
+		keywordTokenTypes.put(DELTA_KEYWORD.TOKEN_TEXT       , DELTA_KEYWORD);
+		keywordTokenTypes.put(DIGITS_KEYWORD.TOKEN_TEXT      , DIGITS_KEYWORD);
+		keywordTokenTypes.put(DO_KEYWORD.TOKEN_TEXT          , DO_KEYWORD);
+		
+		keywordTokenTypes.put(ELSE_KEYWORD.TOKEN_TEXT        , ELSE_KEYWORD);
+		keywordTokenTypes.put(ELSIF_KEYWORD.TOKEN_TEXT       , ELSIF_KEYWORD);
+		keywordTokenTypes.put(END_KEYWORD.TOKEN_TEXT         , END_KEYWORD);
+		keywordTokenTypes.put(ENTRY_KEYWORD.TOKEN_TEXT       , ENTRY_KEYWORD);
+		keywordTokenTypes.put(EXCEPTION_KEYWORD.TOKEN_TEXT   , EXCEPTION_KEYWORD);
+		keywordTokenTypes.put(EXIT_KEYWORD.TOKEN_TEXT        , EXIT_KEYWORD);
+		
+		keywordTokenTypes.put(FOR_KEYWORD.TOKEN_TEXT         , FOR_KEYWORD);
+		keywordTokenTypes.put(FUNCTION_KEYWORD.TOKEN_TEXT    , FUNCTION_KEYWORD);
+		
+		keywordTokenTypes.put(GENERIC_KEYWORD.TOKEN_TEXT     , GENERIC_KEYWORD);
+		keywordTokenTypes.put(GOTO_KEYWORD.TOKEN_TEXT        , GOTO_KEYWORD);
+		
+		keywordTokenTypes.put(IF_KEYWORD.TOKEN_TEXT          , IF_KEYWORD);
+		keywordTokenTypes.put(IN_KEYWORD.TOKEN_TEXT          , IN_KEYWORD);
+		keywordTokenTypes.put(INTERFACE_KEYWORD.TOKEN_TEXT   , INTERFACE_KEYWORD);
+		keywordTokenTypes.put(IS_KEYWORD.TOKEN_TEXT          , IS_KEYWORD);
+		
+		keywordTokenTypes.put(LIMITED_KEYWORD.TOKEN_TEXT     , LIMITED_KEYWORD);
+		keywordTokenTypes.put(LOOP_KEYWORD.TOKEN_TEXT        , LOOP_KEYWORD);
+		
+		keywordTokenTypes.put(MOD_KEYWORD.TOKEN_TEXT         , MOD_KEYWORD);
+		
+		keywordTokenTypes.put(NEW_KEYWORD.TOKEN_TEXT         , NEW_KEYWORD);
+		keywordTokenTypes.put(NOT_KEYWORD.TOKEN_TEXT         , NOT_KEYWORD);
+		keywordTokenTypes.put(NULL_KEYWORD.TOKEN_TEXT        , NULL_KEYWORD);
+		
+		keywordTokenTypes.put(OF_KEYWORD.TOKEN_TEXT          , OF_KEYWORD);
+		keywordTokenTypes.put(OR_KEYWORD.TOKEN_TEXT          , OR_KEYWORD);
+		keywordTokenTypes.put(OTHERS_KEYWORD.TOKEN_TEXT      , OTHERS_KEYWORD);
+		keywordTokenTypes.put(OUT_KEYWORD.TOKEN_TEXT         , OUT_KEYWORD);
+		keywordTokenTypes.put(OVERRIDING_KEYWORD.TOKEN_TEXT  , OVERRIDING_KEYWORD);
+		
+		keywordTokenTypes.put(PACKAGE_KEYWORD.TOKEN_TEXT     , PACKAGE_KEYWORD);
+		keywordTokenTypes.put(PRAGMA_KEYWORD.TOKEN_TEXT      , PRAGMA_KEYWORD);
+		keywordTokenTypes.put(PRIVATE_KEYWORD.TOKEN_TEXT     , PRIVATE_KEYWORD);
+		keywordTokenTypes.put(PROCEDURE_KEYWORD.TOKEN_TEXT   , PROCEDURE_KEYWORD);
+		keywordTokenTypes.put(PROTECTED_KEYWORD.TOKEN_TEXT   , PROTECTED_KEYWORD);
+		
+		keywordTokenTypes.put(RAISE_KEYWORD.TOKEN_TEXT       , RAISE_KEYWORD);
+		keywordTokenTypes.put(RANGE_KEYWORD.TOKEN_TEXT       , RANGE_KEYWORD);
+		keywordTokenTypes.put(RECORD_KEYWORD.TOKEN_TEXT      , RECORD_KEYWORD);
+		keywordTokenTypes.put(REM_KEYWORD.TOKEN_TEXT         , REM_KEYWORD);
+		keywordTokenTypes.put(RENAMES_KEYWORD.TOKEN_TEXT     , RENAMES_KEYWORD);
+		keywordTokenTypes.put(REQUEUE_KEYWORD.TOKEN_TEXT     , REQUEUE_KEYWORD);
+		keywordTokenTypes.put(RETURN_KEYWORD.TOKEN_TEXT      , RETURN_KEYWORD);
+		keywordTokenTypes.put(REVERSE_KEYWORD.TOKEN_TEXT     , REVERSE_KEYWORD);
+		
+		keywordTokenTypes.put(SELECT_KEYWORD.TOKEN_TEXT      , SELECT_KEYWORD);
+		keywordTokenTypes.put(SEPARATE_KEYWORD.TOKEN_TEXT    , SEPARATE_KEYWORD);
+		keywordTokenTypes.put(SOME_KEYWORD.TOKEN_TEXT        , SOME_KEYWORD);
+		keywordTokenTypes.put(SUBTYPE_KEYWORD.TOKEN_TEXT     , SUBTYPE_KEYWORD);
+		keywordTokenTypes.put(SYNCHRONIZED_KEYWORD.TOKEN_TEXT, SYNCHRONIZED_KEYWORD);
+		
+		keywordTokenTypes.put(TAGGED_KEYWORD.TOKEN_TEXT      , TAGGED_KEYWORD);
+		keywordTokenTypes.put(TASK_KEYWORD.TOKEN_TEXT        , TASK_KEYWORD);
+		keywordTokenTypes.put(TERMINATE_KEYWORD.TOKEN_TEXT   , TERMINATE_KEYWORD);
+		keywordTokenTypes.put(THEN_KEYWORD.TOKEN_TEXT        , THEN_KEYWORD);
+		keywordTokenTypes.put(TYPE_KEYWORD.TOKEN_TEXT        , TYPE_KEYWORD);
+		
+		keywordTokenTypes.put(UNTIL_KEYWORD.TOKEN_TEXT       , UNTIL_KEYWORD);
+		keywordTokenTypes.put(USE_KEYWORD.TOKEN_TEXT         , USE_KEYWORD);
+		
+		keywordTokenTypes.put(WHEN_KEYWORD.TOKEN_TEXT        , WHEN_KEYWORD);
+		keywordTokenTypes.put(WHILE_KEYWORD.TOKEN_TEXT       , WHILE_KEYWORD);
+		keywordTokenTypes.put(WITH_KEYWORD.TOKEN_TEXT        , WITH_KEYWORD);
+		
+		keywordTokenTypes.put(XOR_KEYWORD.TOKEN_TEXT         , XOR_KEYWORD);
+		
+		KEYWORDS = new KeywordTable(keywordTokenTypes);
+		
 	}
 	
+	/*
+		Constructors
+	*/
+	
+	/**
+	 * Constructs a new AdaLexer.
+	 */
+	public AdaLexer() { super(); }
+	
+	/**
+	 * Constructs a new AdaLexer using the given engine.
+	 *
+	 * @param engine The engine to use to analyse tokens.
+	 */
+	AdaLexer(@NotNull Engine engine) { super(engine); }
+	
 	/**
 	 * @see com.adacore.adaintellij.analysis.lexical.Lexer#badCharacterTokenType()
 	 */
@@ -454,39 +405,52 @@ public final class AdaLexer extends Lexer {
 	protected Map<LexerRegex, IElementType> regexTokenTypeMap() { return REGEX_TOKEN_TYPES; }
 	
 	/**
-	 * @see com.intellij.lexer.Lexer#advance()
+	 * @see com.adacore.adaintellij.analysis.lexical.Lexer#automaton()
+	 */
+	@NotNull
+	@Override
+	protected LexerAutomaton automaton() { return AUTOMATON; }
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.Lexer#identifierTokenType()
+	 */
+	@NotNull
+	@Override
+	protected IElementType identifierTokenType() { return IDENTIFIER; }
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.Lexer#keywordTable()
+	 */
+	@NotNull
+	@Override
+	protected KeywordTable keywordTable() { return KEYWORDS; }
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.Lexer#stateAfter(IElementType)
+	 */
+	@Override
+	protected int stateAfter(@NotNull IElementType tokenType) {
+		return tokenType == IDENTIFIER ? IDENTIFIER_STATE : BOUNDARY_STATE;
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.Lexer#advanceContextualToken()
 	 */
 	@Override
-	public void advance() {
+	protected boolean advanceContextualToken() {
 		
-		// If the end of the text is reached, then call the
-		// original `advance` method to handle it properly
+		// If the next character is an apostrophe and the last token
+		// was an identifier, then immediately mark this token as an
+		// apostrophe token
 		
-		if (reachedEndOfText()) {
-			super.advance();
-			return;
-		}
+		if (nextCharacter() != '\'' || state != IDENTIFIER_STATE) { return false; }
 		
-		// The next character to be analysed
-		Character nextCharacter = nextCharacter();
+		lexingOffset = tokenEnd = tokenStart + 1;
 		
-		// If the next character is an apostrophe and the last token
-		// was an identifier, then immediately mark this token as an
-		// apostrophe token and return
-		
-		if (nextCharacter != null && nextCharacter == '\'' && getTokenType() == IDENTIFIER) {
-			
-			tokenStart = tokenEnd;
-			
-			lexingOffset = tokenEnd = tokenStart + 1;
-			
-			tokenType = APOSTROPHE;
-			
-			return;
-			
-		}
-		
-		super.advance();
+		tokenType = APOSTROPHE;
+		
+		return true;
 		
 	}
+	
 }
@@ -0,0 +1,461 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.*;
+
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.*;
+
+/**
+ * Headless entry point running the Ada and GPR file lexers of the
+ * plugin over source trees, outside of the IDE (e.g. for CI checks
+ * or corpus statistics). Usage:
+ *
+ * BatchLexer [--token-lists OUTPUT_DIRECTORY] SOURCE_FILE_OR_DIRECTORY...
+ *
+ * Every Ada and GPR file found in the given files and directories is
+ * memory-mapped, decoded as UTF-8 into a buffer reused by the thread
+ * lexing it, and lexed with the lexer for its extension. Files are
+ * lexed in parallel on the common ForkJoin pool.
+ * Token statistics are printed to the standard output, and with the
+ * `--token-lists` option, the tokens of every file are also written
+ * to a token list file in the given output directory, at the path of
+ * the source file relative to the directory it was found in, with
+ * the extension TOKEN_LIST_EXTENSION appended. Token list files have
+ * the format read by the token list parser used by lexer tests.
+ * The exit status is 0 if all files were lexed, 1 if some files
+ * could not be read or written, and 2 if the arguments are invalid.
+ */
+public final class BatchLexer {
+	
+	/*
+		Constants
+	*/
+	
+	/**
+	 * The extensions of the files lexed by the batch lexer.
+	 */
+	static final List<String> SOURCE_EXTENSIONS =
+		Collections.unmodifiableList(Arrays.asList(".ads", ".adb", ".gpr"));
+	
+	/**
+	 * The extension of files lexed by the GPR file lexer rather than
+	 * the Ada lexer.
+	 */
+	private static final String GPR_FILE_EXTENSION = ".gpr";
+	
+	/**
+	 * The extension appended to the names of token list files.
+	 */
+	static final String TOKEN_LIST_EXTENSION = ".token-list";
+	
+	/**
+	 * The option giving the output directory of token list files.
+	 */
+	private static final String TOKEN_LISTS_OPTION = "--token-lists";
+	
+	/**
+	 * The usage message printed when arguments are invalid.
+	 */
+	private static final String USAGE =
+		"Usage: BatchLexer [" + TOKEN_LISTS_OPTION + " OUTPUT_DIRECTORY] SOURCE_FILE_OR_DIRECTORY...";
+	
+	/**
+	 * The UTF-8 decoder of every thread, replacing malformed input
+	 * rather than failing, as lexers mark replacement characters as
+	 * bad characters anyway.
+	 */
+	private static final ThreadLocal<CharsetDecoder> DECODERS =
+		ThreadLocal.withInitial(() -> StandardCharsets.UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE));
+	
+	/**
+	 * The buffer into which every thread decodes files, grown when
+	 * decoding a file larger than its capacity.
+	 */
+	private static final ThreadLocal<CharBuffer> DECODING_BUFFERS =
+		ThreadLocal.withInitial(() -> CharBuffer.allocate(1 << 16));
+	
+	/**
+	 * The Ada and GPR file lexers of every thread.
+	 */
+	private static final ThreadLocal<AdaLexer>     ADA_LEXERS      = ThreadLocal.withInitial(AdaLexer::new);
+	private static final ThreadLocal<GPRFileLexer> GPR_FILE_LEXERS = ThreadLocal.withInitial(GPRFileLexer::new);
+	
+	/**
+	 * Private default constructor to prevent instantiation.
+	 */
+	private BatchLexer() {}
+	
+	/**
+	 * Lexes the source files given as arguments, as described in the
+	 * documentation of this class.
+	 *
+	 * @param args The command-line arguments.
+	 */
+	public static void main(String[] args) {
+		
+		// Parse arguments
+		
+		Path       tokenListDirectory = null;
+		List<Path> roots              = new ArrayList<>();
+		
+		for (int i = 0 ; i < args.length ; i++) {
+			
+			if (!TOKEN_LISTS_OPTION.equals(args[i])) {
+				roots.add(Paths.get(args[i]));
+			} else if (i + 1 < args.length) {
+				tokenListDirectory = Paths.get(args[++i]);
+			} else {
+				roots.clear();
+				break;
+			}
+			
+		}
+		
+		if (roots.isEmpty()) {
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		
+		// Lex the files of every root in parallel, reporting failures
+		// without interrupting the analysis of other files
+		
+		Statistics   statistics = new Statistics();
+		List<String> failures   = Collections.synchronizedList(new ArrayList<>());
+		
+		long startTime = System.nanoTime();
+		
+		for (Path root : roots) {
+			
+			List<Path> files;
+			
+			try {
+				files = sourceFiles(root);
+			} catch (IOException | UncheckedIOException exception) {
+				failures.add(root + ": " + exception.getMessage());
+				continue;
+			}
+			
+			Path outputDirectory = tokenListDirectory;
+			
+			files.parallelStream().forEach(file -> {
+				
+				try {
+					lexFile(file, outputDirectory == null ? null :
+						tokenListFile(outputDirectory, root, file), statistics);
+				} catch (IOException exception) {
+					failures.add(file + ": " + exception);
+				}
+				
+			});
+			
+		}
+		
+		// Report statistics and failures
+		
+		statistics.print(System.out, System.nanoTime() - startTime);
+		
+		if (LexerInstrumentation.ENABLED) {
+			System.out.println();
+			System.out.print(LexerInstrumentation.report());
+		}
+		
+		if (!failures.isEmpty()) {
+			failures.forEach(System.err::println);
+			System.exit(1);
+		}
+		
+	}
+	
+	/**
+	 * Returns the Ada and GPR files in the given file tree, in path
+	 * order. The root of the tree may itself be a source file.
+	 *
+	 * @param root The root of the file tree.
+	 * @return The source files in the tree.
+	 * @throws IOException If the tree cannot be walked.
+	 */
+	@NotNull
+	static List<Path> sourceFiles(@NotNull Path root) throws IOException {
+		
+		try (Stream<Path> paths = Files.walk(root)) {
+			return paths
+				.filter(path -> Files.isRegularFile(path) && isSourceFile(path))
+				.sorted()
+				.collect(Collectors.toList());
+		}
+		
+	}
+	
+	/**
+	 * Returns whether or not the given path has the extension of an Ada
+	 * or GPR file.
+	 *
+	 * @param path The path to check.
+	 * @return Whether or not the path is a source file path.
+	 */
+	private static boolean isSourceFile(@NotNull Path path) {
+		
+		String fileName = path.getFileName().toString();
+		
+		return SOURCE_EXTENSIONS.stream().anyMatch(fileName::endsWith);
+		
+	}
+	
+	/**
+	 * Returns the path of the token list file of the given source file,
+	 * found in the given root, in the given output directory.
+	 *
+	 * @param outputDirectory The output directory of token list files.
+	 * @param root The file or directory in which the source file was found.
+	 * @param file The source file.
+	 * @return The path of the token list file.
+	 */
+	@NotNull
+	static Path tokenListFile(@NotNull Path outputDirectory, @NotNull Path root, @NotNull Path file) {
+		
+		Path relativePath = file.equals(root) ? file.getFileName() : root.relativize(file);
+		
+		return outputDirectory.resolve(relativePath + TOKEN_LIST_EXTENSION);
+		
+	}
+	
+	/**
+	 * Lexes the given source file, adds its tokens to the given
+	 * statistics, and writes them to the given token list file if
+	 * it is not null.
+	 *
+	 * @param file The source file to lex.
+	 * @param tokenListFile The token list file to write, or null.
+	 * @param statistics The statistics to which to add the tokens.
+	 * @return The tokens of the file.
+	 * @throws IOException If the source file cannot be read or if
+	 *                     the token list file cannot be written.
+	 */
+	@NotNull
+	static TokenBuffer lexFile(
+		@NotNull  Path       file,
+		@Nullable Path       tokenListFile,
+		@NotNull  Statistics statistics
+	) throws IOException {
+		
+		CharBuffer text;
+		long       size;
+		
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			
+			size = channel.size();
+			
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("File too large to be lexed: " + size + " bytes");
+			}
+			
+			text = decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+			
+		}
+		
+		Lexer lexer = file.getFileName().toString().endsWith(GPR_FILE_EXTENSION) ?
+			GPR_FILE_LEXERS.get() : ADA_LEXERS.get();
+		
+		lexer.instrument(LexerInstrumentation.fileStatistics(file.toString()));
+		
+		TokenBuffer tokens = Lexer.textTokenBuffer(lexer, text);
+		
+		statistics.add(size, text.length(), tokens);
+		
+		if (tokenListFile != null) { writeTokenList(tokenListFile, file, text, tokens); }
+		
+		return tokens;
+		
+	}
+	
+	/**
+	 * Decodes the given UTF-8 bytes into the decoding buffer of the
+	 * current thread and returns that buffer, which remains valid until
+	 * the next call to this method on the same thread.
+	 *
+	 * @param bytes The bytes to decode.
+	 * @return The decoded characters.
+	 * @throws CharacterCodingException If the bytes cannot be decoded.
+	 */
+	@NotNull
+	private static CharBuffer decode(@NotNull ByteBuffer bytes) throws CharacterCodingException {
+		
+		CharsetDecoder decoder = DECODERS.get().reset();
+		CharBuffer     buffer  = DECODING_BUFFERS.get();
+		
+		// UTF-8 never decodes to more characters than bytes
+		
+		if (buffer.capacity() < bytes.remaining()) {
+			buffer = CharBuffer.allocate(bytes.remaining());
+			DECODING_BUFFERS.set(buffer);
+		}
+		
+		buffer.clear();
+		
+		CoderResult result = decoder.decode(bytes, buffer, true);
+		
+		if (result.isError()) { result.throwException(); }
+		
+		decoder.flush(buffer);
+		buffer.flip();
+		
+		return buffer;
+		
+	}
+	
+	/**
+	 * Writes the given tokens of the given source file to the given
+	 * token list file, one token per line, followed by the text of the
+	 * token as a comment, unless it is whitespace or contains control
+	 * characters.
+	 *
+	 * @param tokenListFile The token list file to write.
+	 * @param file The source file.
+	 * @param text The text of the source file.
+	 * @param tokens The tokens of the source file.
+	 * @throws IOException If the token list file cannot be written.
+	 */
+	private static void writeTokenList(
+		@NotNull Path         tokenListFile,
+		@NotNull Path         file,
+		@NotNull CharSequence text,
+		@NotNull TokenBuffer  tokens
+	) throws IOException {
+		
+		Path directory = tokenListFile.toAbsolutePath().getParent();
+		
+		if (directory != null) { Files.createDirectories(directory); }
+		
+		try (Writer writer = Files.newBufferedWriter(tokenListFile, StandardCharsets.UTF_8)) {
+			
+			writer.write("-- Token list for \"" + file.getFileName() + "\"\n\n");
+			
+			for (TokenBuffer.Cursor cursor = tokens.cursor() ; cursor.hasToken() ; cursor.advance()) {
+				
+				IElementType tokenType = cursor.tokenType();
+				CharSequence tokenText = text.subSequence(cursor.tokenStart(), cursor.tokenEnd());
+				
+				writer.write(String.format("%-22s %6d %6d",
+					tokenName(tokenType), cursor.tokenStart(), cursor.tokenEnd()));
+				
+				if (
+					tokenType != TokenType.WHITE_SPACE &&
+						tokenText.chars().noneMatch(Character::isISOControl)
+				) {
+					writer.write(" -- ");
+					writer.append(tokenText);
+				}
+				
+				writer.write('\n');
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Returns the name of the given token type, as used in token list
+	 * files, that is its debug name without the class prefix added by
+	 * `AdaTokenType.toString` and `GPRFileTokenType.toString`.
+	 *
+	 * @param tokenType The token type.
+	 * @return The name of the token type.
+	 */
+	@NotNull
+	static String tokenName(@NotNull IElementType tokenType) {
+		
+		String name = tokenType.toString();
+		
+		return name.substring(name.lastIndexOf('.') + 1);
+		
+	}
+	
+	/**
+	 * Token statistics of lexed files, which can be updated
+	 * concurrently by threads lexing different files.
+	 */
+	static final class Statistics {
+		
+		/**
+		 * The numbers of lexed files, bytes, characters and tokens.
+		 */
+		final LongAdder FILES      = new LongAdder();
+		final LongAdder BYTES      = new LongAdder();
+		final LongAdder CHARACTERS = new LongAdder();
+		final LongAdder TOKENS     = new LongAdder();
+		
+		/**
+		 * Map associating the names of token types with the number of
+		 * lexed tokens of that type.
+		 */
+		final Map<String, LongAdder> TOKEN_TYPE_COUNTS = new ConcurrentHashMap<>();
+		
+		/**
+		 * Adds the tokens of a lexed file to these statistics.
+		 *
+		 * @param bytes The size of the file, in bytes.
+		 * @param characters The length of the text of the file.
+		 * @param tokens The tokens of the file.
+		 */
+		void add(long bytes, int characters, @NotNull TokenBuffer tokens) {
+			
+			FILES.increment();
+			BYTES.add(bytes);
+			CHARACTERS.add(characters);
+			TOKENS.add(tokens.size());
+			
+			// Count tokens per type locally first, to update the shared
+			// counts once per type rather than once per token
+			
+			Map<String, Integer> tokenTypeCounts = new HashMap<>();
+			
+			for (TokenBuffer.Cursor cursor = tokens.cursor() ; cursor.hasToken() ; cursor.advance()) {
+				tokenTypeCounts.merge(tokenName(cursor.tokenType()), 1, Integer::sum);
+			}
+			
+			tokenTypeCounts.forEach((tokenType, count) ->
+				TOKEN_TYPE_COUNTS.computeIfAbsent(tokenType, type -> new LongAdder()).add(count));
+			
+		}
+		
+		/**
+		 * Prints these statistics to the given stream.
+		 *
+		 * @param output The stream to print to.
+		 * @param elapsedNanoseconds The time taken to lex all files.
+		 */
+		void print(@NotNull PrintStream output, long elapsedNanoseconds) {
+			
+			long elapsedMilliseconds = TimeUnit.NANOSECONDS.toMillis(elapsedNanoseconds);
+			
+			output.println("Files      : " + FILES.sum());
+			output.println("Bytes      : " + BYTES.sum());
+			output.println("Characters : " + CHARACTERS.sum());
+			output.println("Tokens     : " + TOKENS.sum());
+			output.println("Time       : " + elapsedMilliseconds + " ms (" +
+				CHARACTERS.sum() * 1000 / Math.max(1, elapsedMilliseconds) + " characters/s)");
+			output.println();
+			
+			TOKEN_TYPE_COUNTS.entrySet().stream()
+				.sorted(Comparator.comparingLong(
+					(Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed())
+				.forEach(entry -> output.println(
+					String.format("%-22s %12d", entry.getKey(), entry.getValue().sum())));
+			
+		}
+		
+	}
+	
+}
@@ -35,57 +35,25 @@ public final class GPRFileLexer extends Lexer {
 	private static final LexerRegex ARROW_REGEX             = new UnitRegex(ARROW.TOKEN_TEXT);
 	private static final LexerRegex ASSIGNMENT_REGEX        = new UnitRegex(ASSIGNMENT.TOKEN_TEXT);
 	
-	// Keywords
+	// Lexer data
 	
 	/**
-	 * Unit regexes for matching GPR file keywords.
+	 * A map associating root regexes with the token types
+	 * they represent.
 	 */
-	private static final LexerRegex ABSTRACT_KEYWORD_REGEX         = new UnitRegex(ABSTRACT_KEYWORD.TOKEN_TEXT        , 1);
-	private static final LexerRegex ALL_KEYWORD_REGEX              = new UnitRegex(ALL_KEYWORD.TOKEN_TEXT             , 1);
-	private static final LexerRegex AT_KEYWORD_REGEX               = new UnitRegex(AT_KEYWORD.TOKEN_TEXT              , 1);
-	
-	private static final LexerRegex CASE_KEYWORD_REGEX             = new UnitRegex(CASE_KEYWORD.TOKEN_TEXT            , 1);
-	
-	private static final LexerRegex END_KEYWORD_REGEX              = new UnitRegex(END_KEYWORD.TOKEN_TEXT             , 1);
-	private static final LexerRegex EXTENDS_KEYWORD_REGEX          = new UnitRegex(EXTENDS_KEYWORD.TOKEN_TEXT         , 1);
-	private static final LexerRegex EXTERNAL_KEYWORD_REGEX         = new UnitRegex(EXTERNAL_KEYWORD.TOKEN_TEXT        , 1);
-	private static final LexerRegex EXTERNAL_AS_LIST_KEYWORD_REGEX = new UnitRegex(EXTERNAL_AS_LIST_KEYWORD.TOKEN_TEXT, 1);
-	
-	private static final LexerRegex FOR_KEYWORD_REGEX              = new UnitRegex(FOR_KEYWORD.TOKEN_TEXT             , 1);
-	
-	private static final LexerRegex IS_KEYWORD_REGEX               = new UnitRegex(IS_KEYWORD.TOKEN_TEXT              , 1);
-	
-	private static final LexerRegex LIMITED_KEYWORD_REGEX          = new UnitRegex(LIMITED_KEYWORD.TOKEN_TEXT         , 1);
-	
-	private static final LexerRegex NULL_KEYWORD_REGEX             = new UnitRegex(NULL_KEYWORD.TOKEN_TEXT            , 1);
-	
-	private static final LexerRegex OTHERS_KEYWORD_REGEX           = new UnitRegex(OTHERS_KEYWORD.TOKEN_TEXT          , 1);
-	
-	private static final LexerRegex PACKAGE_KEYWORD_REGEX          = new UnitRegex(PACKAGE_KEYWORD.TOKEN_TEXT         , 1);
-	private static final LexerRegex PROJECT_KEYWORD_REGEX          = new UnitRegex(PROJECT_KEYWORD.TOKEN_TEXT         , 1);
-	
-	private static final LexerRegex RENAMES_KEYWORD_REGEX          = new UnitRegex(RENAMES_KEYWORD.TOKEN_TEXT         , 1);
-	
-	private static final LexerRegex TYPE_KEYWORD_REGEX             = new UnitRegex(TYPE_KEYWORD.TOKEN_TEXT            , 1);
-	
-	private static final LexerRegex USE_KEYWORD_REGEX              = new UnitRegex(USE_KEYWORD.TOKEN_TEXT             , 1);
-	
-	private static final LexerRegex WHEN_KEYWORD_REGEX             = new UnitRegex(WHEN_KEYWORD.TOKEN_TEXT            , 1);
-	private static final LexerRegex WITH_KEYWORD_REGEX             = new UnitRegex(WITH_KEYWORD.TOKEN_TEXT            , 1);
+	private static final Map<LexerRegex, IElementType> REGEX_TOKEN_TYPES;
 	
 	/**
-	 * Unit regexes for matching GPR file qualifiers.
+	 * The automaton compiled from the root regexes of the
+	 * regex -> token-type map.
 	 */
-	private static final LexerRegex AGGREGATE_KEYWORD_REGEX        = new UnitRegex(AGGREGATE_KEYWORD.TOKEN_TEXT       , 1);
-	private static final LexerRegex LIBRARY_KEYWORD_REGEX          = new UnitRegex(LIBRARY_KEYWORD.TOKEN_TEXT         , 1);
-	
-	// Lexer data
+	private static final LexerAutomaton AUTOMATON;
 	
 	/**
-	 * A map associating root regexes with the token types
-	 * they represent.
+	 * The table associating keywords with the token types they
+	 * represent, used to classify identifiers.
 	 */
-	private static final Map<LexerRegex, IElementType> REGEX_TOKEN_TYPES;
+	private static final KeywordTable KEYWORDS;
 	
 	/*
 		Static Initializer
@@ -95,7 +63,7 @@ public final class GPRFileLexer extends Lexer {
 		
 		// Populate the regex -> token-type map
 		
-		Map<LexerRegex, IElementType> regexTokenTypes = new HashMap<>();
+		Map<LexerRegex, IElementType> regexTokenTypes = new LinkedHashMap<>();
 		
 		regexTokenTypes.put(WHITESPACES_REGEX             , WHITESPACES);
 		
@@ -117,46 +85,73 @@ public final class GPRFileLexer extends Lexer {
 		
 		regexTokenTypes.put(COMMENT_REGEX                 , COMMENT);
 		
-		regexTokenTypes.put(ABSTRACT_KEYWORD_REGEX        , ABSTRACT_KEYWORD);
-		regexTokenTypes.put(ALL_KEYWORD_REGEX             , ALL_KEYWORD);
-		regexTokenTypes.put(AT_KEYWORD_REGEX              , AT_KEYWORD);
+		REGEX_TOKEN_TYPES = Collections.unmodifiableMap(regexTokenTypes);
 		
-		regexTokenTypes.put(CASE_KEYWORD_REGEX            , CASE_KEYWORD);
+		// Load the automaton shared by all lexer instances, compiled
+		// from the root regexes in the order of the map
 		
-		regexTokenTypes.put(END_KEYWORD_REGEX             , END_KEYWORD);
-		regexTokenTypes.put(EXTENDS_KEYWORD_REGEX         , EXTENDS_KEYWORD);
-		regexTokenTypes.put(EXTERNAL_KEYWORD_REGEX        , EXTERNAL_KEYWORD);
-		regexTokenTypes.put(EXTERNAL_AS_LIST_KEYWORD_REGEX, EXTERNAL_AS_LIST_KEYWORD);
+		AUTOMATON = loadAutomaton(GPRFileLexer.class, REGEX_TOKEN_TYPES);
 		
-		regexTokenTypes.put(FOR_KEYWORD_REGEX             , FOR_KEYWORD);
+		// Populate the keyword -> token-type map
 		
-		regexTokenTypes.put(IS_KEYWORD_REGEX              , IS_KEYWORD);
+		Map<String, IElementType> keywordTokenTypes = new HashMap<>();
 		
-		regexTokenTypes.put(LIMITED_KEYWORD_REGEX         , LIMITED_KEYWORD);
+		keywordTokenTypes.put(ABSTRACT_KEYWORD.TOKEN_TEXT        , ABSTRACT_KEYWORD);
+		keywordTokenTypes.put(ALL_KEYWORD.TOKEN_TEXT             , ALL_KEYWORD);
+		keywordTokenTypes.put(AT_KEYWORD.TOKEN_TEXT              , AT_KEYWORD);
 		
-		regexTokenTypes.put(NULL_KEYWORD_REGEX            , NULL_KEYWORD);
+		keywordTokenTypes.put(CASE_KEYWORD.TOKEN_TEXT            , CASE_KEYWORD);
 		
-		regexTokenTypes.put(OTHERS_KEYWORD_REGEX          , OTHERS_KEYWORD);
+		keywordTokenTypes.put(END_KEYWORD.TOKEN_TEXT             , END_KEYWORD);
+		keywordTokenTypes.put(EXTENDS_KEYWORD.TOKEN_TEXT         , EXTENDS_KEYWORD);
+		keywordTokenTypes.put(EXTERNAL_KEYWORD.TOKEN_TEXT        , EXTERNAL_KEYWORD);
+		keywordTokenTypes.put(EXTERNAL_AS_LIST_KEYWORD.TOKEN_TEXT, EXTERNAL_AS_LIST_KEYWORD);
 		
-		regexTokenTypes.put(PACKAGE_KEYWORD_REGEX         , PACKAGE_KEYWORD);
-		regexTokenTypes.put(PROJECT_KEYWORD_REGEX         , PROJECT_KEYWORD);
+		keywordTokenTypes.put(FOR_KEYWORD.TOKEN_TEXT             , FOR_KEYWORD);
 		
-		regexTokenTypes.put(RENAMES_KEYWORD_REGEX         , RENAMES_KEYWORD);
+		keywordTokenTypes.put(IS_KEYWORD.TOKEN_TEXT              , IS_KEYWORD);
 		
-		regexTokenTypes.put(TYPE_KEYWORD_REGEX            , TYPE_KEYWORD);
+		keywordTokenTypes.put(LIMITED_KEYWORD.TOKEN_TEXT         , LIMITED_KEYWORD);
 		
-		regexTokenTypes.put(USE_KEYWORD_REGEX             , USE_KEYWORD);
+		keywordTokenTypes.put(NULL_KEYWORD.TOKEN_TEXT            , NULL_KEYWORD);
 		
-		regexTokenTypes.put(WHEN_KEYWORD_REGEX            , WHEN_KEYWORD);
-		regexTokenTypes.put(WITH_KEYWORD_REGEX            , WITH_KEYWORD);
+		keywordTokenTypes.put(OTHERS_KEYWORD.TOKEN_TEXT          , OTHERS_KEYWORD);
 		
-		regexTokenTypes.put(AGGREGATE_KEYWORD_REGEX       , AGGREGATE_KEYWORD);
-		regexTokenTypes.put(LIBRARY_KEYWORD_REGEX         , LIBRARY_KEYWORD);
+		keywordTokenTypes.put(PACKAGE_KEYWORD.TOKEN_TEXT         , PACKAGE_KEYWORD);
+		keywordTokenTypes.put(PROJECT_KEYWORD.TOKEN_TEXT         , PROJECT_KEYWORD);
 		
-		REGEX_TOKEN_TYPES = Collections.unmodifiableMap(regexTokenTypes);
+		keywordTokenTypes.put(RENAMES_KEYWORD.TOKEN_TEXT         , RENAMES_KEYWORD);
+		
+		keywordTokenTypes.put(TYPE_KEYWORD.TOKEN_TEXT            , TYPE_KEYWORD);
+		
+		keywordTokenTypes.put(USE_KEYWORD.TOKEN_TEXT             , USE_KEYWORD);
+		
+		keywordTokenTypes.put(WHEN_KEYWORD.TOKEN_TEXT            , WHEN_KEYWORD);
+		keywordTokenTypes.put(WITH_KEYWORD.TOKEN_TEXT            , WITH_KEYWORD);
+		
+		keywordTokenTypes.put(AGGREGATE_KEYWORD.TOKEN_TEXT       , AGGREGATE_KEYWORD);
+		keywordTokenTypes.put(LIBRARY_KEYWORD.TOKEN_TEXT         , LIBRARY_KEYWORD);
+		
+		KEYWORDS = new KeywordTable(keywordTokenTypes);
 		
 	}
 	
+	/*
+		Constructors
+	*/
+	
+	/**
+	 * Constructs a new GPRFileLexer.
+	 */
+	public GPRFileLexer() { super(); }
+	
+	/**
+	 * Constructs a new GPRFileLexer using the given engine.
+	 *
+	 * @param engine The engine to use to analyse tokens.
+	 */
+	GPRFileLexer(@NotNull Engine engine) { super(engine); }
+	
 	/**
 	 * @see com.adacore.adaintellij.analysis.lexical.Lexer#badCharacterTokenType()
 	 */
@@ -171,4 +166,25 @@ public final class GPRFileLexer extends Lexer {
 	@Override
 	protected Map<LexerRegex, IElementType> regexTokenTypeMap() { return REGEX_TOKEN_TYPES; }
 	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.Lexer#automaton()
+	 */
+	@NotNull
+	@Override
+	protected LexerAutomaton automaton() { return AUTOMATON; }
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.Lexer#identifierTokenType()
+	 */
+	@NotNull
+	@Override
+	protected IElementType identifierTokenType() { return IDENTIFIER; }
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.Lexer#keywordTable()
+	 */
+	@NotNull
+	@Override
+	protected KeywordTable keywordTable() { return KEYWORDS; }
+	
 }
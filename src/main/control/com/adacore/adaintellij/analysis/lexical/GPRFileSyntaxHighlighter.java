@@ -6,7 +6,7 @@ import com.intellij.openapi.editor.HighlighterColors;
 import com.intellij.openapi.editor.colors.TextAttributesKey;
 import com.intellij.openapi.fileTypes.SyntaxHighlighter;
 import com.intellij.psi.tree.IElementType;
-import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.*;
 
 import static com.intellij.openapi.editor.colors.TextAttributesKey.createTextAttributesKey;
 
@@ -42,12 +42,50 @@ public final class GPRFileSyntaxHighlighter implements SyntaxHighlighter {
 	private static final TextAttributesKey[] BAD_CHARACTER_KEYS     = new TextAttributesKey[]{ BAD_CHARACTER_COLOR     };
 	private static final TextAttributesKey[] EMPTY_KEYS             = new TextAttributesKey[0];
 	
+	/**
+	 * Whether or not this highlighter highlights a large file
+	 * (see `LargeFileManager`).
+	 */
+	private final boolean LARGE_FILE;
+	
+	/**
+	 * The statistics collected by the lexers of this highlighter, or
+	 * null if they are not instrumented (see `LexerInstrumentation`).
+	 */
+	private final LexerInstrumentation.FileStatistics STATISTICS;
+	
+	/**
+	 * Constructs a new highlighter for files that are not large,
+	 * without lexer instrumentation.
+	 */
+	public GPRFileSyntaxHighlighter() { this(false, null); }
+	
+	/**
+	 * Constructs a new highlighter.
+	 *
+	 * @param largeFile Whether or not the highlighted file is a large file.
+	 * @param statistics The statistics to be collected by the lexers of
+	 *                   this highlighter, or null.
+	 */
+	public GPRFileSyntaxHighlighter(boolean largeFile, @Nullable LexerInstrumentation.FileStatistics statistics) {
+		LARGE_FILE = largeFile;
+		STATISTICS = statistics;
+	}
+	
 	/**
 	 * @see com.intellij.openapi.fileTypes.SyntaxHighlighter#getHighlightingLexer()
 	 */
 	@NotNull
 	@Override
-	public Lexer getHighlightingLexer() { return new GPRFileLexer(); }
+	public Lexer getHighlightingLexer() {
+		
+		GPRFileLexer lexer = new GPRFileLexer();
+		
+		lexer.instrument(STATISTICS);
+		
+		return LARGE_FILE ? GPRFileLexer.largeFileLexer(lexer) : lexer;
+		
+	}
 	
 	/**
 	 * @see com.intellij.openapi.fileTypes.SyntaxHighlighter#getTokenHighlights(IElementType)
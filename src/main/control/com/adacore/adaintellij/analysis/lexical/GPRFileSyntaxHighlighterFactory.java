@@ -6,6 +6,8 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
 
+import com.adacore.adaintellij.file.LargeFileManager;
+
 /**
  * GPR file syntax highlighter factory.
  */
@@ -17,7 +19,14 @@ public final class GPRFileSyntaxHighlighterFactory extends SyntaxHighlighterFact
 	@NotNull
 	@Override
 	public SyntaxHighlighter getSyntaxHighlighter(Project project, VirtualFile virtualFile) {
-		return new GPRFileSyntaxHighlighter();
+		
+		boolean largeFile = LargeFileManager.isLarge(virtualFile);
+		
+		if (largeFile) { LargeFileManager.notifyLargeFile(project, virtualFile); }
+		
+		return new GPRFileSyntaxHighlighter(largeFile,
+			LexerInstrumentation.fileStatistics(virtualFile == null ? null : virtualFile.getPath()));
+		
 	}
 	
 }
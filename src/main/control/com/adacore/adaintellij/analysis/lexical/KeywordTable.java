@@ -0,0 +1,266 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import java.util.*;
+
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.*;
+
+/**
+ * Case-insensitive table of keywords, used by lexers to classify
+ * identifier tokens as keywords once they have been analysed, rather
+ * than having a root regex for every keyword.
+ * The table uses a perfect hash function: every keyword has its own
+ * slot, so that a lookup computes a single hash and compares the
+ * analysed text with at most one keyword, without any allocation.
+ */
+final class KeywordTable {
+	
+	/*
+		Constants
+	*/
+	
+	/**
+	 * The number of multipliers tried for every table size when
+	 * looking for a perfect hash function.
+	 */
+	private static final int MULTIPLIER_ATTEMPTS = 1 << 16;
+	
+	/**
+	 * The maximum number of bits of the slots of the table, beyond which
+	 * the table would be too large to be worth building.
+	 */
+	private static final int MAX_BITS = 30;
+	
+	/*
+		Fields
+	*/
+	
+	/**
+	 * The keyword stored in every slot of the table, or null.
+	 */
+	private final String[] KEYWORDS;
+	
+	/**
+	 * The token type of the keyword stored in every slot of the table.
+	 */
+	private final IElementType[] TOKEN_TYPES;
+	
+	/**
+	 * The multiplier and shift of the perfect hash function: the slot
+	 * of a keyword with hash code `h` is `(h * MULTIPLIER) >>> SHIFT`.
+	 */
+	private final int MULTIPLIER;
+	private final int SHIFT;
+	
+	/**
+	 * The lengths of the shortest and longest keywords, used to reject
+	 * most identifiers without computing their hash.
+	 */
+	private final int MIN_LENGTH;
+	private final int MAX_LENGTH;
+	
+	/*
+		Constructors
+	*/
+	
+	/**
+	 * Constructs a new keyword table given a map associating keywords,
+	 * in lowercase, with their token types.
+	 *
+	 * @param keywordTokenTypes The keyword -> token-type map.
+	 * @throws IllegalArgumentException If a keyword is not in lowercase,
+	 *                                  if two keywords have the same hash
+	 *                                  code, which no hash function can
+	 *                                  then tell apart, or if no perfect
+	 *                                  hash function is found.
+	 */
+	KeywordTable(@NotNull Map<String, IElementType> keywordTokenTypes) {
+		
+		String[] keywords = keywordTokenTypes.keySet().toArray(new String[0]);
+		
+		int[] hashCodes = new int[keywords.length];
+		
+		Map<Integer, String> hashCodeKeywords = new HashMap<>();
+		
+		int minLength = Integer.MAX_VALUE;
+		int maxLength = 0;
+		
+		for (int i = 0 ; i < keywords.length ; i++) {
+			
+			String keyword = keywords[i];
+			
+			if (!keyword.equals(foldedText(keyword))) {
+				throw new IllegalArgumentException("Keyword is not in lowercase: " + keyword);
+			}
+			
+			hashCodes[i] = hashCode(keyword, 0, keyword.length());
+			
+			String collidingKeyword = hashCodeKeywords.put(hashCodes[i], keyword);
+			
+			if (collidingKeyword != null) {
+				throw new IllegalArgumentException(
+					"Keywords have the same hash code: " + collidingKeyword + ", " + keyword);
+			}
+			
+			minLength = Math.min(minLength, keyword.length());
+			maxLength = Math.max(maxLength, keyword.length());
+			
+		}
+		
+		// Look for a multiplier that maps every keyword to its own slot,
+		// starting with a table at least twice as large as the number
+		// of keywords and doubling its size until such a multiplier
+		// is found
+		
+		int bits = 1;
+		
+		while (1 << bits < 2 * keywords.length) { bits++; }
+		
+		int multiplier;
+		
+		search:
+		while (true) {
+			
+			multiplier = 0x9e3779b1;
+			
+			for (int attempt = 0 ; attempt < MULTIPLIER_ATTEMPTS ; attempt++) {
+				
+				if (isPerfect(hashCodes, multiplier, Integer.SIZE - bits)) { break search; }
+				
+				multiplier += 2;
+				
+			}
+			
+			bits++;
+			
+			if (bits > MAX_BITS) {
+				throw new IllegalArgumentException(
+					"No perfect hash function found for keywords: " + Arrays.toString(keywords));
+			}
+			
+		}
+		
+		MULTIPLIER  = multiplier;
+		SHIFT       = Integer.SIZE - bits;
+		MIN_LENGTH  = minLength;
+		MAX_LENGTH  = maxLength;
+		KEYWORDS    = new String[1 << bits];
+		TOKEN_TYPES = new IElementType[1 << bits];
+		
+		for (int i = 0 ; i < keywords.length ; i++) {
+			
+			int slot = (hashCodes[i] * MULTIPLIER) >>> SHIFT;
+			
+			KEYWORDS[slot]    = keywords[i];
+			TOKEN_TYPES[slot] = keywordTokenTypes.get(keywords[i]);
+			
+		}
+		
+	}
+	
+	/*
+		Methods
+	*/
+	
+	/**
+	 * Returns whether or not the hash function with the given multiplier
+	 * and shift maps every one of the given hash codes to its own slot.
+	 *
+	 * @param hashCodes The hash codes of the keywords.
+	 * @param multiplier The multiplier of the hash function.
+	 * @param shift The shift of the hash function.
+	 * @return Whether or not the hash function is perfect.
+	 */
+	private static boolean isPerfect(@NotNull int[] hashCodes, int multiplier, int shift) {
+		
+		BitSet slots = new BitSet();
+		
+		for (int hashCode : hashCodes) {
+			
+			int slot = (hashCode * multiplier) >>> shift;
+			
+			if (slots.get(slot)) { return false; }
+			
+			slots.set(slot);
+			
+		}
+		
+		return true;
+		
+	}
+	
+	/**
+	 * Returns the hash code of the given range of the given text,
+	 * with every character folded to lowercase.
+	 *
+	 * @param text The text containing the characters to hash.
+	 * @param startOffset The start offset of the range.
+	 * @param endOffset The end offset of the range.
+	 * @return The hash code of the range.
+	 */
+	private static int hashCode(@NotNull CharSequence text, int startOffset, int endOffset) {
+		
+		int hashCode = 0;
+		
+		for (int offset = startOffset ; offset < endOffset ; offset++) {
+			hashCode = 31 * hashCode + Lexer.foldedCharacter(text.charAt(offset));
+		}
+		
+		return hashCode;
+		
+	}
+	
+	/**
+	 * Returns the given text with every character folded to lowercase,
+	 * the way lexers fold characters.
+	 *
+	 * @param text The text to fold.
+	 * @return The folded text.
+	 */
+	@NotNull
+	private static String foldedText(@NotNull String text) {
+		
+		char[] characters = text.toCharArray();
+		
+		for (int i = 0 ; i < characters.length ; i++) {
+			characters[i] = Lexer.foldedCharacter(characters[i]);
+		}
+		
+		return new String(characters);
+		
+	}
+	
+	/**
+	 * Returns the token type of the keyword spelled by the given range
+	 * of the given text, case-insensitively, or null if that range
+	 * does not spell any keyword.
+	 *
+	 * @param text The text containing the range.
+	 * @param startOffset The start offset of the range.
+	 * @param endOffset The end offset of the range.
+	 * @return The token type of the keyword, or null.
+	 */
+	@Nullable
+	IElementType tokenType(@NotNull CharSequence text, int startOffset, int endOffset) {
+		
+		int length = endOffset - startOffset;
+		
+		if (length < MIN_LENGTH || length > MAX_LENGTH) { return null; }
+		
+		int slot = (hashCode(text, startOffset, endOffset) * MULTIPLIER) >>> SHIFT;
+		
+		String keyword = KEYWORDS[slot];
+		
+		if (keyword == null || keyword.length() != length) { return null; }
+		
+		for (int i = 0 ; i < length ; i++) {
+			if (Lexer.foldedCharacter(text.charAt(startOffset + i)) != keyword.charAt(i)) {
+				return null;
+			}
+		}
+		
+		return TOKEN_TYPES[slot];
+		
+	}
+	
+}
@@ -1,9 +1,14 @@
 package com.adacore.adaintellij.analysis.lexical;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 import com.intellij.lexer.LexerBase;
+import com.intellij.lexer.MergingLexerAdapter;
 import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import com.intellij.util.text.CharArrayUtil;
 import org.jetbrains.annotations.*;
 
 import com.adacore.adaintellij.analysis.lexical.regex.*;
@@ -17,6 +22,45 @@ abstract class Lexer extends LexerBase {
 		Constants
 	*/
 	
+	/**
+	 * Value returned by `nextCharacter` when there is no next character.
+	 */
+	protected static final int NO_CHARACTER = -1;
+	
+	/**
+	 * The state of a lexer at the start of a token that does not depend
+	 * on the tokens before it. Lexers that do not need any context to
+	 * analyse tokens are always in this state.
+	 */
+	protected static final int BOUNDARY_STATE = 0;
+	
+	/**
+	 * Whether or not lexer automata fold characters to lowercase, which
+	 * they do as lexing is case-insensitive (see `automaton`).
+	 */
+	static final boolean CASE_INSENSITIVE_AUTOMATA = true;
+	
+	/**
+	 * The minimum size, in characters, of the chunks into which
+	 * `parallelTextTokens` splits texts to analyse them in parallel.
+	 * Texts smaller than this are analysed sequentially.
+	 */
+	static final int MIN_PARALLEL_CHUNK_SIZE = 1 << 16;
+	
+	/**
+	 * Value returned by the bulk scanners (see `advanceByScanner`) when
+	 * they cannot analyse the next token.
+	 */
+	private static final int NOT_SCANNED = -1;
+	
+	/**
+	 * Bit mask of the whitespace characters below 64 (those matched by
+	 * WHITESPACES_REGEX, except the next-line and no-break-space
+	 * characters), used by `isWhitespace`.
+	 */
+	private static final long WHITESPACE_MASK =
+		1L << '\t' | 1L << '\n' | 1L << '\u000b' | 1L << '\f' | 1L << '\r' | 1L << ' ';
+	
 	// Whitespaces
 	
 	/**
@@ -88,13 +132,13 @@ abstract class Lexer extends LexerBase {
 		);
 	
 	protected static final LexerRegex OTHER_CONTROL_REGEX =
-		new IntersectionRegex(
+		IntersectionRegex.fromRegexes(
 			new GeneralCategoryRegex("Cc"),
-			new NotRegex(FORMAT_EFFECTOR_REGEX)
+			NotRegex.fromRegex(FORMAT_EFFECTOR_REGEX)
 		);
 	
 	protected static final LexerRegex GRAPHIC_CHARACTER_REGEX =
-		new NotRegex(
+		NotRegex.fromRegex(
 			UnionRegex.fromRegexes(
 				OTHER_CONTROL_REGEX,
 				OTHER_PRIVATE_USE_REGEX,
@@ -118,15 +162,8 @@ abstract class Lexer extends LexerBase {
 	 *   | letter_other
 	 *   | number_letter
 	 */
-	private static final LexerRegex IDENTIFIER_START_REGEX =
-		UnionRegex.fromRegexes(
-			LETTER_UPPERCASE_REGEX,
-			LETTER_LOWERCASE_REGEX,
-			LETTER_TITLECASE_REGEX,
-			LETTER_MODIFIER_REGEX,
-			LETTER_OTHER_REGEX,
-			NUMBER_LETTER_REGEX
-		);
+	private static final GeneralCategoryRegex IDENTIFIER_START_REGEX =
+		GeneralCategoryRegex.fromCategories("Lu", "Ll", "Lt", "Lm", "Lo", "Nl");
 	
 	/**
 	 * Regex defining the additional character categories allowed
@@ -138,13 +175,8 @@ abstract class Lexer extends LexerBase {
 	 *   | number_decimal
 	 *   | punctuation_connector
 	 */
-	private static final LexerRegex IDENTIFIER_EXTEND_REGEX =
-		UnionRegex.fromRegexes(
-			MARK_NON_SPACING_REGEX,
-			MARK_SPACING_COMBINING_REGEX,
-			NUMBER_DECIMAL_REGEX,
-			PUNCTUATION_CONNECTOR_REGEX
-		);
+	private static final GeneralCategoryRegex IDENTIFIER_EXTEND_REGEX =
+		GeneralCategoryRegex.fromCategories("Mn", "Mc", "Nd", "Pc");
 	
 	/**
 	 * Regex defining an Ada identifier.
@@ -156,7 +188,7 @@ abstract class Lexer extends LexerBase {
 		new ConcatenationRegex(
 			IDENTIFIER_START_REGEX,
 			new ZeroOrMoreRegex(
-				new UnionRegex(
+				GeneralCategoryRegex.fromRegexes(
 					IDENTIFIER_START_REGEX,
 					IDENTIFIER_EXTEND_REGEX
 				)
@@ -169,7 +201,7 @@ abstract class Lexer extends LexerBase {
 	 * Regex defining a non-end-of-line character (useed to define comments).
 	 */
 	private static final LexerRegex NON_END_OF_LINE_CHARACTER_REGEX =
-		new NotRegex(
+		NotRegex.fromRegex(
 			UnionRegex.fromRegexes(
 				LINE_FEED_REGEX,
 				VERTICAL_TABULATION_REGEX,
@@ -202,9 +234,9 @@ abstract class Lexer extends LexerBase {
 	 * graphic_character other than the quotation mark character '"'
 	 */
 	private static final LexerRegex NON_QUOTATION_MARK_GRAPHIC_CHARACTER_REGEX =
-		new IntersectionRegex(
+		IntersectionRegex.fromRegexes(
 			GRAPHIC_CHARACTER_REGEX,
-			new NotRegex(new UnitRegex("\""))
+			NotRegex.fromRegex(new UnitRegex("\""))
 		);
 	
 	/**
@@ -239,9 +271,53 @@ abstract class Lexer extends LexerBase {
 	private final Map<LexerRegex, IElementType> REGEX_TOKEN_TYPES;
 	
 	/**
-	 * The set of all root regexes (defined above).
+	 * The root regexes (defined above), in the iteration order of
+	 * the regex -> token-type map.
+	 */
+	private final LexerRegex[] ROOT_REGEXES;
+	
+	/**
+	 * The token types of the root regexes, in the iteration order of
+	 * the regex -> token-type map, which is also the order of the roots
+	 * of the lexer automaton.
 	 */
-	private final Set<LexerRegex> ROOT_REGEXES;
+	private final IElementType[] ROOT_TOKEN_TYPES;
+	
+	/**
+	 * The indices of the root regexes matched by the bulk scanners
+	 * (see `advanceByScanner`), or LexerAutomaton.NO_ROOT for those
+	 * that are not root regexes of this lexer.
+	 */
+	private final int WHITESPACES_ROOT;
+	private final int COMMENT_ROOT;
+	private final int STRING_LITERAL_ROOT;
+	
+	/**
+	 * The engine used by this lexer to analyse tokens.
+	 */
+	private final Engine ENGINE;
+	
+	// Derivative engine data
+	
+	/**
+	 * The regexes that successfully advanced so far during the analysis
+	 * of a token by the derivative engine, and the indices of the root
+	 * regexes they respectively originate from, only the first
+	 * `activeCount` elements being used.
+	 * These arrays are allocated once per lexer so that analysing
+	 * a token does not allocate any memory.
+	 */
+	private final LexerRegex[] ACTIVE_REGEXES;
+	private final int[]        ACTIVE_ROOTS;
+	
+	/**
+	 * The last regexes, resulting from a step of the derivative engine,
+	 * among which at least one was nullable, and the indices of the root
+	 * regexes they respectively originate from, only the first
+	 * `matchingCount` elements being used.
+	 */
+	private final LexerRegex[] MATCHING_REGEXES;
+	private final int[]        MATCHING_ROOTS;
 	
 	/*
 		Instance Initializer
@@ -253,21 +329,65 @@ abstract class Lexer extends LexerBase {
 		
 		REGEX_TOKEN_TYPES = Collections.unmodifiableMap(regexTokenTypeMap());
 		
-		// Set the root regexes set from the regex -> token-type map's keyset
+		// Set the root regexes from the regex -> token-type map's keyset
+		
+		ROOT_REGEXES = REGEX_TOKEN_TYPES.keySet().toArray(new LexerRegex[0]);
+		
+		// Set the root token types in the order of the root regexes
 		
-		ROOT_REGEXES = Collections.unmodifiableSet(REGEX_TOKEN_TYPES.keySet());
+		ROOT_TOKEN_TYPES = REGEX_TOKEN_TYPES.values().toArray(new IElementType[0]);
+		
+		// Find the roots matched by the bulk scanners
+		
+		List<LexerRegex> rootRegexes = Arrays.asList(ROOT_REGEXES);
+		
+		WHITESPACES_ROOT    = rootRegexes.indexOf(WHITESPACES_REGEX);
+		COMMENT_ROOT        = rootRegexes.indexOf(COMMENT_REGEX);
+		STRING_LITERAL_ROOT = rootRegexes.indexOf(STRING_LITERAL_REGEX);
+		
+		// Allocate the derivative engine arrays
+		
+		ACTIVE_REGEXES   = new LexerRegex[ROOT_REGEXES.length];
+		ACTIVE_ROOTS     = new int[ROOT_REGEXES.length];
+		MATCHING_REGEXES = new LexerRegex[ROOT_REGEXES.length];
+		MATCHING_ROOTS   = new int[ROOT_REGEXES.length];
 		
 	}
 	
+	/*
+		Constructors
+	*/
+	
+	/**
+	 * Constructs a new lexer using the automaton engine.
+	 */
+	Lexer() { this(Engine.AUTOMATON); }
+	
+	/**
+	 * Constructs a new lexer using the given engine.
+	 *
+	 * @param engine The engine to use to analyse tokens.
+	 */
+	Lexer(@NotNull Engine engine) { ENGINE = engine; }
+	
 	/*
 		Fields
 	*/
 	
 	/**
-	 * The lowercase version of the text to be analysed.
+	 * The text to be analysed. Lexing is case-insensitive, but the
+	 * text is never copied: case is folded character by character.
 	 */
 	protected CharSequence text;
 	
+	/**
+	 * The characters of the text to be analysed if the text is backed
+	 * by a character array that can be accessed without copying it,
+	 * or null otherwise. Used by the bulk scanners to read characters
+	 * directly from the array.
+	 */
+	private char[] textArray;
+	
 	/**
 	 * The end of the lexing range.
 	 */
@@ -279,7 +399,7 @@ abstract class Lexer extends LexerBase {
 	protected int lexingOffset;
 	
 	/**
-	 * The current state of the Lexer.
+	 * The state of the Lexer at the start of the last analysed token.
 	 */
 	protected int state;
 	
@@ -298,10 +418,37 @@ abstract class Lexer extends LexerBase {
 	 */
 	protected int tokenEnd;
 	
+	/**
+	 * The statistics to which this lexer adds the tokens it analyses,
+	 * or null if this lexer is not instrumented (see `instrument`).
+	 */
+	private LexerInstrumentation.FileStatistics statistics;
+	
+	/**
+	 * The numbers of derivative calls made, automaton transitions taken
+	 * and characters rolled back while analysing the last token, only
+	 * counted if instrumentation is enabled.
+	 */
+	private long derivativeCalls;
+	private long automatonTransitions;
+	private int  rollback;
+	
 	/*
 		Methods
 	*/
 	
+	/**
+	 * Sets the statistics to which this lexer adds the tokens it
+	 * analyses from now on, or stops collecting statistics if null is
+	 * given. Statistics are only collected if instrumentation is enabled
+	 * (see `LexerInstrumentation`).
+	 *
+	 * @param statistics The statistics to collect, or null.
+	 */
+	public void instrument(@Nullable LexerInstrumentation.FileStatistics statistics) {
+		this.statistics = statistics;
+	}
+	
 	/**
 	 * Returns the token type to use for lexically invalid characters.
 	 *
@@ -319,6 +466,102 @@ abstract class Lexer extends LexerBase {
 	@NotNull
 	protected abstract Map<LexerRegex, IElementType> regexTokenTypeMap();
 	
+	/**
+	 * Returns the automaton compiled from the root regexes of this
+	 * lexer, in the iteration order of the map returned by
+	 * `regexTokenTypeMap`, as a case-insensitive automaton.
+	 * Implementations are expected to load the automaton once, using
+	 * `loadAutomaton`, and share it between lexer instances.
+	 *
+	 * @return The automaton of this lexer.
+	 */
+	@NotNull
+	protected abstract LexerAutomaton automaton();
+	
+	/**
+	 * Returns the case-insensitive automaton of the given lexer class,
+	 * compiled from the root regexes of the given regex -> token-type
+	 * map in the iteration order of the map.
+	 * The automaton is read from the tables generated at build time by
+	 * `LexerAutomatonGenerator` and packaged next to the lexer class,
+	 * so that lexers do not compile their automaton at startup. If the
+	 * tables are missing or do not match the root regexes anymore, the
+	 * automaton is compiled instead.
+	 *
+	 * @param lexerClass The lexer class.
+	 * @param regexTokenTypes The regex -> token-type map of the lexer.
+	 * @return The automaton of the lexer.
+	 */
+	@NotNull
+	static LexerAutomaton loadAutomaton(
+		@NotNull Class<? extends Lexer>        lexerClass,
+		@NotNull Map<LexerRegex, IElementType> regexTokenTypes
+	) {
+		return LexerAutomaton.load(
+			lexerClass.getResourceAsStream(automatonTablesName(lexerClass)),
+			new ArrayList<>(regexTokenTypes.keySet()),
+			CASE_INSENSITIVE_AUTOMATA
+		);
+	}
+	
+	/**
+	 * Returns the name of the resource containing the automaton tables
+	 * of the given lexer class, relative to the package of that class.
+	 *
+	 * @param lexerClass The lexer class.
+	 * @return The name of the automaton tables resource.
+	 */
+	@NotNull
+	static String automatonTablesName(@NotNull Class<? extends Lexer> lexerClass) {
+		return lexerClass.getSimpleName() + ".automaton";
+	}
+	
+	/**
+	 * Returns the token type of identifiers for this lexer. Identifier
+	 * tokens whose text is a keyword of the table returned by
+	 * `keywordTable` are analysed as that keyword instead.
+	 *
+	 * @return The identifier token type of this lexer.
+	 */
+	@NotNull
+	protected abstract IElementType identifierTokenType();
+	
+	/**
+	 * Returns the table of keywords of this lexer. Keywords are not
+	 * root regexes of this lexer, but are recognized among identifiers
+	 * once they have been analysed, which keeps the root regexes (and
+	 * the automaton) small. Implementations are expected to build the
+	 * table once and share it between lexer instances.
+	 *
+	 * @return The keyword table of this lexer.
+	 */
+	@NotNull
+	protected abstract KeywordTable keywordTable();
+	
+	/**
+	 * Returns the state of this lexer at the start of the token that
+	 * follows a token of the given type.
+	 * Every piece of context that affects the analysis of a token must
+	 * be encoded in the state at the start of that token, so that
+	 * lexing can be restarted at any token boundary given the state
+	 * returned by `getState` for the token starting at that boundary.
+	 * By default, tokens do not depend on the tokens before them.
+	 *
+	 * @param tokenType The type of the previous token.
+	 * @return The state at the start of the next token.
+	 */
+	protected int stateAfter(@NotNull IElementType tokenType) { return BOUNDARY_STATE; }
+	
+	/**
+	 * Analyses the next token, starting at `tokenStart`, if it cannot be
+	 * analysed by the root regexes alone because it depends on the state
+	 * of this lexer (see `stateAfter`), and returns whether or not such
+	 * a token was analysed. By default, no token depends on the state.
+	 *
+	 * @return Whether or not the next token was analysed.
+	 */
+	protected boolean advanceContextualToken() { return false; }
+	
 	/**
 	 * Returns whether or not this lexer has reached the end of
 	 * the text being analysed.
@@ -330,14 +573,33 @@ abstract class Lexer extends LexerBase {
 	}
 	
 	/**
-	 * Returns the next character to be analysed.
+	 * Returns the next character to be analysed, or NO_CHARACTER if
+	 * there is no such character.
 	 *
 	 * @return The next character to be analysed.
 	 */
-	@Nullable
-	protected Character nextCharacter() {
+	protected int nextCharacter() {
 		return lexingOffset < 0 || lexingOffset >= lexingEndOffset ?
-			null : text.charAt(lexingOffset);
+			NO_CHARACTER : text.charAt(lexingOffset);
+	}
+	
+	/**
+	 * Returns the given character folded to lowercase, the way lexers
+	 * fold characters as lexing is case-insensitive. This is equivalent
+	 * to `Character.toLowerCase`, with a fast path for ASCII characters.
+	 *
+	 * @param character The character to fold.
+	 * @return The folded character.
+	 */
+	static char foldedCharacter(char character) {
+		
+		if (character < 0x80) {
+			return character >= 'A' && character <= 'Z' ?
+				(char)(character + ('a' - 'A')) : character;
+		}
+		
+		return Character.toLowerCase(character);
+		
 	}
 	
 	/**
@@ -364,7 +626,8 @@ abstract class Lexer extends LexerBase {
 		
 		// Initialize lexer fields
 		
-		text            = buffer.toString().toLowerCase(Locale.ROOT);
+		text            = buffer;
+		textArray       = CharArrayUtil.fromSequenceWithoutCopying(buffer);
 		
 		lexingEndOffset = endOffset;
 		lexingOffset    = startOffset;
@@ -414,21 +677,359 @@ abstract class Lexer extends LexerBase {
 	@Override
 	public void advance() {
 		
-		// If the end of the text is reached, set the token type to null
-		// and return
+		// If the end of the text is reached, set the token type to null,
+		// move the token start to the end of the text and return
 		// Note: It is important to set the token type to null as IntelliJ
 		//       seems to rely on this to conclude its token fetching
-		//       procedure properly
+		//       procedure properly, and lexer adapters wrapping this lexer
+		//       (see `largeFileLexer`) rely on the token start to find the
+		//       end of the last token
 		
 		if (reachedEndOfText()) {
-			tokenType = null;
+			tokenType  = null;
+			tokenStart = tokenEnd;
 			return;
 		}
 		
+		// Set the state at the start of the next token from the type of
+		// the previous one, unless this is the first token, in which case
+		// the state is the initial state given to `start`
+		
+		if (tokenType != null) { state = stateAfter(tokenType); }
+		
 		// Set the start of the next token to the end of the previous one
 		
 		tokenStart = tokenEnd;
 		
+		// Analyse the next token, collecting statistics on the way if
+		// this lexer is instrumented
+		
+		if (LexerInstrumentation.ENABLED && statistics != null) {
+			advanceInstrumentedToken();
+		} else {
+			advanceToken();
+		}
+		
+	}
+	
+	/**
+	 * Analyses the next token, starting at `tokenStart`.
+	 */
+	private void advanceToken() {
+		
+		// Analyse the next token if it depends on the state of the lexer
+		
+		if (advanceContextualToken()) { return; }
+		
+		// Analyse the next token using the engine of this lexer, with the
+		// bulk scanners analysing whitespaces, comments and string literals
+		// in front of the automaton
+		
+		if (ENGINE == Engine.AUTOMATON) {
+			if (!advanceByScanner()) { advanceByAutomaton(); }
+		} else {
+			advanceByDerivatives();
+		}
+		
+		// If the token is an identifier, then check whether
+		// it is actually a keyword
+		
+		if (tokenType == identifierTokenType()) {
+			
+			IElementType keywordTokenType = keywordTable().tokenType(text, tokenStart, tokenEnd);
+			
+			if (keywordTokenType != null) { tokenType = keywordTokenType; }
+			
+		}
+		
+	}
+	
+	/**
+	 * Analyses the next token, starting at `tokenStart`, and adds it to
+	 * the statistics of this lexer along with the work done to analyse
+	 * it (see `LexerInstrumentation`).
+	 */
+	private void advanceInstrumentedToken() {
+		
+		derivativeCalls      = 0;
+		automatonTransitions = 0;
+		rollback             = 0;
+		
+		long internedRegexCount = LexerRegex.internedRegexCount();
+		long startTime          = System.nanoTime();
+		
+		advanceToken();
+		
+		statistics.addToken(
+			tokenType,
+			tokenEnd - tokenStart,
+			System.nanoTime() - startTime,
+			derivativeCalls,
+			automatonTransitions,
+			LexerRegex.internedRegexCount() - internedRegexCount,
+			rollback
+		);
+		
+	}
+	
+	/**
+	 * Analyses the next token, starting at `tokenStart`, if it is a
+	 * sequence of whitespaces, a comment or a string literal, by scanning
+	 * the text in a loop specialized for that kind of token, and returns
+	 * whether or not such a token was analysed. These tokens are among
+	 * the longest and most frequent ones, especially in heavily commented
+	 * code, and do not need the generality of the automaton.
+	 * Scanners produce exactly the tokens that the automaton would, which
+	 * relies on the fact that no other root regex matches a sequence
+	 * starting with a whitespace, "--" or '"', which holds for both the
+	 * Ada and GPR lexers. When a scanner cannot tell the extent of a token
+	 * by itself (an unterminated string literal, for example, which
+	 * results in bad characters), it leaves the token to the automaton.
+	 *
+	 * @return Whether or not the next token was analysed.
+	 */
+	private boolean advanceByScanner() {
+		
+		int character = characterAt(lexingOffset);
+		int root;
+		int end;
+		
+		if (isWhitespace(character)) {
+			root = WHITESPACES_ROOT;
+			end  = root == LexerAutomaton.NO_ROOT ? NOT_SCANNED : scanWhitespaces(lexingOffset);
+		} else if (character == '-') {
+			root = COMMENT_ROOT;
+			end  = root == LexerAutomaton.NO_ROOT ? NOT_SCANNED : scanComment(lexingOffset);
+		} else if (character == '"') {
+			root = STRING_LITERAL_ROOT;
+			end  = root == LexerAutomaton.NO_ROOT ? NOT_SCANNED : scanStringLiteral(lexingOffset);
+		} else {
+			return false;
+		}
+		
+		if (end == NOT_SCANNED) { return false; }
+		
+		tokenType    = ROOT_TOKEN_TYPES[root];
+		lexingOffset = tokenEnd = end;
+		
+		return true;
+		
+	}
+	
+	/**
+	 * Returns the end of the sequence of whitespaces starting at
+	 * the given offset.
+	 *
+	 * @param offset The offset of the first whitespace.
+	 * @return The end of the sequence of whitespaces.
+	 */
+	private int scanWhitespaces(int offset) {
+		
+		do { offset++; } while (offset < lexingEndOffset && isWhitespace(characterAt(offset)));
+		
+		return offset;
+		
+	}
+	
+	/**
+	 * Returns the end of the comment starting at the given offset, that
+	 * is the offset of the next end-of-line character or the end of the
+	 * text, or NOT_SCANNED if the "-" character at the given offset does
+	 * not start a comment.
+	 *
+	 * @param offset The offset of the first "-" character.
+	 * @return The end of the comment, or NOT_SCANNED.
+	 */
+	private int scanComment(int offset) {
+		
+		if (offset + 1 >= lexingEndOffset || characterAt(offset + 1) != '-') { return NOT_SCANNED; }
+		
+		offset += 2;
+		
+		while (offset < lexingEndOffset && !isEndOfLine(characterAt(offset))) { offset++; }
+		
+		return offset;
+		
+	}
+	
+	/**
+	 * Returns the end of the string literal starting at the given offset,
+	 * or NOT_SCANNED if the quotation mark at the given offset does not
+	 * start a valid string literal.
+	 * A quotation mark followed by another one is either the end of the
+	 * literal or, if the literal goes on, a `""` string element, so the
+	 * longest literal is the one ending at the last quotation mark before
+	 * the first character that cannot be part of the literal.
+	 *
+	 * @param offset The offset of the opening quotation mark.
+	 * @return The end of the string literal, or NOT_SCANNED.
+	 */
+	private int scanStringLiteral(int offset) {
+		
+		int acceptedEnd = NOT_SCANNED;
+		
+		offset++;
+		
+		while (offset < lexingEndOffset) {
+			
+			char character = characterAt(offset++);
+			
+			if (character == '"') {
+				
+				// Unless the quotation mark is doubled, the literal ends here
+				
+				if (offset == lexingEndOffset || characterAt(offset) != '"') { return offset; }
+				
+				acceptedEnd = offset++;
+				
+			} else if (!isGraphic(character)) {
+				
+				break;
+				
+			}
+			
+		}
+		
+		return acceptedEnd;
+		
+	}
+	
+	/**
+	 * Returns the character at the given offset in the text being
+	 * analysed, reading it from the underlying array if there is one.
+	 *
+	 * @param offset The offset of the character.
+	 * @return The character.
+	 */
+	private char characterAt(int offset) {
+		return textArray != null ? textArray[offset] : text.charAt(offset);
+	}
+	
+	/**
+	 * Returns whether or not the given character is matched by
+	 * WHITESPACES_REGEX.
+	 *
+	 * @param character The character to check.
+	 * @return Whether or not the character is a whitespace.
+	 */
+	private static boolean isWhitespace(int character) {
+		return character < 64 ? (WHITESPACE_MASK & 1L << character) != 0 :
+			character == '\u0085' || character == '\u00a0';
+	}
+	
+	/**
+	 * Returns whether or not the given character is an end-of-line
+	 * character, that is a character not matched by
+	 * NON_END_OF_LINE_CHARACTER_REGEX.
+	 *
+	 * @param character The character to check.
+	 * @return Whether or not the character is an end of line.
+	 */
+	private static boolean isEndOfLine(char character) {
+		return character <= '\r' ? character >= '\n' :
+			character == '\u0085' || character == '\u2028' || character == '\u2029';
+	}
+	
+	/**
+	 * Returns whether or not the given character is matched by
+	 * GRAPHIC_CHARACTER_REGEX, with a fast path for ASCII characters.
+	 *
+	 * @param character The character to check.
+	 * @return Whether or not the character is a graphic character.
+	 */
+	private static boolean isGraphic(char character) {
+		
+		if (character < 0x80) { return character >= ' ' && character != '\u007f'; }
+		
+		switch (Character.getType(character)) {
+			case Character.CONTROL:
+			case Character.PRIVATE_USE:
+			case Character.SURROGATE:
+			case Character.LINE_SEPARATOR:
+			case Character.PARAGRAPH_SEPARATOR:
+				return false;
+			default:
+				return character != '\ufffe' && character != '\uffff';
+		}
+		
+	}
+	
+	/**
+	 * Analyses the next token, starting at `tokenStart`, by running the
+	 * automaton of this lexer: the automaton is run until it reaches its
+	 * dead state or the end of the text, and the token ends at the last
+	 * offset at which the automaton was in an accepting state.
+	 * This is equivalent to `advanceByDerivatives`, except that all the
+	 * derivatives are precomputed in the transition table.
+	 */
+	private void advanceByAutomaton() {
+		
+		LexerAutomaton automaton = automaton();
+		
+		int automatonState = LexerAutomaton.INITIAL_STATE;
+		int offset         = lexingOffset;
+		
+		// The root accepted at the last accepting offset, and that offset
+		
+		int acceptedRoot = LexerAutomaton.NO_ROOT;
+		int acceptedEnd  = offset;
+		
+		while (offset < lexingEndOffset) {
+			
+			automatonState = automaton.nextState(automatonState, text.charAt(offset));
+			
+			if (automatonState == LexerAutomaton.DEAD_STATE) { break; }
+			
+			offset++;
+			
+			int root = automaton.acceptedRoot(automatonState);
+			
+			if (root != LexerAutomaton.NO_ROOT) {
+				acceptedRoot = root;
+				acceptedEnd  = offset;
+			}
+			
+		}
+		
+		// Count the transitions taken (including the one to the dead
+		// state, if any) and the characters rolled back
+		
+		if (LexerInstrumentation.ENABLED) {
+			automatonTransitions = offset - lexingOffset + (offset < lexingEndOffset ? 1 : 0);
+			rollback             = acceptedRoot == LexerAutomaton.NO_ROOT ? 0 : offset - acceptedEnd;
+		}
+		
+		// If a root was accepted, then roll back to the end of
+		// the longest accepted sequence of characters
+		
+		if (acceptedRoot != LexerAutomaton.NO_ROOT) {
+			
+			tokenType    = ROOT_TOKEN_TYPES[acceptedRoot];
+			lexingOffset = acceptedEnd;
+			
+		}
+		
+		// Otherwise, mark all analysed characters (at least one)
+		// as a bad character token
+		
+		else {
+			
+			tokenType    = badCharacterTokenType();
+			lexingOffset = offset == lexingOffset ? offset + 1 : offset;
+			
+		}
+		
+		tokenEnd = lexingOffset;
+		
+	}
+	
+	/**
+	 * Analyses the next token, starting at `tokenStart`, by advancing
+	 * the root regexes of this lexer character by character.
+	 * This is the reference engine of this lexer.
+	 */
+	private void advanceByDerivatives() {
+		
 		// The offset by which the lexer needs to be rolled back before
 		// marking the end of the matched token. This happens for example
 		// when lexing the sequence "'Access" where:
@@ -444,114 +1045,141 @@ abstract class Lexer extends LexerBase {
 		// order to start from there during the next call to `advance`
 		int rollBackOffset = 0;
 		
-		// The set of regexes that successfully advanced so far
-		Set<LexerRegex> regexes = new HashSet<>(ROOT_REGEXES);
+		// Note: Regexes are interned, so distinct root regexes may share
+		//       the same derivative instance (e.g. ">" and the derivative
+		//       of ">>" by ">"), so lineages are tracked by root index
 		
-		// The last set of regexes, resulting from an iteration of
-		// characterLoop, that contained at least one nullable regex
-		// (see rollBackOffset description for an example)
-		Set<LexerRegex> matchingRegexes = new HashSet<>();
+		// The next character to be analysed
+		int nextCharacter = nextCharacter();
 		
-		// A map specifying the root regex from which every regex originates
-		// by a series of calls to regex.advanced(char)
-		final Map<LexerRegex, LexerRegex> regexLineages = new HashMap<>();
+		// Start with the root regexes that can advance by the first
+		// character as active regexes, each originating from itself,
+		// as given by the dispatch table of the automaton of this lexer
+		// (other roots would die on the first iteration of characterLoop)
+		// The automaton folds characters to lowercase by itself
+		// The reference engine starts with all root regexes instead, so
+		// that it does not depend on the automaton in any way
 		
-		// The next character to be analysed
-		Character nextCharacter = nextCharacter();
+		int activeCount;
+		
+		if (ENGINE == Engine.REFERENCE) {
+			
+			activeCount = ROOT_REGEXES.length;
+			
+			for (int i = 0 ; i < activeCount ; i++) {
+				ACTIVE_REGEXES[i] = ROOT_REGEXES[i];
+				ACTIVE_ROOTS[i]   = i;
+			}
+			
+		} else {
+			
+			int[] startingRoots = automaton().startingRoots((char)nextCharacter);
+			
+			activeCount = startingRoots.length;
+			
+			for (int i = 0 ; i < activeCount ; i++) {
+				ACTIVE_REGEXES[i] = ROOT_REGEXES[startingRoots[i]];
+				ACTIVE_ROOTS[i]   = startingRoots[i];
+			}
+			
+		}
+		
+		// No regexes matched yet
+		// (see rollBackOffset description for an example)
+		
+		int matchingCount = 0;
 		
 		// While the next token has not been determined...
 		
 		characterLoop: // label only used for reference in comments
 		while (tokenEnd == tokenStart) {
 			
-			final Character character = nextCharacter;
+			// The next character, folded to lowercase as lexing is
+			// case-insensitive
+			
+			final char character = foldedCharacter((char)nextCharacter);
 			
-			// The set of regexes that will have advanced successfully
-			// at the end of this iteration of characterLoop
-			final Set<LexerRegex> advancedRegexes = new HashSet<>();
+			// Whether at least one of the regexes that advanced
+			// successfully is nullable
+			
+			boolean nullable = false;
 			
 			// For each regex that successfully advanced by all
-			// characters so far...
+			// characters so far, try to advance the regex, and if it
+			// advanced successfully, keep it (and its root) in the
+			// active arrays for the next iteration of characterLoop
+			// Regexes are compacted in place, as an advanced regex is
+			// never stored after the regex it is advanced from
+			
+			int advancedCount = 0;
 			
-			if (character != null) {
+			for (int i = 0 ; nextCharacter != NO_CHARACTER && i < activeCount ; i++) {
 				
-				regexes.forEach(regex -> {
+				LexerRegex advancedRegex = ACTIVE_REGEXES[i].advanced(character);
+				
+				if (LexerInstrumentation.ENABLED) { derivativeCalls++; }
+				
+				if (advancedRegex != null) {
 					
-					// Try to advance the regex
+					ACTIVE_REGEXES[advancedCount] = advancedRegex;
+					ACTIVE_ROOTS[advancedCount]   = ACTIVE_ROOTS[i];
 					
-					LexerRegex advancedRegex = regex.advanced(character);
+					advancedCount++;
 					
-					// If the regex advanced successfully, store it for the next
-					// iteration of characterLoop, and keep track of the root
-					// regex that is the ancestor of the advanced regex
+					nullable = nullable || advancedRegex.nullable();
 					
-					if (advancedRegex != null) {
-						
-						advancedRegexes.add(advancedRegex);
-						
-						LexerRegex ancestor = regexLineages.get(regex);
-						
-						if (advancedRegex.nullable() || !regex.nullable()) {
-							regexLineages.remove(regex);
-						}
-						
-						regexLineages.put(advancedRegex, ancestor == null ? regex : ancestor);
-						
-					}
-					
-				});
+				}
 				
 			}
 			
-			// Set the regex set to be the advanced regex set
+			// Clear the references to the regexes that did not advance
+			
+			Arrays.fill(ACTIVE_REGEXES, advancedCount, activeCount, null);
 			
-			regexes = advancedRegexes;
+			activeCount = advancedCount;
 			
 			// If no remaining matching regexes exist, then choose a regex
 			// from those that last matched and had at least one nullable
-			// regex (or the empty set if either that was never the case, or
+			// regex (or none if either that was never the case, or
 			// this is the first iteration of characterLoop)
 			
-			if (regexes.size() == 0) {
+			if (activeCount == 0) {
 				
 				// Find the matching regex with the highest priority
-				// The chosen regex still has to be nullable, which prevents for
-				// example the word "proc" at the end of an Ada file from being
-				// assigned the token of the procedure keyword, as its regex for
-				// that has a higher priority than the identifier regex, and it
-				// does match the sequence "proc" (but it should not be chosen
-				// as its advanced regex at that point is not nullable, in other
-				// words it still requires the sequence "edure" to "fully match")
+				// The chosen regex still has to be nullable, as matching regexes
+				// may also contain regexes that are not nullable, in other words
+				// that still require more characters to "fully match" (e.g. when
+				// analysing "16#f", the based literal regex advanced by "16" is
+				// matching but not nullable, and the decimal literal regex has
+				// to be chosen instead)
+				// Matching regexes are stored in root order, so on priority
+				// ties, the root regex that comes first is chosen
 				
-				LexerRegex highestPriorityRegex = null;
+				int highestPriorityIndex = -1;
 				
-				for (LexerRegex regex : matchingRegexes) {
+				for (int i = 0 ; i < matchingCount ; i++) {
+					
+					LexerRegex regex = MATCHING_REGEXES[i];
 					
 					if (
 						regex.nullable() &&
 							(
-								highestPriorityRegex == null ||
-									regex.PRIORITY > highestPriorityRegex.PRIORITY
+								highestPriorityIndex == -1 ||
+									regex.PRIORITY > MATCHING_REGEXES[highestPriorityIndex].PRIORITY
 							)
 					) {
-						highestPriorityRegex = regex;
+						highestPriorityIndex = i;
 					}
 					
 				}
 				
-				// If a non nullable regex (with highest priority) was found,
-				// then get the root regex from which this regex originates,
-				// get the token type corresponding to that root regex and set
-				// the lexer token type to that type
+				// If a nullable regex (with highest priority) was found,
+				// then get the token type corresponding to the root regex
+				// from which this regex originates and set the lexer token
+				// type to that type
 				
-				if (highestPriorityRegex != null) {
-					
-					LexerRegex rootRegex =
-						regexLineages.getOrDefault(highestPriorityRegex, highestPriorityRegex);
-					
-					tokenType =
-						REGEX_TOKEN_TYPES.get(rootRegex);
-					
+				if (highestPriorityIndex != -1) {
+					tokenType = ROOT_TOKEN_TYPES[MATCHING_ROOTS[highestPriorityIndex]];
 				}
 				
 				// Otherwise, set the token type to BAD_CHARACTER
@@ -572,8 +1200,14 @@ abstract class Lexer extends LexerBase {
 					
 				}
 				
+				// Clear the references to the matching regexes
+				
+				Arrays.fill(MATCHING_REGEXES, 0, matchingCount, null);
+				
 				// Roll the lexer back by the necessary offset
 				
+				if (LexerInstrumentation.ENABLED) { rollback = rollBackOffset; }
+				
 				lexingOffset -= rollBackOffset;
 				
 				// Set the token end offset to the lexing offset
@@ -590,19 +1224,26 @@ abstract class Lexer extends LexerBase {
 			else {
 				
 				// If at least one of the regexes that advanced successfully in
-				// this iteration of characterLoop is nullable, then store that
-				// set of regexes to be potentially used in the next iteration
+				// this iteration of characterLoop is nullable, then store a copy
+				// of those regexes to be potentially used in the next iteration
 				// to find matching regexes, and reset the rollback offset
 				
-				if (regexes.stream().anyMatch(LexerRegex::nullable)) {
+				if (nullable) {
+					
+					System.arraycopy(ACTIVE_REGEXES, 0, MATCHING_REGEXES, 0, activeCount);
+					System.arraycopy(ACTIVE_ROOTS,   0, MATCHING_ROOTS,   0, activeCount);
+					
+					if (activeCount < matchingCount) {
+						Arrays.fill(MATCHING_REGEXES, activeCount, matchingCount, null);
+					}
 					
-					matchingRegexes = new HashSet<>(regexes);
+					matchingCount = activeCount;
 					
 					rollBackOffset = 0;
 					
 				}
 				
-				// Otherwise, do not overwrite the last set of regexes with at
+				// Otherwise, do not overwrite the last regexes with at
 				// least one nullable regex and increase the rollback offset
 				
 				else {
@@ -613,8 +1254,7 @@ abstract class Lexer extends LexerBase {
 				
 				lexingOffset++;
 				
-				nextCharacter = lexingOffset == lexingEndOffset ?
-					null : text.charAt(lexingOffset);
+				nextCharacter = nextCharacter();
 				
 			}
 			
@@ -639,6 +1279,37 @@ abstract class Lexer extends LexerBase {
 		Convenience Classes and Methods
 	*/
 	
+	/**
+	 * Engines that can be used by a lexer to analyse tokens.
+	 */
+	enum Engine {
+		
+		/**
+		 * Advances the root regexes character by character, as
+		 * described in `advanceByDerivatives`.
+		 */
+		DERIVATIVES,
+		
+		/**
+		 * Advances the root regexes character by character like
+		 * DERIVATIVES, but starting from all root regexes rather than
+		 * from those given by the dispatch table of the automaton, so
+		 * that its results are independent of the automaton. Slower
+		 * than DERIVATIVES, it is only meant to be used as a reference
+		 * in tests comparing engines.
+		 */
+		REFERENCE,
+		
+		/**
+		 * Runs the automaton compiled from the root regexes, as
+		 * described in `advanceByAutomaton`, with bulk scanners for
+		 * the most frequent long tokens, as described in
+		 * `advanceByScanner`.
+		 */
+		AUTOMATON
+		
+	}
+	
 	/**
 	 * Simple data class representing a token.
 	 */
@@ -717,44 +1388,278 @@ abstract class Lexer extends LexerBase {
 	}
 	
 	/**
-	 * Returns a token iterator that can be used to perform lazy lexical
-	 * analysis over the entire given text.
+	 * Performs lexical analysis over the entire given text in parallel,
+	 * as described in `parallelTextTokens(CharSequence, Supplier, int)`,
+	 * and returns the tokens encountered, which are the same as those
+	 * returned by `textTokenBuffer`.
+	 * The text is split into a few chunks per thread of the common
+	 * ForkJoin pool.
 	 *
 	 * @param text The text over which to perform analysis.
-	 * @return A lazy iterator over the tokens in the given text.
+	 * @return The tokens in the given text.
 	 */
-	public static Iterator<Token> textTokens(CharSequence text) {
+	@NotNull
+	public static TokenBuffer parallelTextTokens(@NotNull CharSequence text) {
 		
-		final AdaLexer lexer = new AdaLexer();
+		int chunkSize = Math.max(
+			MIN_PARALLEL_CHUNK_SIZE,
+			text.length() / (4 * ForkJoinPool.getCommonPoolParallelism())
+		);
 		
-		lexer.start(text, 0, text.length(), 0);
+		return parallelTextTokens(text, AdaLexer::new, chunkSize);
+		
+	}
+	
+	/**
+	 * Performs lexical analysis over the entire given text, using lexers
+	 * from the given supplier in parallel, and returns the tokens
+	 * encountered.
+	 * The text is split into chunks of at least the given size, each
+	 * starting at the beginning of a line that does not start with
+	 * whitespace (see `isChunkBoundary`). In Ada and in project files,
+	 * no token other than whitespace spans multiple lines, so such
+	 * offsets are token boundaries at which lexers are in the state
+	 * BOUNDARY_STATE. All chunks are therefore analysed independently
+	 * on the common ForkJoin pool, assuming they start in that state,
+	 * and their tokens are then concatenated in order.
+	 * The assumption is checked when concatenating tokens: if the
+	 * analysis of a chunk did not end exactly at the start of the next
+	 * chunk in the state BOUNDARY_STATE, then the next chunk is analysed
+	 * again, sequentially, from where the analysis of the previous chunk
+	 * ended, so that the tokens are always the same as those returned
+	 * by a single lexer analysing the entire text.
+	 *
+	 * @param text The text over which to perform analysis.
+	 * @param lexerSupplier The supplier of lexers analysing chunks.
+	 * @param chunkSize The minimum size of chunks, in characters.
+	 * @return The tokens in the given text.
+	 */
+	@NotNull
+	static TokenBuffer parallelTextTokens(
+		@NotNull CharSequence              text,
+		@NotNull Supplier<? extends Lexer> lexerSupplier,
+		         int                       chunkSize
+	) {
+		
+		int textLength = text.length();
+		
+		// Split the text into chunks, represented by their start
+		// offsets followed by the length of the text
+		
+		List<Integer> chunkOffsets = new ArrayList<>();
+		
+		chunkOffsets.add(0);
+		
+		int offset = chunkSize;
+		
+		while (offset < textLength) {
+			
+			if (isChunkBoundary(text, offset)) {
+				chunkOffsets.add(offset);
+				offset += chunkSize;
+			} else {
+				offset++;
+			}
+			
+		}
+		
+		chunkOffsets.add(textLength);
+		
+		int chunkCount = chunkOffsets.size() - 1;
+		
+		// Analyse every chunk except the first one on the common pool,
+		// and the first one on this thread
 		
-		return new Iterator<Token>() {
+		List<ForkJoinTask<ChunkTokens>> chunkTasks = new ArrayList<>(chunkCount);
+		
+		for (int i = 1 ; i < chunkCount ; i++) {
 			
-			/**
-			 * @see java.util.Iterator#hasNext()
-			 */
-			@Override
-			public boolean hasNext() { return lexer.getTokenType() != null; }
+			int startOffset = chunkOffsets.get(i);
+			int endOffset   = chunkOffsets.get(i + 1);
 			
-			/**
-			 * @see java.util.Iterator#next()
-			 */
-			@Override
-			public Token next() {
-				
-				IElementType tokenType   = lexer.getTokenType();
-				int          startOffset = lexer.getTokenStart();
-				int          endOffset   = lexer.getTokenEnd();
-				
-				lexer.advance();
-				
-				return new Token(tokenType, startOffset, endOffset);
-				
+			chunkTasks.add(ForkJoinPool.commonPool().submit(() -> chunkTokens(
+				lexerSupplier.get(), text, startOffset, endOffset, BOUNDARY_STATE)));
+			
+		}
+		
+		ChunkTokens chunk =
+			chunkTokens(lexerSupplier.get(), text, 0, chunkOffsets.get(1), BOUNDARY_STATE);
+		
+		TokenBuffer tokens = new TokenBuffer(chunk.TOKENS.size() * chunkCount);
+		
+		tokens.addAll(chunk.TOKENS);
+		
+		// Concatenate the tokens of chunks in order, analysing again
+		// the chunks that did not start where the analysis of the
+		// previous chunk ended
+		
+		for (int i = 1 ; i < chunkCount ; i++) {
+			
+			int startOffset = chunkOffsets.get(i);
+			int endOffset   = chunkOffsets.get(i + 1);
+			
+			ChunkTokens nextChunk = chunkTasks.get(i - 1).join();
+			
+			if (chunk.END_OFFSET >= endOffset) { continue; }
+			
+			if (chunk.END_OFFSET != startOffset || chunk.END_STATE != BOUNDARY_STATE) {
+				nextChunk = chunkTokens(
+					lexerSupplier.get(), text, chunk.END_OFFSET, endOffset, chunk.END_STATE);
 			}
 			
-		};
+			tokens.addAll(nextChunk.TOKENS);
+			
+			chunk = nextChunk;
+			
+		}
+		
+		return tokens;
+		
+	}
+	
+	/**
+	 * Returns whether or not `parallelTextTokens` may split the given
+	 * text at the given offset, that is whether or not the given offset
+	 * is the start of a line that does not start with whitespace.
+	 *
+	 * @param text The text to split.
+	 * @param offset The offset at which to split the text, which must be
+	 *               strictly between 0 and the length of the text.
+	 * @return Whether or not the text may be split at the offset.
+	 */
+	private static boolean isChunkBoundary(@NotNull CharSequence text, int offset) {
+		
+		char character = text.charAt(offset);
+		
+		return text.charAt(offset - 1) == '\n' &&
+			!Character.isWhitespace(character) &&
+			!Character.isSpaceChar(character) &&
+			character != '\u0085';
+		
+	}
+	
+	/**
+	 * Analyses the tokens of the given text starting in the given range,
+	 * using the given lexer started at the start of that range in the
+	 * given state. The last token may end after the end of the range.
+	 *
+	 * @param lexer The lexer to use.
+	 * @param text The text over which to perform analysis.
+	 * @param startOffset The start offset of the range.
+	 * @param endOffset The end offset of the range.
+	 * @param initialState The state of the lexer at the start offset.
+	 * @return The tokens starting in the range.
+	 */
+	@NotNull
+	private static ChunkTokens chunkTokens(
+		@NotNull Lexer        lexer,
+		@NotNull CharSequence text,
+		         int          startOffset,
+		         int          endOffset,
+		         int          initialState
+	) {
+		
+		TokenBuffer tokens = new TokenBuffer();
+		
+		lexer.start(text, startOffset, text.length(), initialState);
+		
+		while (lexer.getTokenType() != null && lexer.getTokenStart() < endOffset) {
+			tokens.add(lexer.getTokenType(), lexer.getTokenStart(), lexer.getTokenEnd());
+			lexer.advance();
+		}
+		
+		return lexer.getTokenType() == null ?
+			new ChunkTokens(tokens, text.length(), lexer.getState()) :
+			new ChunkTokens(tokens, lexer.getTokenStart(), lexer.getState());
+		
+	}
+	
+	/**
+	 * The tokens starting in a chunk of text analysed by
+	 * `parallelTextTokens`, along with the offset at which the next
+	 * token starts and the state of the lexer at that offset.
+	 */
+	private static final class ChunkTokens {
+		
+		/**
+		 * The tokens starting in the chunk.
+		 */
+		final TokenBuffer TOKENS;
+		
+		/**
+		 * The start offset of the next token (or the length of the text
+		 * if there is no next token) and the state of the lexer at
+		 * that offset.
+		 */
+		final int END_OFFSET;
+		final int END_STATE;
 		
+		/**
+		 * Constructs new chunk tokens.
+		 *
+		 * @param tokens The tokens starting in the chunk.
+		 * @param endOffset The start offset of the next token.
+		 * @param endState The state of the lexer at the end offset.
+		 */
+		ChunkTokens(@NotNull TokenBuffer tokens, int endOffset, int endState) {
+			TOKENS     = tokens;
+			END_OFFSET = endOffset;
+			END_STATE  = endState;
+		}
+		
+	}
+	
+	/**
+	 * Performs lexical analysis over the entire given text and returns
+	 * the tokens encountered, in a compact token buffer.
+	 *
+	 * @param text The text over which to perform analysis.
+	 * @return The tokens in the given text.
+	 */
+	@NotNull
+	public static TokenBuffer textTokenBuffer(@NotNull CharSequence text) {
+		return textTokenBuffer(new AdaLexer(), text);
+	}
+	
+	/**
+	 * Performs lexical analysis over the entire given text using the
+	 * given lexer and returns the tokens encountered, in a compact
+	 * token buffer.
+	 *
+	 * @param lexer The lexer to use.
+	 * @param text The text over which to perform analysis.
+	 * @return The tokens in the given text.
+	 */
+	@NotNull
+	static TokenBuffer textTokenBuffer(@NotNull Lexer lexer, @NotNull CharSequence text) {
+		return chunkTokens(lexer, text, 0, text.length(), BOUNDARY_STATE).TOKENS;
+	}
+	
+	/**
+	 * Returns a token iterator over the entire given text, as a view
+	 * over the token buffer returned by `textTokenBuffer`.
+	 *
+	 * @param text The text over which to perform analysis.
+	 * @return An iterator over the tokens in the given text.
+	 */
+	public static Iterator<Token> textTokens(CharSequence text) {
+		return textTokenBuffer(text).iterator();
+	}
+	
+	/**
+	 * Returns a lexer analysing texts like the given lexer, except that
+	 * runs of consecutive bad-character tokens are merged into single
+	 * tokens. This is the lexer used to highlight large files (see
+	 * `LargeFileManager`), in which long runs of invalid characters,
+	 * each analysed as a separate token, would otherwise result in as
+	 * many highlighted ranges.
+	 *
+	 * @param lexer The lexer to wrap.
+	 * @return The large file lexer.
+	 */
+	@NotNull
+	static LexerBase largeFileLexer(@NotNull Lexer lexer) {
+		return new MergingLexerAdapter(lexer, TokenSet.create(lexer.badCharacterTokenType()));
 	}
 	
 }
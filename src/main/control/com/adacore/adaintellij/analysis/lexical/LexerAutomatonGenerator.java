@@ -0,0 +1,78 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.adacore.adaintellij.analysis.lexical.regex.*;
+
+/**
+ * Build-time generator of the automaton tables of lexers, run by the
+ * `generateLexerTables` Gradle task.
+ * For every lexer, the automaton is compiled from the root regexes of
+ * the lexer and its tables are written to the resource loaded by
+ * `Lexer.loadAutomaton`, so that lexers do not need to compile their
+ * automaton when the plugin starts.
+ */
+final class LexerAutomatonGenerator {
+	
+	/**
+	 * Private default constructor to prevent instantiation.
+	 */
+	private LexerAutomatonGenerator() {}
+	
+	/**
+	 * Generates the automaton tables of all lexers.
+	 *
+	 * @param args The output directory, i.e. the root directory of the
+	 *             generated resources.
+	 * @throws IOException If the tables cannot be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		
+		if (args.length != 1) {
+			throw new IllegalArgumentException("Usage: LexerAutomatonGenerator <output directory>");
+		}
+		
+		Path outputDirectory = Paths.get(args[0]);
+		
+		generate(outputDirectory, new AdaLexer());
+		generate(outputDirectory, new GPRFileLexer());
+		
+	}
+	
+	/**
+	 * Compiles the automaton of the given lexer and writes its tables
+	 * to the given output directory.
+	 *
+	 * @param outputDirectory The root directory of generated resources.
+	 * @param lexer The lexer of which to generate the automaton tables.
+	 * @throws IOException If the tables cannot be written.
+	 */
+	private static void generate(@NotNull Path outputDirectory, @NotNull Lexer lexer) throws IOException {
+		
+		Class<? extends Lexer> lexerClass = lexer.getClass();
+		
+		List<LexerRegex> rootRegexes = new ArrayList<>(lexer.regexTokenTypeMap().keySet());
+		
+		LexerAutomaton automaton =
+			LexerAutomaton.compile(rootRegexes, Lexer.CASE_INSENSITIVE_AUTOMATA);
+		
+		Path tablesFile = outputDirectory
+			.resolve(lexerClass.getPackage().getName().replace('.', File.separatorChar))
+			.resolve(Lexer.automatonTablesName(lexerClass));
+		
+		Files.createDirectories(tablesFile.getParent());
+		
+		try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(tablesFile))) {
+			automaton.write(
+				output,
+				LexerAutomaton.fingerprint(rootRegexes, Lexer.CASE_INSENSITIVE_AUTOMATA)
+			);
+		}
+		
+	}
+	
+}
@@ -0,0 +1,285 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.*;
+
+/**
+ * Opt-in instrumentation of lexers, collecting per-file statistics on
+ * the work done to analyse tokens: derivative calls and automaton
+ * transitions, regex nodes allocated, tokens produced and time spent
+ * per token type, maximum rollback and time per call to `advance`.
+ *
+ * Instrumentation is enabled by setting the system property PROPERTY
+ * to true (e.g. `-Dadaintellij.lexer.instrumentation=true` in the VM
+ * options of the IDE). As ENABLED is a constant, all instrumentation
+ * code is removed from lexers by the JIT compiler when it is disabled,
+ * so that it costs nothing in production.
+ *
+ * Lexers only collect statistics when given a FileStatistics object
+ * (see `Lexer#instrument`), which highlighters and the batch lexer do
+ * for every file they analyse when instrumentation is enabled.
+ */
+public final class LexerInstrumentation {
+	
+	/*
+		Constants
+	*/
+	
+	/**
+	 * The system property enabling lexer instrumentation.
+	 */
+	public static final String PROPERTY = "adaintellij.lexer.instrumentation";
+	
+	/**
+	 * Whether or not lexer instrumentation is enabled.
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+	
+	/**
+	 * The number of token types listed per file in reports.
+	 */
+	private static final int REPORTED_TOKEN_TYPES = 10;
+	
+	/**
+	 * Map associating the names of files with their statistics.
+	 */
+	private static final Map<String, FileStatistics> FILE_STATISTICS = new ConcurrentHashMap<>();
+	
+	/**
+	 * Private default constructor to prevent instantiation.
+	 */
+	private LexerInstrumentation() {}
+	
+	/*
+		Static API
+	*/
+	
+	/**
+	 * Returns the statistics of the file with the given name, creating
+	 * them if necessary, or null if instrumentation is disabled or if
+	 * no file name is given.
+	 *
+	 * @param fileName The name of the file (e.g. its path), or null.
+	 * @return The statistics of the file, or null.
+	 */
+	@Nullable
+	public static FileStatistics fileStatistics(@Nullable String fileName) {
+		return ENABLED && fileName != null ?
+			FILE_STATISTICS.computeIfAbsent(fileName, FileStatistics::new) : null;
+	}
+	
+	/**
+	 * Returns the statistics collected so far for all files.
+	 *
+	 * @return A snapshot of the collected statistics, sorted by file name.
+	 */
+	@NotNull
+	public static List<FileStatistics> allFileStatistics() {
+		
+		List<FileStatistics> statistics = new ArrayList<>(FILE_STATISTICS.values());
+		
+		statistics.sort(Comparator.comparing(fileStatistics -> fileStatistics.FILE_NAME));
+		
+		return statistics;
+		
+	}
+	
+	/**
+	 * Discards the statistics collected so far for all files.
+	 */
+	public static void reset() { FILE_STATISTICS.clear(); }
+	
+	/**
+	 * Returns a plain-text report of the statistics collected so far,
+	 * listing files by decreasing total lexing time.
+	 *
+	 * @return The report.
+	 */
+	@NotNull
+	public static String report() {
+		
+		if (!ENABLED) {
+			return "Lexer instrumentation is disabled (set the system property " + PROPERTY + " to true to enable it).\n";
+		}
+		
+		List<FileStatistics> statistics = allFileStatistics();
+		
+		statistics.sort(Comparator.comparingLong(
+			(FileStatistics fileStatistics) -> fileStatistics.NANOSECONDS.sum()).reversed());
+		
+		StringBuilder report = new StringBuilder();
+		
+		report.append("Lexer instrumentation report (").append(statistics.size()).append(" files)\n");
+		
+		for (FileStatistics fileStatistics : statistics) { fileStatistics.appendReport(report); }
+		
+		return report.toString();
+		
+	}
+	
+	/*
+		Statistics
+	*/
+	
+	/**
+	 * Statistics collected by lexers analysing the text of a file.
+	 * Counters are shared by all the lexers analysing the file, possibly
+	 * concurrently, and cover all the texts they analysed, including
+	 * re-analysed ranges.
+	 */
+	public static final class FileStatistics {
+		
+		/**
+		 * The name of the file.
+		 */
+		public final String FILE_NAME;
+		
+		/**
+		 * The numbers of tokens produced and characters analysed.
+		 */
+		public final LongAdder TOKENS     = new LongAdder();
+		public final LongAdder CHARACTERS = new LongAdder();
+		
+		/**
+		 * The total and maximum time spent in a call to `advance`,
+		 * in nanoseconds.
+		 */
+		public final LongAdder       NANOSECONDS     = new LongAdder();
+		public final LongAccumulator MAX_NANOSECONDS = new LongAccumulator(Math::max, 0);
+		
+		/**
+		 * The numbers of derivative calls made by the derivatives engine
+		 * and of transitions taken by the automaton engine.
+		 */
+		public final LongAdder DERIVATIVE_CALLS      = new LongAdder();
+		public final LongAdder AUTOMATON_TRANSITIONS = new LongAdder();
+		
+		/**
+		 * The number of regex nodes allocated while analysing tokens.
+		 * Regex nodes are shared by all lexers, so this number includes
+		 * nodes allocated by lexers running concurrently in other threads.
+		 */
+		public final LongAdder ALLOCATED_REGEXES = new LongAdder();
+		
+		/**
+		 * The maximum number of characters by which a lexer rolled back
+		 * after analysing past the end of a token.
+		 */
+		public final LongAccumulator MAX_ROLLBACK = new LongAccumulator(Math::max, 0);
+		
+		/**
+		 * Map associating token types with the number of tokens of that
+		 * type and the time spent analysing them, in nanoseconds.
+		 */
+		private final Map<IElementType, LongAdder[]> TOKEN_TYPE_COUNTERS = new ConcurrentHashMap<>();
+		
+		/**
+		 * Constructs new empty statistics for the given file.
+		 *
+		 * @param fileName The name of the file.
+		 */
+		FileStatistics(@NotNull String fileName) { FILE_NAME = fileName; }
+		
+		/**
+		 * Adds a token analysed by a lexer to these statistics.
+		 *
+		 * @param tokenType The type of the token.
+		 * @param length The length of the token.
+		 * @param nanoseconds The time spent in `advance`.
+		 * @param derivativeCalls The number of derivative calls.
+		 * @param automatonTransitions The number of automaton transitions.
+		 * @param allocatedRegexes The number of regex nodes allocated.
+		 * @param rollback The number of characters rolled back.
+		 */
+		void addToken(
+			@NotNull IElementType tokenType,
+			         int          length,
+			         long         nanoseconds,
+			         long         derivativeCalls,
+			         long         automatonTransitions,
+			         long         allocatedRegexes,
+			         int          rollback
+		) {
+			
+			TOKENS.increment();
+			CHARACTERS.add(length);
+			NANOSECONDS.add(nanoseconds);
+			MAX_NANOSECONDS.accumulate(nanoseconds);
+			DERIVATIVE_CALLS.add(derivativeCalls);
+			AUTOMATON_TRANSITIONS.add(automatonTransitions);
+			ALLOCATED_REGEXES.add(allocatedRegexes);
+			MAX_ROLLBACK.accumulate(rollback);
+			
+			LongAdder[] counters = TOKEN_TYPE_COUNTERS.computeIfAbsent(tokenType,
+				type -> new LongAdder[] { new LongAdder(), new LongAdder() });
+			
+			counters[0].increment();
+			counters[1].add(nanoseconds);
+			
+		}
+		
+		/**
+		 * Returns the number of tokens of the given type produced so far.
+		 *
+		 * @param tokenType The token type.
+		 * @return The number of tokens of that type.
+		 */
+		public long tokenCount(@NotNull IElementType tokenType) {
+			
+			LongAdder[] counters = TOKEN_TYPE_COUNTERS.get(tokenType);
+			
+			return counters == null ? 0 : counters[0].sum();
+			
+		}
+		
+		/**
+		 * Returns the time spent analysing tokens of the given type so far.
+		 *
+		 * @param tokenType The token type.
+		 * @return The time spent analysing tokens of that type,
+		 *         in nanoseconds.
+		 */
+		public long tokenNanoseconds(@NotNull IElementType tokenType) {
+			
+			LongAdder[] counters = TOKEN_TYPE_COUNTERS.get(tokenType);
+			
+			return counters == null ? 0 : counters[1].sum();
+			
+		}
+		
+		/**
+		 * Appends the report of these statistics to the given builder,
+		 * listing the token types on which the most time was spent.
+		 *
+		 * @param report The builder to which to append the report.
+		 */
+		private void appendReport(@NotNull StringBuilder report) {
+			
+			long tokens      = TOKENS.sum();
+			long nanoseconds = NANOSECONDS.sum();
+			
+			report.append('\n').append(FILE_NAME).append('\n');
+			report.append(String.format("  Tokens                : %d (%d characters)%n", tokens, CHARACTERS.sum()));
+			report.append(String.format("  Time                  : %.3f ms (mean %d ns, max %d ns per token)%n",
+				nanoseconds / 1e6, nanoseconds / Math.max(1, tokens), MAX_NANOSECONDS.get()));
+			report.append(String.format("  Derivative calls      : %d%n", DERIVATIVE_CALLS.sum()));
+			report.append(String.format("  Automaton transitions : %d%n", AUTOMATON_TRANSITIONS.sum()));
+			report.append(String.format("  Allocated regexes     : %d%n", ALLOCATED_REGEXES.sum()));
+			report.append(String.format("  Maximum rollback      : %d%n", MAX_ROLLBACK.get()));
+			
+			TOKEN_TYPE_COUNTERS.entrySet().stream()
+				.sorted(Comparator.comparingLong(
+					(Map.Entry<IElementType, LongAdder[]> entry) -> entry.getValue()[1].sum()).reversed())
+				.limit(REPORTED_TOKEN_TYPES)
+				.forEach(entry -> report.append(String.format("    %-22s %10d tokens %12d ns%n",
+					BatchLexer.tokenName(entry.getKey()), entry.getValue()[0].sum(), entry.getValue()[1].sum())));
+			
+		}
+		
+	}
+	
+}
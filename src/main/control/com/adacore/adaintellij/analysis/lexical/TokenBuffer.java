@@ -0,0 +1,435 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import java.util.*;
+
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.*;
+
+/**
+ * Compact buffer of tokens, for consumers analysing entire texts.
+ * Tokens are stored in parallel primitive arrays (the index of the
+ * token type, as given by `IElementType.getIndex`, and the start and
+ * end offsets) rather than as Lexer.Token objects, so that a buffer
+ * takes 10 bytes per token and does not allocate anything per token.
+ * Tokens are stored in increasing offset order and do not overlap,
+ * which allows finding the token at a given offset by binary search.
+ */
+public final class TokenBuffer implements Iterable<Lexer.Token> {
+	
+	/*
+		Constants
+	*/
+	
+	/**
+	 * The capacity of buffers constructed without an initial capacity.
+	 */
+	private static final int DEFAULT_CAPACITY = 64;
+	
+	/*
+		Fields
+	*/
+	
+	/**
+	 * The token-type indices, start offsets and end offsets of the
+	 * tokens in this buffer. Only the first `size` elements of these
+	 * arrays are tokens.
+	 */
+	private short[] tokenTypeIndices;
+	private int[]   startOffsets;
+	private int[]   endOffsets;
+	
+	/**
+	 * The number of tokens in this buffer.
+	 */
+	private int size = 0;
+	
+	/*
+		Constructors
+	*/
+	
+	/**
+	 * Constructs a new empty token buffer.
+	 */
+	public TokenBuffer() { this(DEFAULT_CAPACITY); }
+	
+	/**
+	 * Constructs a new empty token buffer that can hold the given
+	 * number of tokens before growing.
+	 *
+	 * @param initialCapacity The initial capacity of the buffer.
+	 * @throws IllegalArgumentException If the capacity is negative.
+	 */
+	public TokenBuffer(int initialCapacity) {
+		
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Illegal negative token buffer capacity: " + initialCapacity);
+		}
+		
+		tokenTypeIndices = new short[initialCapacity];
+		startOffsets     = new int[initialCapacity];
+		endOffsets       = new int[initialCapacity];
+		
+	}
+	
+	/*
+		Mutators
+	*/
+	
+	/**
+	 * Adds a token at the end of this buffer.
+	 *
+	 * @param tokenType The type of the token.
+	 * @param startOffset The start offset of the token.
+	 * @param endOffset The end offset of the token.
+	 * @throws IllegalArgumentException If the token starts before the
+	 *                                  end of the last token of this
+	 *                                  buffer, or ends before it starts.
+	 */
+	public void add(@NotNull IElementType tokenType, int startOffset, int endOffset) {
+		
+		if (startOffset < (size == 0 ? 0 : endOffsets[size - 1]) || endOffset < startOffset) {
+			throw new IllegalArgumentException("Illegal token bounds: " + startOffset + " to " + endOffset);
+		}
+		
+		if (size == startOffsets.length) { grow(size + 1); }
+		
+		tokenTypeIndices[size] = tokenType.getIndex();
+		startOffsets[size]     = startOffset;
+		endOffsets[size]       = endOffset;
+		
+		size++;
+		
+	}
+	
+	/**
+	 * Adds all the tokens of the given buffer at the end of this buffer.
+	 *
+	 * @param buffer The buffer of which to add the tokens.
+	 * @throws IllegalArgumentException If the first token of the given
+	 *                                  buffer starts before the end of
+	 *                                  the last token of this buffer.
+	 */
+	public void addAll(@NotNull TokenBuffer buffer) {
+		
+		if (buffer.size == 0) { return; }
+		
+		if (size > 0 && buffer.startOffsets[0] < endOffsets[size - 1]) {
+			throw new IllegalArgumentException("Illegal token bounds: " +
+				buffer.startOffsets[0] + " to " + buffer.endOffsets[0]);
+		}
+		
+		if (size + buffer.size > startOffsets.length) { grow(size + buffer.size); }
+		
+		System.arraycopy(buffer.tokenTypeIndices, 0, tokenTypeIndices, size, buffer.size);
+		System.arraycopy(buffer.startOffsets,     0, startOffsets,     size, buffer.size);
+		System.arraycopy(buffer.endOffsets,       0, endOffsets,       size, buffer.size);
+		
+		size += buffer.size;
+		
+	}
+	
+	/**
+	 * Grows the arrays of this buffer so that they can hold at least
+	 * the given number of tokens.
+	 *
+	 * @param minCapacity The minimum capacity of the buffer.
+	 */
+	private void grow(int minCapacity) {
+		
+		int capacity = Math.max(minCapacity, startOffsets.length * 2);
+		
+		tokenTypeIndices = Arrays.copyOf(tokenTypeIndices, capacity);
+		startOffsets     = Arrays.copyOf(startOffsets, capacity);
+		endOffsets       = Arrays.copyOf(endOffsets, capacity);
+		
+	}
+	
+	/*
+		Accessors
+	*/
+	
+	/**
+	 * Returns the number of tokens in this buffer.
+	 *
+	 * @return The number of tokens.
+	 */
+	public int size() { return size; }
+	
+	/**
+	 * Returns whether or not this buffer contains no tokens.
+	 *
+	 * @return Whether or not this buffer is empty.
+	 */
+	public boolean isEmpty() { return size == 0; }
+	
+	/**
+	 * Returns the type of the token at the given index.
+	 *
+	 * @param index The index of the token.
+	 * @return The type of the token.
+	 * @throws IndexOutOfBoundsException If there is no token at
+	 *                                   the given index.
+	 */
+	@NotNull
+	public IElementType tokenType(int index) {
+		return IElementType.find(tokenTypeIndices[checkedIndex(index)]);
+	}
+	
+	/**
+	 * Returns the start offset of the token at the given index.
+	 *
+	 * @param index The index of the token.
+	 * @return The start offset of the token.
+	 * @throws IndexOutOfBoundsException If there is no token at
+	 *                                   the given index.
+	 */
+	public int tokenStart(int index) { return startOffsets[checkedIndex(index)]; }
+	
+	/**
+	 * Returns the end offset of the token at the given index.
+	 *
+	 * @param index The index of the token.
+	 * @return The end offset of the token.
+	 * @throws IndexOutOfBoundsException If there is no token at
+	 *                                   the given index.
+	 */
+	public int tokenEnd(int index) { return endOffsets[checkedIndex(index)]; }
+	
+	/**
+	 * Returns the token at the given index as a Lexer.Token object.
+	 *
+	 * @param index The index of the token.
+	 * @return The token.
+	 * @throws IndexOutOfBoundsException If there is no token at
+	 *                                   the given index.
+	 */
+	@NotNull
+	public Lexer.Token token(int index) {
+		return new Lexer.Token(tokenType(index), startOffsets[index], endOffsets[index]);
+	}
+	
+	/**
+	 * Returns the given token index if there is a token at that index.
+	 *
+	 * @param index The index of a token.
+	 * @return The index.
+	 * @throws IndexOutOfBoundsException If there is no token at
+	 *                                   the given index.
+	 */
+	private int checkedIndex(int index) {
+		
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Illegal token index: " + index + " (size: " + size + ")");
+		}
+		
+		return index;
+		
+	}
+	
+	/*
+		Search
+	*/
+	
+	/**
+	 * Returns the index of the token containing the given offset, that
+	 * is the token starting at or before the offset and ending after
+	 * it, or -1 if there is no such token.
+	 *
+	 * @param offset The offset to look for.
+	 * @return The index of the token at the offset, or -1.
+	 */
+	public int tokenIndexAt(int offset) {
+		
+		int index = lastTokenStartingAtOrBefore(offset);
+		
+		return index != -1 && offset < endOffsets[index] ? index : -1;
+		
+	}
+	
+	/**
+	 * Returns the index of the first token ending after the given
+	 * offset, that is the token containing the offset if there is one
+	 * and the first token after the offset otherwise, or the size of
+	 * this buffer if all tokens end at or before the offset.
+	 *
+	 * @param offset The offset to look for.
+	 * @return The index of the first token ending after the offset.
+	 */
+	public int tokenIndexFrom(int offset) {
+		
+		int index = lastTokenStartingAtOrBefore(offset);
+		
+		return index != -1 && offset < endOffsets[index] ? index : index + 1;
+		
+	}
+	
+	/**
+	 * Returns the index of the last token starting at or before the
+	 * given offset, or -1 if there is no such token, using a binary
+	 * search over the start offsets of tokens.
+	 *
+	 * @param offset The offset to look for.
+	 * @return The index of the last token starting at or before
+	 *         the offset, or -1.
+	 */
+	private int lastTokenStartingAtOrBefore(int offset) {
+		
+		int low  = 0;
+		int high = size - 1;
+		
+		while (low <= high) {
+			
+			int middle = (low + high) >>> 1;
+			
+			if (startOffsets[middle] <= offset) {
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+			
+		}
+		
+		return high;
+		
+	}
+	
+	/*
+		Traversal
+	*/
+	
+	/**
+	 * Returns a cursor over the tokens of this buffer, positioned on
+	 * the first token.
+	 *
+	 * @return A new cursor.
+	 */
+	@NotNull
+	public Cursor cursor() { return new Cursor(0); }
+	
+	/**
+	 * Returns a cursor over the tokens of this buffer, positioned on
+	 * the first token ending after the given offset (see
+	 * `tokenIndexFrom`).
+	 *
+	 * @param offset The offset at which to position the cursor.
+	 * @return A new cursor.
+	 */
+	@NotNull
+	public Cursor cursorFrom(int offset) { return new Cursor(tokenIndexFrom(offset)); }
+	
+	/**
+	 * Returns an iterator over the tokens of this buffer, creating a
+	 * Lexer.Token object for every token returned.
+	 *
+	 * @return An iterator over the tokens of this buffer.
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@NotNull
+	@Override
+	public Iterator<Lexer.Token> iterator() {
+		
+		return new Iterator<Lexer.Token>() {
+			
+			/**
+			 * The index of the next token to return.
+			 */
+			private int index = 0;
+			
+			/**
+			 * @see java.util.Iterator#hasNext()
+			 */
+			@Override
+			public boolean hasNext() { return index < size; }
+			
+			/**
+			 * @see java.util.Iterator#next()
+			 */
+			@Override
+			public Lexer.Token next() {
+				
+				if (index >= size) { throw new NoSuchElementException(); }
+				
+				return token(index++);
+				
+			}
+			
+		};
+		
+	}
+	
+	/**
+	 * Cursor over the tokens of a buffer, giving access to the token
+	 * it is positioned on without creating any object, in the same way
+	 * as a lexer.
+	 * A cursor positioned after the last token is at the end of the
+	 * buffer and has no token.
+	 */
+	public final class Cursor {
+		
+		/**
+		 * The index of the token on which this cursor is positioned.
+		 */
+		private int index;
+		
+		/**
+		 * Constructs a new cursor positioned on the token at
+		 * the given index.
+		 *
+		 * @param index The index of the token.
+		 */
+		private Cursor(int index) { this.index = index; }
+		
+		/**
+		 * Returns whether or not this cursor is positioned on a token,
+		 * that is whether or not it is not at the end of the buffer.
+		 *
+		 * @return Whether or not this cursor is positioned on a token.
+		 */
+		public boolean hasToken() { return index < size; }
+		
+		/**
+		 * Positions this cursor on the next token.
+		 */
+		public void advance() { if (index < size) { index++; } }
+		
+		/**
+		 * Returns the index of the token on which this cursor is
+		 * positioned, or the size of the buffer if it is at the end
+		 * of the buffer.
+		 *
+		 * @return The index of the token.
+		 */
+		public int index() { return index; }
+		
+		/**
+		 * Returns the type of the token on which this cursor is
+		 * positioned, or null if it is at the end of the buffer.
+		 *
+		 * @return The type of the token, or null.
+		 */
+		@Nullable
+		public IElementType tokenType() { return hasToken() ? TokenBuffer.this.tokenType(index) : null; }
+		
+		/**
+		 * Returns the start offset of the token on which this cursor
+		 * is positioned.
+		 *
+		 * @return The start offset of the token.
+		 * @throws IndexOutOfBoundsException If this cursor is at the end
+		 *                                   of the buffer.
+		 */
+		public int tokenStart() { return TokenBuffer.this.tokenStart(index); }
+		
+		/**
+		 * Returns the end offset of the token on which this cursor
+		 * is positioned.
+		 *
+		 * @return The end offset of the token.
+		 * @throws IndexOutOfBoundsException If this cursor is at the end
+		 *                                   of the buffer.
+		 */
+		public int tokenEnd() { return TokenBuffer.this.tokenEnd(index); }
+		
+	}
+	
+}
@@ -0,0 +1,289 @@
+package com.adacore.adaintellij.analysis.lexical.regex;
+
+import java.util.*;
+
+import org.jetbrains.annotations.*;
+
+/**
+ * Regex matching a single character from a set of characters, stored
+ * as a sorted list of disjoint character ranges.
+ * Regexes of this class replace the hierarchies of union, intersection
+ * and not regexes that would otherwise be built over single-character
+ * regexes, so that advancing them costs a single range lookup instead
+ * of advancing every regex of such a hierarchy.
+ */
+public final class CharClassRegex extends LexerRegex {
+	
+	/**
+	 * The number of characters of the Basic Multilingual Plane.
+	 */
+	private static final int CHARACTER_COUNT = Character.MAX_VALUE + 1;
+	
+	/**
+	 * The ranges of characters matched by this regex, as a sorted
+	 * array of inclusive bounds: the i-th range goes from `RANGES[2 * i]`
+	 * to `RANGES[2 * i + 1]`. Ranges are disjoint and never adjacent.
+	 */
+	final char[] RANGES;
+	
+	/**
+	 * Constructs a new char class regex given a set of characters
+	 * and a priority.
+	 *
+	 * @param characters The set of characters to match.
+	 * @param priority The priority to assign to the constructed regex.
+	 */
+	private CharClassRegex(@NotNull BitSet characters, int priority) {
+		this(ranges(characters), priority);
+	}
+	
+	/**
+	 * Constructs a new char class regex given sorted character ranges
+	 * (see `RANGES`) and a priority.
+	 *
+	 * @param ranges The ranges of characters to match.
+	 * @param priority The priority to assign to the constructed regex.
+	 */
+	private CharClassRegex(@NotNull char[] ranges, int priority) {
+		super(priority);
+		RANGES = ranges;
+	}
+	
+	/**
+	 * Returns the sorted ranges of characters (see `RANGES`) of the
+	 * given set of characters.
+	 *
+	 * @param characters The set of characters.
+	 * @return The ranges of the characters.
+	 */
+	@NotNull
+	private static char[] ranges(@NotNull BitSet characters) {
+		
+		char[] ranges = new char[2 * characters.cardinality()];
+		int    length = 0;
+		
+		int start = characters.nextSetBit(0);
+		
+		while (start != -1 && start < CHARACTER_COUNT) {
+			
+			int end = Math.min(characters.nextClearBit(start), CHARACTER_COUNT);
+			
+			ranges[length++] = (char)start;
+			ranges[length++] = (char)(end - 1);
+			
+			start = characters.nextSetBit(end);
+			
+		}
+		
+		return Arrays.copyOf(ranges, length);
+		
+	}
+	
+	/**
+	 * Returns a new char class regex matching a single character from
+	 * a range specified by the given character bounds.
+	 *
+	 * @param fromChar The lower bound character of the range.
+	 * @param toChar The upper bound character of the range.
+	 * @param priority The priority to assign to the regex.
+	 * @return A char class regex matching a range of characters.
+	 * @throws IllegalArgumentException If fromChar is greater than toChar.
+	 */
+	public static CharClassRegex fromRange(char fromChar, char toChar, int priority) {
+		
+		if (fromChar > toChar) {
+			throw new IllegalArgumentException("Invalid bounds: " +
+				"fromChar must be smaller or equal to toChar");
+		}
+		
+		BitSet characters = new BitSet(CHARACTER_COUNT);
+		
+		characters.set(fromChar, toChar + 1);
+		
+		return new CharClassRegex(characters, priority);
+		
+	}
+	
+	/**
+	 * Returns a new char class regex matching the characters matched
+	 * by the given single-character regex, or null if the characters
+	 * matched by that regex cannot be determined (see `characterSet`).
+	 *
+	 * @param regex The single-character regex.
+	 * @param priority The priority to assign to the regex.
+	 * @return A char class regex equivalent to the given regex, or null.
+	 */
+	@Nullable
+	static CharClassRegex fromRegex(@NotNull LexerRegex regex, int priority) {
+		
+		BitSet characters = characterSet(regex);
+		
+		return characters == null ? null : new CharClassRegex(characters, priority);
+		
+	}
+	
+	/**
+	 * Returns the set of characters matched by the given regex, if it
+	 * is a single-character regex built from unit regexes, general
+	 * category regexes and char class regexes, using unions,
+	 * intersections and negations. Otherwise, returns null.
+	 * The returned set may be modified by the caller.
+	 *
+	 * @param regex The regex of which to compute the character set.
+	 * @return The set of characters matched by the regex, or null.
+	 */
+	@Nullable
+	static BitSet characterSet(@NotNull LexerRegex regex) {
+		
+		BitSet characters;
+		
+		if (regex instanceof CharClassRegex) {
+			
+			char[] ranges = ((CharClassRegex)regex).RANGES;
+			
+			characters = new BitSet(CHARACTER_COUNT);
+			
+			for (int i = 0 ; i < ranges.length ; i += 2) {
+				characters.set(ranges[i], ranges[i + 1] + 1);
+			}
+			
+		} else if (regex instanceof UnitRegex) {
+			
+			String sequence = ((UnitRegex)regex).SEQUENCE;
+			
+			if (sequence.length() != 1) { return null; }
+			
+			characters = new BitSet(CHARACTER_COUNT);
+			
+			characters.set(sequence.charAt(0));
+			
+		} else if (regex instanceof GeneralCategoryRegex) {
+			
+			characters = (BitSet)((GeneralCategoryRegex)regex).CHARACTERS.clone();
+			
+		} else if (regex instanceof UnionRegex) {
+			
+			UnionRegex unionRegex = (UnionRegex)regex;
+			
+			characters = characterSet(unionRegex.FIRST_REGEX);
+			
+			BitSet secondCharacters = characterSet(unionRegex.SECOND_REGEX);
+			
+			if (characters == null || secondCharacters == null) { return null; }
+			
+			characters.or(secondCharacters);
+			
+		} else if (regex instanceof IntersectionRegex) {
+			
+			IntersectionRegex intersectionRegex = (IntersectionRegex)regex;
+			
+			characters = characterSet(intersectionRegex.FIRST_REGEX);
+			
+			BitSet secondCharacters = characterSet(intersectionRegex.SECOND_REGEX);
+			
+			if (characters == null || secondCharacters == null) { return null; }
+			
+			characters.and(secondCharacters);
+			
+		} else if (regex instanceof NotRegex) {
+			
+			characters = characterSet(((NotRegex)regex).REGEX);
+			
+			if (characters == null) { return null; }
+			
+			characters.flip(0, CHARACTER_COUNT);
+			
+		} else {
+			
+			return null;
+			
+		}
+		
+		return characters;
+		
+	}
+	
+	/**
+	 * Returns whether or not this regex matches the given character,
+	 * by binary search over the ranges of this regex.
+	 *
+	 * @param character The character to look up.
+	 * @return Whether or not the character is matched.
+	 */
+	boolean matches(char character) {
+		
+		int low  = 0;
+		int high = RANGES.length / 2 - 1;
+		
+		while (low <= high) {
+			
+			int middle = (low + high) >>> 1;
+			
+			if (character < RANGES[2 * middle]) {
+				high = middle - 1;
+			} else if (character > RANGES[2 * middle + 1]) {
+				low = middle + 1;
+			} else {
+				return true;
+			}
+			
+		}
+		
+		return false;
+		
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#nullable()
+	 */
+	@Override
+	public boolean nullable() { return false; }
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#charactersMatched()
+	 */
+	@Override
+	public int charactersMatched() { return 1; }
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#derivative(char)
+	 */
+	@Nullable
+	@Override
+	LexerRegex derivative(char character) {
+		return matches(character) ? new UnitRegex("", PRIORITY) : null;
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#collectCharacterSets(Set, Set)
+	 */
+	@Override
+	void collectCharacterSets(
+		@NotNull Set<Character>  unitCharacters,
+		@NotNull Set<LexerRegex> characterPredicates
+	) {
+		characterPredicates.add(PRIORITY == 0 ? this : new CharClassRegex(RANGES, 0));
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#equals(Object)
+	 */
+	@Override
+	public boolean equals(Object object) {
+		
+		if (this == object) { return true; }
+		else if (!(object instanceof CharClassRegex)) { return false; }
+		
+		CharClassRegex regex = (CharClassRegex)object;
+		
+		return PRIORITY == regex.PRIORITY && Arrays.equals(RANGES, regex.RANGES);
+		
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#structuralHashCode()
+	 */
+	@Override
+	int structuralHashCode() { return 9 * 31 + Arrays.hashCode(RANGES); }
+	
+}
@@ -109,6 +109,40 @@ public final class ConcatenationRegex extends LexerRegex {
 		return fromList(Arrays.asList(regexes));
 	}
 	
+	/**
+	 * Returns a regex matching the concatenation of the given regexes,
+	 * in normal form, where null stands for the empty set. This is used
+	 * to keep derivatives in normal form (see `UnionRegex.union`):
+	 * 1. The empty set is absorbed: the concatenation of null with
+	 *    any regex is null.
+	 * 2. Epsilon is absorbed: the concatenation of epsilon with a regex
+	 *    is that regex, provided it has the given priority.
+	 *
+	 * @param firstRegex The first regex, or null.
+	 * @param secondRegex The second regex, or null.
+	 * @param priority The priority of the concatenation.
+	 * @return The normalized concatenation, or null if either regex
+	 *         is null.
+	 */
+	@Nullable
+	static LexerRegex concatenation(
+		@Nullable LexerRegex firstRegex,
+		@Nullable LexerRegex secondRegex,
+		          int        priority
+	) {
+		
+		if (firstRegex == null || secondRegex == null) {
+			return null;
+		} else if (UnitRegex.isEpsilon(firstRegex) && secondRegex.PRIORITY == priority) {
+			return secondRegex;
+		} else if (UnitRegex.isEpsilon(secondRegex) && firstRegex.PRIORITY == priority) {
+			return firstRegex;
+		} else {
+			return new ConcatenationRegex(firstRegex, secondRegex, priority);
+		}
+		
+	}
+	
 	/**
 	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#nullable()
 	 */
@@ -132,47 +166,58 @@ public final class ConcatenationRegex extends LexerRegex {
 	}
 	
 	/**
-	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#advanced(char)
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#derivative(char)
 	 */
 	@Nullable
 	@Override
-	public LexerRegex advanced(char character) {
+	LexerRegex derivative(char character) {
 		
-		LexerRegex firstRegexAdvanced = FIRST_REGEX.advanced(character);
+		LexerRegex advancedRegex =
+			concatenation(FIRST_REGEX.advanced(character), SECOND_REGEX, PRIORITY);
 		
-		if (FIRST_REGEX.nullable()) {
-			
-			LexerRegex secondRegexAdvanced = SECOND_REGEX.advanced(character);
-			
-			if (firstRegexAdvanced == null && secondRegexAdvanced == null) {
-				
-				return null;
-				
-			} else if (firstRegexAdvanced == null) {
-			
-				return secondRegexAdvanced;
-			
-			} else if (secondRegexAdvanced == null) {
-			
-				return new ConcatenationRegex(firstRegexAdvanced, SECOND_REGEX, PRIORITY);
-			
-			} else {
-			
-				return new UnionRegex(
-					new ConcatenationRegex(firstRegexAdvanced, SECOND_REGEX, PRIORITY),
-					secondRegexAdvanced,
-					PRIORITY
-				);
-			
-			}
-			
-		} else {
-			
-			return firstRegexAdvanced == null ? null :
-				new ConcatenationRegex(firstRegexAdvanced, SECOND_REGEX, PRIORITY);
-			
-		}
+		// If the first regex is nullable, then the second regex
+		// may also start with the given character
+		
+		return FIRST_REGEX.nullable() ?
+			UnionRegex.union(advancedRegex, SECOND_REGEX.advanced(character), PRIORITY) :
+			advancedRegex;
 		
 	}
 	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#collectCharacterSets(Set, Set)
+	 */
+	@Override
+	void collectCharacterSets(
+		@NotNull Set<Character>  unitCharacters,
+		@NotNull Set<LexerRegex> characterPredicates
+	) {
+		FIRST_REGEX.collectCharacterSets(unitCharacters, characterPredicates);
+		SECOND_REGEX.collectCharacterSets(unitCharacters, characterPredicates);
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#equals(Object)
+	 */
+	@Override
+	public boolean equals(Object object) {
+		
+		if (this == object) { return true; }
+		else if (!(object instanceof ConcatenationRegex)) { return false; }
+		
+		ConcatenationRegex regex = (ConcatenationRegex)object;
+		
+		return PRIORITY == regex.PRIORITY &&
+			FIRST_REGEX.equals(regex.FIRST_REGEX) && SECOND_REGEX.equals(regex.SECOND_REGEX);
+		
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#structuralHashCode()
+	 */
+	@Override
+	int structuralHashCode() {
+		return (2 * 31 + FIRST_REGEX.hashCode()) * 31 + SECOND_REGEX.hashCode();
+	}
+	
 }
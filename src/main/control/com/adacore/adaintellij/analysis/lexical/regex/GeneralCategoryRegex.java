@@ -1,22 +1,84 @@
 package com.adacore.adaintellij.analysis.lexical.regex;
 
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.jetbrains.annotations.*;
 
 /**
  * Regex matching a single character from a specific "General Category",
- * as defined by the Unicode standard.
- * Internally, a regex of this class stores a Java pattern compiled to
- * match only characters from a specific general category.
+ * as defined by the Unicode standard, or from any of a set of general
+ * categories.
+ * Internally, a regex of this class stores a precomputed table of the
+ * characters of the Basic Multilingual Plane that belong to its
+ * general categories. Tables are built once and shared by all regexes
+ * matching the same set of general categories.
  */
 public final class GeneralCategoryRegex extends LexerRegex {
 	
 	/**
-	 * The internal pattern used to match a character
-	 * based on its general category.
+	 * The number of characters covered by character tables.
 	 */
-	private final Pattern PATTERN;
+	private static final int CHARACTER_COUNT = Character.MAX_VALUE + 1;
+	
+	/**
+	 * Map associating two-letter general category identifier strings
+	 * with their corresponding `Character.getType` values.
+	 */
+	private static final Map<String, Byte> CATEGORY_TYPES = new HashMap<>();
+	
+	/**
+	 * The shared character tables, keyed by sets of general category
+	 * identifier strings (see `tableKey`).
+	 */
+	private static final Map<String, BitSet> CHARACTER_TABLES = new ConcurrentHashMap<>();
+	
+	static {
+		
+		CATEGORY_TYPES.put("Cn", Character.UNASSIGNED);
+		CATEGORY_TYPES.put("Lu", Character.UPPERCASE_LETTER);
+		CATEGORY_TYPES.put("Ll", Character.LOWERCASE_LETTER);
+		CATEGORY_TYPES.put("Lt", Character.TITLECASE_LETTER);
+		CATEGORY_TYPES.put("Lm", Character.MODIFIER_LETTER);
+		CATEGORY_TYPES.put("Lo", Character.OTHER_LETTER);
+		CATEGORY_TYPES.put("Mn", Character.NON_SPACING_MARK);
+		CATEGORY_TYPES.put("Me", Character.ENCLOSING_MARK);
+		CATEGORY_TYPES.put("Mc", Character.COMBINING_SPACING_MARK);
+		CATEGORY_TYPES.put("Nd", Character.DECIMAL_DIGIT_NUMBER);
+		CATEGORY_TYPES.put("Nl", Character.LETTER_NUMBER);
+		CATEGORY_TYPES.put("No", Character.OTHER_NUMBER);
+		CATEGORY_TYPES.put("Zs", Character.SPACE_SEPARATOR);
+		CATEGORY_TYPES.put("Zl", Character.LINE_SEPARATOR);
+		CATEGORY_TYPES.put("Zp", Character.PARAGRAPH_SEPARATOR);
+		CATEGORY_TYPES.put("Cc", Character.CONTROL);
+		CATEGORY_TYPES.put("Cf", Character.FORMAT);
+		CATEGORY_TYPES.put("Co", Character.PRIVATE_USE);
+		CATEGORY_TYPES.put("Cs", Character.SURROGATE);
+		CATEGORY_TYPES.put("Pd", Character.DASH_PUNCTUATION);
+		CATEGORY_TYPES.put("Ps", Character.START_PUNCTUATION);
+		CATEGORY_TYPES.put("Pe", Character.END_PUNCTUATION);
+		CATEGORY_TYPES.put("Pc", Character.CONNECTOR_PUNCTUATION);
+		CATEGORY_TYPES.put("Po", Character.OTHER_PUNCTUATION);
+		CATEGORY_TYPES.put("Sm", Character.MATH_SYMBOL);
+		CATEGORY_TYPES.put("Sc", Character.CURRENCY_SYMBOL);
+		CATEGORY_TYPES.put("Sk", Character.MODIFIER_SYMBOL);
+		CATEGORY_TYPES.put("So", Character.OTHER_SYMBOL);
+		CATEGORY_TYPES.put("Pi", Character.INITIAL_QUOTE_PUNCTUATION);
+		CATEGORY_TYPES.put("Pf", Character.FINAL_QUOTE_PUNCTUATION);
+		
+	}
+	
+	/**
+	 * The general category identifier strings matched by this regex,
+	 * sorted and without duplicates.
+	 */
+	final String[] GENERAL_CATEGORIES;
+	
+	/**
+	 * The characters matched by this regex.
+	 */
+	final BitSet CHARACTERS;
 	
 	/**
 	 * Constructs a new general category regex given a general category
@@ -37,8 +99,116 @@ public final class GeneralCategoryRegex extends LexerRegex {
 	 * @param priority The priority to assign to the constructed regex.
 	 */
 	public GeneralCategoryRegex(@NotNull String generalCategory, int priority) {
+		this(new String[] { generalCategory }, priority);
+	}
+	
+	/**
+	 * Constructs a new general category regex given general category
+	 * identifier strings and a priority.
+	 *
+	 * @param generalCategories The general category identifier strings.
+	 * @param priority The priority to assign to the constructed regex.
+	 */
+	private GeneralCategoryRegex(@NotNull String[] generalCategories, int priority) {
+		
 		super(priority);
-		PATTERN  = Pattern.compile(String.format("\\p{%s}", generalCategory));
+		
+		GENERAL_CATEGORIES = new TreeSet<>(Arrays.asList(generalCategories)).toArray(new String[0]);
+		CHARACTERS         = CHARACTER_TABLES.computeIfAbsent(
+			tableKey(GENERAL_CATEGORIES), key -> characterTable(GENERAL_CATEGORIES));
+		
+	}
+	
+	/**
+	 * Returns a new general category regex matching a single character
+	 * from any of the given general categories. This is equivalent to,
+	 * but much cheaper to advance than, the union of the general
+	 * category regexes of the given categories.
+	 *
+	 * @param generalCategories The general category identifier strings.
+	 * @return A general category regex matching the given categories.
+	 */
+	public static GeneralCategoryRegex fromCategories(@NotNull String... generalCategories) {
+		return new GeneralCategoryRegex(generalCategories, 0);
+	}
+	
+	/**
+	 * Returns a new general category regex matching a single character
+	 * matched by any of the given general category regexes.
+	 *
+	 * @param regexes The general category regexes to unite.
+	 * @return A general category regex matching the categories of
+	 *         all given regexes.
+	 */
+	public static GeneralCategoryRegex fromRegexes(@NotNull GeneralCategoryRegex... regexes) {
+		
+		List<String> generalCategories = new ArrayList<>();
+		
+		for (GeneralCategoryRegex regex : regexes) {
+			generalCategories.addAll(Arrays.asList(regex.GENERAL_CATEGORIES));
+		}
+		
+		return new GeneralCategoryRegex(generalCategories.toArray(new String[0]), 0);
+		
+	}
+	
+	/**
+	 * Returns the key of the shared character table of the given sorted
+	 * general category identifier strings.
+	 *
+	 * @param generalCategories The general category identifier strings.
+	 * @return The key of the character table.
+	 */
+	@NotNull
+	private static String tableKey(@NotNull String[] generalCategories) {
+		return String.join("|", generalCategories);
+	}
+	
+	/**
+	 * Builds the table of characters belonging to any of the given
+	 * general categories.
+	 * Two-letter categories are looked up by `Character.getType`, which
+	 * is how Java patterns match them, and other categories supported
+	 * by Java patterns (e.g. "L") are matched by a pattern, only once
+	 * per character at build time.
+	 *
+	 * @param generalCategories The general category identifier strings.
+	 * @return The character table.
+	 */
+	@NotNull
+	private static BitSet characterTable(@NotNull String[] generalCategories) {
+		
+		BitSet characters = new BitSet(CHARACTER_COUNT);
+		
+		int types = 0;
+		
+		for (String generalCategory : generalCategories) {
+			
+			Byte type = CATEGORY_TYPES.get(generalCategory);
+			
+			if (type != null) {
+				types |= 1 << type;
+				continue;
+			}
+			
+			Pattern pattern = Pattern.compile(String.format("\\p{%s}", generalCategory));
+			
+			for (int character = 0 ; character < CHARACTER_COUNT ; character++) {
+				if (pattern.matcher(String.valueOf((char)character)).find()) {
+					characters.set(character);
+				}
+			}
+			
+		}
+		
+		for (int character = 0 ; character < CHARACTER_COUNT ; character++) {
+			if ((types & 1 << Character.getType(character)) != 0) {
+				characters.set(character);
+			}
+		}
+		
+		return characters;
+		
 	}
 	
 	/**
@@ -54,13 +224,45 @@ public final class GeneralCategoryRegex extends LexerRegex {
 	public int charactersMatched() { return 1; }
 	
 	/**
-	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#advanced(char)
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#derivative(char)
 	 */
 	@Nullable
 	@Override
-	public LexerRegex advanced(char character) {
-		return PATTERN.matcher(String.valueOf(character)).find() ?
-			new UnitRegex("") : null;
+	LexerRegex derivative(char character) {
+		return CHARACTERS.get(character) ? new UnitRegex("") : null;
 	}
 	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#collectCharacterSets(Set, Set)
+	 */
+	@Override
+	void collectCharacterSets(
+		@NotNull Set<Character>  unitCharacters,
+		@NotNull Set<LexerRegex> characterPredicates
+	) {
+		characterPredicates.add(new GeneralCategoryRegex(GENERAL_CATEGORIES, 0));
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#equals(Object)
+	 */
+	@Override
+	public boolean equals(Object object) {
+		
+		if (this == object) { return true; }
+		else if (!(object instanceof GeneralCategoryRegex)) { return false; }
+		
+		GeneralCategoryRegex regex = (GeneralCategoryRegex)object;
+		
+		return PRIORITY == regex.PRIORITY &&
+			Arrays.equals(GENERAL_CATEGORIES, regex.GENERAL_CATEGORIES);
+		
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#structuralHashCode()
+	 */
+	@Override
+	int structuralHashCode() { return 8 * 31 + Arrays.hashCode(GENERAL_CATEGORIES); }
+	
 }
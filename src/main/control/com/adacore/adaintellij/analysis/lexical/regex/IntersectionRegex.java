@@ -1,5 +1,7 @@
 package com.adacore.adaintellij.analysis.lexical.regex;
 
+import java.util.Set;
+
 import org.jetbrains.annotations.*;
 
 /**
@@ -45,6 +47,46 @@ public final class IntersectionRegex extends LexerRegex {
 		SECOND_REGEX = secondRegex;
 	}
 	
+	/**
+	 * Returns a new regex matching the intersection of two subregexes,
+	 * using fromRegexes(LexerRegex, LexerRegex, int) with the priority
+	 * set to 0.
+	 *
+	 * @param firstRegex The first subregex.
+	 * @param secondRegex The second subregex.
+	 * @return A regex matching the intersection of the subregexes.
+	 */
+	public static LexerRegex fromRegexes(
+		@NotNull LexerRegex firstRegex,
+		@NotNull LexerRegex secondRegex
+	) { return fromRegexes(firstRegex, secondRegex, 0); }
+	
+	/**
+	 * Returns a new regex matching the intersection of two subregexes.
+	 * If both subregexes are single-character regexes whose characters
+	 * can be determined (see `CharClassRegex.characterSet`), an
+	 * equivalent char class regex is returned, otherwise a new
+	 * intersection regex is returned.
+	 *
+	 * @param firstRegex The first subregex.
+	 * @param secondRegex The second subregex.
+	 * @param priority The priority to assign to the returned regex.
+	 * @return A regex matching the intersection of the subregexes.
+	 */
+	public static LexerRegex fromRegexes(
+		@NotNull LexerRegex firstRegex,
+		@NotNull LexerRegex secondRegex,
+		         int        priority
+	) {
+		
+		LexerRegex intersectionRegex = new IntersectionRegex(firstRegex, secondRegex, priority);
+		
+		LexerRegex charClassRegex = CharClassRegex.fromRegex(intersectionRegex, priority);
+		
+		return charClassRegex == null ? intersectionRegex : charClassRegex;
+		
+	}
+	
 	/**
 	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#nullable()
 	 */
@@ -67,11 +109,11 @@ public final class IntersectionRegex extends LexerRegex {
 	}
 	
 	/**
-	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#advanced(char)
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#derivative(char)
 	 */
 	@Nullable
 	@Override
-	public LexerRegex advanced(char character) {
+	LexerRegex derivative(char character) {
 		
 		LexerRegex firstRegexAdvanced  = FIRST_REGEX.advanced(character);
 		LexerRegex secondRegexAdvanced = SECOND_REGEX.advanced(character);
@@ -81,4 +123,40 @@ public final class IntersectionRegex extends LexerRegex {
 		
 	}
 	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#collectCharacterSets(Set, Set)
+	 */
+	@Override
+	void collectCharacterSets(
+		@NotNull Set<Character>  unitCharacters,
+		@NotNull Set<LexerRegex> characterPredicates
+	) {
+		FIRST_REGEX.collectCharacterSets(unitCharacters, characterPredicates);
+		SECOND_REGEX.collectCharacterSets(unitCharacters, characterPredicates);
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#equals(Object)
+	 */
+	@Override
+	public boolean equals(Object object) {
+		
+		if (this == object) { return true; }
+		else if (!(object instanceof IntersectionRegex)) { return false; }
+		
+		IntersectionRegex regex = (IntersectionRegex)object;
+		
+		return PRIORITY == regex.PRIORITY &&
+			FIRST_REGEX.equals(regex.FIRST_REGEX) && SECOND_REGEX.equals(regex.SECOND_REGEX);
+		
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#structuralHashCode()
+	 */
+	@Override
+	int structuralHashCode() {
+		return (3 * 31 + FIRST_REGEX.hashCode()) * 31 + SECOND_REGEX.hashCode();
+	}
+	
 }
@@ -0,0 +1,836 @@
+package com.adacore.adaintellij.analysis.lexical.regex;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.jetbrains.annotations.*;
+
+/**
+ * Deterministic finite automaton compiled from an ordered list of
+ * root regexes, with a dense transition table.
+ *
+ * Every state of the automaton represents the list of regexes obtained
+ * by advancing each root regex by the same sequence of characters (null
+ * for roots that did not advance successfully), in other words the set
+ * of "regex lineages" that a lexer keeps track of while analysing a
+ * token. Two such lists that are structurally equal lead to the same
+ * state, which keeps the number of states finite.
+ *
+ * Characters are partitioned into classes of characters that every
+ * regex treats identically, so that the transition table only needs
+ * one column per character class instead of one per character:
+ *
+ *                   character --> character class
+ *     (state, character class) --> state
+ *
+ * A state "accepts" a root regex if the advanced regex of that root is
+ * nullable in that state. When several advanced regexes are nullable,
+ * the one with the highest priority is accepted, and ties are broken in
+ * favor of the root appearing first in the list of roots.
+ */
+public final class LexerAutomaton {
+	
+	/*
+		Constants
+	*/
+	
+	/**
+	 * The initial state of every automaton, in which no character has
+	 * been analysed yet.
+	 */
+	public static final int INITIAL_STATE = 0;
+	
+	/**
+	 * The "state" returned by transitions on characters by which none
+	 * of the regexes of the source state can advance.
+	 */
+	public static final int DEAD_STATE = -1;
+	
+	/**
+	 * Returned by `acceptedRoot` for states that do not accept any root.
+	 */
+	public static final int NO_ROOT = -1;
+	
+	/**
+	 * The maximum number of states an automaton may have. This guards
+	 * against grammars whose derivatives do not converge.
+	 */
+	static final int MAX_STATES = 8192;
+	
+	/**
+	 * The number of characters in a block of the two-level character
+	 * class table.
+	 */
+	private static final int BLOCK_SIZE = 256;
+	
+	/**
+	 * The number of ASCII characters, which are classified through
+	 * a flat table rather than the two-level table.
+	 */
+	private static final int ASCII_SIZE = 128;
+	
+	/**
+	 * The first bytes of serialized automaton tables ("LXAT"), and the
+	 * version of their format, to be incremented whenever the format
+	 * or the compilation of automata changes.
+	 */
+	private static final int TABLES_MAGIC   = 0x4c584154;
+	private static final int TABLES_VERSION = 1;
+	
+	/*
+		Fields
+	*/
+	
+	/**
+	 * The number of root regexes from which this automaton was compiled.
+	 */
+	private final int ROOT_COUNT;
+	
+	/**
+	 * The number of character classes of this automaton.
+	 */
+	private final int CLASS_COUNT;
+	
+	/**
+	 * Two-level character class table: the class of a character `c` is
+	 * `CLASS_TABLE[CLASS_BLOCKS[c / BLOCK_SIZE] * BLOCK_SIZE + c % BLOCK_SIZE]`.
+	 * Identical blocks are shared, which keeps the table small as most
+	 * blocks of the Basic Multilingual Plane only contain one class.
+	 */
+	private final char[] CLASS_BLOCKS;
+	private final char[] CLASS_TABLE;
+	
+	/**
+	 * The class of every ASCII character, derived from the two-level
+	 * table. Source files are almost entirely made of ASCII characters,
+	 * which are therefore classified with a single table lookup.
+	 */
+	private final int[] ASCII_CLASSES;
+	
+	/**
+	 * The dense transition table: the state reached from state `s` by
+	 * a character of class `k` is `TRANSITIONS[s * CLASS_COUNT + k]`.
+	 */
+	private final int[] TRANSITIONS;
+	
+	/**
+	 * The index of the root accepted by every state, or NO_ROOT.
+	 */
+	private final int[] ACCEPTED_ROOTS;
+	
+	/**
+	 * The indices, in increasing order, of the roots that can advance
+	 * by a character of every class from the initial state. Classes
+	 * leading to the same state share the same array.
+	 */
+	private final int[][] STARTING_ROOTS;
+	
+	/*
+		Constructors
+	*/
+	
+	/**
+	 * Constructs a new lexer automaton given its tables.
+	 *
+	 * @param rootCount The number of root regexes.
+	 * @param classCount The number of character classes.
+	 * @param classBlocks The block indices of the character class table.
+	 * @param classTable The blocks of the character class table.
+	 * @param transitions The dense transition table.
+	 * @param acceptedRoots The roots accepted by every state.
+	 * @param startingRoots The roots starting with every class.
+	 */
+	private LexerAutomaton(
+		int     rootCount,
+		int     classCount,
+		char[]  classBlocks,
+		char[]  classTable,
+		int[]   transitions,
+		int[]   acceptedRoots,
+		int[][] startingRoots
+	) {
+		
+		ROOT_COUNT     = rootCount;
+		CLASS_COUNT    = classCount;
+		CLASS_BLOCKS   = classBlocks;
+		CLASS_TABLE    = classTable;
+		TRANSITIONS    = transitions;
+		ACCEPTED_ROOTS = acceptedRoots;
+		STARTING_ROOTS = startingRoots;
+		ASCII_CLASSES  = new int[ASCII_SIZE];
+		
+		for (char character = 0 ; character < ASCII_SIZE ; character++) {
+			ASCII_CLASSES[character] = tableClass(character);
+		}
+		
+	}
+	
+	/*
+		Compilation
+	*/
+	
+	/**
+	 * Compiles the given list of root regexes into a case-sensitive
+	 * lexer automaton, using compile(List, boolean).
+	 *
+	 * @param rootRegexes The root regexes to compile.
+	 * @return The compiled automaton.
+	 * @throws IllegalStateException If the automaton would have more
+	 *                               than MAX_STATES states.
+	 */
+	@NotNull
+	public static LexerAutomaton compile(@NotNull List<LexerRegex> rootRegexes) {
+		return compile(rootRegexes, false);
+	}
+	
+	/**
+	 * Compiles the given list of root regexes into a lexer automaton.
+	 * The order of the list determines the root indices returned by
+	 * `acceptedRoot`.
+	 * A case-insensitive automaton treats every character as its
+	 * lowercase version (as returned by `Character.toLowerCase`),
+	 * which only affects its character class table, so that case is
+	 * folded at no cost while running the automaton.
+	 *
+	 * @param rootRegexes The root regexes to compile.
+	 * @param caseInsensitive Whether or not the automaton should fold
+	 *                        characters to lowercase.
+	 * @return The compiled automaton.
+	 * @throws IllegalStateException If the automaton would have more
+	 *                               than MAX_STATES states.
+	 */
+	@NotNull
+	public static LexerAutomaton compile(
+		@NotNull List<LexerRegex> rootRegexes,
+		         boolean          caseInsensitive
+	) {
+		
+		int rootCount = rootRegexes.size();
+		
+		// Gather the characters and character predicates from
+		// which the root regexes are built
+		
+		Set<Character>  unitCharacters      = new HashSet<>();
+		Set<LexerRegex> characterPredicates = new LinkedHashSet<>();
+		
+		for (LexerRegex regex : rootRegexes) {
+			regex.collectCharacterSets(unitCharacters, characterPredicates);
+		}
+		
+		LexerRegex[] predicates = characterPredicates.toArray(new LexerRegex[0]);
+		
+		// Partition characters into classes: two characters belong to
+		// the same class if they are the same unit character, or if
+		// neither is a unit character and they satisfy the same
+		// character predicates
+		
+		Map<BitSet, Integer> classIndices   = new HashMap<>();
+		List<Character>      representatives = new ArrayList<>();
+		
+		char[] characterClasses = new char[Character.MAX_VALUE + 1];
+		
+		for (int code = 0 ; code <= Character.MAX_VALUE ; code++) {
+			
+			char character = (char)code;
+			
+			BitSet signature = new BitSet();
+			
+			if (unitCharacters.contains(character)) {
+				signature.set(predicates.length + code);
+			} else {
+				for (int i = 0 ; i < predicates.length ; i++) {
+					if (predicates[i].derivative(character) != null) { signature.set(i); }
+				}
+			}
+			
+			Integer classIndex = classIndices.get(signature);
+			
+			if (classIndex == null) {
+				classIndex = representatives.size();
+				classIndices.put(signature, classIndex);
+				representatives.add(character);
+			}
+			
+			characterClasses[code] = (char)(int)classIndex;
+			
+		}
+		
+		int classCount = representatives.size();
+		
+		// Explore the states reachable from the initial state, whose
+		// regexes are the root regexes themselves
+		
+		Map<List<LexerRegex>, Integer> stateIndices = new HashMap<>();
+		List<LexerRegex[]>             states       = new ArrayList<>();
+		
+		LexerRegex[] initialState = rootRegexes.toArray(new LexerRegex[0]);
+		
+		stateIndices.put(Arrays.asList(initialState), INITIAL_STATE);
+		states.add(initialState);
+		
+		int[] transitions = new int[classCount];
+		
+		for (int stateIndex = 0 ; stateIndex < states.size() ; stateIndex++) {
+			
+			LexerRegex[] state = states.get(stateIndex);
+			
+			while (transitions.length < (stateIndex + 1) * classCount) {
+				transitions = Arrays.copyOf(transitions, transitions.length * 2);
+			}
+			
+			for (int classIndex = 0 ; classIndex < classCount ; classIndex++) {
+				
+				char representative = representatives.get(classIndex);
+				
+				LexerRegex[] nextState = new LexerRegex[rootCount];
+				boolean      alive     = false;
+				
+				for (int root = 0 ; root < rootCount ; root++) {
+					
+					LexerRegex regex = state[root];
+					
+					if (regex == null) { continue; }
+					
+					LexerRegex advancedRegex = regex.advanced(representative);
+					
+					nextState[root] = advancedRegex;
+					
+					if (advancedRegex != null) { alive = true; }
+					
+				}
+				
+				int nextStateIndex = DEAD_STATE;
+				
+				if (alive) {
+					
+					List<LexerRegex> nextStateKey = Arrays.asList(nextState);
+					
+					Integer index = stateIndices.get(nextStateKey);
+					
+					if (index == null) {
+						
+						if (states.size() == MAX_STATES) {
+							throw new IllegalStateException(
+								"Lexer automaton exceeds " + MAX_STATES + " states");
+						}
+						
+						index = states.size();
+						stateIndices.put(nextStateKey, index);
+						states.add(nextState);
+						
+					}
+					
+					nextStateIndex = index;
+					
+				}
+				
+				transitions[stateIndex * classCount + classIndex] = nextStateIndex;
+				
+			}
+			
+		}
+		
+		// Merge the character classes that lead to the same state from
+		// every state, as characters only need to be distinguished by
+		// the automaton if they lead to different states
+		
+		int stateCount = states.size();
+		
+		Map<List<Integer>, Integer> mergedClassIndices = new HashMap<>();
+		
+		int[] mergedClasses = new int[classCount];
+		
+		for (int classIndex = 0 ; classIndex < classCount ; classIndex++) {
+			
+			List<Integer> column = new ArrayList<>(stateCount);
+			
+			for (int stateIndex = 0 ; stateIndex < stateCount ; stateIndex++) {
+				column.add(transitions[stateIndex * classCount + classIndex]);
+			}
+			
+			Integer mergedClassIndex = mergedClassIndices.get(column);
+			
+			if (mergedClassIndex == null) {
+				mergedClassIndex = mergedClassIndices.size();
+				mergedClassIndices.put(column, mergedClassIndex);
+			}
+			
+			mergedClasses[classIndex] = mergedClassIndex;
+			
+		}
+		
+		int mergedClassCount = mergedClassIndices.size();
+		
+		int[] mergedTransitions = new int[stateCount * mergedClassCount];
+		
+		for (int stateIndex = 0 ; stateIndex < stateCount ; stateIndex++) {
+			for (int classIndex = 0 ; classIndex < classCount ; classIndex++) {
+				mergedTransitions[stateIndex * mergedClassCount + mergedClasses[classIndex]] =
+					transitions[stateIndex * classCount + classIndex];
+			}
+		}
+		
+		for (int code = 0 ; code <= Character.MAX_VALUE ; code++) {
+			characterClasses[code] = (char)mergedClasses[characterClasses[code]];
+		}
+		
+		// Fold characters to lowercase if necessary, by giving every
+		// character the class of its lowercase version
+		
+		if (caseInsensitive) {
+			
+			char[] caseSensitiveClasses = characterClasses.clone();
+			
+			for (int code = 0 ; code <= Character.MAX_VALUE ; code++) {
+				characterClasses[code] = caseSensitiveClasses[Character.toLowerCase((char)code)];
+			}
+			
+		}
+		
+		// Build the two-level character class table by sharing
+		// identical blocks
+		
+		Map<String, Integer> blockIndices = new HashMap<>();
+		
+		char[]        classBlocks = new char[characterClasses.length / BLOCK_SIZE];
+		StringBuilder classTable  = new StringBuilder();
+		
+		for (int block = 0 ; block < classBlocks.length ; block++) {
+			
+			String blockClasses = new String(characterClasses, block * BLOCK_SIZE, BLOCK_SIZE);
+			
+			Integer blockIndex = blockIndices.get(blockClasses);
+			
+			if (blockIndex == null) {
+				blockIndex = blockIndices.size();
+				blockIndices.put(blockClasses, blockIndex);
+				classTable.append(blockClasses);
+			}
+			
+			classBlocks[block] = (char)(int)blockIndex;
+			
+		}
+		
+		// Determine the root accepted by every state
+		
+		int[] acceptedRoots = new int[stateCount];
+		
+		for (int stateIndex = 0 ; stateIndex < stateCount ; stateIndex++) {
+			
+			LexerRegex[] state = states.get(stateIndex);
+			
+			int acceptedRoot = NO_ROOT;
+			
+			for (int root = 0 ; root < rootCount ; root++) {
+				
+				LexerRegex regex = state[root];
+				
+				if (
+					regex != null && regex.nullable() &&
+						(
+							acceptedRoot == NO_ROOT ||
+								regex.PRIORITY > state[acceptedRoot].PRIORITY
+						)
+				) {
+					acceptedRoot = root;
+				}
+				
+			}
+			
+			acceptedRoots[stateIndex] = acceptedRoot;
+			
+		}
+		
+		// Determine, for every character class, the roots that can
+		// start with a character of that class, i.e. the roots that
+		// are still alive in the state reached from the initial state
+		
+		int[][]             startingRoots        = new int[mergedClassCount][];
+		Map<Integer, int[]> startingRootsByState = new HashMap<>();
+		
+		for (int classIndex = 0 ; classIndex < mergedClassCount ; classIndex++) {
+			
+			int nextStateIndex = mergedTransitions[INITIAL_STATE * mergedClassCount + classIndex];
+			
+			startingRoots[classIndex] = startingRootsByState.computeIfAbsent(nextStateIndex, index -> {
+				
+				if (index == DEAD_STATE) { return new int[0]; }
+				
+				LexerRegex[] state = states.get(index);
+				
+				int[] roots     = new int[rootCount];
+				int   rootIndex = 0;
+				
+				for (int root = 0 ; root < rootCount ; root++) {
+					if (state[root] != null) { roots[rootIndex++] = root; }
+				}
+				
+				return Arrays.copyOf(roots, rootIndex);
+				
+			});
+			
+		}
+		
+		return new LexerAutomaton(
+			rootCount,
+			mergedClassCount,
+			classBlocks,
+			classTable.toString().toCharArray(),
+			mergedTransitions,
+			acceptedRoots,
+			startingRoots
+		);
+		
+	}
+	
+	/*
+		Serialization
+	*/
+	
+	/**
+	 * Returns the fingerprint of the automaton compiled from the given
+	 * root regexes, used to check that serialized tables still match
+	 * the regexes from which an automaton would be compiled.
+	 * The fingerprint covers the structure of the regexes (through their
+	 * structural hash codes), the order of the roots, case-insensitivity,
+	 * the format of the tables and the Java version, which determines
+	 * the Unicode version of general category regexes.
+	 *
+	 * @param rootRegexes The root regexes.
+	 * @param caseInsensitive Whether or not the automaton folds
+	 *                        characters to lowercase.
+	 * @return The fingerprint.
+	 */
+	public static long fingerprint(
+		@NotNull List<LexerRegex> rootRegexes,
+		         boolean          caseInsensitive
+	) {
+		
+		long fingerprint = TABLES_VERSION;
+		
+		fingerprint = fingerprint * 1_000_003 + System.getProperty("java.specification.version").hashCode();
+		fingerprint = fingerprint * 1_000_003 + (caseInsensitive ? 1 : 0);
+		fingerprint = fingerprint * 1_000_003 + rootRegexes.size();
+		
+		for (LexerRegex regex : rootRegexes) {
+			fingerprint = fingerprint * 1_000_003 + regex.hashCode();
+		}
+		
+		return fingerprint;
+		
+	}
+	
+	/**
+	 * Writes the tables of this automaton, compressed, to the given
+	 * output stream, along with the given fingerprint (see `fingerprint`).
+	 * The output stream is not closed.
+	 *
+	 * @param output The output stream to write to.
+	 * @param fingerprint The fingerprint of the root regexes of this
+	 *                    automaton.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void write(@NotNull OutputStream output, long fingerprint) throws IOException {
+		
+		GZIPOutputStream compressedOutput = new GZIPOutputStream(output);
+		DataOutputStream dataOutput       = new DataOutputStream(
+			new BufferedOutputStream(compressedOutput));
+		
+		dataOutput.writeInt(TABLES_MAGIC);
+		dataOutput.writeInt(TABLES_VERSION);
+		dataOutput.writeLong(fingerprint);
+		
+		dataOutput.writeInt(ROOT_COUNT);
+		dataOutput.writeInt(CLASS_COUNT);
+		
+		writeCharacters(dataOutput, CLASS_BLOCKS);
+		writeCharacters(dataOutput, CLASS_TABLE);
+		writeIntegers(dataOutput, TRANSITIONS);
+		writeIntegers(dataOutput, ACCEPTED_ROOTS);
+		
+		dataOutput.writeInt(STARTING_ROOTS.length);
+		
+		for (int[] roots : STARTING_ROOTS) { writeIntegers(dataOutput, roots); }
+		
+		dataOutput.flush();
+		compressedOutput.finish();
+		
+	}
+	
+	/**
+	 * Reads automaton tables written by `write` from the given input
+	 * stream, provided they were written with the given fingerprint.
+	 * The input stream is not closed.
+	 *
+	 * @param input The input stream to read from.
+	 * @param fingerprint The expected fingerprint.
+	 * @return The read automaton, or null if the tables were written
+	 *         with another fingerprint or in another format.
+	 * @throws IOException If an I/O error occurs or if the tables
+	 *                     are corrupted.
+	 */
+	@Nullable
+	public static LexerAutomaton read(@NotNull InputStream input, long fingerprint) throws IOException {
+		
+		DataInputStream dataInput =
+			new DataInputStream(new BufferedInputStream(new GZIPInputStream(input)));
+		
+		if (
+			dataInput.readInt() != TABLES_MAGIC ||
+				dataInput.readInt() != TABLES_VERSION ||
+				dataInput.readLong() != fingerprint
+		) {
+			return null;
+		}
+		
+		int rootCount  = dataInput.readInt();
+		int classCount = dataInput.readInt();
+		
+		char[] classBlocks   = readCharacters(dataInput);
+		char[] classTable    = readCharacters(dataInput);
+		int[]  transitions   = readIntegers(dataInput);
+		int[]  acceptedRoots = readIntegers(dataInput);
+		
+		int[][] startingRoots = new int[dataInput.readInt()][];
+		
+		for (int classIndex = 0 ; classIndex < startingRoots.length ; classIndex++) {
+			startingRoots[classIndex] = readIntegers(dataInput);
+		}
+		
+		if (
+			classBlocks.length != (Character.MAX_VALUE + 1) / BLOCK_SIZE ||
+				transitions.length != acceptedRoots.length * classCount ||
+				startingRoots.length != classCount
+		) {
+			throw new IOException("Corrupted lexer automaton tables");
+		}
+		
+		return new LexerAutomaton(
+			rootCount,
+			classCount,
+			classBlocks,
+			classTable,
+			transitions,
+			acceptedRoots,
+			startingRoots
+		);
+		
+	}
+	
+	/**
+	 * Returns the automaton of the given root regexes, read from the
+	 * given serialized tables if they match the root regexes, or
+	 * compiled from the root regexes otherwise (e.g. if the tables are
+	 * missing, stale or corrupted). The input stream is closed.
+	 *
+	 * @param tables The input stream of serialized tables, or null.
+	 * @param rootRegexes The root regexes of the automaton.
+	 * @param caseInsensitive Whether or not the automaton folds
+	 *                        characters to lowercase.
+	 * @return The loaded or compiled automaton.
+	 * @throws IllegalStateException If the automaton needs to be
+	 *                               compiled and would have more
+	 *                               than MAX_STATES states.
+	 */
+	@NotNull
+	public static LexerAutomaton load(
+		@Nullable InputStream      tables,
+		@NotNull  List<LexerRegex> rootRegexes,
+		          boolean          caseInsensitive
+	) {
+		
+		if (tables != null) {
+			
+			try (InputStream input = tables) {
+				
+				LexerAutomaton automaton =
+					read(input, fingerprint(rootRegexes, caseInsensitive));
+				
+				if (automaton != null) { return automaton; }
+				
+			} catch (IOException exception) {
+				
+				// Fall back to compiling the automaton
+				
+			}
+			
+		}
+		
+		return compile(rootRegexes, caseInsensitive);
+		
+	}
+	
+	/**
+	 * Writes the given array of characters, preceded by its length.
+	 *
+	 * @param output The output to write to.
+	 * @param characters The characters to write.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static void writeCharacters(
+		@NotNull DataOutput output,
+		@NotNull char[]     characters
+	) throws IOException {
+		
+		output.writeInt(characters.length);
+		
+		for (char character : characters) { output.writeChar(character); }
+		
+	}
+	
+	/**
+	 * Writes the given array of integers, preceded by its length.
+	 *
+	 * @param output The output to write to.
+	 * @param integers The integers to write.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static void writeIntegers(
+		@NotNull DataOutput output,
+		@NotNull int[]      integers
+	) throws IOException {
+		
+		output.writeInt(integers.length);
+		
+		for (int integer : integers) { output.writeInt(integer); }
+		
+	}
+	
+	/**
+	 * Reads an array of characters written by `writeCharacters`.
+	 *
+	 * @param input The input to read from.
+	 * @return The read characters.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@NotNull
+	private static char[] readCharacters(@NotNull DataInput input) throws IOException {
+		
+		char[] characters = new char[readLength(input)];
+		
+		for (int i = 0 ; i < characters.length ; i++) { characters[i] = input.readChar(); }
+		
+		return characters;
+		
+	}
+	
+	/**
+	 * Reads an array of integers written by `writeIntegers`.
+	 *
+	 * @param input The input to read from.
+	 * @return The read integers.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@NotNull
+	private static int[] readIntegers(@NotNull DataInput input) throws IOException {
+		
+		int[] integers = new int[readLength(input)];
+		
+		for (int i = 0 ; i < integers.length ; i++) { integers[i] = input.readInt(); }
+		
+		return integers;
+		
+	}
+	
+	/**
+	 * Reads the length of an array, guarding against corrupted tables
+	 * that would lead to huge allocations.
+	 *
+	 * @param input The input to read from.
+	 * @return The read length.
+	 * @throws IOException If an I/O error occurs or if the length
+	 *                     is invalid.
+	 */
+	private static int readLength(@NotNull DataInput input) throws IOException {
+		
+		int length = input.readInt();
+		
+		if (length < 0 || length > MAX_STATES * (Character.MAX_VALUE + 1)) {
+			throw new IOException("Corrupted lexer automaton tables");
+		}
+		
+		return length;
+		
+	}
+	
+	/*
+		Accessors
+	*/
+	
+	/**
+	 * Returns the number of root regexes from which this automaton
+	 * was compiled.
+	 *
+	 * @return The number of root regexes.
+	 */
+	public int rootCount() { return ROOT_COUNT; }
+	
+	/**
+	 * Returns the number of states of this automaton.
+	 *
+	 * @return The number of states.
+	 */
+	public int stateCount() { return ACCEPTED_ROOTS.length; }
+	
+	/**
+	 * Returns the number of character classes of this automaton.
+	 *
+	 * @return The number of character classes.
+	 */
+	public int classCount() { return CLASS_COUNT; }
+	
+	/**
+	 * Returns the class of the given character.
+	 *
+	 * @param character The character to classify.
+	 * @return The class of the character.
+	 */
+	public int characterClass(char character) {
+		return character < ASCII_SIZE ? ASCII_CLASSES[character] : tableClass(character);
+	}
+	
+	/**
+	 * Returns the class of the given character, as given by the
+	 * two-level character class table.
+	 *
+	 * @param character The character to classify.
+	 * @return The class of the character.
+	 */
+	private int tableClass(char character) {
+		return CLASS_TABLE[CLASS_BLOCKS[character >>> 8] << 8 | character & 0xff];
+	}
+	
+	/**
+	 * Returns the state reached from the given state by the given
+	 * character.
+	 *
+	 * @param state The source state.
+	 * @param character The character by which to advance.
+	 * @return The reached state, or DEAD_STATE.
+	 */
+	public int nextState(int state, char character) {
+		return TRANSITIONS[state * CLASS_COUNT + characterClass(character)];
+	}
+	
+	/**
+	 * Returns the index of the root regex accepted by the given state.
+	 *
+	 * @param state The state.
+	 * @return The accepted root index, or NO_ROOT.
+	 */
+	public int acceptedRoot(int state) { return ACCEPTED_ROOTS[state]; }
+	
+	/**
+	 * Returns the indices, in increasing order, of the root regexes
+	 * that can advance by the given character from the initial state,
+	 * i.e. the only roots that can match a token starting with that
+	 * character. The returned array must not be modified.
+	 *
+	 * @param character The first character of a token.
+	 * @return The indices of the roots starting with the character.
+	 */
+	@NotNull
+	public int[] startingRoots(char character) { return STARTING_ROOTS[characterClass(character)]; }
+	
+}
@@ -1,5 +1,9 @@
 package com.adacore.adaintellij.analysis.lexical.regex;
 
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.jetbrains.annotations.*;
 
 /**
@@ -10,6 +14,13 @@ import org.jetbrains.annotations.*;
  * incrementally, filtering out non matching regexes along the way.
  * Any implementing class must be immutable by design. This allows
  * regexes to be reused when defining complex regexes.
+ *
+ * Regexes are compared structurally, and the regexes returned by
+ * `advanced` are canonical instances taken from a global interning
+ * table. Every regex also memoizes its derivatives, so advancing the
+ * same regex by characters of the same class only computes the
+ * derivative once, after which the shared canonical instance is
+ * returned without any allocation.
  */
 public abstract class LexerRegex {
 	
@@ -20,6 +31,70 @@ public abstract class LexerRegex {
 	 */
 	public final int PRIORITY;
 	
+	/**
+	 * Derivatives by characters below this limit are computed for each
+	 * character, and derivatives by other characters are computed once
+	 * per character class.
+	 */
+	private static final int UNCLASSIFIED_CHARACTERS = 128;
+	
+	/**
+	 * The number of characters in a block of cached derivatives.
+	 */
+	private static final int BLOCK_SIZE = 256;
+	
+	/**
+	 * Marker cached for characters by which a regex cannot advance.
+	 */
+	private static final Object NO_DERIVATIVE = new Object();
+	
+	/**
+	 * The interning table mapping regexes to their canonical instance.
+	 * Canonical instances are only weakly referenced, so derivatives
+	 * that are no longer reachable from any regex cache can be
+	 * garbage collected.
+	 */
+	private static final Map<LexerRegex, WeakReference<LexerRegex>> CANONICAL_REGEXES =
+		new WeakHashMap<>();
+	
+	/**
+	 * The number of regexes stored in the interning table so far, that
+	 * is the number of distinct regex nodes allocated, mostly as
+	 * derivatives. Only updated, while holding the lock of the interning
+	 * table, when a regex is interned for the first time.
+	 */
+	private static volatile long internedRegexCount = 0;
+	
+	/**
+	 * The cached derivatives of this regex, by blocks of BLOCK_SIZE
+	 * characters, lazily allocated.
+	 * Every element is either null (not computed yet), NO_DERIVATIVE or
+	 * a canonical regex. Races between threads are benign as derivatives
+	 * are deterministic and regexes are immutable.
+	 */
+	private Object[][] derivativeBlocks;
+	
+	/**
+	 * The cached derivatives of this regex by characters above
+	 * UNCLASSIFIED_CHARACTERS, keyed by character class (see
+	 * `characterClassKey`), lazily allocated. This map is only
+	 * used to share derivatives between the characters of a class
+	 * when filling derivative blocks.
+	 */
+	private volatile Map<Long, Object> classDerivatives;
+	
+	/**
+	 * The unit characters and character predicates from which this
+	 * regex is built, lazily computed to classify characters.
+	 */
+	private volatile CharacterSets characterSets;
+	
+	/**
+	 * The cached structural hash code of this regex, or 0 if it has
+	 * not been computed yet.
+	 */
+	private int hashCode;
+	
 	/**
 	 * Constructs a new LexerRegex.
 	 */
@@ -79,6 +154,276 @@ public abstract class LexerRegex {
 	 * @return The advanced regex.
 	 */
 	@Nullable
-	public abstract LexerRegex advanced(char character);
+	public final LexerRegex advanced(char character) {
+		
+		Object[][] blocks = derivativeBlocks;
+		
+		if (blocks == null) {
+			blocks           = new Object[(Character.MAX_VALUE + 1) / BLOCK_SIZE][];
+			derivativeBlocks = blocks;
+		}
+		
+		Object[] block = blocks[character / BLOCK_SIZE];
+		
+		if (block == null) {
+			block                          = new Object[BLOCK_SIZE];
+			blocks[character / BLOCK_SIZE] = block;
+		}
+		
+		Object derivative = block[character % BLOCK_SIZE];
+		
+		if (derivative == null) {
+			
+			derivative = character < UNCLASSIFIED_CHARACTERS ?
+				canonicalDerivative(character) : classDerivative(character);
+			
+			block[character % BLOCK_SIZE] = derivative;
+			
+		}
+		
+		return derivative == NO_DERIVATIVE ? null : (LexerRegex)derivative;
+		
+	}
+	
+	/**
+	 * Computes the derivative of this regex by the given character,
+	 * i.e. the regex returned by `advanced` before any caching.
+	 * Implementations may freely allocate new regexes, as they are
+	 * only called once per character class.
+	 *
+	 * @param character The character by which to advance this regex.
+	 * @return The advanced regex.
+	 */
+	@Nullable
+	abstract LexerRegex derivative(char character);
+	
+	/**
+	 * Returns the canonical instance of the derivative of this regex
+	 * by the given character, or NO_DERIVATIVE if this regex cannot
+	 * advance by that character.
+	 *
+	 * @param character The character by which to advance this regex.
+	 * @return The canonical derivative.
+	 */
+	@NotNull
+	private Object canonicalDerivative(char character) {
+		
+		LexerRegex derivative = derivative(character);
+		
+		return derivative == null ? NO_DERIVATIVE : derivative.intern();
+		
+	}
+	
+	/**
+	 * Returns the canonical derivative of this regex by the given
+	 * character, or NO_DERIVATIVE, computing it only once for all the
+	 * characters of the class of the given character.
+	 *
+	 * @param character The character by which to advance this regex.
+	 * @return The canonical derivative.
+	 */
+	@NotNull
+	private Object classDerivative(char character) {
+		
+		Map<Long, Object> derivatives = classDerivatives;
+		
+		if (derivatives == null) {
+			derivatives      = new ConcurrentHashMap<>();
+			classDerivatives = derivatives;
+		}
+		
+		Long classKey = characterClassKey(character);
+		
+		Object derivative = derivatives.get(classKey);
+		
+		if (derivative == null) {
+			derivative = canonicalDerivative(character);
+			derivatives.put(classKey, derivative);
+		}
+		
+		return derivative;
+		
+	}
+	
+	/**
+	 * Returns a key identifying the class of the given character with
+	 * respect to this regex: characters with the same key are treated
+	 * identically by this regex, and therefore lead to the same
+	 * derivative.
+	 * Unit characters of this regex are keyed by the character itself,
+	 * other characters by the set of character predicates they satisfy.
+	 *
+	 * @param character The character to classify.
+	 * @return The class key of the character.
+	 */
+	private long characterClassKey(char character) {
+		
+		CharacterSets sets = characterSets;
+		
+		if (sets == null) {
+			sets          = new CharacterSets(this);
+			characterSets = sets;
+		}
+		
+		if (
+			Arrays.binarySearch(sets.UNIT_CHARACTERS, character) >= 0 ||
+				sets.PREDICATES.length > Long.SIZE - 1
+		) {
+			return character;
+		}
+		
+		long predicatesSatisfied = 0;
+		
+		for (int i = 0 ; i < sets.PREDICATES.length ; i++) {
+			if (sets.PREDICATES[i].derivative(character) != null) {
+				predicatesSatisfied |= 1L << i;
+			}
+		}
+		
+		return ~predicatesSatisfied;
+		
+	}
+	
+	/**
+	 * Returns the number of regexes stored in the interning table so
+	 * far, including regexes that were garbage collected since.
+	 *
+	 * @return The number of interned regexes.
+	 */
+	public static long internedRegexCount() { return internedRegexCount; }
+	
+	/**
+	 * Returns the canonical instance of this regex, i.e. the unique
+	 * regex, structurally equal to this one, stored in the interning
+	 * table. If no such regex is stored yet, this regex is stored and
+	 * returned.
+	 *
+	 * @return The canonical instance of this regex.
+	 */
+	@NotNull
+	public final LexerRegex intern() {
+		
+		synchronized (CANONICAL_REGEXES) {
+			
+			WeakReference<LexerRegex> reference = CANONICAL_REGEXES.get(this);
+			
+			LexerRegex canonicalRegex = reference == null ? null : reference.get();
+			
+			if (canonicalRegex == null) {
+				CANONICAL_REGEXES.put(this, new WeakReference<>(this));
+				canonicalRegex = this;
+				internedRegexCount++;
+			}
+			
+			return canonicalRegex;
+			
+		}
+		
+	}
+	
+	/**
+	 * Collects the character sets from which this regex is built:
+	 * the characters of unit regexes, and the single-character regexes
+	 * that match characters by some predicate rather than by character
+	 * equality (e.g. general category regexes).
+	 * Any two characters that are not unit characters and that satisfy
+	 * the same character predicates are treated identically by this
+	 * regex, which is what allows lexer automata to operate on classes
+	 * of characters.
+	 *
+	 * @param unitCharacters The set to which unit characters are added.
+	 * @param characterPredicates The set to which character predicates
+	 *                            are added.
+	 */
+	abstract void collectCharacterSets(
+		@NotNull Set<Character>  unitCharacters,
+		@NotNull Set<LexerRegex> characterPredicates
+	);
+	
+	/**
+	 * Returns whether or not this regex is structurally equal to the
+	 * given object, i.e. whether or not the given object is a regex of
+	 * the same class, with the same priority and structurally equal
+	 * subregexes.
+	 * Structural equality is what allows sets of advanced regexes to be
+	 * identified as the same state when compiling a lexer automaton.
+	 *
+	 * @param object The object to compare to this regex.
+	 * @return The result of the comparison.
+	 */
+	@Override
+	public abstract boolean equals(Object object);
+	
+	/**
+	 * Returns the structural hash code of this regex, consistent with
+	 * `equals`. Since regexes are immutable, the hash code is only
+	 * computed once.
+	 *
+	 * @return The structural hash code of this regex.
+	 */
+	@Override
+	public final int hashCode() {
+		
+		int hash = hashCode;
+		
+		if (hash == 0) {
+			hash = 31 * structuralHashCode() + PRIORITY;
+			hashCode = hash;
+		}
+		
+		return hash;
+		
+	}
+	
+	/**
+	 * Returns a hash code computed from the class and subregexes of
+	 * this regex, not taking its priority into account.
+	 *
+	 * @return The structural hash code of this regex.
+	 */
+	abstract int structuralHashCode();
+	
+	/**
+	 * The unit characters and character predicates from which a regex
+	 * is built (see `collectCharacterSets`).
+	 */
+	private static final class CharacterSets {
+		
+		/**
+		 * The unit characters of the regex, sorted.
+		 */
+		final char[] UNIT_CHARACTERS;
+		
+		/**
+		 * The character predicates of the regex.
+		 */
+		final LexerRegex[] PREDICATES;
+		
+		/**
+		 * Constructs the character sets of the given regex.
+		 *
+		 * @param regex The regex.
+		 */
+		CharacterSets(@NotNull LexerRegex regex) {
+			
+			Set<Character>  unitCharacters      = new HashSet<>();
+			Set<LexerRegex> characterPredicates = new LinkedHashSet<>();
+			
+			regex.collectCharacterSets(unitCharacters, characterPredicates);
+			
+			UNIT_CHARACTERS = new char[unitCharacters.size()];
+			PREDICATES      = characterPredicates.toArray(new LexerRegex[0]);
+			
+			int index = 0;
+			
+			for (char character : unitCharacters) {
+				UNIT_CHARACTERS[index++] = character;
+			}
+			
+			Arrays.sort(UNIT_CHARACTERS);
+			
+		}
+		
+	}
 	
 }
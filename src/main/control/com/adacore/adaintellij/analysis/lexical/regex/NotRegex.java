@@ -1,5 +1,7 @@
 package com.adacore.adaintellij.analysis.lexical.regex;
 
+import java.util.Set;
+
 import org.jetbrains.annotations.*;
 
 /**
@@ -48,6 +50,41 @@ public final class NotRegex extends LexerRegex {
 		
 	}
 	
+	/**
+	 * Returns a new regex matching a single character not matched by
+	 * the given single-character regex, using fromRegex(LexerRegex, int)
+	 * with the priority set to 0.
+	 *
+	 * @param regex The negated subregex.
+	 * @return A regex matching the negation of the given regex.
+	 */
+	public static LexerRegex fromRegex(@NotNull LexerRegex regex) {
+		return fromRegex(regex, 0);
+	}
+	
+	/**
+	 * Returns a new regex matching a single character not matched by
+	 * the given single-character regex. If the characters matched by
+	 * the given regex can be determined (see `CharClassRegex.characterSet`),
+	 * an equivalent char class regex is returned, otherwise a new not
+	 * regex is returned.
+	 *
+	 * @param regex The negated subregex.
+	 * @param priority The priority to assign to the returned regex.
+	 * @return A regex matching the negation of the given regex.
+	 * @throws IllegalArgumentException If the received regex does not
+	 *                                  match a single character.
+	 */
+	public static LexerRegex fromRegex(@NotNull LexerRegex regex, int priority) {
+		
+		LexerRegex notRegex = new NotRegex(regex, priority);
+		
+		LexerRegex charClassRegex = CharClassRegex.fromRegex(notRegex, priority);
+		
+		return charClassRegex == null ? notRegex : charClassRegex;
+		
+	}
+	
 	/**
 	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#nullable()
 	 */
@@ -61,11 +98,11 @@ public final class NotRegex extends LexerRegex {
 	public int charactersMatched() { return 1; }
 	
 	/**
-	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#advanced(char)
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#derivative(char)
 	 */
 	@Nullable
 	@Override
-	public LexerRegex advanced(char character) {
+	LexerRegex derivative(char character) {
 		
 		LexerRegex advancedRegex = REGEX.advanced(character);
 		
@@ -74,4 +111,36 @@ public final class NotRegex extends LexerRegex {
 		
 	}
 	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#collectCharacterSets(Set, Set)
+	 */
+	@Override
+	void collectCharacterSets(
+		@NotNull Set<Character>  unitCharacters,
+		@NotNull Set<LexerRegex> characterPredicates
+	) {
+		REGEX.collectCharacterSets(unitCharacters, characterPredicates);
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#equals(Object)
+	 */
+	@Override
+	public boolean equals(Object object) {
+		
+		if (this == object) { return true; }
+		else if (!(object instanceof NotRegex)) { return false; }
+		
+		NotRegex regex = (NotRegex)object;
+		
+		return PRIORITY == regex.PRIORITY && REGEX.equals(regex.REGEX);
+		
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#structuralHashCode()
+	 */
+	@Override
+	int structuralHashCode() { return 4 * 31 + REGEX.hashCode(); }
+	
 }
@@ -1,5 +1,7 @@
 package com.adacore.adaintellij.analysis.lexical.regex;
 
+import java.util.Set;
+
 import org.jetbrains.annotations.*;
 
 /**
@@ -45,21 +47,48 @@ public final class OneOrMoreRegex extends LexerRegex {
 	public int charactersMatched() { return -1; }
 	
 	/**
-	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#advanced(char)
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#derivative(char)
 	 */
 	@Nullable
 	@Override
-	public LexerRegex advanced(char character) {
+	LexerRegex derivative(char character) {
+		return ConcatenationRegex.concatenation(
+			REGEX.advanced(character),
+			new ZeroOrMoreRegex(REGEX, PRIORITY),
+			PRIORITY
+		);
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#collectCharacterSets(Set, Set)
+	 */
+	@Override
+	void collectCharacterSets(
+		@NotNull Set<Character>  unitCharacters,
+		@NotNull Set<LexerRegex> characterPredicates
+	) {
+		REGEX.collectCharacterSets(unitCharacters, characterPredicates);
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#equals(Object)
+	 */
+	@Override
+	public boolean equals(Object object) {
+		
+		if (this == object) { return true; }
+		else if (!(object instanceof OneOrMoreRegex)) { return false; }
 		
-		LexerRegex advancedRegex = REGEX.advanced(character);
+		OneOrMoreRegex regex = (OneOrMoreRegex)object;
 		
-		return advancedRegex == null ? null :
-			new ConcatenationRegex(
-				advancedRegex,
-				new ZeroOrMoreRegex(REGEX, PRIORITY),
-				PRIORITY
-			);
+		return PRIORITY == regex.PRIORITY && REGEX.equals(regex.REGEX);
 		
 	}
 	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#structuralHashCode()
+	 */
+	@Override
+	int structuralHashCode() { return 6 * 31 + REGEX.hashCode(); }
+	
 }
@@ -100,63 +100,160 @@ public final class UnionRegex extends LexerRegex {
 	/**
 	 * Returns a new hierarchy of union regexes from an arbitrary
 	 * number of regexes (Java varargs) using fromList(List<LexerRegex>).
+	 * If all given regexes are single-character regexes of the same
+	 * priority whose characters can be determined (see
+	 * `CharClassRegex.characterSet`), a single equivalent char class
+	 * regex is returned instead.
 	 *
 	 * @param regexes The regexes to unite.
-	 * @return A hierarchy of union regexes.
+	 * @return A hierarchy of union regexes, or a char class regex.
 	 */
 	public static LexerRegex fromRegexes(@NotNull LexerRegex... regexes) {
-		return fromList(Arrays.asList(regexes));
+		
+		LexerRegex regex = fromList(Arrays.asList(regexes));
+		
+		if (regex == null) { return null; }
+		
+		for (LexerRegex unitedRegex : regexes) {
+			if (unitedRegex.PRIORITY != regex.PRIORITY) { return regex; }
+		}
+		
+		LexerRegex charClassRegex = CharClassRegex.fromRegex(regex, regex.PRIORITY);
+		
+		return charClassRegex == null ? regex : charClassRegex;
+		
 	}
 	
 	/**
-	 * Returns a new hierarchy of union regexes from a pair of character
-	 * bounds, using fromRange(char, char, int) with the priority is set
-	 * to 0.
+	 * Returns a new char class regex from a pair of character bounds,
+	 * using fromRange(char, char, int) with the priority is set to 0.
 	 *
 	 * @param fromChar The lower bound character of the range.
 	 * @param toChar The upper bound character of the range.
-	 * @return A hierarchy of union regexes matching a range of characters.
+	 * @return A char class regex matching a range of characters.
 	 */
 	public static LexerRegex fromRange(char fromChar, char toChar) {
 		return fromRange(fromChar, toChar, 0);
 	}
 	
 	/**
-	 * Returns a new hierarchy of union regexes, in the same format
-	 * returned by fromList, representing the union of unit regexes each
-	 * matching a character from a range specified by the given character
-	 * bounds. The priority of all regexes in the hierarchy is set to the
-	 * given priority.
+	 * Returns a new char class regex matching a character from a range
+	 * specified by the given character bounds, equivalent to the union
+	 * of unit regexes each matching a character from that range, with
+	 * the given priority.
 	 *
 	 * @param fromChar The lower bound character of the range.
 	 * @param toChar The upper bound character of the range.
-	 * @param priority The priority to assign to the regexes in the hierarchy.
-	 * @return A hierarchy of union regexes matching a range of characters.
+	 * @param priority The priority to assign to the regex.
+	 * @return A char class regex matching a range of characters.
 	 * @throws IllegalArgumentException If fromChar is greater than toChar.
 	 */
 	public static LexerRegex fromRange(char fromChar, char toChar, int priority) {
+		return CharClassRegex.fromRange(fromChar, toChar, priority);
+	}
+	
+	/**
+	 * Returns a regex matching the union of the given regexes, in
+	 * normal form, where null stands for the empty set. This is used
+	 * to keep derivatives in normal form, so that advancing a regex
+	 * by more and more characters leads to a finite number of distinct
+	 * derivatives instead of ever-growing union hierarchies:
+	 * 1. The empty set is absorbed: the union of null and a regex is
+	 *    that regex.
+	 * 2. Nested union regexes with the given priority are flattened,
+	 *    and duplicate operands are removed.
+	 * 3. Epsilon operands are removed if another operand is nullable.
+	 * 4. Operands are sorted by hash code, so that unions of the same
+	 *    operands in different orders are structurally equal.
+	 * The remaining operands are united in the format returned by
+	 * fromList, with the given priority. Simplifications that would
+	 * return an operand with a different priority are not applied.
+	 *
+	 * @param firstRegex The first regex, or null.
+	 * @param secondRegex The second regex, or null.
+	 * @param priority The priority of the union.
+	 * @return The normalized union, or null if both regexes are null.
+	 */
+	@Nullable
+	static LexerRegex union(
+		@Nullable LexerRegex firstRegex,
+		@Nullable LexerRegex secondRegex,
+		          int        priority
+	) {
+		
+		if (firstRegex == null) { return secondRegex; }
+		else if (secondRegex == null) { return firstRegex; }
+		
+		Set<LexerRegex> operands = new LinkedHashSet<>();
+		
+		collectOperands(firstRegex, priority, operands);
+		collectOperands(secondRegex, priority, operands);
+		
+		boolean nullableOperand = false;
 		
-		if (fromChar > toChar) {
-			throw new IllegalArgumentException("Invalid bounds: " +
-				"fromChar must be smaller or equal to toChar");
+		for (LexerRegex operand : operands) {
+			if (!UnitRegex.isEpsilon(operand) && operand.nullable()) {
+				nullableOperand = true;
+				break;
+			}
 		}
 		
-		char character = toChar;
+		if (nullableOperand) { operands.removeIf(UnitRegex::isEpsilon); }
+		
+		LexerRegex[] sortedOperands = operands.toArray(new LexerRegex[0]);
+		
+		Arrays.sort(sortedOperands, Comparator.comparingInt(LexerRegex::hashCode));
+		
+		int operandCount = sortedOperands.length;
+		
+		if (operandCount == 1) {
+			
+			LexerRegex operand = sortedOperands[0];
+			
+			return operand.PRIORITY == priority ?
+				operand : new UnionRegex(firstRegex, secondRegex, priority);
+			
+		}
 		
-		LexerRegex regex = new UnitRegex(Character.toString(character), priority);
+		LexerRegex regex = sortedOperands[operandCount - 1];
 		
-		while (character != fromChar) {
-			regex = new UnionRegex(
-				new UnitRegex(Character.toString(--character), priority),
-				regex,
-				priority
-			);
+		for (int i = operandCount - 2 ; i >= 0 ; i--) {
+			regex = new UnionRegex(sortedOperands[i], regex, priority);
 		}
 		
 		return regex;
 		
 	}
 	
+	/**
+	 * Adds the operands of the given regex to the given set of union
+	 * operands, flattening union regexes with the given priority.
+	 *
+	 * @param regex The regex of which to collect the operands.
+	 * @param priority The priority of the flattened union.
+	 * @param operands The set to which operands are added.
+	 */
+	private static void collectOperands(
+		@NotNull LexerRegex      regex,
+		         int             priority,
+		@NotNull Set<LexerRegex> operands
+	) {
+		
+		if (regex instanceof UnionRegex && regex.PRIORITY == priority) {
+			
+			UnionRegex unionRegex = (UnionRegex)regex;
+			
+			collectOperands(unionRegex.FIRST_REGEX, priority, operands);
+			collectOperands(unionRegex.SECOND_REGEX, priority, operands);
+			
+		} else {
+			
+			operands.add(regex);
+			
+		}
+		
+	}
+	
 	/**
 	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#nullable()
 	 */
@@ -180,33 +277,53 @@ public final class UnionRegex extends LexerRegex {
 	}
 	
 	/**
-	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#advanced(char)
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#derivative(char)
 	 */
 	@Nullable
 	@Override
-	public LexerRegex advanced(char character) {
+	LexerRegex derivative(char character) {
 		
 		LexerRegex firstRegexAdvanced  = FIRST_REGEX.advanced(character);
 		LexerRegex secondRegexAdvanced = SECOND_REGEX.advanced(character);
 		
-		if (firstRegexAdvanced == null && secondRegexAdvanced == null) {
-			
-			return null;
-			
-		} else if (firstRegexAdvanced == null) {
-			
-			return secondRegexAdvanced;
-			
-		} else if (secondRegexAdvanced == null) {
-			
-			return firstRegexAdvanced;
-			
-		} else {
-			
-			return new UnionRegex(firstRegexAdvanced, secondRegexAdvanced, PRIORITY);
-			
-		}
+		return union(firstRegexAdvanced, secondRegexAdvanced, PRIORITY);
+		
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#collectCharacterSets(Set, Set)
+	 */
+	@Override
+	void collectCharacterSets(
+		@NotNull Set<Character>  unitCharacters,
+		@NotNull Set<LexerRegex> characterPredicates
+	) {
+		FIRST_REGEX.collectCharacterSets(unitCharacters, characterPredicates);
+		SECOND_REGEX.collectCharacterSets(unitCharacters, characterPredicates);
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#equals(Object)
+	 */
+	@Override
+	public boolean equals(Object object) {
+		
+		if (this == object) { return true; }
+		else if (!(object instanceof UnionRegex)) { return false; }
+		
+		UnionRegex regex = (UnionRegex)object;
 		
+		return PRIORITY == regex.PRIORITY &&
+			FIRST_REGEX.equals(regex.FIRST_REGEX) && SECOND_REGEX.equals(regex.SECOND_REGEX);
+		
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#structuralHashCode()
+	 */
+	@Override
+	int structuralHashCode() {
+		return (1 * 31 + FIRST_REGEX.hashCode()) * 31 + SECOND_REGEX.hashCode();
 	}
 	
 }
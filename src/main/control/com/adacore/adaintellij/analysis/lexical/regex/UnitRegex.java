@@ -1,5 +1,7 @@
 package com.adacore.adaintellij.analysis.lexical.regex;
 
+import java.util.Set;
+
 import org.jetbrains.annotations.*;
 
 /**
@@ -33,6 +35,17 @@ public final class UnitRegex extends LexerRegex {
 		SEQUENCE = sequence;
 	}
 	
+	/**
+	 * Returns whether or not the given regex is a unit regex matching
+	 * only the empty sequence of characters (epsilon).
+	 *
+	 * @param regex The regex to check.
+	 * @return Whether or not the regex is epsilon.
+	 */
+	static boolean isEpsilon(@NotNull LexerRegex regex) {
+		return regex instanceof UnitRegex && ((UnitRegex)regex).SEQUENCE.isEmpty();
+	}
+	
 	/**
 	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#nullable()
 	 */
@@ -46,13 +59,47 @@ public final class UnitRegex extends LexerRegex {
 	public int charactersMatched() { return SEQUENCE.length(); }
 	
 	/**
-	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#advanced(char)
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#derivative(char)
 	 */
 	@Nullable
 	@Override
-	public LexerRegex advanced(char character) {
+	LexerRegex derivative(char character) {
 		return SEQUENCE.length() == 0 || SEQUENCE.charAt(0) != character ?
 			null : new UnitRegex(SEQUENCE.substring(1), PRIORITY);
 	}
 	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#collectCharacterSets(Set, Set)
+	 */
+	@Override
+	void collectCharacterSets(
+		@NotNull Set<Character>  unitCharacters,
+		@NotNull Set<LexerRegex> characterPredicates
+	) {
+		for (char character : SEQUENCE.toCharArray()) {
+			unitCharacters.add(character);
+		}
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#equals(Object)
+	 */
+	@Override
+	public boolean equals(Object object) {
+		
+		if (this == object) { return true; }
+		else if (!(object instanceof UnitRegex)) { return false; }
+		
+		UnitRegex regex = (UnitRegex)object;
+		
+		return PRIORITY == regex.PRIORITY && SEQUENCE.equals(regex.SEQUENCE);
+		
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#structuralHashCode()
+	 */
+	@Override
+	int structuralHashCode() { return SEQUENCE.hashCode(); }
+	
 }
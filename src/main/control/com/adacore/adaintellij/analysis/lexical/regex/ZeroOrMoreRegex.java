@@ -1,5 +1,7 @@
 package com.adacore.adaintellij.analysis.lexical.regex;
 
+import java.util.Set;
+
 import org.jetbrains.annotations.*;
 
 /**
@@ -45,17 +47,44 @@ public final class ZeroOrMoreRegex extends LexerRegex {
 	public int charactersMatched() { return -1; }
 	
 	/**
-	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#advanced(char)
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#derivative(char)
 	 */
 	@Nullable
 	@Override
-	public LexerRegex advanced(char character) {
+	LexerRegex derivative(char character) {
+		return ConcatenationRegex.concatenation(REGEX.advanced(character), this, PRIORITY);
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#collectCharacterSets(Set, Set)
+	 */
+	@Override
+	void collectCharacterSets(
+		@NotNull Set<Character>  unitCharacters,
+		@NotNull Set<LexerRegex> characterPredicates
+	) {
+		REGEX.collectCharacterSets(unitCharacters, characterPredicates);
+	}
+	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#equals(Object)
+	 */
+	@Override
+	public boolean equals(Object object) {
+		
+		if (this == object) { return true; }
+		else if (!(object instanceof ZeroOrMoreRegex)) { return false; }
 		
-		LexerRegex advancedRegex = REGEX.advanced(character);
+		ZeroOrMoreRegex regex = (ZeroOrMoreRegex)object;
 		
-		return advancedRegex == null ? null :
-			new ConcatenationRegex(advancedRegex, this, PRIORITY);
+		return PRIORITY == regex.PRIORITY && REGEX.equals(regex.REGEX);
 		
 	}
 	
+	/**
+	 * @see com.adacore.adaintellij.analysis.lexical.regex.LexerRegex#structuralHashCode()
+	 */
+	@Override
+	int structuralHashCode() { return 5 * 31 + REGEX.hashCode(); }
+	
 }
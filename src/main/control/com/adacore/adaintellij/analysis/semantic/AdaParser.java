@@ -1,11 +1,12 @@
 package com.adacore.adaintellij.analysis.semantic;
 
-import com.intellij.lang.ASTNode;
-import com.intellij.lang.PsiBuilder;
-import com.intellij.lang.PsiParser;
+import com.intellij.lang.*;
 import com.intellij.psi.tree.IElementType;
 import org.jetbrains.annotations.NotNull;
 
+import com.adacore.adaintellij.AdaLanguage;
+import com.adacore.adaintellij.file.LargeFileManager;
+
 /**
  * Parser for the Ada language.
  *
@@ -101,9 +102,22 @@ import org.jetbrains.annotations.NotNull;
  * plugin actually needs to work with the first-level `AdaPsiElement` leaves. In
  * those cases, you should use the static method `AdaPsiElement.getFrom` to
  * ensure that the element you are working with is an Ada PSI element.
+ *
+ * Large files (see `LargeFileManager`) are parsed into a lightweight tree
+ * instead, in which the entire content of the file is collapsed into a single
+ * LARGE_FILE_CONTENT leaf, as creating even one node per token would stall the
+ * IDE on files of tens of megabytes.
+ * `AdaPsiElement.getFrom` returns null for that leaf, so features relying on
+ * Ada PSI elements are simply disabled for large files.
  */
 public final class AdaParser implements PsiParser {
 	
+	/**
+	 * Element type of the single leaf holding the content of large files.
+	 */
+	public static final IElementType LARGE_FILE_CONTENT =
+		new IElementType("Ada.LARGE_FILE_CONTENT", AdaLanguage.INSTANCE);
+	
 	/**
 	 * @see com.intellij.lang.PsiParser#parse(IElementType, PsiBuilder)
 	 */
@@ -123,6 +137,26 @@ public final class AdaParser implements PsiParser {
 		
 		PsiBuilder.Marker rootMarker = builder.mark();
 		
+		// If the source file is large, then collapse its entire content,
+		// including leading and trailing whitespace and comments, into
+		// a single leaf
+		
+		if (LargeFileManager.isLarge(builder.getOriginalText())) {
+			
+			PsiBuilder.Marker contentMarker = builder.mark();
+			
+			while (!builder.eof()) { builder.advanceLexer(); }
+			
+			contentMarker.collapse(LARGE_FILE_CONTENT);
+			contentMarker.setCustomEdgeTokenBinders(
+				WhitespacesBinders.GREEDY_LEFT_BINDER, WhitespacesBinders.GREEDY_RIGHT_BINDER);
+			
+			rootMarker.done(root);
+			
+			return builder.getTreeBuilt();
+			
+		}
+		
 		// Get the first token
 		
 		IElementType tokenType = builder.getTokenType();
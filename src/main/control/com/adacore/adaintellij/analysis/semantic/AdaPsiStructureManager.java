@@ -1,14 +1,14 @@
 package com.adacore.adaintellij.analysis.semantic;
 
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import org.jetbrains.annotations.NotNull;
 
-import org.eclipse.lsp4j.DocumentSymbol;
-
 import com.adacore.adaintellij.lsp.*;
 import com.adacore.adaintellij.misc.cache.Marker;
 import com.adacore.adaintellij.Utils;
@@ -50,21 +50,28 @@ public class AdaPsiStructureManager {
 	 * Applies all possible patches to the given PSI file.
 	 *
 	 * @param psiFile The PSI file to patch.
+	 * @return A future completed once all patches are applied.
 	 */
-	public static void patchPsiFile(@NotNull AdaPsiFile psiFile) {
-		patchPsiFileElementTypes(psiFile);
+	@NotNull
+	public static CompletableFuture<Void> patchPsiFile(@NotNull AdaPsiFile psiFile) {
+		return patchPsiFileElementTypes(psiFile);
 	}
 	
 	/**
 	 * Makes a `textDocument/documentSymbol` request to the ALS and
 	 * patches the given PSI file with Ada element types based on
 	 * the returned symbol information for that file.
+	 * The request is not waited for: the file is patched in a
+	 * non-blocking read action on a pooled thread once the response
+	 * is received (see `LSPFutures#thenApplyInReadAction`).
 	 *
 	 * @param psiFile The PSI file to patch.
+	 * @return A future completed once the file is patched.
 	 */
-	public static void patchPsiFileElementTypes(@NotNull AdaPsiFile psiFile) {
+	@NotNull
+	public static CompletableFuture<Void> patchPsiFileElementTypes(@NotNull AdaPsiFile psiFile) {
 		
-		patchPsiFileIfMarked(
+		return patchPsiFileIfMarked(
 			psiFile,
 			SYMBOLS_PATCH_MARKER,
 			() -> {
@@ -72,44 +79,55 @@ public class AdaPsiStructureManager {
 				Document    document    = Utils.getPsiFileDocument(psiFile);
 				VirtualFile virtualFile = Utils.getPsiFileVirtualFile(psiFile);
 				
-				if (document == null || virtualFile == null) { return; }
+				if (document == null || virtualFile == null) { return CompletableFuture.completedFuture(null); }
 				
 				String documentUri = virtualFile.getUrl();
 				
-				// Make the request and wait for the result
-				
 				AdaLSPServer lspServer = AdaLSPDriver.getServer(psiFile.getProject());
 				
-				if (lspServer == null) { return; }
-				
-				List<DocumentSymbol> symbols = lspServer.documentSymbol(documentUri);
+				if (lspServer == null) { return CompletableFuture.completedFuture(null); }
 				
-				// For each symbol in the result...
+				// Make the request and patch the file with the result
+				// once it is received. Setting element types is idempotent,
+				// so the patch can safely be reapplied if the read action
+				// is cancelled by a write action
 				
-				symbols.forEach(symbol -> {
-					
-					// Find the PSI element at the given position
-					
-					PsiElement element = psiFile.findElementAt(
-						LSPUtils.positionToOffset(document, symbol.getSelectionRange().getStart()));
-					
-					if (element == null) { return; }
+				return LSPFutures.thenApplyInReadAction(lspServer.documentSymbolAsync(documentUri), symbols -> {
 					
-					// Get the corresponding `AdaPsiElement`
+					if (!psiFile.isValid()) { return null; }
 					
-					AdaPsiElement adaPsiElement = AdaPsiElement.getFrom(element);
+					// For each symbol in the result...
 					
-					if (adaPsiElement == null) { return; }
+					symbols.forEach(symbol -> {
+						
+						ProgressManager.checkCanceled();
+						
+						// Find the PSI element at the given position
+						
+						PsiElement element = psiFile.findElementAt(
+							LSPUtils.positionToOffset(document, symbol.getSelectionRange().getStart()));
+						
+						if (element == null) { return; }
+						
+						// Get the corresponding `AdaPsiElement`
+						
+						AdaPsiElement adaPsiElement = AdaPsiElement.getFrom(element);
+						
+						if (adaPsiElement == null) { return; }
+						
+						// Map the symbol kind to the corresponding Ada
+						// element type and set the type of the element
+						
+						AdaElementType elementType =
+							LSPUtils.symbolKindToAdaElementType(symbol);
+						
+						if (elementType == null) { return; }
+						
+						adaPsiElement.setAdaElementType(elementType);
+						
+					});
 					
-					// Map the symbol kind to the corresponding Ada
-					// element type and set the type of the element
-					
-					AdaElementType elementType =
-						LSPUtils.symbolKindToAdaElementType(symbol);
-					
-					if (elementType == null) { return; }
-					
-					adaPsiElement.setAdaElementType(elementType);
+					return null;
 					
 				});
 				
@@ -124,25 +142,25 @@ public class AdaPsiStructureManager {
 	 *
 	 * @param psiFile The PSI file to check for the marker.
 	 * @param marker The marker to check in the given PSI file.
-	 * @param patch The patch to apply if the file is marked.
+	 * @param patch The patch to apply if the file is marked, returning
+	 *              a future completed once the patch is applied.
+	 * @return A future completed once the patch is applied.
 	 */
-	private static void patchPsiFileIfMarked(
-		@NotNull AdaPsiFile psiFile,
-		@NotNull Marker     marker,
-		@NotNull Runnable   patch
+	@NotNull
+	private static CompletableFuture<Void> patchPsiFileIfMarked(
+		@NotNull AdaPsiFile                        psiFile,
+		@NotNull Marker                            marker,
+		@NotNull Supplier<CompletableFuture<Void>> patch
 	) {
 		
 		// If the file is marked with the marker, then abort
 		
-		if (psiFile.isMarked(marker)) { return; }
-		
-		// Apply the patch
-		
-		patch.run();
+		if (psiFile.isMarked(marker)) { return CompletableFuture.completedFuture(null); }
 		
-		// Mark the file with the marker
+		// Apply the patch and mark the file with the marker
+		// once the patch is applied
 		
-		psiFile.mark(marker);
+		return patch.get().thenRun(() -> psiFile.mark(marker));
 		
 	}
 	
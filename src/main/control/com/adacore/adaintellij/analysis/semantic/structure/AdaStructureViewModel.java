@@ -34,6 +34,13 @@ public final class AdaStructureViewModel extends StructureViewModelBase
 		return new Class[] { AdaPsiElement.class };
 	}
 	
+	/**
+	 * Notifies the listeners of this model that the Ada element types of
+	 * its file were patched, so that structure views showing elements
+	 * depending on those types are rebuilt.
+	 */
+	void elementTypesPatched() { fireModelUpdate(); }
+	
 	/**
 	 * Returns whether or not the given element is always a container
 	 * that can be expanded to reveal a subtree of elements.
@@ -1,6 +1,9 @@
 package com.adacore.adaintellij.analysis.semantic.structure;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.intellij.ide.structureView.*;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.editor.Editor;
 import org.jetbrains.annotations.*;
 
@@ -34,13 +37,22 @@ public final class AdaTreeBasedStructureViewBuilder extends TreeBasedStructureVi
 	@Override
 	public StructureViewModel createStructureViewModel(@Nullable Editor editor) {
 		
-		// Patch the file with Ada element types
+		AdaStructureViewModel model = new AdaStructureViewModel(file);
+		
+		// Patch the file with Ada element types without waiting for the
+		// server, and update the model once the file is patched if it
+		// was not already
+		
+		CompletableFuture<Void> patchFuture = AdaPsiStructureManager.patchPsiFileElementTypes(file);
 		
-		AdaPsiStructureManager.patchPsiFileElementTypes(file);
+		if (!patchFuture.isDone()) {
+			patchFuture.thenRun(() ->
+				ApplicationManager.getApplication().invokeLater(model::elementTypesPatched));
+		}
 		
-		// Return a new Ada structure view model
+		// Return the Ada structure view model
 		
-		return new AdaStructureViewModel(file);
+		return model;
 		
 	}
 	
@@ -0,0 +1,139 @@
+package com.adacore.adaintellij.file;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.*;
+
+import com.adacore.adaintellij.notifications.AdaIJNotification;
+
+import static com.adacore.adaintellij.Utils.getCachedVirtualFileDocument;
+
+/**
+ * Manager of large Ada and GPR files, such as generated register maps
+ * or protocol tables, which are handled in a degraded mode so that
+ * opening them does not stall the IDE:
+ * - Syntax highlighting uses a lexer merging runs of bad characters
+ *   into single tokens
+ * - Ada files are parsed into a single `AdaParser.LARGE_FILE_CONTENT`
+ *   leaf covering their entire content, without tokens or Ada PSI
+ *   elements, which disables features relying on them (references,
+ *   renaming, structure view...)
+ * Files are large if they are longer than a threshold size that can
+ * be set in the global Ada settings, in characters, so that the parser,
+ * which only sees the text of files, and the syntax highlighters, which
+ * see their files, agree on which files are large (see `isLarge`).
+ */
+public final class LargeFileManager {
+	
+	/**
+	 * The default threshold size above which files are large, in
+	 * characters.
+	 */
+	public static final int DEFAULT_LARGE_FILE_SIZE = 1024 * 1024;
+	
+	/**
+	 * The URLs of the large files for which the user was notified
+	 * of the degraded mode.
+	 */
+	private static final Set<String> NOTIFIED_FILE_URLS = ConcurrentHashMap.newKeySet();
+	
+	/**
+	 * The threshold size above which files are large.
+	 */
+	private static volatile int largeFileSize = DEFAULT_LARGE_FILE_SIZE;
+	
+	/**
+	 * Private default constructor to prevent instantiation.
+	 */
+	private LargeFileManager() {}
+	
+	/**
+	 * Returns the threshold size above which files are large.
+	 *
+	 * @return The large file size.
+	 */
+	@Contract(pure = true)
+	public static int getLargeFileSize() { return largeFileSize; }
+	
+	/**
+	 * Sets the threshold size above which files are large.
+	 * Files that are already open keep the mode in which they
+	 * were opened until they are reopened.
+	 *
+	 * @param size The new large file size.
+	 * @throws IllegalArgumentException If the size is negative.
+	 */
+	public static void setLargeFileSize(int size) {
+		
+		if (size < 0) {
+			throw new IllegalArgumentException("Illegal negative large file size: " + size);
+		}
+		
+		largeFileSize = size;
+		
+	}
+	
+	/**
+	 * Returns whether or not the given text is the text of a large file.
+	 *
+	 * @param text The text to check.
+	 * @return Whether or not the text is large.
+	 */
+	public static boolean isLarge(@NotNull CharSequence text) { return text.length() > largeFileSize; }
+	
+	/**
+	 * Returns whether or not the given file is a large file, measuring
+	 * the text of its document like `isLarge(CharSequence)` if it is
+	 * already loaded. Documents are never loaded just to be measured, so
+	 * files whose document is not loaded are large if they are larger
+	 * than the threshold in bytes.
+	 *
+	 * @param file The file to check, or null.
+	 * @return Whether or not the file is large, false if it is null.
+	 */
+	public static boolean isLarge(@Nullable VirtualFile file) {
+		
+		if (file == null) { return false; }
+		
+		// Files whose length in bytes is within the threshold are not
+		// large, as their text cannot have more characters than bytes
+		// in UTF-8 or single-byte encodings
+		
+		if (file.getLength() <= largeFileSize) { return false; }
+		
+		Document document = getCachedVirtualFileDocument(file);
+		
+		return document == null || document.getTextLength() > largeFileSize;
+		
+	}
+	
+	/**
+	 * Notifies the user that the given large file is handled in
+	 * a degraded mode, unless the user was already notified for
+	 * that file.
+	 *
+	 * @param project The project in which the file is open, or null.
+	 * @param file The large file.
+	 */
+	public static void notifyLargeFile(@Nullable Project project, @NotNull VirtualFile file) {
+		
+		if (!NOTIFIED_FILE_URLS.add(file.getUrl())) { return; }
+		
+		Notifications.Bus.notify(new AdaIJNotification(
+			"Large file opened with reduced features",
+			file.getName() + " is longer than " + (largeFileSize / 1024) + "K characters, so it is " +
+				"highlighted with a simplified lexer and semantic features such as " +
+				"references and the structure view are disabled for it. The size " +
+				"threshold can be changed in the Ada settings.",
+			NotificationType.INFORMATION
+		), project);
+		
+	}
+	
+}
@@ -13,6 +13,9 @@ import com.intellij.openapi.fileEditor.*;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.*;
 import com.intellij.util.messages.MessageBus;
 import org.jetbrains.annotations.*;
 
@@ -91,17 +94,28 @@ public final class AdaLSPDriver implements ProjectComponent {
 	private boolean initialized = false;
 	
 	/**
-	 * Document change event listener that makes a `textDocument/didChange` request to
-	 * the ALS. This instance of `DocumentListener` is used for all documents, and must
+	 * Document change event listener that queues `textDocument/didChange` notifications
+	 * to the ALS. This instance of `DocumentListener` is used for all documents, and must
 	 * therefore remain purely functional and never hold any state tied to a specific
 	 * document.
 	 */
 	private DocumentListener DOCUMENT_CHANGE_LISTENER = new DocumentListener() {
 		
+		/**
+		 * @see com.intellij.openapi.editor.event.DocumentListener#beforeDocumentChange(DocumentEvent)
+		 *
+		 * Queues an incremental change for the ALS before a file is changed, so that
+		 * the range of the change is computed against the file before the change.
+		 */
+		@Override
+		public void beforeDocumentChange(DocumentEvent event) {
+			server.willChange(event);
+		}
+		
 		/**
 		 * @see com.intellij.openapi.editor.event.DocumentListener#documentChanged(DocumentEvent)
 		 *
-		 * Sends a `textDocument/didChange` notification to the ALS when a file is changed.
+		 * Queues a full-text change for the ALS when a file is changed.
 		 */
 		@Override
 		public void documentChanged(DocumentEvent event) {
@@ -366,7 +380,7 @@ public final class AdaLSPDriver implements ProjectComponent {
 	}
 	
 	/**
-	 * Sets file listeners for open/change/close events.
+	 * Sets file listeners for open/change/close events, and for VFS events.
 	 */
 	private void setFileListeners() {
 		
@@ -422,6 +436,71 @@ public final class AdaLSPDriver implements ProjectComponent {
 		
 		messageBus.connect().subscribe(FileEditorManagerListener.FILE_EDITOR_MANAGER, listener);
 		
+		BulkFileListener fileListener = new BulkFileListener() {
+			
+			/**
+			 * @see BulkFileListener#before(List)
+			 *
+			 * Notifies the ALS server interface of Ada files and directories
+			 * about to be deleted, moved or renamed, so that it invalidates
+			 * cached responses and closes documents open for requests only.
+			 */
+			@Override
+			public void before(@NotNull List<? extends VFileEvent> events) {
+				
+				for (VFileEvent event : events) {
+					
+					VirtualFile file = event.getFile();
+					
+					if (file == null ||
+						!(event instanceof VFileDeleteEvent || event instanceof VFileMoveEvent ||
+							event instanceof VFilePropertyChangeEvent && VirtualFile.PROP_NAME.equals(
+								((VFilePropertyChangeEvent)event).getPropertyName())))
+					{
+						continue;
+					}
+					
+					if (file.isDirectory()) {
+						server.directoryRemoved(file);
+					} else if (AdaFileType.isAdaFile(file)) {
+						server.fileRemoved(file);
+					}
+					
+				}
+				
+			}
+			
+			/**
+			 * @see BulkFileListener#after(List)
+			 *
+			 * Notifies the ALS server interface of Ada files that changed or
+			 * were created, so that it invalidates cached responses and sends
+			 * the new content of documents open for requests only.
+			 */
+			@Override
+			public void after(@NotNull List<? extends VFileEvent> events) {
+				
+				for (VFileEvent event : events) {
+					
+					VirtualFile file = event instanceof VFileCopyEvent ?
+						((VFileCopyEvent)event).findCreatedFile() : event.getFile();
+					
+					if (file == null || !AdaFileType.isAdaFile(file)) { continue; }
+					
+					if (event instanceof VFileContentChangeEvent) {
+						server.fileContentChanged(file);
+					} else if (event instanceof VFileCreateEvent || event instanceof VFileCopyEvent) {
+						server.fileCreated(file);
+					}
+					
+				}
+				
+			}
+			
+		};
+		
+		messageBus.connect().subscribe(VirtualFileManager.VFS_CHANGES, fileListener);
+		
 	}
 	
 	/**
@@ -436,7 +515,7 @@ public final class AdaLSPDriver implements ProjectComponent {
 		// Initialization parameters
 		
 		InitializeParams params = new InitializeParams();
-
+		
 		// TODO: Find a more reliable way to get process id
 		//       Example in Java 9:
 		//       int pid = (int)ProcessHandle.current().pid();
@@ -455,7 +534,7 @@ public final class AdaLSPDriver implements ProjectComponent {
 		));
 		
 		return params;
-	
+		
 	}
 	
 	/**
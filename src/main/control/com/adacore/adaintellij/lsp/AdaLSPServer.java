@@ -3,6 +3,7 @@ package com.adacore.adaintellij.lsp;
 import java.net.URL;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -11,10 +12,10 @@ import com.intellij.notification.Notifications;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.event.DocumentEvent;
-import com.intellij.openapi.progress.ProcessCanceledException;
-import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -27,7 +28,6 @@ import com.adacore.adaintellij.lsp.objects.AdaSettingsObject;
 import com.adacore.adaintellij.notifications.AdaIJNotification;
 
 import static com.adacore.adaintellij.Utils.*;
-import static com.adacore.adaintellij.lsp.LSPUtils.offsetToPosition;
 
 /**
  * Public API of the Ada Language Server (ALS) within the
@@ -41,6 +41,20 @@ public final class AdaLSPServer {
 	 */
 	private static Logger LOGGER = Logger.getInstance(AdaLSPServer.class);
 	
+	/**
+	 * Methods of requests superseded by new requests of the same method
+	 * on the same document: when such a request is made, the previous
+	 * pending one is cancelled, as its result is no longer of interest
+	 * (e.g. completion while typing).
+	 * Definition requests are not superseded, as concurrent definition
+	 * requests on the same document (made by highlighting, navigation and
+	 * find-usages resolving references) are usually at different positions
+	 * and all still of interest.
+	 */
+	private static final Set<String> SUPERSEDED_METHODS = new HashSet<>(Collections.singletonList(
+		"textDocument/completion"
+	));
+	
 	/**
 	 * The LSP driver to which this server belongs.
 	 */
@@ -51,6 +65,21 @@ public final class AdaLSPServer {
 	 */
 	private LanguageServer server;
 	
+	/**
+	 * The queue of document changes to send to the server.
+	 */
+	private DocumentChangeQueue changeQueue;
+	
+	/**
+	 * The pool of documents open in the server for requests only.
+	 */
+	private OpenDocumentPool documentPool;
+	
+	/**
+	 * The cache of responses to requests to the server.
+	 */
+	private ResponseCache responseCache = new ResponseCache();
+	
 	/**
 	 * Server capabilities.
 	 */
@@ -67,12 +96,19 @@ public final class AdaLSPServer {
 	/**
 	 * The number of failed requests to the server.
 	 */
-	private int failureCount = 0;
+	private AtomicInteger failureCount = new AtomicInteger();
+	
+	/**
+	 * The set of files open in the server.
+	 */
+	private Set<String> openFiles = ConcurrentHashMap.newKeySet();
 	
 	/**
-	 * The set of open files in the IDE.
+	 * Map associating pending requests of superseded methods (see
+	 * SUPERSEDED_METHODS) with their method and document URI, joined
+	 * by a space.
 	 */
-	private Set<String> openFiles = new HashSet<>();
+	private final Map<String, CompletableFuture<?>> SUPERSEDABLE_REQUESTS = new ConcurrentHashMap<>();
 	
 	/**
 	 * Constructs a new AdaLSPServer given its driver and the corresponding
@@ -84,6 +120,14 @@ public final class AdaLSPServer {
 	AdaLSPServer(@NotNull AdaLSPDriver driver, @NotNull LanguageServer server) {
 		this.driver = driver;
 		this.server = server;
+		
+		changeQueue = new DocumentChangeQueue(params -> {
+			responseCache.documentChanged(params.getTextDocument().getUri());
+			server.getTextDocumentService().didChange(params);
+		});
+		
+		documentPool = new OpenDocumentPool(this::openPooledDocument, this::didClose);
+		
 	}
 	
 	/**
@@ -149,10 +193,13 @@ public final class AdaLSPServer {
 	}
 	
 	/**
-	 * Generic request wrapper allowing to systematically perform certain
-	 * operations on every request, such as logging and keeping track of failed
-	 * requests.
-	 * Waits for the response to the given request, and returns its result.
+	 * Generic asynchronous request wrapper allowing to systematically perform
+	 * certain operations on every request, such as logging and keeping track
+	 * of failed requests.
+	 * Makes the given request and returns the future to its result, which
+	 * completes exceptionally with a TimeoutException if the server does not
+	 * respond within the timeout of the method (see `Timeouts`). Cancelling
+	 * the returned future cancels the request.
 	 * The given supplier should be a simple wrapper around a server request,
 	 * for example (using a Java lambda for the Supplier anonymous class):
 	 *
@@ -161,98 +208,106 @@ public final class AdaLSPServer {
 	 * @param method The name of the request's method.
 	 * @param requestSupplier A supplier representing the request to be made.
 	 * @param <T> The type of the request's response result.
-	 * @return The result of the response to the request.
+	 * @return The future result of the response to the request.
 	 */
-	@Nullable
-	private <T> T request(
+	@NotNull
+	private <T> CompletableFuture<T> requestAsync(
 		@NotNull String method,
 		@NotNull Supplier<CompletableFuture<T>> requestSupplier
 	) {
 		
-		T result = null;
+		// Make the request
 		
-		// Get the request future
+		CompletableFuture<T> requestFuture;
 		
-		CompletableFuture<T> requestFuture = requestSupplier.get();
+		try {
+			requestFuture = requestSupplier.get();
+		} catch (Exception exception) {
+			requestFuture = new CompletableFuture<>();
+			requestFuture.completeExceptionally(exception);
+		}
 		
-		// Get the timeout for the given method
+		// Attach the timeout for the given method
 		
-		int requestTimeout = Timeouts.getMethodTimeout(method);
+		CompletableFuture<T> future =
+			LSPFutures.withTimeout(requestFuture, Timeouts.getMethodTimeout(method));
 		
-		// Keep looping to get the request's result
-		// while the method timeout is not reached
+		// Account for failures, except timeouts and cancellations, on a
+		// pooled thread as handling them may require making requests
 		
-		while (requestTimeout > 0) {
+		future.whenCompleteAsync((result, throwable) -> {
 			
-			try {
-				
-				// Try to make the request and get the result before
-				// the end of the next check-cancel interval
-				
-				result = requestFuture.get(AdaLSPDriver.CHECK_CANCELED_INTERVAL, TimeUnit.MILLISECONDS);
-				
-				// The request resolved before the end of the next
-				// check-cancel interval, so break immediately
-				
-				break;
-				
-			} catch (TimeoutException timeoutException) {
-				
-				// The check-cancel interval is over, so decrease the
-				// request timeout then check if the operation was
-				// canceled, and if it was then break
-				
-				requestTimeout -= AdaLSPDriver.CHECK_CANCELED_INTERVAL;
-				
-				try {
-					ProgressManager.checkCanceled();
-				} catch (ProcessCanceledException canceledException) {
-					break;
-				}
-				
-			} catch (Exception exception) {
-				
-				// Log the failed request
-				
-				LOGGER.error("Request '" + method + "' to ALS failed", exception);
-				
-				// Increment the number of failed requests
-				
-				failureCount++;
-				
-				// If the number of failed requests reaches the threshold defined in
-				// the driver, then notify the user and shut down the server
-				
-				if (failureCount == AdaLSPDriver.FAILURE_COUNT_THRESHOLD) {
-					
-					Notifications.Bus.notify(new AdaIJNotification(
-						"Connection to Ada Language Server unreliable",
-						"The ALS has been shut down due to multiple failed requests, " +
-							"which will disable smart features such as find-usages and " +
-							"go-to definition.\nReload the current project to try again.",
-						NotificationType.ERROR
-					));
-					
-					driver.shutDownServer();
-					
-				}
-				
-				// Break out of the loop
-				
-				break;
-				
+			Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ?
+				throwable.getCause() : throwable;
+			
+			if (cause != null &&
+				!(cause instanceof TimeoutException) &&
+				!(cause instanceof CancellationException))
+			{
+				requestFailed(method, cause);
 			}
 			
-		}
+		}, AppExecutorUtil.getAppExecutorService());
+		
+		return future;
+		
+	}
+	
+	/**
+	 * Generic blocking request wrapper.
+	 * Waits for the response to the given request, and returns its result,
+	 * or null if the request failed or timed out.
+	 * See asynchronous request wrapper for information about expected parameters.
+	 *
+	 * @param method The name of the request's method.
+	 * @param requestSupplier A supplier representing the request to be made.
+	 * @param <T> The type of the request's response result.
+	 * @return The result of the response to the request.
+	 */
+	@Nullable
+	private <T> T request(
+		@NotNull String method,
+		@NotNull Supplier<CompletableFuture<T>> requestSupplier
+	) {
+		return LSPFutures.await(requestAsync(method, requestSupplier), null);
+	}
+	
+	/**
+	 * Logs the given failed request and increments the number of failed
+	 * requests, shutting down the server if that number reaches the
+	 * threshold defined in the driver.
+	 *
+	 * @param method The name of the request's method.
+	 * @param throwable The cause of the failure.
+	 */
+	private void requestFailed(@NotNull String method, @NotNull Throwable throwable) {
+		
+		// Log the failed request
 		
-		// Return the result
+		LOGGER.error("Request '" + method + "' to ALS failed", throwable);
 		
-		return result;
+		// Increment the number of failed requests, and if it reaches the
+		// threshold defined in the driver, then notify the user and shut
+		// down the server
+		
+		if (failureCount.incrementAndGet() == AdaLSPDriver.FAILURE_COUNT_THRESHOLD) {
+			
+			Notifications.Bus.notify(new AdaIJNotification(
+				"Connection to Ada Language Server unreliable",
+				"The ALS has been shut down due to multiple failed requests, " +
+					"which will disable smart features such as find-usages and " +
+					"go-to definition.\nReload the current project to try again.",
+				NotificationType.ERROR
+			));
+			
+			driver.shutDownServer();
+			
+		}
 		
 	}
 	
 	/**
-	 * Wrapper around requests that are relative to a document.
+	 * Asynchronous wrapper around requests that are relative to a document.
 	 * Basically any request whose parameters specify a document URI must be made
 	 * indirectly through this method and NOT directly. This is because the
 	 * IntelliJ platform often performs certain operations, such as resolving a
@@ -260,50 +315,222 @@ public final class AdaLSPServer {
 	 * not actually open in the IDE, which would be problematic if those files
 	 * were not open in the server's perspective.
 	 * To solve this, this wrapper checks if the file referenced by the given
-	 * request is already open and, if it is not, sends a `textDocument/didOpen`
-	 * notification before performing the request and a `textDocument/didClose`
-	 * notification after.
-	 * See base request wrapper for information about expected parameters.
+	 * request is already open and, if it is not, opens it in the pool of
+	 * documents open for requests only (see `OpenDocumentPool`), where it
+	 * stays open for subsequent requests until it is evicted.
+	 * Pending document changes are sent before making the request, and
+	 * pending requests of methods in SUPERSEDED_METHODS on the same document
+	 * are cancelled.
+	 * See asynchronous request wrapper for information about expected parameters.
 	 *
 	 * @param method The name of the request's method.
 	 * @param documentUri The URI of the document referenced by the given request.
 	 * @param requestSupplier A supplier representing the request to be made.
 	 * @param <T> The type of the request's response result.
-	 * @return The result of the response to the request.
+	 * @return The future result of the response to the request.
 	 */
-	@Nullable
-	private <T> T documentRequest(
+	@NotNull
+	private <T> CompletableFuture<T> documentRequestAsync(
 		@NotNull String method,
 		@NotNull String documentUri,
 		@NotNull Supplier<CompletableFuture<T>> requestSupplier
 	) {
-	
-		boolean openOnlyForRequest = !openFiles.contains(documentUri);
 		
-		// If the file is not already open, send a `textDocument/didOpen`
-		// notification to tell the server that the file is open
+		// Send pending document changes, on which the result of the
+		// request may depend even if they are in other documents
 		
-		if (openOnlyForRequest) {
-			didOpen(documentUri);
-		}
+		changeQueue.flushAll();
+		
+		// If the method is superseded by new requests, then cancel the
+		// pending request of that method on the same document, if any
+		
+		String requestKey = SUPERSEDED_METHODS.contains(method) ? method + " " + documentUri : null;
+		
+		if (requestKey != null) { cancelRequest(SUPERSEDABLE_REQUESTS.remove(requestKey)); }
 		
-		// Make the request and store the result
+		// Make the request
 		
-		T result = request(method, requestSupplier);
+		boolean pooled = documentPool.acquire(documentUri);
 		
-		// If the file was not already open, send a `textDocument/didClose`
-		// notification to tell the server that the file is closed
+		CompletableFuture<T> future = requestAsync(method, requestSupplier);
 		
-		if (openOnlyForRequest) {
-			didClose(documentUri);
+		// Release the document on a pooled thread rather than on the
+		// thread completing the future, normally the thread reading the
+		// server's responses, as releasing it may send notifications
+		
+		if (pooled) {
+			future.whenCompleteAsync((result, throwable) -> documentPool.release(documentUri),
+				AppExecutorUtil.getAppExecutorService());
+		}
+		
+		// Register the request as the pending request of its method
+		// on the document, cancelling any request registered by
+		// another thread in the meantime
+		
+		if (requestKey != null) {
+			cancelRequest(SUPERSEDABLE_REQUESTS.put(requestKey, future));
+			future.whenComplete((result, throwable) -> SUPERSEDABLE_REQUESTS.remove(requestKey, future));
 		}
 		
-		// Return the result
+		return future;
+		
+	}
+	
+	/**
+	 * Wrapper around the document request wrapper, for requests whose
+	 * responses are cached (see `ResponseCache`). If a response to an
+	 * identical request on the same version of the document is cached,
+	 * then it is returned without making the request, otherwise the
+	 * request is made and its response is cached once received.
+	 * See document request wrapper for information about expected parameters.
+	 *
+	 * @param method The name of the request's method.
+	 * @param documentUri The URI of the document referenced by the given request.
+	 * @param crossDocument Whether or not the response depends on documents
+	 *                      other than the one referenced by the request.
+	 * @param requestSupplier A supplier representing the request to be made.
+	 * @param parameters The parameters of the request other than the document.
+	 * @param <T> The type of the request's response result.
+	 * @return The future result of the response to the request.
+	 */
+	@NotNull
+	private <T> CompletableFuture<T> cachedDocumentRequestAsync(
+		@NotNull String                         method,
+		@NotNull String                         documentUri,
+		         boolean                        crossDocument,
+		@NotNull Supplier<CompletableFuture<T>> requestSupplier,
+		@NotNull Object...                      parameters
+	) {
+		
+		// Send pending document changes so that the version of the
+		// document is up to date, knowing that a document which is not
+		// open yet will be opened with the initial version
+		
+		changeQueue.flushAll();
+		
+		Integer version = changeQueue.version(documentUri);
+		
+		String key = ResponseCache.key(method, documentUri,
+			version == null ? DocumentChangeQueue.OPEN_VERSION : version, parameters);
+		
+		@SuppressWarnings("unchecked")
+		T cachedResponse = (T)responseCache.get(key);
+		
+		if (cachedResponse != null) { return CompletableFuture.completedFuture(cachedResponse); }
+		
+		// Make the request and cache its response, unless the cache
+		// is invalidated in the meantime
+		
+		long generation = responseCache.generation();
+		
+		CompletableFuture<T> future = documentRequestAsync(method, documentUri, requestSupplier);
+		
+		future.thenAccept(response -> {
+			if (response != null) {
+				responseCache.put(key, documentUri, crossDocument, generation, response);
+			}
+		});
+		
+		return future;
+		
+	}
+	
+	/**
+	 * Cancels the given request future, if any, which sends a
+	 * `$/cancelRequest` notification to the server if the request
+	 * is still pending.
+	 *
+	 * @param future The future of the request to cancel, or null.
+	 */
+	private static void cancelRequest(@Nullable CompletableFuture<?> future) {
+		if (future != null) { future.cancel(true); }
+	}
+	
+	/**
+	 * Sends a `textDocument/didOpen` notification for the given document
+	 * to open it in the pool of documents open for requests only, unless
+	 * it is already open.
+	 *
+	 * @param documentUri The URI of the document.
+	 * @return The size of the opened document, in bytes, or null if the
+	 *         document was already open or could not be opened.
+	 */
+	@Nullable
+	private Long openPooledDocument(@NotNull String documentUri) {
+		
+		if (openFiles.contains(documentUri)) { return null; }
+		
+		URL url = urlStringToUrl(documentUri);
+		
+		VirtualFile file = url == null ? null : VfsUtil.findFileByURL(url);
+		
+		if (file == null) { return null; }
+		
+		didOpen(file);
+		
+		return openFiles.contains(documentUri) ? file.getLength() : null;
+		
+	}
+	
+	/**
+	 * Invalidates cached responses depending on the given file, and sends
+	 * the new content of the file to the server if its document is open
+	 * in the pool of documents open for requests only, as the IDE does not
+	 * report changes to documents not open in editors.
+	 * Responses are invalidated even if the file is not open in the server,
+	 * as the server reads files that are not open from disk.
+	 *
+	 * @param file The file whose content changed.
+	 */
+	void fileContentChanged(@NotNull VirtualFile file) {
+		
+		String documentUri = file.getUrl();
+		
+		responseCache.documentChanged(documentUri);
+		
+		if (!documentPool.contains(documentUri)) { return; }
+		
+		changeQueue.replaceText(documentUri, LoadTextUtil.loadText(file).toString());
+		
+		documentPool.resize(documentUri, file.getLength());
+		
+	}
+	
+	/**
+	 * Invalidates cached responses depending on the given file, and closes
+	 * its document if it is open in the pool of documents open for requests
+	 * only, before the file is deleted, moved or renamed, after which its
+	 * URI would no longer be valid.
+	 *
+	 * @param file The file about to be removed.
+	 */
+	void fileRemoved(@NotNull VirtualFile file) {
+		
+		String documentUri = file.getUrl();
+		
+		responseCache.documentChanged(documentUri);
 		
-		return result;
+		if (documentPool.remove(documentUri)) { didClose(documentUri); }
 		
 	}
 	
+	/**
+	 * Invalidates cached responses depending on the given file, which
+	 * was just created, as cross-document responses (e.g. references)
+	 * may depend on it.
+	 *
+	 * @param file The created file.
+	 */
+	void fileCreated(@NotNull VirtualFile file) { responseCache.documentChanged(file.getUrl()); }
+	
+	/**
+	 * Invalidates all cached responses, as the given directory is about
+	 * to be deleted, moved or renamed, along with any file it contains.
+	 *
+	 * @param directory The directory about to be removed.
+	 */
+	void directoryRemoved(@NotNull VirtualFile directory) { responseCache.clear(); }
+	
 	/*
 		General methods
 	*/
@@ -338,7 +565,13 @@ public final class AdaLSPServer {
 	/**
 	 * @see org.eclipse.lsp4j.services.LanguageServer#shutdown()
 	 */
-	void shutdown() { request("shutdown", () -> server.shutdown()); }
+	void shutdown() {
+		changeQueue.clear();
+		documentPool.clear();
+		LOGGER.info("ALS response cache statistics: " + responseCache.statistics());
+		responseCache.clear();
+		request("shutdown", () -> server.shutdown());
+	}
 	
 	/**
 	 * @see org.eclipse.lsp4j.services.LanguageServer#exit()
@@ -365,6 +598,8 @@ public final class AdaLSPServer {
 			adaSettingsObject.setScenarioVariables(scenarioVariables);
 		}
 		
+		responseCache.clear();
+		
 		server.getWorkspaceService().didChangeConfiguration(
 			new DidChangeConfigurationParams(adaSettingsObject));
 		
@@ -400,8 +635,20 @@ public final class AdaLSPServer {
 		
 		if (document == null) { return; }
 		
+		// If the document is already open in the pool of documents
+		// open for requests only, then take it out of the pool rather
+		// than opening it again, and send its current text in case it
+		// was modified in the IDE while it was pooled
+		
+		if (documentPool.remove(documentUri)) {
+			changeQueue.replaceText(documentUri, document.getText());
+			return;
+		}
+		
+		changeQueue.opened(documentUri);
+		
 		TextDocumentItem textDocumentItem = new TextDocumentItem(
-			documentUri, LSPUtils.ADA_LSP_LANGUAGE_ID, 1, document.getText());
+			documentUri, LSPUtils.ADA_LSP_LANGUAGE_ID, DocumentChangeQueue.OPEN_VERSION, document.getText());
 		
 		server.getTextDocumentService().didOpen(new DidOpenTextDocumentParams(textDocumentItem));
 		
@@ -411,66 +658,43 @@ public final class AdaLSPServer {
 	
 	/**
 	 * @see org.eclipse.lsp4j.services.TextDocumentService#didChange(DidChangeTextDocumentParams)
+	 *
+	 * Queues the change described by the given event, received before
+	 * the document changes, if the server synchronizes documents
+	 * incrementally (see `DocumentChangeQueue`).
 	 */
-	void didChange(@NotNull DocumentEvent event) {
-		
-		TextDocumentSyncKind changePolicy = serverSyncPolicy.getChange();
-		
-		if (changePolicy == TextDocumentSyncKind.None) { return; }
-		
-		Document    changedDocument = event.getDocument();
-		VirtualFile changedFile     = getDocumentVirtualFile(changedDocument);
-		
-		if (changedFile == null || !AdaFileType.isAdaFile(changedFile)) { return; }
-		
-		TextDocumentContentChangeEvent changeEvent = new TextDocumentContentChangeEvent();
-		
-		String text = "";
-		
-		if (changePolicy == TextDocumentSyncKind.Incremental) {
-			
-			int offset    = event.getOffset();
-			int oldLength = event.getOldLength();
-			
-			changeEvent.setRange(new Range(
-				offsetToPosition(changedDocument, offset),
-				offsetToPosition(changedDocument, offset + oldLength)
-			));
-			changeEvent.setRangeLength(oldLength);
-			
-			text = event.getNewFragment().toString();
-			
-		} else if (changePolicy == TextDocumentSyncKind.Full) {
-			
-			text = changedDocument.getText();
-			
-		}
-		
-		changeEvent.setText(text);
-		
-		didChange(changedFile.getUrl(), (int)changedFile.getModificationStamp(), changeEvent);
-		
+	void willChange(@NotNull DocumentEvent event) {
+		queueChange(event, TextDocumentSyncKind.Incremental);
 	}
 	
 	/**
 	 * @see org.eclipse.lsp4j.services.TextDocumentService#didChange(DidChangeTextDocumentParams)
+	 *
+	 * Queues the change described by the given event, received after
+	 * the document changed, if the server synchronizes full documents
+	 * (see `DocumentChangeQueue`).
 	 */
-	private void didChange(
-		@NotNull String documentUri,
-		         int    version,
-		@NotNull TextDocumentContentChangeEvent... changeEvents) {
-		
-		TextDocumentSyncKind changePolicy = serverSyncPolicy.getChange();
+	void didChange(@NotNull DocumentEvent event) {
+		queueChange(event, TextDocumentSyncKind.Full);
+	}
+	
+	/**
+	 * Queues the change described by the given event if the server
+	 * synchronizes documents with the given policy.
+	 *
+	 * @param event The document event.
+	 * @param changePolicy The synchronization policy.
+	 */
+	private void queueChange(@NotNull DocumentEvent event, @NotNull TextDocumentSyncKind changePolicy) {
 		
-		if (changePolicy == TextDocumentSyncKind.None) { return; }
+		if (serverSyncPolicy.getChange() != changePolicy) { return; }
 		
-		DidChangeTextDocumentParams params = new DidChangeTextDocumentParams();
+		VirtualFile changedFile = getDocumentVirtualFile(event.getDocument());
 		
-		params.setTextDocument(
-			new VersionedTextDocumentIdentifier(documentUri, version));
-		params.setContentChanges(Arrays.asList(changeEvents));
+		if (changedFile == null || !AdaFileType.isAdaFile(changedFile)) { return; }
 		
-		server.getTextDocumentService().didChange(params);
+		changeQueue.queueChange(
+			changedFile.getUrl(), event, changePolicy == TextDocumentSyncKind.Incremental);
 		
 	}
 	
@@ -527,6 +751,8 @@ public final class AdaLSPServer {
 		
 		if (file == null || !AdaFileType.isAdaFile(file)) { return; }
 		
+		if (changeQueue.closed(documentUri)) { responseCache.documentChanged(documentUri); }
+		
 		server.getTextDocumentService().didClose(
 			new DidCloseTextDocumentParams(new TextDocumentIdentifier(documentUri)));
 		
@@ -536,15 +762,18 @@ public final class AdaLSPServer {
 	
 	/**
 	 * @see org.eclipse.lsp4j.services.TextDocumentService#completion(CompletionParams)
+	 *
+	 * Returns the future completion items at the given position, or
+	 * a future empty list if completion is not available.
 	 */
 	@NotNull
-	public List<CompletionItem> completion(
+	public CompletableFuture<List<CompletionItem>> completionAsync(
 		@NotNull String   documentUri,
 		@NotNull Position position
 	) {
 		
 		if (!driver.initialized() || capabilities.getCompletionProvider() == null) {
-			return Collections.emptyList();
+			return CompletableFuture.completedFuture(Collections.emptyList());
 		}
 		
 		final CompletionParams params = new CompletionParams();
@@ -552,55 +781,91 @@ public final class AdaLSPServer {
 		params.setTextDocument(new TextDocumentIdentifier(documentUri));
 		params.setPosition(position);
 		
-		Either<List<CompletionItem>, CompletionList> completionResult =
-			documentRequest("textDocument/completion", documentUri,
-				() -> server.getTextDocumentService().completion(params));
+		return LSPFutures.thenApply(
+			documentRequestAsync("textDocument/completion", documentUri,
+				() -> server.getTextDocumentService().completion(params)),
+			completionResult ->
+				completionResult == null   ? Collections.emptyList() :
+				completionResult.isLeft()  ? completionResult.getLeft() :
+				completionResult.isRight() ? completionResult.getRight().getItems() :
+					Collections.emptyList()
+		);
+		
+	}
+	
+	/**
+	 * @see org.eclipse.lsp4j.services.TextDocumentService#completion(CompletionParams)
+	 *
+	 * Blocking version of `completionAsync`.
+	 */
+	@NotNull
+	public List<CompletionItem> completion(
+		@NotNull String   documentUri,
+		@NotNull Position position
+	) {
 		
-		if (completionResult == null) { return Collections.emptyList(); }
+		List<CompletionItem> completionItems =
+			LSPFutures.awaitBounded(completionAsync(documentUri, position));
 		
-		return
-			completionResult.isLeft()  ? completionResult.getLeft() :
-			completionResult.isRight() ? completionResult.getRight().getItems() :
-				Collections.emptyList();
+		return completionItems == null ? Collections.emptyList() : completionItems;
 		
 	}
 	
 	/**
 	 * @see org.eclipse.lsp4j.services.TextDocumentService#definition(TextDocumentPositionParams)
+	 *
+	 * Returns the future location of the definition of the element at
+	 * the given position, or a future null location if there is none or
+	 * if definitions are not available.
 	 */
-	@Nullable
-	public Location definition(@NotNull String documentUri, @NotNull Position position) {
+	@NotNull
+	public CompletableFuture<Location> definitionAsync(@NotNull String documentUri, @NotNull Position position) {
 		
 		if (!driver.initialized() || !capabilities.getDefinitionProvider()) {
-			return null;
+			return CompletableFuture.completedFuture(null);
 		}
 		
 		final TextDocumentPositionParams params = new TextDocumentPositionParams(
 			new TextDocumentIdentifier(documentUri), position);
 		
-		List<? extends Location> locations =
-			documentRequest("textDocument/definition", documentUri,
-				() -> server.getTextDocumentService().definition(params));
-		
-		if (locations == null || locations.size() == 0) { return null; }
-		
-		// TODO: Decide how to handle multiple locations
-		return locations.get(0);
+		return LSPFutures.thenApply(
+			cachedDocumentRequestAsync("textDocument/definition", documentUri, true,
+				() -> server.getTextDocumentService().definition(params),
+				position.getLine(), position.getCharacter()),
+			
+			// TODO: Decide how to handle multiple locations
+			
+			locations -> locations == null || locations.size() == 0 ? null : locations.get(0)
+		);
 		
 	}
 	
+	/**
+	 * @see org.eclipse.lsp4j.services.TextDocumentService#definition(TextDocumentPositionParams)
+	 *
+	 * Blocking version of `definitionAsync`.
+	 */
+	@Nullable
+	public Location definition(@NotNull String documentUri, @NotNull Position position) {
+		return LSPFutures.awaitBounded(definitionAsync(documentUri, position));
+	}
+	
 	/**
 	 * @see org.eclipse.lsp4j.services.TextDocumentService#references(ReferenceParams)
+	 *
+	 * Returns the future locations of the references to the element at
+	 * the given position, or a future empty list if references are not
+	 * available.
 	 */
 	@NotNull
-	public List<Location> references(
+	public CompletableFuture<List<Location>> referencesAsync(
 		@NotNull String   documentUri,
 		@NotNull Position position,
 		         boolean  includeDefinition
 	) {
 		
 		if (!driver.initialized() || !capabilities.getReferencesProvider()) {
-			return Collections.emptyList();
+			return CompletableFuture.completedFuture(Collections.emptyList());
 		}
 		
 		final ReferenceParams params = new ReferenceParams();
@@ -609,35 +874,87 @@ public final class AdaLSPServer {
 		params.setPosition(position);
 		params.setContext(new ReferenceContext(includeDefinition));
 		
-		List<? extends Location> locations =
-			documentRequest("textDocument/references", documentUri,
-				() -> server.getTextDocumentService().references(params));
+		return LSPFutures.thenApply(
+			cachedDocumentRequestAsync("textDocument/references", documentUri, true,
+				() -> server.getTextDocumentService().references(params),
+				position.getLine(), position.getCharacter(), includeDefinition),
+			locations -> locations == null ? Collections.emptyList() : locations
+				.stream()
+				.map(location -> (Location)location)
+				.collect(Collectors.toList())
+		);
+		
+	}
+	
+	/**
+	 * @see org.eclipse.lsp4j.services.TextDocumentService#references(ReferenceParams)
+	 *
+	 * Blocking version of `referencesAsync`.
+	 */
+	@NotNull
+	public List<Location> references(
+		@NotNull String   documentUri,
+		@NotNull Position position,
+		         boolean  includeDefinition
+	) {
 		
-		if (locations == null) { return Collections.emptyList(); }
+		List<Location> locations =
+			LSPFutures.awaitBounded(referencesAsync(documentUri, position, includeDefinition));
 		
-		return locations
-			.stream()
-			.map(location -> (Location)location)
-			.collect(Collectors.toList());
+		return locations == null ? Collections.emptyList() : locations;
 		
 	}
 	
 	/**
 	 * @see org.eclipse.lsp4j.services.TextDocumentService#documentSymbol(DocumentSymbolParams)
+	 *
+	 * Returns the future symbols of the given document, or a future
+	 * empty list if document symbols are not available.
 	 */
-	public List<DocumentSymbol> documentSymbol(@NotNull String documentUri) {
+	@NotNull
+	public CompletableFuture<List<DocumentSymbol>> documentSymbolAsync(@NotNull String documentUri) {
 		
 		if (!driver.initialized() || !capabilities.getDocumentSymbolProvider()) {
-			return Collections.emptyList();
+			return CompletableFuture.completedFuture(Collections.emptyList());
 		}
 		
 		final DocumentSymbolParams params = new DocumentSymbolParams(
 			new TextDocumentIdentifier(documentUri));
 		
-		List<Either<SymbolInformation, DocumentSymbol>> symbols =
-			documentRequest("textDocument/documentSymbol", documentUri,
-				() -> server.getTextDocumentService().documentSymbol(params));
+		return LSPFutures.thenApply(
+			cachedDocumentRequestAsync("textDocument/documentSymbol", documentUri, false,
+				() -> server.getTextDocumentService().documentSymbol(params)),
+			AdaLSPServer::documentSymbols
+		);
+		
+	}
 	
+	/**
+	 * @see org.eclipse.lsp4j.services.TextDocumentService#documentSymbol(DocumentSymbolParams)
+	 *
+	 * Blocking version of `documentSymbolAsync`.
+	 */
+	@NotNull
+	public List<DocumentSymbol> documentSymbol(@NotNull String documentUri) {
+		
+		List<DocumentSymbol> symbols = LSPFutures.awaitBounded(documentSymbolAsync(documentUri));
+		
+		return symbols == null ? Collections.emptyList() : symbols;
+		
+	}
+	
+	/**
+	 * Returns the given symbols returned by a `textDocument/documentSymbol`
+	 * request as document symbols, translating symbol information.
+	 *
+	 * @param symbols The symbols returned by the request, or null.
+	 * @return The document symbols.
+	 */
+	@NotNull
+	private static List<DocumentSymbol> documentSymbols(
+		@Nullable List<Either<SymbolInformation, DocumentSymbol>> symbols
+	) {
+		
 		if (symbols == null) { return Collections.emptyList(); }
 		
 		return symbols
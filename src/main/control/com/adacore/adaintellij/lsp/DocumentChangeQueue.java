@@ -0,0 +1,421 @@
+package com.adacore.adaintellij.lsp;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.*;
+
+import org.eclipse.lsp4j.*;
+
+import static com.adacore.adaintellij.lsp.LSPUtils.offsetToPosition;
+
+/**
+ * Queue of changes to the documents open in the ALS, sent in batched
+ * `textDocument/didChange` notifications rather than one notification
+ * per document event.
+ *
+ * Incremental changes are queued when documents are about to change, on
+ * the event dispatch thread, with their ranges computed against the
+ * pre-change state of documents as required by the protocol. Consecutive
+ * insertions (typing) and consecutive backward deletions (backspacing)
+ * are merged into single changes. In full synchronization mode, changes
+ * are queued after documents changed, and the text of a document is only
+ * read when sending its changes. The changes queued for
+ * a document are then sent FLUSH_DELAY milliseconds after the first of
+ * them on a pooled thread, or immediately when `flush` is called, which
+ * must be done before making any request to the server so that it works
+ * on up-to-date documents.
+ * Every notification sent for a document has a version greater than the
+ * previous one, starting from the version of its `textDocument/didOpen`
+ * notification. Notifications are sent without holding the lock under
+ * which changes are queued, so that queuing changes never waits for
+ * the server to read its input.
+ */
+final class DocumentChangeQueue {
+	
+	/*
+		Constants
+	*/
+	
+	/**
+	 * The delay, in milliseconds, after which the changes queued for a
+	 * document are sent, starting from the first queued change.
+	 */
+	static final int FLUSH_DELAY = 100;
+	
+	/**
+	 * The version of documents in `textDocument/didOpen` notifications.
+	 */
+	static final int OPEN_VERSION = 1;
+	
+	/**
+	 * Class-wide logger for the DocumentChangeQueue class.
+	 */
+	private static final Logger LOGGER = Logger.getInstance(DocumentChangeQueue.class);
+	
+	/**
+	 * The sender of `textDocument/didChange` notifications.
+	 */
+	private final Consumer<DidChangeTextDocumentParams> SENDER;
+	
+	/**
+	 * Lock held while sending notifications, so that notifications for
+	 * a document are sent in the order of their versions, and before
+	 * the document is opened again or closed, without holding the monitor
+	 * of this queue, which guards queued changes and versions. Changes are
+	 * queued on the event dispatch thread under that monitor, which must
+	 * therefore never be held while writing to a server that may be busy
+	 * and not reading its input.
+	 * SEND_LOCK is always acquired before the monitor of this queue.
+	 */
+	private final Object SEND_LOCK = new Object();
+	
+	/**
+	 * Map associating the URIs of documents with their queued changes.
+	 */
+	private final Map<String, QueuedChanges> QUEUED_CHANGES = new HashMap<>();
+	
+	/**
+	 * Map associating the URIs of documents with the version of the
+	 * last notification sent for them.
+	 */
+	private final Map<String, Integer> VERSIONS = new HashMap<>();
+	
+	/**
+	 * Constructs a new document change queue given the sender of
+	 * `textDocument/didChange` notifications.
+	 *
+	 * @param sender The sender of notifications.
+	 */
+	DocumentChangeQueue(@NotNull Consumer<DidChangeTextDocumentParams> sender) { SENDER = sender; }
+	
+	/**
+	 * Queues the change of the given document event, which must be
+	 * received before the document changes for incremental changes,
+	 * and after it changed otherwise.
+	 *
+	 * @param documentUri The URI of the changed document.
+	 * @param event The document event.
+	 * @param incremental Whether to send incremental changes or the
+	 *                    full text of the document.
+	 */
+	synchronized void queueChange(@NotNull String documentUri, @NotNull DocumentEvent event, boolean incremental) {
+		
+		QueuedChanges queuedChanges = QUEUED_CHANGES.get(documentUri);
+		
+		if (queuedChanges == null) {
+			
+			queuedChanges = new QueuedChanges(event.getDocument());
+			
+			queuedChanges.flushFuture = AppExecutorUtil.getAppScheduledExecutorService().schedule(
+				() -> flush(documentUri), FLUSH_DELAY, TimeUnit.MILLISECONDS);
+			
+			QUEUED_CHANGES.put(documentUri, queuedChanges);
+			
+		}
+		
+		// In full synchronization mode, the text of the document
+		// is only read when sending changes
+		
+		if (!incremental) {
+			queuedChanges.fullText = true;
+			return;
+		}
+		
+		queuedChanges.addChange(event);
+		
+	}
+	
+	/**
+	 * Sends the changes queued for the given document, if any.
+	 *
+	 * @param documentUri The URI of the document.
+	 */
+	void flush(@NotNull String documentUri) {
+		synchronized (SEND_LOCK) { send(takeChanges(documentUri)); }
+	}
+	
+	/**
+	 * Discards the changes queued for the given document and sends its
+	 * entire given text instead, for example after its file changed
+	 * outside of the IDE.
+	 *
+	 * @param documentUri The URI of the document.
+	 * @param text The new text of the document.
+	 */
+	void replaceText(@NotNull String documentUri, @NotNull String text) {
+		
+		synchronized (SEND_LOCK) {
+			
+			DidChangeTextDocumentParams params;
+			
+			synchronized (this) {
+				
+				discard(documentUri);
+				
+				params = new DidChangeTextDocumentParams(
+					new VersionedTextDocumentIdentifier(documentUri, nextVersion(documentUri)),
+					Collections.singletonList(new TextDocumentContentChangeEvent(text)));
+				
+			}
+			
+			send(params);
+			
+		}
+		
+	}
+	
+	/**
+	 * Sends the changes queued for all documents.
+	 */
+	void flushAll() {
+		
+		synchronized (SEND_LOCK) {
+			
+			List<DidChangeTextDocumentParams> paramsList = new ArrayList<>();
+			
+			synchronized (this) {
+				new ArrayList<>(QUEUED_CHANGES.keySet()).forEach(
+					documentUri -> paramsList.add(takeChanges(documentUri)));
+			}
+			
+			paramsList.forEach(this::send);
+			
+		}
+		
+	}
+	
+	/**
+	 * Removes the changes queued for the given document, if any, and
+	 * returns the parameters of the notification sending them, with the
+	 * next version of the document.
+	 *
+	 * @param documentUri The URI of the document.
+	 * @return The parameters of the notification, or null if no changes
+	 *         were queued for the document.
+	 */
+	@Nullable
+	private synchronized DidChangeTextDocumentParams takeChanges(@NotNull String documentUri) {
+		
+		QueuedChanges queuedChanges = QUEUED_CHANGES.remove(documentUri);
+		
+		if (queuedChanges == null) { return null; }
+		
+		queuedChanges.flushFuture.cancel(false);
+		
+		List<TextDocumentContentChangeEvent> changes = queuedChanges.fullText ?
+			Collections.singletonList(new TextDocumentContentChangeEvent(
+				queuedChanges.DOCUMENT.getImmutableCharSequence().toString())) :
+			queuedChanges.CHANGES;
+		
+		return new DidChangeTextDocumentParams(
+			new VersionedTextDocumentIdentifier(documentUri, nextVersion(documentUri)), changes);
+		
+	}
+	
+	/**
+	 * Increments the version of the given document and returns it.
+	 *
+	 * @param documentUri The URI of the document.
+	 * @return The next version of the document.
+	 */
+	private int nextVersion(@NotNull String documentUri) {
+		
+		int version = VERSIONS.getOrDefault(documentUri, OPEN_VERSION) + 1;
+		
+		VERSIONS.put(documentUri, version);
+		
+		return version;
+		
+	}
+	
+	/**
+	 * Sends a notification with the given parameters, if any, logging
+	 * failures. Must be called while holding SEND_LOCK but not the
+	 * monitor of this queue.
+	 *
+	 * @param params The parameters of the notification, or null.
+	 */
+	private void send(@Nullable DidChangeTextDocumentParams params) {
+		
+		if (params == null) { return; }
+		
+		try {
+			SENDER.accept(params);
+		} catch (Exception exception) {
+			LOGGER.warn("Failed to send changes of " + params.getTextDocument().getUri() + " to ALS", exception);
+		}
+		
+	}
+	
+	/**
+	 * Resets the version of the given document, which was just opened.
+	 *
+	 * @param documentUri The URI of the document.
+	 */
+	void opened(@NotNull String documentUri) {
+		synchronized (SEND_LOCK) {
+			synchronized (this) {
+				discard(documentUri);
+				VERSIONS.put(documentUri, OPEN_VERSION);
+			}
+		}
+	}
+	
+	/**
+	 * Discards the changes queued for the given document, which was
+	 * just closed, and forgets its version.
+	 *
+	 * @param documentUri The URI of the document.
+	 * @return Whether or not changes to the document were sent since it
+	 *         was opened, in which case closing it may have reverted it
+	 *         to the content of its file in the server.
+	 */
+	boolean closed(@NotNull String documentUri) {
+		
+		synchronized (SEND_LOCK) {
+			synchronized (this) {
+				
+				discard(documentUri);
+				
+				Integer version = VERSIONS.remove(documentUri);
+				
+				return version != null && version != OPEN_VERSION;
+				
+			}
+		}
+		
+	}
+	
+	/**
+	 * Returns the version of the last notification sent for the given
+	 * document, or null if the document is not open.
+	 *
+	 * @param documentUri The URI of the document.
+	 * @return The version of the document, or null.
+	 */
+	@Nullable
+	synchronized Integer version(@NotNull String documentUri) { return VERSIONS.get(documentUri); }
+	
+	/**
+	 * Discards the changes queued for all documents and forgets
+	 * their versions.
+	 */
+	synchronized void clear() {
+		new ArrayList<>(QUEUED_CHANGES.keySet()).forEach(this::discard);
+		VERSIONS.clear();
+	}
+	
+	/**
+	 * Discards the changes queued for the given document.
+	 *
+	 * @param documentUri The URI of the document.
+	 */
+	private void discard(@NotNull String documentUri) {
+		
+		QueuedChanges queuedChanges = QUEUED_CHANGES.remove(documentUri);
+		
+		if (queuedChanges != null) { queuedChanges.flushFuture.cancel(false); }
+		
+	}
+	
+	/**
+	 * Changes queued for a document.
+	 */
+	private static final class QueuedChanges {
+		
+		/**
+		 * The changed document.
+		 */
+		final Document DOCUMENT;
+		
+		/**
+		 * The queued incremental changes.
+		 */
+		final List<TextDocumentContentChangeEvent> CHANGES = new ArrayList<>();
+		
+		/**
+		 * Whether to send the full text of the document instead of
+		 * incremental changes.
+		 */
+		boolean fullText = false;
+		
+		/**
+		 * The start and end offsets of the text of the last change,
+		 * after that change, used to merge changes.
+		 */
+		int lastChangeStartOffset = -1;
+		int lastChangeEndOffset   = -1;
+		
+		/**
+		 * The scheduled sending of the changes.
+		 */
+		ScheduledFuture<?> flushFuture;
+		
+		/**
+		 * Constructs new empty queued changes for the given document.
+		 *
+		 * @param document The changed document.
+		 */
+		QueuedChanges(@NotNull Document document) { DOCUMENT = document; }
+		
+		/**
+		 * Adds the change of the given document event, received before
+		 * the document changes, merging it with the last change if the
+		 * event inserts text at the end of the text of the last change,
+		 * or deletes text just before the last change if it was
+		 * a deletion.
+		 *
+		 * @param event The document event, before the document changes.
+		 */
+		void addChange(@NotNull DocumentEvent event) {
+			
+			int    offset    = event.getOffset();
+			int    oldLength = event.getOldLength();
+			String text      = event.getNewFragment().toString();
+			
+			TextDocumentContentChangeEvent lastChange =
+				CHANGES.isEmpty() ? null : CHANGES.get(CHANGES.size() - 1);
+			
+			if (lastChange != null && oldLength == 0 && offset == lastChangeEndOffset) {
+				
+				// Insertion at the end of the last change
+				
+				lastChange.setText(lastChange.getText() + text);
+				
+				lastChangeEndOffset += text.length();
+				
+			} else if (lastChange != null && text.isEmpty() && lastChange.getText().isEmpty() &&
+				offset + oldLength == lastChangeStartOffset)
+			{
+				
+				// Deletion just before the last change, itself a deletion
+				
+				lastChange.getRange().setStart(offsetToPosition(DOCUMENT, offset));
+				lastChange.setRangeLength(lastChange.getRangeLength() + oldLength);
+				
+				lastChangeStartOffset = offset;
+				lastChangeEndOffset   = offset;
+				
+			} else {
+				
+				Position start = offsetToPosition(DOCUMENT, offset);
+				Position end   = oldLength == 0 ? start : offsetToPosition(DOCUMENT, offset + oldLength);
+				
+				CHANGES.add(new TextDocumentContentChangeEvent(new Range(start, end), oldLength, text));
+				
+				lastChangeStartOffset = offset;
+				lastChangeEndOffset   = offset + text.length();
+				
+			}
+			
+		}
+		
+	}
+	
+}
@@ -0,0 +1,256 @@
+package com.adacore.adaintellij.lsp;
+
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.*;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.*;
+
+/**
+ * Helpers for the futures of asynchronous requests to the ALS, bridging
+ * them with the threading model of the IntelliJ platform: timeouts,
+ * cancellation, waits checking progress indicators for cancellation and
+ * continuations running in non-blocking read actions.
+ *
+ * Waiting for a request blocks the calling thread, and should therefore
+ * be reserved for places that must return the result synchronously,
+ * such as `PsiReference#resolve`.
+ */
+public final class LSPFutures {
+	
+	/**
+	 * Private default constructor to prevent instantiation.
+	 */
+	private LSPFutures() {}
+	
+	/**
+	 * Returns a future completed like the given future, or exceptionally
+	 * with a TimeoutException if the given future does not complete within
+	 * the given timeout. Cancelling the returned future, or its timing out,
+	 * cancels the given future.
+	 *
+	 * @param future The future to which to attach a timeout.
+	 * @param timeout The timeout, in milliseconds.
+	 * @param <T> The type of the result of the future.
+	 * @return The future with a timeout.
+	 */
+	@NotNull
+	public static <T> CompletableFuture<T> withTimeout(@NotNull CompletableFuture<T> future, int timeout) {
+		
+		CompletableFuture<T> timedFuture = new CompletableFuture<>();
+		
+		ScheduledFuture<?> timeoutFuture = AppExecutorUtil.getAppScheduledExecutorService().schedule(
+			() -> timedFuture.completeExceptionally(
+				new TimeoutException("No response within " + timeout + " ms")),
+			timeout, TimeUnit.MILLISECONDS
+		);
+		
+		future.whenComplete((result, throwable) -> {
+			
+			timeoutFuture.cancel(false);
+			
+			if (throwable == null) {
+				timedFuture.complete(result);
+			} else {
+				timedFuture.completeExceptionally(throwable);
+			}
+			
+		});
+		
+		// Cancel the given future if the returned future is cancelled
+		// or times out before the given future completes
+		
+		timedFuture.whenComplete((result, throwable) -> {
+			if (throwable != null && !future.isDone()) { future.cancel(true); }
+		});
+		
+		return timedFuture;
+		
+	}
+	
+	/**
+	 * Returns a future completed with the result of applying the given
+	 * function to the result of the given future, like
+	 * `CompletableFuture#thenApply`, except that cancelling the returned
+	 * future also cancels the given future.
+	 *
+	 * @param future The future to the result of which to apply the function.
+	 * @param function The function to apply.
+	 * @param <T> The type of the result of the given future.
+	 * @param <R> The type of the result of the function.
+	 * @return The future result of the function.
+	 */
+	@NotNull
+	public static <T, R> CompletableFuture<R> thenApply(
+		@NotNull CompletableFuture<T>             future,
+		@NotNull Function<? super T, ? extends R> function
+	) {
+		
+		CompletableFuture<R> resultFuture = future.thenApply(function);
+		
+		resultFuture.whenComplete((result, throwable) -> {
+			if (resultFuture.isCancelled()) { future.cancel(true); }
+		});
+		
+		return resultFuture;
+		
+	}
+	
+	/**
+	 * Waits for the given future to complete and returns its result, or
+	 * null if it completed exceptionally, was cancelled or timed out.
+	 * The future must complete eventually, which futures of requests to
+	 * the ALS always do as they are given timeouts (see `withTimeout`).
+	 * While waiting, the given progress indicator, or the progress
+	 * indicator of the current thread if none is given, is checked for
+	 * cancellation every AdaLSPDriver.CHECK_CANCELED_INTERVAL, and the
+	 * future is cancelled if the indicator is.
+	 *
+	 * @param future The future to wait for.
+	 * @param indicator The progress indicator to check, or null.
+	 * @param <T> The type of the result of the future.
+	 * @return The result of the future, or null.
+	 * @throws ProcessCanceledException If the progress indicator
+	 *                                  was cancelled while waiting.
+	 */
+	@Nullable
+	public static <T> T await(@NotNull CompletableFuture<T> future, @Nullable ProgressIndicator indicator) {
+		
+		while (true) {
+			
+			try {
+				
+				return future.get(AdaLSPDriver.CHECK_CANCELED_INTERVAL, TimeUnit.MILLISECONDS);
+				
+			} catch (TimeoutException exception) {
+				
+				// The check-cancel interval is over, so check if the
+				// operation was canceled before waiting again, and if
+				// it was then cancel the future, which in turn cancels
+				// the request (LSP4J sends a `$/cancelRequest`
+				// notification to the server) so that the server does
+				// not keep working on an abandoned request
+				
+				try {
+					
+					if (indicator == null) {
+						ProgressManager.checkCanceled();
+					} else {
+						indicator.checkCanceled();
+					}
+					
+				} catch (ProcessCanceledException canceledException) {
+					
+					future.cancel(true);
+					
+					throw canceledException;
+					
+				}
+				
+			} catch (InterruptedException exception) {
+				
+				future.cancel(true);
+				
+				Thread.currentThread().interrupt();
+				
+				return null;
+				
+			} catch (ExecutionException | CancellationException exception) {
+				
+				// Failures are accounted for by the server
+				
+				return null;
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Waits for the given future like `await(CompletableFuture, ProgressIndicator)`,
+	 * checking the progress indicator of the current thread, except that
+	 * on the event dispatch thread the wait is bounded by
+	 * Timeouts.DISPATCH_THREAD_TIMEOUT, after which the future is
+	 * cancelled and null is returned, so that a slow ALS cannot freeze
+	 * the IDE for the full timeout of a request.
+	 *
+	 * @param future The future to wait for.
+	 * @param <T> The type of the result of the future.
+	 * @return The result of the future, or null.
+	 * @throws ProcessCanceledException If the progress indicator
+	 *                                  was cancelled while waiting.
+	 */
+	@Nullable
+	public static <T> T awaitBounded(@NotNull CompletableFuture<T> future) {
+		return await(ApplicationManager.getApplication().isDispatchThread() ?
+			withTimeout(future, Timeouts.DISPATCH_THREAD_TIMEOUT) : future, null);
+	}
+	
+	/**
+	 * Returns a future completed with the result of applying the given
+	 * function to the result of the given future, in a non-blocking read
+	 * action on a pooled thread: if a write action is requested while the
+	 * function runs, the read action is cancelled and the function is
+	 * applied again once the write action is over. The function must
+	 * therefore check for cancellation and have no side effects.
+	 * Cancelling the returned future cancels the given future.
+	 *
+	 * @param future The future to the result of which to apply the function.
+	 * @param function The function to apply in a read action.
+	 * @param <T> The type of the result of the given future.
+	 * @param <R> The type of the result of the function.
+	 * @return The future result of the function.
+	 */
+	@NotNull
+	public static <T, R> CompletableFuture<R> thenApplyInReadAction(
+		@NotNull CompletableFuture<T>             future,
+		@NotNull Function<? super T, ? extends R> function
+	) {
+		
+		CompletableFuture<R> resultFuture = new CompletableFuture<>();
+		
+		future.whenCompleteAsync((result, throwable) -> {
+			
+			if (throwable != null) {
+				resultFuture.completeExceptionally(throwable);
+				return;
+			}
+			
+			while (!resultFuture.isDone()) {
+				
+				ProgressIndicator indicator = new EmptyProgressIndicator();
+				
+				try {
+					
+					boolean completed = ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(
+						() -> resultFuture.complete(function.apply(result)), indicator);
+					
+					if (!completed) { ProgressIndicatorUtils.yieldToPendingWriteActions(); }
+					
+				} catch (ProcessCanceledException exception) {
+					
+					// Cancelled by a write action, so try again
+					
+				} catch (Throwable applicationThrowable) {
+					
+					resultFuture.completeExceptionally(applicationThrowable);
+					
+				}
+				
+			}
+			
+		}, AppExecutorUtil.getAppExecutorService());
+		
+		resultFuture.whenComplete((result, throwable) -> {
+			if (resultFuture.isCancelled()) { future.cancel(true); }
+		});
+		
+		return resultFuture;
+		
+	}
+	
+}
@@ -0,0 +1,326 @@
+package com.adacore.adaintellij.lsp;
+
+import java.util.*;
+import java.util.function.*;
+
+import org.jetbrains.annotations.*;
+
+/**
+ * Pool of documents kept open in the ALS for requests on files that are
+ * not open in the IDE, so that repeated requests on the same closed
+ * files (e.g. resolving references to the same specs) do not each send
+ * the entire files in `textDocument/didOpen` notifications.
+ *
+ * The pool is bounded both by a number of documents and by a total size
+ * in bytes. When it grows past either bound, the least recently used
+ * documents that no pending request is using are closed with
+ * `textDocument/didClose` notifications.
+ * Documents in the pool are opened and closed by the given opener and
+ * closer functions, and the server is responsible for keeping them in
+ * sync with their files (see `AdaLSPServer#fileContentChanged`).
+ * The opener and closer, which send notifications to the server, are
+ * never called while holding the monitor of the pool, so that threads
+ * only querying or updating the pool (e.g. the EDT) are not blocked
+ * behind server I/O.
+ */
+final class OpenDocumentPool {
+	
+	/*
+		Constants
+	*/
+	
+	/**
+	 * The maximum number of documents in the pool.
+	 */
+	static final int MAX_DOCUMENTS = 64;
+	
+	/**
+	 * The maximum total size of the documents in the pool, in bytes.
+	 */
+	static final long MAX_SIZE = 8 * 1024 * 1024;
+	
+	/**
+	 * The opener of documents, returning the size of the opened document,
+	 * or null if the document could not be opened or is already open in
+	 * the server outside of the pool.
+	 */
+	private final Function<String, Long> OPENER;
+	
+	/**
+	 * The closer of documents.
+	 */
+	private final Consumer<String> CLOSER;
+	
+	/**
+	 * Lock held while opening and closing documents, so that documents
+	 * are opened and closed one at a time, in the order in which the pool
+	 * decides to, without holding the monitor of the pool.
+	 * IO_LOCK is always acquired before the monitor of this pool.
+	 */
+	private final Object IO_LOCK = new Object();
+	
+	/**
+	 * Map associating the URIs of the documents in the pool with their
+	 * entries, in least recently used order.
+	 */
+	private final LinkedHashMap<String, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true);
+	
+	/**
+	 * The total size of the documents in the pool, in bytes.
+	 */
+	private long totalSize = 0;
+	
+	/**
+	 * Constructs a new empty document pool given the opener and closer
+	 * of its documents.
+	 *
+	 * @param opener The opener of documents.
+	 * @param closer The closer of documents.
+	 */
+	OpenDocumentPool(@NotNull Function<String, Long> opener, @NotNull Consumer<String> closer) {
+		OPENER = opener;
+		CLOSER = closer;
+	}
+	
+	/**
+	 * Acquires the given document for a request, opening it in the pool
+	 * if necessary. Acquired documents are never closed, until they are
+	 * released by `release`.
+	 *
+	 * @param documentUri The URI of the document.
+	 * @return Whether or not the document was acquired, false if it is
+	 *         open in the server outside of the pool or if it could not
+	 *         be opened, in which cases it must not be released.
+	 */
+	boolean acquire(@NotNull String documentUri) {
+		
+		if (acquireEntry(documentUri)) { return true; }
+		
+		synchronized (IO_LOCK) {
+			
+			// Check the pool again, as another thread may have opened
+			// the document while this one was waiting for the lock
+			
+			if (acquireEntry(documentUri)) { return true; }
+			
+			Long size = OPENER.apply(documentUri);
+			
+			if (size == null) { return false; }
+			
+			List<String> evictedUris;
+			
+			synchronized (this) {
+				
+				Entry entry = new Entry(size);
+				
+				entry.requestCount++;
+				
+				ENTRIES.put(documentUri, entry);
+				
+				totalSize += size;
+				
+				evictedUris = takeEvicted();
+				
+			}
+			
+			evictedUris.forEach(CLOSER);
+			
+		}
+		
+		return true;
+		
+	}
+	
+	/**
+	 * Releases the given document acquired for a request, closing the
+	 * least recently used documents if the pool is too large.
+	 *
+	 * @param documentUri The URI of the document.
+	 */
+	void release(@NotNull String documentUri) {
+		
+		synchronized (this) {
+			
+			Entry entry = ENTRIES.get(documentUri);
+			
+			if (entry != null && entry.requestCount > 0) { entry.requestCount--; }
+			
+			if (withinBounds()) { return; }
+			
+		}
+		
+		evict();
+		
+	}
+	
+	/**
+	 * Returns whether or not the given document is in the pool.
+	 *
+	 * @param documentUri The URI of the document.
+	 * @return Whether or not the document is in the pool.
+	 */
+	synchronized boolean contains(@NotNull String documentUri) { return ENTRIES.containsKey(documentUri); }
+	
+	/**
+	 * Updates the size of the given document in the pool, if any,
+	 * after its file changed.
+	 *
+	 * @param documentUri The URI of the document.
+	 * @param size The new size of the document, in bytes.
+	 */
+	void resize(@NotNull String documentUri, long size) {
+		
+		synchronized (this) {
+			
+			Entry entry = ENTRIES.get(documentUri);
+			
+			if (entry == null) { return; }
+			
+			totalSize += size - entry.size;
+			entry.size = size;
+			
+			if (withinBounds()) { return; }
+			
+		}
+		
+		evict();
+		
+	}
+	
+	/**
+	 * Removes the given document from the pool without closing it,
+	 * for example when it is opened in an editor, which then becomes
+	 * responsible for closing it.
+	 *
+	 * @param documentUri The URI of the document.
+	 * @return Whether or not the document was in the pool.
+	 */
+	synchronized boolean remove(@NotNull String documentUri) {
+		
+		Entry entry = ENTRIES.remove(documentUri);
+		
+		if (entry == null) { return false; }
+		
+		totalSize -= entry.size;
+		
+		return true;
+		
+	}
+	
+	/**
+	 * Removes all documents from the pool without closing them,
+	 * for example when the server shuts down.
+	 */
+	synchronized void clear() {
+		ENTRIES.clear();
+		totalSize = 0;
+	}
+	
+	/**
+	 * Increments the request count of the given document if it is in
+	 * the pool.
+	 *
+	 * @param documentUri The URI of the document.
+	 * @return Whether or not the document is in the pool.
+	 */
+	private synchronized boolean acquireEntry(@NotNull String documentUri) {
+		
+		Entry entry = ENTRIES.get(documentUri);
+		
+		if (entry == null) { return false; }
+		
+		entry.requestCount++;
+		
+		return true;
+		
+	}
+	
+	/**
+	 * Returns whether or not the pool is within its bounds.
+	 * Must be called while holding the monitor of this pool.
+	 *
+	 * @return Whether or not the pool is within its bounds.
+	 */
+	private boolean withinBounds() { return ENTRIES.size() <= MAX_DOCUMENTS && totalSize <= MAX_SIZE; }
+	
+	/**
+	 * Closes the least recently used documents that are not acquired
+	 * until the pool is within its bounds, or until all documents left
+	 * are acquired. Must not be called while holding the monitor of
+	 * this pool.
+	 */
+	private void evict() {
+		
+		synchronized (IO_LOCK) {
+			
+			List<String> evictedUris;
+			
+			synchronized (this) { evictedUris = takeEvicted(); }
+			
+			evictedUris.forEach(CLOSER);
+			
+		}
+		
+	}
+	
+	/**
+	 * Removes the least recently used documents that are not acquired
+	 * from the pool until it is within its bounds, or until all documents
+	 * left are acquired, and returns their URIs so that they can be closed
+	 * after releasing the monitor of this pool.
+	 * Must be called while holding both IO_LOCK and the monitor of this
+	 * pool, so that the removed documents are closed before any of them
+	 * can be opened again.
+	 *
+	 * @return The URIs of the removed documents, in eviction order.
+	 */
+	@NotNull
+	private List<String> takeEvicted() {
+		
+		List<String> evictedUris = new ArrayList<>();
+		
+		Iterator<Map.Entry<String, Entry>> iterator = ENTRIES.entrySet().iterator();
+		
+		while (!withinBounds() && iterator.hasNext()) {
+			
+			Map.Entry<String, Entry> mapEntry = iterator.next();
+			
+			if (mapEntry.getValue().requestCount > 0) { continue; }
+			
+			iterator.remove();
+			
+			totalSize -= mapEntry.getValue().size;
+			
+			evictedUris.add(mapEntry.getKey());
+			
+		}
+		
+		return evictedUris;
+		
+	}
+	
+	/**
+	 * Entry of a document in the pool.
+	 */
+	private static final class Entry {
+		
+		/**
+		 * The size of the document, in bytes.
+		 */
+		long size;
+		
+		/**
+		 * The number of pending requests that acquired the document.
+		 */
+		int requestCount = 0;
+		
+		/**
+		 * Constructs a new entry for a document of the given size.
+		 *
+		 * @param size The size of the document, in bytes.
+		 */
+		Entry(long size) { this.size = size; }
+		
+	}
+	
+}
@@ -0,0 +1,220 @@
+package com.adacore.adaintellij.lsp;
+
+import java.util.*;
+
+import org.jetbrains.annotations.*;
+
+/**
+ * Cache of responses to requests to the ALS, so that identical requests
+ * made repeatedly on unchanged documents (e.g. `textDocument/definition`
+ * requests made by `PsiReference#resolve` for the same element several
+ * times within a single highlighting pass) are not each sent to the ALS.
+ *
+ * Responses are keyed by request method, document URI, document version
+ * and any other request parameters, such as positions. Responses of
+ * document-scoped requests, whose results only depend on the document on
+ * which they are made, are invalidated when that document changes, and
+ * responses of cross-document requests, whose results depend on other
+ * documents, are invalidated when any document changes.
+ * Every invalidation starts a new generation of the cache, and responses
+ * to requests made in a previous generation are not cached, as they may
+ * have been computed against outdated documents.
+ * The cache holds at most MAX_ENTRIES responses, evicting the least
+ * recently used ones, and keeps statistics of its hits and misses.
+ */
+final class ResponseCache {
+	
+	/*
+		Constants
+	*/
+	
+	/**
+	 * The maximum number of responses in the cache.
+	 */
+	static final int MAX_ENTRIES = 512;
+	
+	/**
+	 * Map associating request keys with their cached responses, in least
+	 * recently used order.
+	 */
+	private final LinkedHashMap<String, Entry> ENTRIES = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		
+		/**
+		 * @see LinkedHashMap#removeEldestEntry(Map.Entry)
+		 */
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) { return size() > MAX_ENTRIES; }
+		
+	};
+	
+	/**
+	 * The current generation of the cache, incremented on every invalidation.
+	 */
+	private long generation = 0;
+	
+	/**
+	 * The number of cache hits and misses.
+	 */
+	private long hitCount  = 0;
+	private long missCount = 0;
+	
+	/**
+	 * Returns the key of a request given its method, the URI and version
+	 * of its document, and its other parameters.
+	 *
+	 * @param method The method of the request.
+	 * @param documentUri The URI of the document of the request.
+	 * @param documentVersion The version of the document of the request.
+	 * @param parameters The other parameters of the request.
+	 * @return The key of the request.
+	 */
+	@NotNull
+	static String key(
+		@NotNull String    method,
+		@NotNull String    documentUri,
+		         int       documentVersion,
+		@NotNull Object... parameters
+	) {
+		
+		StringBuilder builder = new StringBuilder()
+			.append(method).append(' ')
+			.append(documentUri).append(' ')
+			.append(documentVersion);
+		
+		for (Object parameter : parameters) { builder.append(' ').append(parameter); }
+		
+		return builder.toString();
+		
+	}
+	
+	/**
+	 * Returns the cached response to the request with the given key,
+	 * counting a hit, or null if there is none, counting a miss.
+	 *
+	 * @param key The key of the request.
+	 * @return The cached response, or null.
+	 */
+	@Nullable
+	synchronized Object get(@NotNull String key) {
+		
+		Entry entry = ENTRIES.get(key);
+		
+		if (entry == null) {
+			missCount++;
+			return null;
+		}
+		
+		hitCount++;
+		
+		return entry.RESPONSE;
+		
+	}
+	
+	/**
+	 * Returns the current generation of the cache, to be passed to `put`
+	 * along with the response of a request made in that generation.
+	 *
+	 * @return The current generation of the cache.
+	 */
+	synchronized long generation() { return generation; }
+	
+	/**
+	 * Caches the given response to the request with the given key, made
+	 * on the given document in the given generation of the cache, unless
+	 * the cache has been invalidated since then.
+	 *
+	 * @param key The key of the request.
+	 * @param documentUri The URI of the document of the request.
+	 * @param crossDocument Whether or not the response depends on
+	 *                      documents other than that of the request.
+	 * @param requestGeneration The generation of the cache in which
+	 *                          the request was made.
+	 * @param response The response to cache.
+	 */
+	synchronized void put(
+		@NotNull String  key,
+		@NotNull String  documentUri,
+		         boolean crossDocument,
+		         long    requestGeneration,
+		@NotNull Object  response
+	) {
+		if (requestGeneration != generation) { return; }
+		ENTRIES.put(key, new Entry(documentUri, crossDocument, response));
+	}
+	
+	/**
+	 * Invalidates the responses that depend on the given document,
+	 * which changed in the server or on disk.
+	 *
+	 * @param documentUri The URI of the changed document.
+	 */
+	synchronized void documentChanged(@NotNull String documentUri) {
+		
+		generation++;
+		
+		ENTRIES.values().removeIf(entry ->
+			entry.CROSS_DOCUMENT || entry.DOCUMENT_URI.equals(documentUri));
+		
+	}
+	
+	/**
+	 * Invalidates all cached responses, for example when the project
+	 * of the server changes.
+	 */
+	synchronized void clear() {
+		generation++;
+		ENTRIES.clear();
+	}
+	
+	/**
+	 * Returns the statistics of the cache as a human-readable string.
+	 *
+	 * @return The statistics of the cache.
+	 */
+	@NotNull
+	synchronized String statistics() {
+		
+		long requestCount = hitCount + missCount;
+		
+		return String.format("%d hits, %d misses (%.1f%% hit rate), %d cached responses",
+			hitCount, missCount, requestCount == 0 ? 0.0 : 100.0 * hitCount / requestCount, ENTRIES.size());
+		
+	}
+	
+	/**
+	 * Cached response to a request.
+	 */
+	private static final class Entry {
+		
+		/**
+		 * The URI of the document of the request.
+		 */
+		final String DOCUMENT_URI;
+		
+		/**
+		 * Whether or not the response depends on documents other than
+		 * that of the request.
+		 */
+		final boolean CROSS_DOCUMENT;
+		
+		/**
+		 * The response to the request.
+		 */
+		final Object RESPONSE;
+		
+		/**
+		 * Constructs a new entry for the given response.
+		 *
+		 * @param documentUri The URI of the document of the request.
+		 * @param crossDocument Whether or not the response is cross-document.
+		 * @param response The response to the request.
+		 */
+		Entry(@NotNull String documentUri, boolean crossDocument, @NotNull Object response) {
+			DOCUMENT_URI   = documentUri;
+			CROSS_DOCUMENT = crossDocument;
+			RESPONSE       = response;
+		}
+		
+	}
+	
+}
@@ -14,6 +14,12 @@ public final class Timeouts {
 	 */
 	public static final int DEFAULT_METHOD_TIMEOUT = 3000;
 	
+	/**
+	 * Maximum time spent waiting for a request on the event dispatch
+	 * thread, which is frozen while waiting.
+	 */
+	public static final int DISPATCH_THREAD_TIMEOUT = 500;
+	
 	/**
 	 * LSP-method -> timeout mapping.
 	 */
@@ -8,6 +8,7 @@ import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.Nullable;
 
 import com.adacore.adaintellij.build.GPRbuildManager;
+import com.adacore.adaintellij.file.LargeFileManager;
 import com.adacore.adaintellij.UIUtils;
 
 /**
@@ -24,11 +25,13 @@ public final class AdaGlobalSettings implements ValidatableConfigurable {
 	 * Child UI components.
 	 */
 	private TextFieldWithBrowseButton gprbuildPathField;
+	private JSpinner                  largeFileSizeSpinner;
 	
 	/**
 	 * Last set values.
 	 */
 	private String lastSetGprbuildPath;
+	private int    lastSetLargeFileSize;
 	
 	/**
 	 * @see com.intellij.openapi.options.Configurable#getDisplayName()
@@ -49,6 +52,9 @@ public final class AdaGlobalSettings implements ValidatableConfigurable {
 		gprbuildPathField.addBrowseFolderListener(
 			new TextBrowseFolderListener(UIUtils.SINGLE_FILE_CHOOSER_DESCRIPTOR));
 		
+		largeFileSizeSpinner.setModel(new SpinnerNumberModel(
+			LargeFileManager.DEFAULT_LARGE_FILE_SIZE / 1024, 0, Integer.MAX_VALUE / 1024, 256));
+		
 		// Return the root panel
 		
 		return rootPanel;
@@ -60,7 +66,8 @@ public final class AdaGlobalSettings implements ValidatableConfigurable {
 	 */
 	@Override
 	public boolean isModified() {
-		return !gprbuildPathField.getText().equals(lastSetGprbuildPath);
+		return !gprbuildPathField.getText().equals(lastSetGprbuildPath) ||
+			getLargeFileSize() != lastSetLargeFileSize;
 	}
 	
 	/**
@@ -74,6 +81,11 @@ public final class AdaGlobalSettings implements ValidatableConfigurable {
 		GPRbuildManager.setGprBuildPath(path);
 		lastSetGprbuildPath = path;
 		
+		int largeFileSize = getLargeFileSize();
+		
+		LargeFileManager.setLargeFileSize(largeFileSize);
+		lastSetLargeFileSize = largeFileSize;
+		
 	}
 	
 	/**
@@ -87,6 +99,21 @@ public final class AdaGlobalSettings implements ValidatableConfigurable {
 		gprbuildPathField.setText(gprbuildPath);
 		lastSetGprbuildPath = gprbuildPath;
 		
+		int largeFileSize = LargeFileManager.getLargeFileSize();
+		
+		largeFileSizeSpinner.setValue(largeFileSize / 1024);
+		lastSetLargeFileSize = largeFileSize;
+		
+	}
+	
+	/**
+	 * Returns the large file size set in the large file size spinner,
+	 * which is in kilobytes, in characters.
+	 *
+	 * @return The large file size.
+	 */
+	private int getLargeFileSize() {
+		return ((Number)largeFileSizeSpinner.getValue()).intValue() * 1024;
 	}
 	
 }
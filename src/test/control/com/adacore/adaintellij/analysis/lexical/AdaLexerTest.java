@@ -1,6 +1,7 @@
 package com.adacore.adaintellij.analysis.lexical;
 
 import java.net.URI;
+import java.nio.CharBuffer;
 import java.util.*;
 
 import org.junit.jupiter.api.Test;
@@ -60,6 +61,193 @@ final class AdaLexerTest {
 		
 	}
 	
+	/**
+	 * Asserts that the automaton engine and the derivatives engine of
+	 * AdaLexer generate identical token sequences when analysing the
+	 * Ada source file at the given URI.
+	 *
+	 * @param sourceFileURI The URI of the Ada source file.
+	 * @throws Exception If a problem occurs while reading the file.
+	 */
+	private static void assertEnginesLexIdentically(URI sourceFileURI) throws Exception {
+		
+		// Initialization
+		
+		String sourceText = AdaTestUtils.getFileText(sourceFileURI);
+		
+		AdaLexer automatonLexer   = new AdaLexer(Lexer.Engine.AUTOMATON);
+		AdaLexer derivativesLexer = new AdaLexer(Lexer.Engine.DERIVATIVES);
+		
+		automatonLexer.start(sourceText, 0, sourceText.length(), 0);
+		derivativesLexer.start(sourceText, 0, sourceText.length(), 0);
+		
+		// Testing
+		
+		while (derivativesLexer.getTokenType() != null) {
+			
+			assertEquals(
+				new AdaLexer.Token(
+					derivativesLexer.getTokenType(),
+					derivativesLexer.getTokenStart(),
+					derivativesLexer.getTokenEnd()
+				),
+				new AdaLexer.Token(
+					automatonLexer.getTokenType(),
+					automatonLexer.getTokenStart(),
+					automatonLexer.getTokenEnd()
+				)
+			);
+			
+			derivativesLexer.advance();
+			automatonLexer.advance();
+			
+		}
+		
+		assertNull(automatonLexer.getTokenType());
+		
+	}
+	
+	/**
+	 * Returns the tokens generated by the given lexer analysing
+	 * the given text.
+	 *
+	 * @param lexer The lexer to use.
+	 * @param text The text to analyse.
+	 * @return The list of generated tokens.
+	 */
+	private static List<AdaLexer.Token> lexerTokens(AdaLexer lexer, String text) {
+		return lexerTokens(lexer, text, 0, 0, null);
+	}
+	
+	/**
+	 * Returns the tokens generated by the given lexer analysing the
+	 * given text from the given offset in the given initial state,
+	 * and adds the state of the lexer at the start of every token to
+	 * the given list of states if it is not null.
+	 *
+	 * @param lexer The lexer to use.
+	 * @param text The text to analyse.
+	 * @param startOffset The offset from which to analyse the text.
+	 * @param initialState The initial state of the lexer.
+	 * @param states The list to which to add states, or null.
+	 * @return The list of generated tokens.
+	 */
+	private static List<AdaLexer.Token> lexerTokens(
+		AdaLexer      lexer,
+		String        text,
+		int           startOffset,
+		int           initialState,
+		List<Integer> states
+	) {
+		
+		List<AdaLexer.Token> tokens = new ArrayList<>();
+		
+		lexer.start(text, startOffset, text.length(), initialState);
+		
+		while (lexer.getTokenType() != null) {
+			tokens.add(new AdaLexer.Token(lexer.getTokenType(), lexer.getTokenStart(), lexer.getTokenEnd()));
+			if (states != null) { states.add(lexer.getState()); }
+			lexer.advance();
+		}
+		
+		return tokens;
+		
+	}
+	
+	/**
+	 * Returns the tokens of the given token buffer as a list.
+	 *
+	 * @param buffer The token buffer.
+	 * @return The list of tokens in the buffer.
+	 */
+	private static List<AdaLexer.Token> bufferTokens(TokenBuffer buffer) {
+		
+		List<AdaLexer.Token> tokens = new ArrayList<>();
+		
+		buffer.forEach(tokens::add);
+		
+		return tokens;
+		
+	}
+	
+	/**
+	 * Asserts that restarting an AdaLexer at any token boundary of the
+	 * given text, in the state of the lexer at the start of the token
+	 * at that boundary, generates the same tokens as analysing the
+	 * entire text.
+	 *
+	 * @param text The text to analyse.
+	 */
+	private static void assertLexingRestartsAtTokenBoundaries(String text) {
+		
+		// Initialization
+		
+		List<Integer>        states = new ArrayList<>();
+		List<AdaLexer.Token> tokens = lexerTokens(new AdaLexer(), text, 0, 0, states);
+		
+		AdaLexer lexer = new AdaLexer();
+		
+		// Testing
+		
+		for (int i = 0 ; i < tokens.size() ; i++) {
+			assertEquals(
+				tokens.subList(i, tokens.size()),
+				lexerTokens(lexer, text, tokens.get(i).START_OFFSET, states.get(i), null)
+			);
+		}
+		
+	}
+	
+	/**
+	 * Asserts that re-analysing the given text after replacing the given
+	 * range by the given replacement, the way an editor highlighter does
+	 * (restarting at the last token boundary before the edited range in
+	 * the lexer state at that boundary), generates the same tokens as
+	 * analysing the entire edited text.
+	 *
+	 * @param text The text to analyse.
+	 * @param editStart The start offset of the edited range.
+	 * @param editEnd The end offset of the edited range.
+	 * @param replacement The text replacing the edited range.
+	 */
+	private static void assertIncrementalLexingMatchesFullLexing(
+		String text,
+		int    editStart,
+		int    editEnd,
+		String replacement
+	) {
+		
+		// Initialization
+		
+		String editedText = text.substring(0, editStart) + replacement + text.substring(editEnd);
+		
+		List<Integer>        states = new ArrayList<>();
+		List<AdaLexer.Token> tokens = lexerTokens(new AdaLexer(), text, 0, 0, states);
+		
+		// Find the last token starting before the edited range
+		
+		int restartIndex = 0;
+		
+		while (
+			restartIndex + 1 < tokens.size() &&
+				tokens.get(restartIndex + 1).START_OFFSET < editStart
+		) { restartIndex++; }
+		
+		int restartOffset = tokens.isEmpty() ? 0 : tokens.get(restartIndex).START_OFFSET;
+		int restartState  = tokens.isEmpty() ? 0 : states.get(restartIndex);
+		
+		// Testing
+		
+		List<AdaLexer.Token> incrementalTokens =
+			new ArrayList<>(tokens.subList(0, restartIndex));
+		
+		incrementalTokens.addAll(
+			lexerTokens(new AdaLexer(), editedText, restartOffset, restartState, null));
+		
+		assertEquals(lexerTokens(new AdaLexer(), editedText), incrementalTokens);
+		
+	}
+	
 	// Testing lexing an empty source file
 	
 	@Test
@@ -138,4 +326,268 @@ final class AdaLexerTest {
 		);
 	}
 	
+	// Testing lexing engines
+	
+	@Test
+	void automaton_and_derivatives_engines_lex_identically() throws Exception {
+		
+		String[] sourceFileNames = {
+			"empty.adb",
+			"delimiters.adb",
+			"literals.adb",
+			"keywords.adb",
+			"bad-syntax.adb",
+			"hello-world.adb",
+			"hello-world-mixed-case.adb",
+			"code-with-comments.adb"
+		};
+		
+		for (String sourceFileName : sourceFileNames) {
+			assertEnginesLexIdentically(
+				classObject.getResource("/ada-sources/" + sourceFileName).toURI());
+		}
+		
+	}
+	
+	@Test
+	void reused_derivatives_lexer_lexes_like_new_lexer() throws Exception {
+		
+		String badSyntaxText = AdaTestUtils.getFileText(
+			classObject.getResource("/ada-sources/bad-syntax.adb").toURI());
+		String literalsText  = AdaTestUtils.getFileText(
+			classObject.getResource("/ada-sources/literals.adb").toURI());
+		
+		AdaLexer reusedLexer = new AdaLexer(Lexer.Engine.DERIVATIVES);
+		
+		lexerTokens(reusedLexer, badSyntaxText);
+		
+		assertEquals(
+			lexerTokens(new AdaLexer(Lexer.Engine.DERIVATIVES), literalsText),
+			lexerTokens(reusedLexer, literalsText)
+		);
+		
+		assertEquals(
+			lexerTokens(new AdaLexer(Lexer.Engine.DERIVATIVES), badSyntaxText),
+			lexerTokens(reusedLexer, badSyntaxText)
+		);
+		
+	}
+	
+	// Testing bulk scanners
+	
+	@Test
+	void bulk_scanned_tokens_match_derivatives_engine_tokens() {
+		
+		String[] texts = {
+			" \t\u000b\f\r\n\u0085 X",
+			"-- comment\twith tabé X",
+			"-- comment at end of text",
+			"--",
+			"- -X",
+			"\"a\"\"b\"",
+			"\"a\"\"",
+			"\"a\"\" \u0001 \"",
+			"\"unterminated\nX",
+			"\"éΣ\" \"\" \"\u007f\"",
+			"\"\""
+		};
+		
+		for (String text : texts) {
+			
+			List<AdaLexer.Token> tokens = lexerTokens(new AdaLexer(Lexer.Engine.DERIVATIVES), text);
+			
+			assertEquals(tokens, lexerTokens(new AdaLexer(), text));
+			assertEquals(tokens, bufferTokens(AdaLexer.textTokenBuffer(CharBuffer.wrap(text.toCharArray()))));
+			
+		}
+		
+	}
+	
+	// Testing parallel lexing
+	
+	@Test
+	void parallel_lexing_matches_sequential_lexing() throws Exception {
+		
+		String[] sourceFileNames = {
+			"delimiters.adb",
+			"literals.adb",
+			"keywords.adb",
+			"bad-syntax.adb",
+			"hello-world.adb",
+			"code-with-comments.adb"
+		};
+		
+		StringBuilder builder = new StringBuilder();
+		
+		for (String sourceFileName : sourceFileNames) {
+			builder.append(AdaTestUtils.getFileText(
+				classObject.getResource("/ada-sources/" + sourceFileName).toURI()));
+		}
+		
+		String text = builder.toString();
+		
+		List<AdaLexer.Token> tokens = lexerTokens(new AdaLexer(), text);
+		
+		assertEquals(tokens, bufferTokens(AdaLexer.parallelTextTokens(text)));
+		
+		for (int chunkSize : new int[] { 1, 16, 256, 4096 }) {
+			assertEquals(tokens,
+				bufferTokens(AdaLexer.parallelTextTokens(text, AdaLexer::new, chunkSize)));
+		}
+		
+	}
+	
+	@Test
+	void parallel_lexing_of_empty_text_generates_no_tokens() {
+		assertTrue(AdaLexer.parallelTextTokens("").isEmpty());
+	}
+	
+	// Testing text token buffers
+	
+	@Test
+	void text_token_buffer_matches_lexer_tokens() throws Exception {
+		
+		String text = AdaTestUtils.getFileText(
+			classObject.getResource("/ada-sources/literals.adb").toURI());
+		
+		assertEquals(lexerTokens(new AdaLexer(), text), bufferTokens(AdaLexer.textTokenBuffer(text)));
+		
+	}
+	
+	// Testing character folding
+	
+	@Test
+	void characters_are_folded_to_lowercase() {
+		for (int character = Character.MIN_VALUE ; character <= Character.MAX_VALUE ; character++) {
+			assertEquals(Character.toLowerCase((char)character), Lexer.foldedCharacter((char)character));
+		}
+	}
+	
+	// Testing lexer buffer
+	
+	@Test
+	void lexer_buffer_is_the_original_text() {
+		
+		String text = "Put_Line (\"Hello\");";
+		
+		AdaLexer lexer = new AdaLexer();
+		
+		lexer.start(text, 0, text.length(), 0);
+		
+		assertSame(text, lexer.getBufferSequence());
+		
+	}
+	
+	// Testing large file lexing
+	
+	@Test
+	void large_file_lexer_merges_bad_characters() {
+		
+		String text = "X @@@ Y@@";
+		
+		com.intellij.lexer.Lexer lexer = AdaLexer.largeFileLexer(new AdaLexer());
+		
+		List<AdaLexer.Token> tokens = new ArrayList<>();
+		
+		lexer.start(text, 0, text.length(), 0);
+		
+		while (lexer.getTokenType() != null) {
+			tokens.add(new AdaLexer.Token(lexer.getTokenType(), lexer.getTokenStart(), lexer.getTokenEnd()));
+			lexer.advance();
+		}
+		
+		assertEquals(
+			Arrays.asList(
+				new AdaLexer.Token(AdaTokenTypes.IDENTIFIER, 0, 1),
+				new AdaLexer.Token(AdaTokenTypes.WHITESPACES, 1, 2),
+				new AdaLexer.Token(AdaTokenTypes.BAD_CHARACTER, 2, 5),
+				new AdaLexer.Token(AdaTokenTypes.WHITESPACES, 5, 6),
+				new AdaLexer.Token(AdaTokenTypes.IDENTIFIER, 6, 7),
+				new AdaLexer.Token(AdaTokenTypes.BAD_CHARACTER, 7, 9)
+			),
+			tokens
+		);
+		
+	}
+	
+	// Testing lexer states
+	
+	@Test
+	void apostrophe_after_identifier_lexed_according_to_state() {
+		
+		String text = "X'A'";
+		
+		AdaLexer lexer = new AdaLexer();
+		
+		lexer.start(text, 1, text.length(), AdaLexer.IDENTIFIER_STATE);
+		
+		assertEquals(AdaTokenTypes.APOSTROPHE, lexer.getTokenType());
+		
+		lexer.start(text, 1, text.length(), Lexer.BOUNDARY_STATE);
+		
+		assertEquals(AdaTokenTypes.CHARACTER_LITERAL, lexer.getTokenType());
+		
+	}
+	
+	@Test
+	void lexer_state_is_identifier_state_only_after_identifiers() {
+		
+		String text = "X'First + Y";
+		
+		List<Integer>        states = new ArrayList<>();
+		List<AdaLexer.Token> tokens = lexerTokens(new AdaLexer(), text, 0, 0, states);
+		
+		for (int i = 0 ; i < tokens.size() ; i++) {
+			assertEquals(
+				i > 0 && tokens.get(i - 1).TOKEN_TYPE == AdaTokenTypes.IDENTIFIER ?
+					AdaLexer.IDENTIFIER_STATE : Lexer.BOUNDARY_STATE,
+				(int)states.get(i)
+			);
+		}
+		
+	}
+	
+	@Test
+	void lexing_restarts_at_any_token_boundary() throws Exception {
+		
+		String[] sourceFileNames = {
+			"delimiters.adb",
+			"literals.adb",
+			"keywords.adb",
+			"bad-syntax.adb",
+			"hello-world.adb",
+			"hello-world-mixed-case.adb",
+			"code-with-comments.adb"
+		};
+		
+		for (String sourceFileName : sourceFileNames) {
+			assertLexingRestartsAtTokenBoundaries(AdaTestUtils.getFileText(
+				classObject.getResource("/ada-sources/" + sourceFileName).toURI()));
+		}
+		
+		assertLexingRestartsAtTokenBoundaries("Put (X'Image (C'Length) & 'a' & ''' & Y'('b'));");
+		
+	}
+	
+	@Test
+	void incremental_lexing_matches_full_lexing() throws Exception {
+		
+		String text = AdaTestUtils.getFileText(
+			classObject.getResource("/ada-sources/hello-world.adb").toURI());
+		
+		for (int offset = 0 ; offset <= text.length() ; offset++) {
+			
+			assertIncrementalLexingMatchesFullLexing(text, offset, offset, "'");
+			assertIncrementalLexingMatchesFullLexing(text, offset, offset, "X'");
+			assertIncrementalLexingMatchesFullLexing(text, offset, offset, "\"");
+			assertIncrementalLexingMatchesFullLexing(text, offset, offset, "--");
+			
+			if (offset < text.length()) {
+				assertIncrementalLexingMatchesFullLexing(text, offset, offset + 1, "");
+			}
+			
+		}
+		
+	}
+	
 }
@@ -0,0 +1,161 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.jupiter.api.*;
+
+import com.adacore.adaintellij.AdaTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the BatchLexer class.
+ */
+final class BatchLexerTest {
+	
+	private Class classObject = getClass();
+	
+	/**
+	 * The temporary directory of the current test.
+	 */
+	private Path directory;
+	
+	/**
+	 * Creates the temporary directory of the current test.
+	 *
+	 * @throws IOException If the directory cannot be created.
+	 */
+	@BeforeEach
+	void createDirectory() throws IOException {
+		directory = Files.createTempDirectory("batch-lexer-test");
+	}
+	
+	/**
+	 * Deletes the temporary directory of the current test.
+	 *
+	 * @throws IOException If the directory cannot be deleted.
+	 */
+	@AfterEach
+	void deleteDirectory() throws IOException {
+		
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(path);
+			}
+		}
+		
+	}
+	
+	/**
+	 * Writes the given text to the file at the given path, relative to
+	 * the temporary directory, and returns the path of the file.
+	 *
+	 * @param relativePath The path of the file.
+	 * @param text The text of the file.
+	 * @return The path of the written file.
+	 * @throws IOException If the file cannot be written.
+	 */
+	private Path writeFile(String relativePath, String text) throws IOException {
+		
+		Path file = directory.resolve(relativePath);
+		
+		Files.createDirectories(file.getParent());
+		Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+		
+		return file;
+		
+	}
+	
+	// Testing BatchLexer#sourceFiles(Path) method
+	
+	@Test
+	void source_files_are_found_by_extension() throws IOException {
+		
+		Path specFile    = writeFile("src/main.ads", "");
+		Path bodyFile    = writeFile("src/main.adb", "");
+		Path projectFile = writeFile("default.gpr", "");
+		
+		writeFile("README.txt", "");
+		
+		assertEquals(
+			Stream.of(bodyFile, specFile, projectFile).sorted().collect(Collectors.toList()),
+			BatchLexer.sourceFiles(directory)
+		);
+		
+	}
+	
+	// Testing BatchLexer#tokenListFile(Path, Path, Path) method
+	
+	@Test
+	void token_list_files_mirror_source_tree() {
+		
+		Path outputDirectory = Paths.get("out");
+		Path file            = directory.resolve("src").resolve("main.adb");
+		
+		assertEquals(outputDirectory.resolve("src").resolve("main.adb.token-list"),
+			BatchLexer.tokenListFile(outputDirectory, directory, file));
+		assertEquals(outputDirectory.resolve("main.adb.token-list"),
+			BatchLexer.tokenListFile(outputDirectory, file, file));
+		
+	}
+	
+	// Testing BatchLexer#lexFile(Path, Path, BatchLexer.Statistics) method
+	
+	@Test
+	void files_are_lexed_like_texts() throws Exception {
+		
+		String text = AdaTestUtils.getFileText(
+			classObject.getResource("/ada-sources/literals.adb").toURI());
+		
+		Path file = writeFile("literals.adb", text);
+		
+		List<Lexer.Token> fileTokens = new ArrayList<>();
+		List<Lexer.Token> textTokens = new ArrayList<>();
+		
+		BatchLexer.lexFile(file, null, new BatchLexer.Statistics()).forEach(fileTokens::add);
+		Lexer.textTokens(text).forEachRemaining(textTokens::add);
+		
+		assertEquals(textTokens, fileTokens);
+		
+	}
+	
+	@Test
+	void written_token_lists_are_parsed_as_lexed_tokens() throws Exception {
+		
+		String text = AdaTestUtils.getFileText(
+			classObject.getResource("/ada-sources/code-with-comments.adb").toURI());
+		
+		Path file          = writeFile("code-with-comments.adb", text);
+		Path tokenListFile = directory.resolve("out").resolve("code-with-comments.adb.token-list");
+		
+		List<Lexer.Token> lexedTokens  = new ArrayList<>();
+		List<Lexer.Token> parsedTokens = new ArrayList<>();
+		
+		BatchLexer.lexFile(file, tokenListFile, new BatchLexer.Statistics()).forEach(lexedTokens::add);
+		AdaTokenListParser.parseTokenListFile(tokenListFile.toUri()).forEachRemaining(parsedTokens::add);
+		
+		assertEquals(lexedTokens, parsedTokens);
+		
+	}
+	
+	@Test
+	void statistics_count_files_and_tokens_by_type() throws IOException {
+		
+		BatchLexer.Statistics statistics = new BatchLexer.Statistics();
+		
+		BatchLexer.lexFile(writeFile("a.adb", "X := Y;"), null, statistics);
+		BatchLexer.lexFile(writeFile("b.gpr", "project B is end B;"), null, statistics);
+		
+		assertEquals(2, statistics.FILES.sum());
+		assertEquals(7 + 19, statistics.CHARACTERS.sum());
+		assertEquals(6 + 10, statistics.TOKENS.sum());
+		assertEquals(2 + 2, statistics.TOKEN_TYPE_COUNTS.get("IDENTIFIER").sum());
+		assertEquals(1, statistics.TOKEN_TYPE_COUNTS.get("ASSIGNMENT").sum());
+		
+	}
+	
+}
@@ -0,0 +1,107 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import java.util.*;
+
+import com.intellij.psi.tree.IElementType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the KeywordTable class.
+ */
+final class KeywordTableTest {
+	
+	// Constants
+	
+	private static final KeywordTable KEYWORD_TABLE;
+	
+	static {
+		
+		Map<String, IElementType> keywordTokenTypes = new HashMap<>();
+		
+		keywordTokenTypes.put(AdaTokenTypes.BEGIN_KEYWORD.TOKEN_TEXT    , AdaTokenTypes.BEGIN_KEYWORD);
+		keywordTokenTypes.put(AdaTokenTypes.END_KEYWORD.TOKEN_TEXT      , AdaTokenTypes.END_KEYWORD);
+		keywordTokenTypes.put(AdaTokenTypes.IN_KEYWORD.TOKEN_TEXT       , AdaTokenTypes.IN_KEYWORD);
+		keywordTokenTypes.put(AdaTokenTypes.IS_KEYWORD.TOKEN_TEXT       , AdaTokenTypes.IS_KEYWORD);
+		keywordTokenTypes.put(AdaTokenTypes.PROCEDURE_KEYWORD.TOKEN_TEXT, AdaTokenTypes.PROCEDURE_KEYWORD);
+		
+		KEYWORD_TABLE = new KeywordTable(keywordTokenTypes);
+		
+	}
+	
+	// Testing KeywordTable#tokenType(CharSequence, int, int) method
+	
+	@Test
+	void keywords_are_found() {
+		
+		assertEquals(AdaTokenTypes.BEGIN_KEYWORD, KEYWORD_TABLE.tokenType("begin", 0, 5));
+		assertEquals(AdaTokenTypes.IN_KEYWORD, KEYWORD_TABLE.tokenType("in", 0, 2));
+		assertEquals(AdaTokenTypes.IS_KEYWORD, KEYWORD_TABLE.tokenType("is", 0, 2));
+		assertEquals(AdaTokenTypes.PROCEDURE_KEYWORD, KEYWORD_TABLE.tokenType("procedure", 0, 9));
+		
+	}
+	
+	@Test
+	void keywords_are_found_case_insensitively() {
+		
+		assertEquals(AdaTokenTypes.BEGIN_KEYWORD, KEYWORD_TABLE.tokenType("BEGIN", 0, 5));
+		assertEquals(AdaTokenTypes.END_KEYWORD, KEYWORD_TABLE.tokenType("End", 0, 3));
+		
+	}
+	
+	@Test
+	void keywords_are_found_in_text_ranges() {
+		
+		String text = "X : Integer is 1; end";
+		
+		assertEquals(AdaTokenTypes.IS_KEYWORD, KEYWORD_TABLE.tokenType(text, 12, 14));
+		assertEquals(AdaTokenTypes.END_KEYWORD, KEYWORD_TABLE.tokenType(text, 18, 21));
+		
+		assertNull(KEYWORD_TABLE.tokenType(text, 4, 11));
+		
+	}
+	
+	@Test
+	void non_keywords_are_not_found() {
+		
+		assertNull(KEYWORD_TABLE.tokenType("", 0, 0));
+		assertNull(KEYWORD_TABLE.tokenType("i", 0, 1));
+		assertNull(KEYWORD_TABLE.tokenType("int", 0, 3));
+		assertNull(KEYWORD_TABLE.tokenType("proc", 0, 4));
+		assertNull(KEYWORD_TABLE.tokenType("procedures", 0, 10));
+		assertNull(KEYWORD_TABLE.tokenType("begun", 0, 5));
+		
+	}
+	
+	// Testing KeywordTable#KeywordTable(Map) constructor
+	
+	@Test
+	void keywords_must_be_in_lowercase() {
+		assertThrows(
+			IllegalArgumentException.class,
+			() -> new KeywordTable(Collections.singletonMap("Begin", AdaTokenTypes.BEGIN_KEYWORD))
+		);
+	}
+	
+	@Test
+	void keywords_must_have_distinct_hash_codes() {
+		
+		// "a@" and "b!" have the same hash code: 97 * 31 + 64 == 98 * 31 + 33
+		
+		Map<String, IElementType> keywordTokenTypes = new HashMap<>();
+		
+		keywordTokenTypes.put("a@", AdaTokenTypes.BEGIN_KEYWORD);
+		keywordTokenTypes.put("b!", AdaTokenTypes.END_KEYWORD);
+		
+		IllegalArgumentException exception = assertThrows(
+			IllegalArgumentException.class,
+			() -> new KeywordTable(keywordTokenTypes)
+		);
+		
+		assertTrue(exception.getMessage().contains("a@"));
+		assertTrue(exception.getMessage().contains("b!"));
+		
+	}
+	
+}
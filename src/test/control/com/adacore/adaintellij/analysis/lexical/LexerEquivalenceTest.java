@@ -0,0 +1,323 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import java.nio.CharBuffer;
+import java.util.*;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import com.adacore.adaintellij.analysis.lexical.SourceGenerator.Language;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Differential tests of lexer engines: the tokens generated by the
+ * optimized lexing paths (the derivatives engine, the automaton engine
+ * with its bulk scanners, on string-backed and on array-backed texts,
+ * and parallel lexing) are compared with those generated by the
+ * reference engine, which does not depend on the automaton, on
+ * synthetic texts generated by SourceGenerator.
+ * Texts on which tokens differ are shrunk to a minimal failing text
+ * before being reported, along with the seed that generated them.
+ */
+final class LexerEquivalenceTest {
+	
+	/*
+		Constants
+	*/
+	
+	/**
+	 * The number and size of random texts generated per language.
+	 */
+	private static final int RANDOM_TEXT_COUNT = 200;
+	private static final int RANDOM_TEXT_SIZE  = 2000;
+	
+	/**
+	 * The number and size of structured texts generated per language.
+	 */
+	private static final int STRUCTURED_TEXT_COUNT = 10;
+	private static final int STRUCTURED_TEXT_SIZE  = 20000;
+	
+	/**
+	 * The size of chunks in which texts are split for parallel lexing,
+	 * small enough for texts to be split in many chunks.
+	 */
+	private static final int PARALLEL_CHUNK_SIZE = 64;
+	
+	/**
+	 * Returns the tokens generated by the given lexer analysing
+	 * the given text.
+	 *
+	 * @param lexer The lexer to use.
+	 * @param text The text to analyse.
+	 * @return The list of generated tokens.
+	 */
+	private static List<Lexer.Token> lexerTokens(Lexer lexer, CharSequence text) {
+		
+		List<Lexer.Token> tokens = new ArrayList<>();
+		
+		lexer.start(text, 0, text.length(), 0);
+		
+		while (lexer.getTokenType() != null) {
+			tokens.add(new Lexer.Token(lexer.getTokenType(), lexer.getTokenStart(), lexer.getTokenEnd()));
+			lexer.advance();
+		}
+		
+		return tokens;
+		
+	}
+	
+	/**
+	 * Returns the tokens of the given token buffer as a list.
+	 *
+	 * @param buffer The token buffer.
+	 * @return The list of tokens in the buffer.
+	 */
+	private static List<Lexer.Token> bufferTokens(TokenBuffer buffer) {
+		
+		List<Lexer.Token> tokens = new ArrayList<>();
+		
+		buffer.forEach(tokens::add);
+		
+		return tokens;
+		
+	}
+	
+	/**
+	 * Returns a description of the first difference between the tokens
+	 * generated by the reference engine and by the optimized lexing
+	 * paths analysing the given text, or null if there is none.
+	 *
+	 * @param language The language of the text.
+	 * @param text The text to analyse.
+	 * @return The description of the first difference, or null.
+	 */
+	private static String engineDifference(Language language, String text) {
+		
+		List<Lexer.Token> referenceTokens = lexerTokens(language.lexer(Lexer.Engine.REFERENCE), text);
+		
+		Map<String, List<Lexer.Token>> optimizedTokens = new LinkedHashMap<>();
+		
+		optimizedTokens.put("derivatives engine",
+			lexerTokens(language.lexer(Lexer.Engine.DERIVATIVES), text));
+		optimizedTokens.put("automaton engine",
+			lexerTokens(language.lexer(Lexer.Engine.AUTOMATON), text));
+		optimizedTokens.put("automaton engine on a character array",
+			lexerTokens(language.lexer(Lexer.Engine.AUTOMATON), CharBuffer.wrap(text.toCharArray())));
+		optimizedTokens.put("parallel lexing",
+			bufferTokens(Lexer.parallelTextTokens(
+				text, () -> language.lexer(Lexer.Engine.AUTOMATON), PARALLEL_CHUNK_SIZE)));
+		
+		for (Map.Entry<String, List<Lexer.Token>> entry : optimizedTokens.entrySet()) {
+			
+			List<Lexer.Token> tokens = entry.getValue();
+			
+			if (tokens.equals(referenceTokens)) { continue; }
+			
+			int index = 0;
+			
+			while (index < tokens.size() && index < referenceTokens.size() &&
+				tokens.get(index).equals(referenceTokens.get(index)))
+			{
+				index++;
+			}
+			
+			return entry.getKey() + " generated token #" + index + " " +
+				(index < tokens.size() ? tokens.get(index) : "<none>") + " instead of " +
+				(index < referenceTokens.size() ? referenceTokens.get(index) : "<none>");
+			
+		}
+		
+		return null;
+		
+	}
+	
+	/**
+	 * Shrinks the given failing text to a smaller failing text, by
+	 * removing chunks of characters of decreasing sizes, down to single
+	 * characters, for as long as the text keeps failing. The returned
+	 * text is minimal in that removing any single character from it
+	 * makes it pass.
+	 *
+	 * @param text The failing text to shrink.
+	 * @param failing The predicate telling whether or not a text fails.
+	 * @return The shrunk failing text.
+	 */
+	private static String shrink(String text, Predicate<String> failing) {
+		
+		String shrunkText = text;
+		String previousText;
+		
+		do {
+			
+			previousText = shrunkText;
+			
+			for (int chunkSize = Integer.highestOneBit(Math.max(1, shrunkText.length()));
+				chunkSize > 0; chunkSize /= 2)
+			{
+				
+				int offset = 0;
+				
+				while (offset < shrunkText.length()) {
+					
+					String candidateText = shrunkText.substring(0, offset) +
+						shrunkText.substring(Math.min(shrunkText.length(), offset + chunkSize));
+					
+					if (failing.test(candidateText)) {
+						shrunkText = candidateText;
+					} else {
+						offset += chunkSize;
+					}
+					
+				}
+				
+			}
+			
+		} while (!shrunkText.equals(previousText));
+		
+		return shrunkText;
+		
+	}
+	
+	/**
+	 * Returns the given text with non-printable and non-ASCII characters
+	 * escaped as Java unicode escapes, for failure messages.
+	 *
+	 * @param text The text to escape.
+	 * @return The escaped text.
+	 */
+	private static String escaped(String text) {
+		
+		StringBuilder builder = new StringBuilder();
+		
+		for (char character : text.toCharArray()) {
+			
+			if (character >= ' ' && character < '\u007f' && character != '\\') {
+				builder.append(character);
+			} else {
+				builder.append(String.format("\\u%04x", (int)character));
+			}
+			
+		}
+		
+		return builder.toString();
+		
+	}
+	
+	/**
+	 * Asserts that the reference engine and the optimized lexing paths
+	 * generate the same tokens for texts generated with the given
+	 * language and shape, from seeds 0 to the given count (excluded).
+	 * On failure, the first failing text is shrunk and reported.
+	 *
+	 * @param language The language of texts.
+	 * @param structured Whether to generate structured or random texts.
+	 * @param count The number of texts to generate.
+	 * @param size The minimum size of texts.
+	 */
+	private static void assertEnginesLexIdentically(
+		Language language,
+		boolean  structured,
+		int      count,
+		int      size
+	) {
+		
+		for (long seed = 0; seed < count; seed++) {
+			
+			SourceGenerator generator = new SourceGenerator(language, seed);
+			
+			String text = structured ? generator.structuredText(size) : generator.randomText(size);
+			
+			if (engineDifference(language, text) == null) { continue; }
+			
+			String shrunkText = shrink(text, candidateText -> engineDifference(language, candidateText) != null);
+			
+			fail(language + " text generated from seed " + seed + ", shrunk from " + text.length() +
+				" to " + shrunkText.length() + " characters: \"" + escaped(shrunkText) + "\"\n" +
+				engineDifference(language, shrunkText));
+			
+		}
+		
+	}
+	
+	// Testing lexing engines on generated texts
+	
+	@Test
+	void random_ada_texts_lexed_identically_by_all_engines() {
+		assertEnginesLexIdentically(Language.ADA, false, RANDOM_TEXT_COUNT, RANDOM_TEXT_SIZE);
+	}
+	
+	@Test
+	void structured_ada_texts_lexed_identically_by_all_engines() {
+		assertEnginesLexIdentically(Language.ADA, true, STRUCTURED_TEXT_COUNT, STRUCTURED_TEXT_SIZE);
+	}
+	
+	@Test
+	void random_gpr_texts_lexed_identically_by_all_engines() {
+		assertEnginesLexIdentically(Language.GPR, false, RANDOM_TEXT_COUNT, RANDOM_TEXT_SIZE);
+	}
+	
+	@Test
+	void structured_gpr_texts_lexed_identically_by_all_engines() {
+		assertEnginesLexIdentically(Language.GPR, true, STRUCTURED_TEXT_COUNT, STRUCTURED_TEXT_SIZE);
+	}
+	
+	// Testing LexerEquivalenceTest#shrink(String, Predicate) method
+	
+	@Test
+	void shrink_removes_all_characters_not_needed_to_fail() {
+		
+		Predicate<String> failing = text -> text.contains("'a'") && text.contains("16#");
+		
+		assertEquals("'a'16#", shrink("X'Access := 'a' & \"\"\"\" + 16#FF#;", failing));
+		assertEquals("16#'a'", shrink("16#'a'", failing));
+		
+	}
+	
+	// Testing SourceGenerator class
+	
+	@Test
+	void generator_generates_same_texts_from_same_seed() {
+		
+		for (Language language : Language.values()) {
+			
+			assertEquals(
+				new SourceGenerator(language, 42).randomText(RANDOM_TEXT_SIZE),
+				new SourceGenerator(language, 42).randomText(RANDOM_TEXT_SIZE)
+			);
+			
+			assertEquals(
+				new SourceGenerator(language, 42).structuredText(RANDOM_TEXT_SIZE),
+				new SourceGenerator(language, 42).structuredText(RANDOM_TEXT_SIZE)
+			);
+			
+		}
+		
+	}
+	
+	@Test
+	void generator_generates_texts_of_requested_size() {
+		
+		SourceGenerator generator = new SourceGenerator(Language.ADA, 0);
+		
+		assertTrue(generator.randomText(STRUCTURED_TEXT_SIZE).length() >= STRUCTURED_TEXT_SIZE);
+		assertTrue(generator.structuredText(STRUCTURED_TEXT_SIZE).length() >= STRUCTURED_TEXT_SIZE);
+		assertEquals("", generator.randomText(0));
+		
+	}
+	
+	@Test
+	void structured_ada_texts_contain_tricky_lexemes() {
+		
+		String text = new SourceGenerator(Language.ADA, 0).structuredText(STRUCTURED_TEXT_SIZE);
+		
+		List<Lexer.Token> tokens = lexerTokens(Language.ADA.lexer(Lexer.Engine.AUTOMATON), text);
+		
+		assertTrue(tokens.stream().anyMatch(token -> token.TOKEN_TYPE == AdaTokenTypes.CHARACTER_LITERAL));
+		assertTrue(tokens.stream().anyMatch(token -> token.TOKEN_TYPE == AdaTokenTypes.APOSTROPHE));
+		assertTrue(tokens.stream().anyMatch(token -> token.TOKEN_TYPE == AdaTokenTypes.BASED_LITERAL));
+		assertTrue(text.contains("\"\""));
+		
+	}
+	
+}
@@ -0,0 +1,130 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+import com.adacore.adaintellij.AdaTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the LexerInstrumentation class.
+ * Tests are tagged to run only in the `instrumentationTest` task of the
+ * Gradle build script, which enables instrumentation, so that all other
+ * tests run with instrumentation disabled, as in production.
+ */
+@Tag("instrumentation")
+final class LexerInstrumentationTest {
+	
+	private Class classObject = getClass();
+	
+	/**
+	 * Analyses the given text with the given lexer, adding its tokens
+	 * to the given statistics, and returns the tokens.
+	 *
+	 * @param lexer The lexer to use.
+	 * @param text The text to analyse.
+	 * @param statistics The statistics to collect, or null.
+	 * @return The list of generated tokens.
+	 */
+	private static List<AdaLexer.Token> instrumentedTokens(
+		AdaLexer                            lexer,
+		String                              text,
+		LexerInstrumentation.FileStatistics statistics
+	) {
+		
+		List<AdaLexer.Token> tokens = new ArrayList<>();
+		
+		lexer.instrument(statistics);
+		lexer.start(text, 0, text.length(), 0);
+		
+		while (lexer.getTokenType() != null) {
+			tokens.add(new AdaLexer.Token(lexer.getTokenType(), lexer.getTokenStart(), lexer.getTokenEnd()));
+			lexer.advance();
+		}
+		
+		return tokens;
+		
+	}
+	
+	// Testing Lexer#instrument(LexerInstrumentation.FileStatistics) method
+	
+	@Test
+	void instrumented_lexer_counts_tokens_per_type() {
+		
+		LexerInstrumentation.FileStatistics statistics = new LexerInstrumentation.FileStatistics("test.adb");
+		
+		String text = "X := Y; -- Comment";
+		
+		List<AdaLexer.Token> tokens = instrumentedTokens(new AdaLexer(), text, statistics);
+		
+		assertEquals(tokens.size(), statistics.TOKENS.sum());
+		assertEquals(text.length(), statistics.CHARACTERS.sum());
+		assertEquals(2, statistics.tokenCount(AdaTokenTypes.IDENTIFIER));
+		assertEquals(1, statistics.tokenCount(AdaTokenTypes.COMMENT));
+		assertEquals(0, statistics.tokenCount(AdaTokenTypes.BEGIN_KEYWORD));
+		
+	}
+	
+	@Test
+	void instrumented_engines_count_their_steps_and_rollback() {
+		
+		// After "16#f", the based literal regex dies at " ", and the
+		// lexer rolls back to the end of the decimal literal "16"
+		
+		String text = "16#f ";
+		
+		LexerInstrumentation.FileStatistics automatonStatistics   = new LexerInstrumentation.FileStatistics("a.adb");
+		LexerInstrumentation.FileStatistics derivativesStatistics = new LexerInstrumentation.FileStatistics("d.adb");
+		
+		instrumentedTokens(new AdaLexer(Lexer.Engine.AUTOMATON), text, automatonStatistics);
+		instrumentedTokens(new AdaLexer(Lexer.Engine.DERIVATIVES), text, derivativesStatistics);
+		
+		assertTrue(automatonStatistics.AUTOMATON_TRANSITIONS.sum() > 0);
+		assertEquals(0, automatonStatistics.DERIVATIVE_CALLS.sum());
+		assertTrue(derivativesStatistics.DERIVATIVE_CALLS.sum() > 0);
+		assertEquals(2, automatonStatistics.MAX_ROLLBACK.get());
+		assertEquals(2, derivativesStatistics.MAX_ROLLBACK.get());
+		
+	}
+	
+	@Test
+	void instrumented_lexer_lexes_like_lexer() throws Exception {
+		
+		String text = AdaTestUtils.getFileText(
+			classObject.getResource("/ada-sources/literals.adb").toURI());
+		
+		assertEquals(
+			instrumentedTokens(new AdaLexer(), text, null),
+			instrumentedTokens(new AdaLexer(), text, new LexerInstrumentation.FileStatistics("literals.adb"))
+		);
+		
+	}
+	
+	// Testing LexerInstrumentation#fileStatistics(String) and
+	// LexerInstrumentation#report() methods
+	
+	@Test
+	void file_statistics_are_aggregated_and_reported_per_file() {
+		
+		LexerInstrumentation.FileStatistics statistics =
+			LexerInstrumentation.fileStatistics("report-test.adb");
+		
+		assertNotNull(statistics);
+		assertSame(statistics, LexerInstrumentation.fileStatistics("report-test.adb"));
+		assertNull(LexerInstrumentation.fileStatistics(null));
+		
+		instrumentedTokens(new AdaLexer(), "A : B;", statistics);
+		instrumentedTokens(new AdaLexer(), "C : D;", statistics);
+		
+		assertEquals(4, statistics.tokenCount(AdaTokenTypes.IDENTIFIER));
+		
+		String report = LexerInstrumentation.report();
+		
+		assertTrue(report.contains("report-test.adb"));
+		assertTrue(report.contains("IDENTIFIER"));
+		
+	}
+	
+}
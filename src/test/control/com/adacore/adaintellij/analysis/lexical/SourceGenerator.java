@@ -0,0 +1,664 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import java.util.Random;
+
+import org.jetbrains.annotations.*;
+
+/**
+ * Generator of synthetic Ada and GPR source texts, used to compare
+ * lexer engines with each other (see `LexerEquivalenceTest`) and to
+ * build benchmark corpora of any size.
+ *
+ * Texts are generated from the lexical grammar of the languages, in
+ * one of two shapes:
+ * - Structured texts are sequences of plausible declarations and
+ *   statements, resembling real source files
+ * - Random texts are sequences of random, possibly malformed lexemes
+ *   and of random characters, exercising the corners of the grammar:
+ *   apostrophes in attributes, qualified expressions and character
+ *   literals, based and malformed numeric literals, doubled quotes in
+ *   string literals, unterminated string literals, unusual whitespaces
+ *   and line terminators, non-ASCII letters, control characters...
+ * The same seed always generates the same texts.
+ */
+final class SourceGenerator {
+	
+	/**
+	 * The languages in which texts are generated.
+	 */
+	enum Language {
+		
+		ADA, GPR;
+		
+		/**
+		 * Returns a new lexer of this language using the given engine.
+		 *
+		 * @param engine The engine to use.
+		 * @return A new lexer.
+		 */
+		@NotNull
+		Lexer lexer(@NotNull Lexer.Engine engine) {
+			return this == ADA ? new AdaLexer(engine) : new GPRFileLexer(engine);
+		}
+		
+	}
+	
+	/*
+		Constants
+	*/
+	
+	/**
+	 * The reserved words of Ada and GPR.
+	 */
+	private static final String[] ADA_KEYWORDS = {
+		"abort", "abs", "abstract", "accept", "access", "aliased", "all", "and", "array", "at",
+		"begin", "body", "case", "constant", "declare", "delay", "delta", "digits", "do",
+		"else", "elsif", "end", "entry", "exception", "exit", "for", "function", "generic",
+		"goto", "if", "in", "interface", "is", "limited", "loop", "mod", "new", "not", "null",
+		"of", "or", "others", "out", "overriding", "package", "pragma", "private", "procedure",
+		"protected", "raise", "range", "record", "rem", "renames", "requeue", "return",
+		"reverse", "select", "separate", "some", "subtype", "synchronized", "tagged", "task",
+		"terminate", "then", "type", "until", "use", "when", "while", "with", "xor"
+	};
+	private static final String[] GPR_KEYWORDS = {
+		"abstract", "aggregate", "all", "at", "case", "end", "extends", "external",
+		"external_as_list", "for", "is", "library", "limited", "null", "others", "package",
+		"project", "renames", "type", "use", "when", "with"
+	};
+	
+	/**
+	 * The delimiters of Ada and GPR.
+	 */
+	private static final String[] ADA_DELIMITERS = {
+		"&", "'", "(", ")", "*", "+", ",", "-", ".", "/", ":", ";", "<", "=", ">", "|",
+		"=>", "..", "**", ":=", "/=", ">=", "<=", "<<", ">>", "<>"
+	};
+	private static final String[] GPR_DELIMITERS = {
+		"&", "'", "(", ")", ",", ".", ":", ";", "|", "=>", ":="
+	};
+	
+	/**
+	 * Attribute designators, used after apostrophes.
+	 */
+	private static final String[] ATTRIBUTES = {
+		"Access", "Unchecked_Access", "First", "Last", "Length", "Range", "Image", "Pos",
+		"Val", "Size", "Address", "Class", "Old", "Result"
+	};
+	
+	/**
+	 * Whitespaces and line terminators, including unusual ones.
+	 */
+	private static final String[] WHITESPACES = {
+		" ", " ", " ", "  ", "\t", "\n", "\n", "\r\n", "\r", "\u000b", "\f",
+		"\u0085", "\u00a0", "\u2028", "\u2029"
+	};
+	
+	/**
+	 * Characters of the text of identifiers, comments, character
+	 * literals and string literals, including non-ASCII and
+	 * control characters.
+	 */
+	private static final String TEXT_CHARACTERS =
+		"abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789_ " +
+		"#'\"-&()*+,./:;<=>|!$%?@[]^`{}~\\\t" +
+		"\u00e9\u00df\u00c6\u0130\u03a3\u03c3\u0416\u00a0\u00ff" +
+		"\u0000\u0001\u001f\u007f\u0099\u00ad\u2028\ud800\ufffe";
+	
+	/**
+	 * The random number generator.
+	 */
+	private final Random RANDOM;
+	
+	/**
+	 * The language in which texts are generated.
+	 */
+	private final Language LANGUAGE;
+	
+	/**
+	 * The number of units generated so far, used to give units
+	 * distinct names.
+	 */
+	private int unitCount = 0;
+	
+	/**
+	 * Constructs a new generator of texts in the given language.
+	 *
+	 * @param language The language in which to generate texts.
+	 * @param seed The seed of the random number generator.
+	 */
+	SourceGenerator(@NotNull Language language, long seed) {
+		LANGUAGE = language;
+		RANDOM   = new Random(seed);
+	}
+	
+	/*
+		Texts
+	*/
+	
+	/**
+	 * Returns a structured text of at least the given size, made of
+	 * complete compilation units (Ada) or projects (GPR).
+	 *
+	 * @param size The minimum size of the text, in characters.
+	 * @return The generated text.
+	 */
+	@NotNull
+	String structuredText(int size) {
+		
+		StringBuilder builder = new StringBuilder(size + 256);
+		
+		while (builder.length() < size) {
+			
+			if (LANGUAGE == Language.ADA) {
+				appendAdaUnit(builder);
+			} else {
+				appendProject(builder);
+			}
+			
+			builder.append('\n');
+			
+		}
+		
+		return builder.toString();
+		
+	}
+	
+	/**
+	 * Returns a random text of at least the given size, made of random
+	 * lexemes and characters.
+	 *
+	 * @param size The minimum size of the text, in characters.
+	 * @return The generated text.
+	 */
+	@NotNull
+	String randomText(int size) {
+		
+		StringBuilder builder = new StringBuilder(size + 64);
+		
+		while (builder.length() < size) { appendRandomLexeme(builder); }
+		
+		return builder.toString();
+		
+	}
+	
+	/*
+		Structured Ada
+	*/
+	
+	/**
+	 * Appends an Ada package body with context clauses, declarations
+	 * and subprogram bodies to the given builder.
+	 *
+	 * @param builder The builder to which to append the unit.
+	 */
+	private void appendAdaUnit(@NotNull StringBuilder builder) {
+		
+		String name = "Unit_" + unitCount++;
+		
+		builder.append("--  ").append(commentText()).append("\n\n");
+		builder.append("with Ada.Text_IO; use Ada.Text_IO;\n");
+		builder.append("with ").append(identifier()).append('.').append(identifier()).append(";\n\n");
+		builder.append("package body ").append(name).append(" is\n\n");
+		
+		int declarations = 1 + RANDOM.nextInt(6);
+		
+		for (int i = 0; i < declarations; i++) { appendAdaDeclaration(builder); }
+		
+		int subprograms = 1 + RANDOM.nextInt(3);
+		
+		for (int i = 0; i < subprograms; i++) { appendAdaSubprogram(builder); }
+		
+		builder.append("end ").append(name).append(";\n");
+		
+	}
+	
+	/**
+	 * Appends an Ada declaration to the given builder.
+	 *
+	 * @param builder The builder to which to append the declaration.
+	 */
+	private void appendAdaDeclaration(@NotNull StringBuilder builder) {
+		
+		String name = identifier();
+		
+		switch (RANDOM.nextInt(6)) {
+			case 0:
+				builder.append("   type ").append(name).append(" is range ")
+					.append(numericLiteral()).append(" .. ").append(numericLiteral()).append(";\n");
+				break;
+			case 1:
+				builder.append("   type ").append(name).append(" is array (Positive range <>) of Character;\n");
+				break;
+			case 2:
+				builder.append("   ").append(name).append(" : constant := ").append(numericLiteral()).append(";\n");
+				break;
+			case 3:
+				builder.append("   ").append(name).append(" : constant String := ").append(stringLiteral()).append(";\n");
+				break;
+			case 4:
+				builder.append("   ").append(name).append(" : aliased Character := ").append(characterLiteral()).append(";\n");
+				break;
+			default:
+				builder.append("   type ").append(name).append(" is record\n")
+					.append("      ").append(identifier()).append(" : Integer := ").append(numericLiteral()).append(";\n")
+					.append("      ").append(identifier()).append(" : access Integer;\n")
+					.append("   end record;\n");
+				break;
+		}
+		
+	}
+	
+	/**
+	 * Appends an Ada subprogram body to the given builder.
+	 *
+	 * @param builder The builder to which to append the subprogram.
+	 */
+	private void appendAdaSubprogram(@NotNull StringBuilder builder) {
+		
+		String name = identifier();
+		
+		builder.append("\n   procedure ").append(name).append(" (").append(identifier())
+			.append(" : in out ").append(identifier()).append(") is\n");
+		builder.append("      ").append(identifier()).append(" : Integer := ").append(numericLiteral()).append(";\n");
+		builder.append("   begin\n");
+		
+		int statements = 1 + RANDOM.nextInt(8);
+		
+		for (int i = 0; i < statements; i++) { appendAdaStatement(builder); }
+		
+		builder.append("   end ").append(name).append(";\n\n");
+		
+	}
+	
+	/**
+	 * Appends an Ada statement to the given builder.
+	 *
+	 * @param builder The builder to which to append the statement.
+	 */
+	private void appendAdaStatement(@NotNull StringBuilder builder) {
+		
+		builder.append("      ");
+		
+		switch (RANDOM.nextInt(7)) {
+			case 0:
+				builder.append(identifier()).append(" := ").append(expression()).append(";\n");
+				break;
+			case 1:
+				builder.append("Put_Line (").append(stringLiteral()).append(" & ")
+					.append(identifier()).append("'Image (").append(identifier()).append("));\n");
+				break;
+			case 2:
+				builder.append("if ").append(expression()).append(" /= ").append(expression()).append(" then\n")
+					.append("         ").append(identifier()).append(" := ").append(identifier()).append("'Access;\n")
+					.append("      elsif ").append(identifier()).append(" then\n")
+					.append("         null;\n")
+					.append("      end if;\n");
+				break;
+			case 3:
+				builder.append("for ").append(identifier()).append(" in ").append(identifier())
+					.append("'Range loop\n")
+					.append("         exit when ").append(identifier()).append(" (").append(identifier())
+					.append(") = Character'('x');\n")
+					.append("      end loop;\n");
+				break;
+			case 4:
+				builder.append("case ").append(identifier()).append(" is\n")
+					.append("         when ").append(characterLiteral()).append(" | ").append(characterLiteral())
+					.append(" => null;\n")
+					.append("         when others => raise Program_Error;\n")
+					.append("      end case;\n");
+				break;
+			case 5:
+				builder.append(identifier()).append(" (").append(expression()).append(");  -- ")
+					.append(commentText()).append('\n');
+				break;
+			default:
+				builder.append("pragma Assert (").append(identifier()).append("'Length >= ")
+					.append(numericLiteral()).append(");\n");
+				break;
+		}
+		
+	}
+	
+	/**
+	 * Returns a random Ada expression.
+	 *
+	 * @return The expression.
+	 */
+	@NotNull
+	private String expression() {
+		switch (RANDOM.nextInt(5)) {
+			case 0:  return numericLiteral();
+			case 1:  return identifier() + " + " + numericLiteral() + " * " + identifier();
+			case 2:  return identifier() + "'" + attribute();
+			case 3:  return "Character'Pos (" + characterLiteral() + ")";
+			default: return identifier();
+		}
+	}
+	
+	/*
+		Structured GPR
+	*/
+	
+	/**
+	 * Appends a GPR project with attributes, packages and case
+	 * constructions to the given builder.
+	 *
+	 * @param builder The builder to which to append the project.
+	 */
+	private void appendProject(@NotNull StringBuilder builder) {
+		
+		String name = "Project_" + unitCount++;
+		
+		builder.append("--  ").append(commentText()).append("\n\n");
+		builder.append("with \"").append(identifier().toLowerCase()).append(".gpr\";\n\n");
+		builder.append(RANDOM.nextBoolean() ? "library " : "").append("project ").append(name);
+		
+		if (RANDOM.nextBoolean()) { builder.append(" extends \"base.gpr\""); }
+		
+		builder.append(" is\n\n");
+		builder.append("   type Mode_Type is (\"debug\", \"release\");\n");
+		builder.append("   Mode : Mode_Type := external (\"MODE\", \"debug\");\n\n");
+		builder.append("   for Source_Dirs use (").append(stringLiteral()).append(", \"src\");\n");
+		builder.append("   for Object_Dir use \"obj/\" & Mode;\n");
+		builder.append("   for Main use (\"").append(identifier().toLowerCase()).append(".adb\");\n\n");
+		
+		int packages = 1 + RANDOM.nextInt(3);
+		
+		for (int i = 0; i < packages; i++) { appendProjectPackage(builder); }
+		
+		builder.append("end ").append(name).append(";\n");
+		
+	}
+	
+	/**
+	 * Appends a GPR package to the given builder.
+	 *
+	 * @param builder The builder to which to append the package.
+	 */
+	private void appendProjectPackage(@NotNull StringBuilder builder) {
+		
+		String name = identifier();
+		
+		builder.append("   package ").append(name).append(" is\n");
+		builder.append("      case Mode is\n");
+		builder.append("         when \"debug\" =>\n");
+		builder.append("            for Default_Switches (\"Ada\") use (\"-g\", \"-O0\", ")
+			.append(stringLiteral()).append(");\n");
+		builder.append("         when others =>\n");
+		builder.append("            for Default_Switches (\"Ada\") use ").append(name)
+			.append("'Default_Switches (\"Ada\") & (\"-O2\");\n");
+		builder.append("      end case;\n");
+		builder.append("      for Switches (").append(stringLiteral()).append(") use external_as_list (\"")
+			.append(identifier().toUpperCase()).append("\", \",\");  -- ").append(commentText()).append('\n');
+		builder.append("   end ").append(name).append(";\n\n");
+		
+	}
+	
+	/*
+		Random Lexemes
+	*/
+	
+	/**
+	 * Appends a random lexeme, possibly malformed, or a random
+	 * character to the given builder.
+	 *
+	 * @param builder The builder to which to append the lexeme.
+	 */
+	private void appendRandomLexeme(@NotNull StringBuilder builder) {
+		
+		String[] keywords   = LANGUAGE == Language.ADA ? ADA_KEYWORDS : GPR_KEYWORDS;
+		String[] delimiters = LANGUAGE == Language.ADA ? ADA_DELIMITERS : GPR_DELIMITERS;
+		
+		switch (RANDOM.nextInt(14)) {
+			case 0:
+			case 1:
+				builder.append(identifier());
+				break;
+			case 2:
+				builder.append(randomCase(keywords[RANDOM.nextInt(keywords.length)]));
+				break;
+			case 3:
+				builder.append(RANDOM.nextInt(4) == 0 ? malformedNumericLiteral() : numericLiteral());
+				break;
+			case 4:
+				builder.append(characterLiteral());
+				break;
+			case 5:
+				
+				// Apostrophes after identifiers and closing parentheses,
+				// which may be followed by character literals or not
+				
+				builder.append(RANDOM.nextBoolean() ? identifier() : ")").append('\'');
+				builder.append(RANDOM.nextBoolean() ? attribute() : RANDOM.nextBoolean() ? "(" : characterLiteral());
+				
+				break;
+			case 6:
+				builder.append(RANDOM.nextInt(4) == 0 ? malformedStringLiteral() : stringLiteral());
+				break;
+			case 7:
+				builder.append("--").append(commentText()).append(lineTerminator());
+				break;
+			case 8:
+			case 9:
+				builder.append(delimiters[RANDOM.nextInt(delimiters.length)]);
+				break;
+			case 10:
+			case 11:
+				builder.append(WHITESPACES[RANDOM.nextInt(WHITESPACES.length)]);
+				break;
+			default:
+				builder.append(textCharacter());
+				break;
+		}
+		
+	}
+	
+	/**
+	 * Returns a random identifier, possibly with non-ASCII letters,
+	 * in random case.
+	 *
+	 * @return The identifier.
+	 */
+	@NotNull
+	private String identifier() {
+		
+		StringBuilder builder = new StringBuilder();
+		
+		int segments = 1 + RANDOM.nextInt(3);
+		
+		for (int i = 0; i < segments; i++) {
+			
+			if (i > 0) { builder.append('_'); }
+			
+			builder.append(RANDOM.nextInt(8) == 0 ? "\u00e9t\u00e9" : RANDOM.nextBoolean() ? "Item" : "x");
+			
+			if (RANDOM.nextBoolean()) { builder.append(RANDOM.nextInt(100)); }
+			
+		}
+		
+		return randomCase(builder.toString());
+		
+	}
+	
+	/**
+	 * Returns a random attribute designator.
+	 *
+	 * @return The attribute designator.
+	 */
+	@NotNull
+	private String attribute() { return randomCase(ATTRIBUTES[RANDOM.nextInt(ATTRIBUTES.length)]); }
+	
+	/**
+	 * Returns a random well-formed decimal or based numeric literal.
+	 *
+	 * @return The numeric literal.
+	 */
+	@NotNull
+	private String numericLiteral() {
+		switch (RANDOM.nextInt(8)) {
+			case 0:  return "1_000_000";
+			case 1:  return RANDOM.nextInt(1000) + "." + RANDOM.nextInt(1000);
+			case 2:  return "1.0e-" + RANDOM.nextInt(10);
+			case 3:  return "2E+" + RANDOM.nextInt(10);
+			case 4:  return "16#" + Integer.toHexString(RANDOM.nextInt()).toUpperCase() + "#";
+			case 5:  return "2#1010_1010#e" + RANDOM.nextInt(4);
+			case 6:  return "16#F.FF#E-2";
+			default: return Integer.toString(RANDOM.nextInt(10000));
+		}
+	}
+	
+	/**
+	 * Returns a random malformed numeric literal, which lexers split
+	 * into several tokens after rolling back.
+	 *
+	 * @return The malformed numeric literal.
+	 */
+	@NotNull
+	private String malformedNumericLiteral() {
+		switch (RANDOM.nextInt(8)) {
+			case 0:  return "16#f";
+			case 1:  return "16#FF";
+			case 2:  return "1__0";
+			case 3:  return "1.";
+			case 4:  return "1e";
+			case 5:  return "1.0e+";
+			case 6:  return "2#102#";
+			default: return "8#7_#";
+		}
+	}
+	
+	/**
+	 * Returns a random character literal.
+	 *
+	 * @return The character literal.
+	 */
+	@NotNull
+	private String characterLiteral() {
+		switch (RANDOM.nextInt(4)) {
+			case 0:  return "'''";
+			case 1:  return "' '";
+			case 2:  return "'\"'";
+			default: return "'" + (char)('a' + RANDOM.nextInt(26)) + "'";
+		}
+	}
+	
+	/**
+	 * Returns a random well-formed string literal, possibly with
+	 * doubled quotes and non-ASCII characters.
+	 *
+	 * @return The string literal.
+	 */
+	@NotNull
+	private String stringLiteral() {
+		
+		StringBuilder builder = new StringBuilder("\"");
+		
+		int length = RANDOM.nextInt(16);
+		
+		for (int i = 0; i < length; i++) {
+			
+			switch (RANDOM.nextInt(8)) {
+				case 0:  builder.append("\"\""); break;
+				case 1:  builder.append('\u00e9'); break;
+				case 2:  builder.append('\''); break;
+				default: builder.append((char)('a' + RANDOM.nextInt(26))); break;
+			}
+			
+		}
+		
+		return builder.append('"').toString();
+		
+	}
+	
+	/**
+	 * Returns a random malformed string literal: unterminated, ending
+	 * with a doubled quote or containing non-graphic characters.
+	 *
+	 * @return The malformed string literal.
+	 */
+	@NotNull
+	private String malformedStringLiteral() {
+		switch (RANDOM.nextInt(4)) {
+			case 0:  return "\"unterminated" + lineTerminator();
+			case 1:  return "\"a\"\"";
+			case 2:  return "\"tab\tin string\"";
+			default: return "\"" + textCharacter() + textCharacter() + "\"";
+		}
+	}
+	
+	/**
+	 * Returns random text for a comment, without line terminators.
+	 *
+	 * @return The comment text.
+	 */
+	@NotNull
+	private String commentText() {
+		
+		StringBuilder builder = new StringBuilder();
+		
+		int length = RANDOM.nextInt(40);
+		
+		for (int i = 0; i < length; i++) {
+			
+			char character = textCharacter();
+			
+			builder.append(character == '\u2028' ? ' ' : character);
+			
+		}
+		
+		return builder.toString();
+		
+	}
+	
+	/**
+	 * Returns a random line terminator.
+	 *
+	 * @return The line terminator.
+	 */
+	@NotNull
+	private String lineTerminator() {
+		switch (RANDOM.nextInt(6)) {
+			case 0:  return "\r\n";
+			case 1:  return "\r";
+			case 2:  return "\u000b";
+			case 3:  return "\u0085";
+			case 4:  return "\u2029";
+			default: return "\n";
+		}
+	}
+	
+	/**
+	 * Returns a random character of TEXT_CHARACTERS.
+	 *
+	 * @return The character.
+	 */
+	private char textCharacter() { return TEXT_CHARACTERS.charAt(RANDOM.nextInt(TEXT_CHARACTERS.length())); }
+	
+	/**
+	 * Returns the given word in random case: lowercase, uppercase
+	 * or mixed case.
+	 *
+	 * @param word The word.
+	 * @return The word in random case.
+	 */
+	@NotNull
+	private String randomCase(@NotNull String word) {
+		
+		switch (RANDOM.nextInt(4)) {
+			case 0: return word.toLowerCase();
+			case 1: return word.toUpperCase();
+			case 2: return word;
+		}
+		
+		StringBuilder builder = new StringBuilder(word.length());
+		
+		for (char character : word.toCharArray()) {
+			builder.append(RANDOM.nextBoolean() ? Character.toUpperCase(character) : character);
+		}
+		
+		return builder.toString();
+		
+	}
+	
+}
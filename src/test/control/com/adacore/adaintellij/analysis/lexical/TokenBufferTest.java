@@ -0,0 +1,179 @@
+package com.adacore.adaintellij.analysis.lexical;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the TokenBuffer class.
+ */
+final class TokenBufferTest {
+	
+	/**
+	 * Returns a buffer of the tokens of "X := 1;  " (with a gap between
+	 * "1" and ";" to test searches outside tokens).
+	 *
+	 * @return The token buffer.
+	 */
+	private static TokenBuffer sampleBuffer() {
+		
+		TokenBuffer buffer = new TokenBuffer(1);
+		
+		buffer.add(AdaTokenTypes.IDENTIFIER, 0, 1);
+		buffer.add(AdaTokenTypes.ASSIGNMENT, 2, 4);
+		buffer.add(AdaTokenTypes.DECIMAL_LITERAL, 5, 6);
+		buffer.add(AdaTokenTypes.SEMICOLON, 7, 8);
+		
+		return buffer;
+		
+	}
+	
+	/**
+	 * Returns the tokens of `sampleBuffer` shifted by 10 characters.
+	 *
+	 * @return The token buffer.
+	 */
+	private static TokenBuffer shiftedSampleBuffer() {
+		
+		TokenBuffer sampleBuffer  = sampleBuffer();
+		TokenBuffer shiftedBuffer = new TokenBuffer();
+		
+		for (int i = 0 ; i < sampleBuffer.size() ; i++) {
+			shiftedBuffer.add(sampleBuffer.tokenType(i),
+				sampleBuffer.tokenStart(i) + 10, sampleBuffer.tokenEnd(i) + 10);
+		}
+		
+		return shiftedBuffer;
+		
+	}
+	
+	// Testing TokenBuffer#add(IElementType, int, int) method
+	
+	@Test
+	void added_tokens_are_stored_in_order() {
+		
+		TokenBuffer buffer = sampleBuffer();
+		
+		assertEquals(4, buffer.size());
+		assertEquals(AdaTokenTypes.ASSIGNMENT, buffer.tokenType(1));
+		assertEquals(2, buffer.tokenStart(1));
+		assertEquals(4, buffer.tokenEnd(1));
+		assertEquals(new Lexer.Token(AdaTokenTypes.SEMICOLON, 7, 8), buffer.token(3));
+		
+	}
+	
+	@Test
+	void overlapping_tokens_are_rejected() {
+		
+		TokenBuffer buffer = sampleBuffer();
+		
+		assertThrows(IllegalArgumentException.class, () -> buffer.add(AdaTokenTypes.COMMA, 7, 9));
+		assertThrows(IllegalArgumentException.class, () -> buffer.add(AdaTokenTypes.COMMA, 9, 8));
+		
+	}
+	
+	@Test
+	void tokens_cannot_be_accessed_out_of_bounds() {
+		
+		TokenBuffer buffer = sampleBuffer();
+		
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.tokenStart(4));
+		assertThrows(IndexOutOfBoundsException.class, () -> buffer.tokenType(-1));
+		
+	}
+	
+	// Testing TokenBuffer#addAll(TokenBuffer) method
+	
+	@Test
+	void all_tokens_of_buffer_are_added() {
+		
+		TokenBuffer buffer = new TokenBuffer(0);
+		
+		buffer.add(AdaTokenTypes.BEGIN_KEYWORD, 0, 5);
+		buffer.addAll(shiftedSampleBuffer());
+		
+		assertEquals(5, buffer.size());
+		assertEquals(AdaTokenTypes.IDENTIFIER, buffer.tokenType(1));
+		assertEquals(18, buffer.tokenEnd(4));
+		
+	}
+	
+	// Testing TokenBuffer#tokenIndexAt(int) method
+	
+	@Test
+	void token_containing_offset_is_found() {
+		
+		TokenBuffer buffer = sampleBuffer();
+		
+		assertEquals(0, buffer.tokenIndexAt(0));
+		assertEquals(1, buffer.tokenIndexAt(2));
+		assertEquals(1, buffer.tokenIndexAt(3));
+		assertEquals(3, buffer.tokenIndexAt(7));
+		
+	}
+	
+	@Test
+	void no_token_is_found_outside_tokens() {
+		
+		TokenBuffer buffer = sampleBuffer();
+		
+		assertEquals(-1, buffer.tokenIndexAt(-1));
+		assertEquals(-1, buffer.tokenIndexAt(1));
+		assertEquals(-1, buffer.tokenIndexAt(4));
+		assertEquals(-1, buffer.tokenIndexAt(8));
+		assertEquals(-1, new TokenBuffer().tokenIndexAt(0));
+		
+	}
+	
+	// Testing TokenBuffer#tokenIndexFrom(int) method
+	
+	@Test
+	void first_token_ending_after_offset_is_found() {
+		
+		TokenBuffer buffer = sampleBuffer();
+		
+		assertEquals(0, buffer.tokenIndexFrom(0));
+		assertEquals(1, buffer.tokenIndexFrom(1));
+		assertEquals(1, buffer.tokenIndexFrom(3));
+		assertEquals(2, buffer.tokenIndexFrom(4));
+		assertEquals(4, buffer.tokenIndexFrom(8));
+		
+	}
+	
+	// Testing TokenBuffer#cursor() and TokenBuffer#cursorFrom(int) methods
+	
+	@Test
+	void cursor_traverses_all_tokens() {
+		
+		TokenBuffer        buffer = sampleBuffer();
+		TokenBuffer.Cursor cursor = buffer.cursor();
+		
+		List<Lexer.Token> tokens = new ArrayList<>();
+		
+		while (cursor.hasToken()) {
+			tokens.add(new Lexer.Token(cursor.tokenType(), cursor.tokenStart(), cursor.tokenEnd()));
+			cursor.advance();
+		}
+		
+		List<Lexer.Token> iteratedTokens = new ArrayList<>();
+		
+		buffer.forEach(iteratedTokens::add);
+		
+		assertEquals(iteratedTokens, tokens);
+		assertNull(cursor.tokenType());
+		
+	}
+	
+	@Test
+	void cursor_from_offset_starts_at_first_token_ending_after_offset() {
+		
+		TokenBuffer.Cursor cursor = sampleBuffer().cursorFrom(4);
+		
+		assertEquals(2, cursor.index());
+		assertEquals(AdaTokenTypes.DECIMAL_LITERAL, cursor.tokenType());
+		
+	}
+	
+}
@@ -0,0 +1,118 @@
+package com.adacore.adaintellij.analysis.lexical.regex;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static com.adacore.adaintellij.analysis.lexical.regex.LexerRegexTestUtils.*;
+
+/**
+ * JUnit test class for the CharClassRegex class.
+ */
+final class CharClassRegexTest {
+	
+	// Constants
+	
+	private static final LexerRegex DIGIT_REGEX = UnionRegex.fromRange('0', '9');
+	
+	private static final LexerRegex HEXADECIMAL_DIGIT_REGEX = UnionRegex.fromRegexes(
+		DIGIT_REGEX,
+		UnionRegex.fromRange('a', 'f'),
+		UnionRegex.fromRange('A', 'F')
+	);
+	
+	private static final LexerRegex NON_DIGIT_REGEX = NotRegex.fromRegex(DIGIT_REGEX);
+	
+	private static final LexerRegex NON_LINE_FEED_CONTROL_REGEX = IntersectionRegex.fromRegexes(
+		new GeneralCategoryRegex("Cc"),
+		NotRegex.fromRegex(new UnitRegex("\n"))
+	);
+	
+	// Testing smart construction methods
+	
+	@Test
+	void single_character_regexes_collapse_to_char_class_regex() {
+		
+		assertTrue(DIGIT_REGEX instanceof CharClassRegex);
+		assertTrue(HEXADECIMAL_DIGIT_REGEX instanceof CharClassRegex);
+		assertTrue(NON_DIGIT_REGEX instanceof CharClassRegex);
+		assertTrue(NON_LINE_FEED_CONTROL_REGEX instanceof CharClassRegex);
+		
+	}
+	
+	@Test
+	void adjacent_and_overlapping_ranges_are_merged() {
+		
+		CharClassRegex regex = (CharClassRegex)UnionRegex.fromRegexes(
+			UnionRegex.fromRange('a', 'f'),
+			UnionRegex.fromRange('d', 'k'),
+			UnionRegex.fromRange('l', 'm'),
+			new UnitRegex("x")
+		);
+		
+		assertArrayEquals(new char[] { 'a', 'm', 'x', 'x' }, regex.RANGES);
+		
+	}
+	
+	@Test
+	void multi_character_regexes_are_not_collapsed() {
+		
+		assertTrue(NotRegex.fromRegex(
+			UnionRegex.fromRegexes(new UnitRegex("a"), ConcatenationRegex.fromRegexes(
+				new UnitRegex(""), new UnitRegex("b")))
+		) instanceof NotRegex);
+		
+		assertTrue(IntersectionRegex.fromRegexes(
+			new UnitRegex("ab"),
+			new UnitRegex("ab")
+		) instanceof IntersectionRegex);
+		
+	}
+	
+	// Testing CharClassRegex#nullable() method
+	
+	@Test
+	void char_class_regex_is_not_nullable() {
+		assertFalse(DIGIT_REGEX.nullable());
+		assertFalse(NON_DIGIT_REGEX.nullable());
+	}
+	
+	// Testing CharClassRegex#advanced(char) method
+	
+	@Test
+	void char_class_regex_does_not_advance_when_it_should_not() {
+		
+		assertRegexDoesNotAdvance(DIGIT_REGEX, "a");
+		assertRegexDoesNotAdvance(DIGIT_REGEX, "/");
+		assertRegexDoesNotAdvance(DIGIT_REGEX, ":");
+		assertRegexDoesNotAdvance(DIGIT_REGEX, "12");
+		
+		assertRegexDoesNotAdvance(HEXADECIMAL_DIGIT_REGEX, "g");
+		assertRegexDoesNotAdvance(HEXADECIMAL_DIGIT_REGEX, "G");
+		
+		assertRegexDoesNotAdvance(NON_DIGIT_REGEX, "5");
+		
+		assertRegexDoesNotAdvance(NON_LINE_FEED_CONTROL_REGEX, "\n");
+		assertRegexDoesNotAdvance(NON_LINE_FEED_CONTROL_REGEX, "a");
+		
+	}
+	
+	@Test
+	void char_class_regex_matches_when_it_should() {
+		
+		assertRegexMatches(DIGIT_REGEX, "0");
+		assertRegexMatches(DIGIT_REGEX, "9");
+		
+		assertRegexMatches(HEXADECIMAL_DIGIT_REGEX, "7");
+		assertRegexMatches(HEXADECIMAL_DIGIT_REGEX, "c");
+		assertRegexMatches(HEXADECIMAL_DIGIT_REGEX, "F");
+		
+		assertRegexMatches(NON_DIGIT_REGEX, "a");
+		assertRegexMatches(NON_DIGIT_REGEX, "\uffff");
+		
+		assertRegexMatches(NON_LINE_FEED_CONTROL_REGEX, "\t");
+		assertRegexMatches(NON_LINE_FEED_CONTROL_REGEX, "\u0085");
+		
+	}
+	
+}
@@ -119,4 +119,48 @@ final class GeneralCategoryRegexTest {
 		
 	}
 	
+	@Test
+	void multiple_categories_regex_matches_characters_of_any_category() {
+		
+		LexerRegex lettersRegex = GeneralCategoryRegex.fromCategories("Lu", "Ll");
+		
+		assertRegexMatches(lettersRegex, "a");
+		assertRegexMatches(lettersRegex, "Z");
+		assertRegexMatches(lettersRegex, "\u00e9");
+		
+		assertRegexDoesNotAdvance(lettersRegex, "1");
+		assertRegexDoesNotAdvance(lettersRegex, "_");
+		
+	}
+	
+	@Test
+	void united_general_category_regexes_match_all_categories() {
+		
+		LexerRegex regex = GeneralCategoryRegex.fromRegexes(
+			GeneralCategoryRegex.fromCategories("Ll"),
+			GeneralCategoryRegex.fromCategories("Nd", "Pc")
+		);
+		
+		assertEquals(GeneralCategoryRegex.fromCategories("Pc", "Ll", "Nd"), regex);
+		
+		assertRegexMatches(regex, "a");
+		assertRegexMatches(regex, "7");
+		assertRegexMatches(regex, "_");
+		
+		assertRegexDoesNotAdvance(regex, "A");
+		
+	}
+	
+	@Test
+	void single_letter_general_category_regex_matches_subcategories() {
+		
+		LexerRegex letterRegex = new GeneralCategoryRegex("L");
+		
+		assertRegexMatches(letterRegex, "a");
+		assertRegexMatches(letterRegex, "Z");
+		
+		assertRegexDoesNotAdvance(letterRegex, "1");
+		
+	}
+	
 }
@@ -0,0 +1,274 @@
+package com.adacore.adaintellij.analysis.lexical.regex;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the LexerAutomaton class.
+ */
+final class LexerAutomatonTest {
+	
+	// Constants
+	
+	private static final LexerRegex IF_KEYWORD_REGEX = new UnitRegex("if", 1);
+	
+	private static final LexerRegex IDENTIFIER_REGEX =
+		new OneOrMoreRegex(UnionRegex.fromRange('a', 'z'));
+	
+	private static final LexerRegex NUMBER_REGEX =
+		new OneOrMoreRegex(UnionRegex.fromRange('0', '9'));
+	
+	private static final LexerRegex ARROW_REGEX       = new UnitRegex("=>");
+	private static final LexerRegex EQUALS_SIGN_REGEX = new UnitRegex("=");
+	
+	private static final List<LexerRegex> ROOT_REGEXES = Arrays.asList(
+		IDENTIFIER_REGEX,
+		IF_KEYWORD_REGEX,
+		NUMBER_REGEX,
+		ARROW_REGEX,
+		EQUALS_SIGN_REGEX
+	);
+	
+	private static final LexerAutomaton AUTOMATON = LexerAutomaton.compile(ROOT_REGEXES);
+	
+	/**
+	 * Runs the automaton on the given sequence of characters and returns
+	 * the index of the root accepted after the last character, or
+	 * LexerAutomaton.NO_ROOT if the automaton died or did not accept
+	 * any root.
+	 *
+	 * @param sequence The sequence of characters.
+	 * @return The accepted root.
+	 */
+	private static int acceptedRoot(String sequence) {
+		
+		int state = LexerAutomaton.INITIAL_STATE;
+		
+		for (char character : sequence.toCharArray()) {
+			state = AUTOMATON.nextState(state, character);
+			if (state == LexerAutomaton.DEAD_STATE) { return LexerAutomaton.NO_ROOT; }
+		}
+		
+		return AUTOMATON.acceptedRoot(state);
+		
+	}
+	
+	// Testing LexerAutomaton#compile(List) method
+	
+	@Test
+	void automaton_has_root_count_of_compiled_list() {
+		assertEquals(ROOT_REGEXES.size(), AUTOMATON.rootCount());
+	}
+	
+	@Test
+	void characters_treated_identically_share_a_class() {
+		
+		assertEquals(AUTOMATON.characterClass('b'), AUTOMATON.characterClass('c'));
+		assertEquals(AUTOMATON.characterClass('1'), AUTOMATON.characterClass('9'));
+		assertEquals(AUTOMATON.characterClass('!'), AUTOMATON.characterClass(' '));
+		
+		assertNotEquals(AUTOMATON.characterClass('i'), AUTOMATON.characterClass('b'));
+		assertNotEquals(AUTOMATON.characterClass('='), AUTOMATON.characterClass('>'));
+		
+	}
+	
+	@Test
+	void case_insensitive_automaton_folds_characters_to_lowercase() {
+		
+		LexerAutomaton automaton = LexerAutomaton.compile(ROOT_REGEXES, true);
+		
+		assertEquals(automaton.characterClass('i'), automaton.characterClass('I'));
+		assertEquals(automaton.characterClass('b'), automaton.characterClass('Q'));
+		
+		assertNotEquals(AUTOMATON.characterClass('i'), AUTOMATON.characterClass('I'));
+		
+		int state = automaton.nextState(LexerAutomaton.INITIAL_STATE, 'I');
+		
+		state = automaton.nextState(state, 'F');
+		
+		assertEquals(1, automaton.acceptedRoot(state));
+		
+	}
+	
+	// Testing LexerAutomaton#nextState(int, char) method
+	
+	@Test
+	void automaton_dies_on_unmatched_characters() {
+		
+		assertEquals(LexerAutomaton.DEAD_STATE,
+			AUTOMATON.nextState(LexerAutomaton.INITIAL_STATE, '!'));
+		assertEquals(LexerAutomaton.DEAD_STATE,
+			AUTOMATON.nextState(LexerAutomaton.INITIAL_STATE, '>'));
+		
+		assertEquals(LexerAutomaton.NO_ROOT, acceptedRoot("a1"));
+		assertEquals(LexerAutomaton.NO_ROOT, acceptedRoot("=>="));
+		
+	}
+	
+	// Testing LexerAutomaton#acceptedRoot(int) method
+	
+	@Test
+	void initial_state_does_not_accept_any_root() {
+		assertEquals(LexerAutomaton.NO_ROOT, AUTOMATON.acceptedRoot(LexerAutomaton.INITIAL_STATE));
+	}
+	
+	@Test
+	void automaton_accepts_matching_roots() {
+		
+		assertEquals(0, acceptedRoot("i"));
+		assertEquals(0, acceptedRoot("iff"));
+		assertEquals(0, acceptedRoot("hello"));
+		
+		assertEquals(2, acceptedRoot("0"));
+		assertEquals(2, acceptedRoot("1234"));
+		
+		assertEquals(3, acceptedRoot("=>"));
+		assertEquals(4, acceptedRoot("="));
+		
+	}
+	
+	@Test
+	void automaton_accepts_root_with_highest_priority() {
+		assertEquals(1, acceptedRoot("if"));
+	}
+	
+	@Test
+	void automaton_accepts_first_root_on_priority_ties() {
+		
+		LexerAutomaton automaton = LexerAutomaton.compile(Arrays.asList(
+			new UnitRegex("ab"),
+			ConcatenationRegex.fromRegexes(new UnitRegex("a"), new ZeroOrOneRegex(new UnitRegex("b")))
+		));
+		
+		int state = automaton.nextState(LexerAutomaton.INITIAL_STATE, 'a');
+		
+		assertEquals(1, automaton.acceptedRoot(state));
+		
+		state = automaton.nextState(state, 'b');
+		
+		assertEquals(0, automaton.acceptedRoot(state));
+		
+	}
+	
+	// Testing LexerAutomaton#characterClass(char) method
+	
+	@Test
+	void ascii_characters_are_classified_like_non_ascii_characters() {
+		
+		LexerAutomaton automaton = LexerAutomaton.compile(Arrays.asList(
+			new OneOrMoreRegex(new GeneralCategoryRegex("Ll")),
+			new OneOrMoreRegex(new GeneralCategoryRegex("Nd"))
+		), true);
+		
+		assertEquals(automaton.characterClass('\u00e9'), automaton.characterClass('a'));
+		assertEquals(automaton.characterClass('\u00c9'), automaton.characterClass('Z'));
+		assertEquals(automaton.characterClass('\u0663'), automaton.characterClass('7'));
+		assertEquals(automaton.characterClass('\u00a0'), automaton.characterClass('#'));
+		assertNotEquals(automaton.characterClass('a'), automaton.characterClass('7'));
+		
+	}
+	
+	// Testing LexerAutomaton#startingRoots(char) method
+	
+	@Test
+	void starting_roots_are_roots_advancing_by_first_character() {
+		
+		assertArrayEquals(new int[] { 0 }, AUTOMATON.startingRoots('a'));
+		assertArrayEquals(new int[] { 0, 1 }, AUTOMATON.startingRoots('i'));
+		assertArrayEquals(new int[] { 2 }, AUTOMATON.startingRoots('7'));
+		assertArrayEquals(new int[] { 3, 4 }, AUTOMATON.startingRoots('='));
+		
+	}
+	
+	@Test
+	void no_roots_start_with_unmatched_characters() {
+		assertEquals(0, AUTOMATON.startingRoots('#').length);
+	}
+	
+	// Testing LexerAutomaton#write(OutputStream, long) and
+	// LexerAutomaton#read(InputStream, long) methods
+	
+	@Test
+	void read_automaton_behaves_like_written_automaton() throws IOException {
+		
+		long fingerprint = LexerAutomaton.fingerprint(ROOT_REGEXES, false);
+		
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		
+		AUTOMATON.write(output, fingerprint);
+		
+		LexerAutomaton automaton =
+			LexerAutomaton.read(new ByteArrayInputStream(output.toByteArray()), fingerprint);
+		
+		assertNotNull(automaton);
+		assertEquals(AUTOMATON.rootCount(), automaton.rootCount());
+		assertEquals(AUTOMATON.stateCount(), automaton.stateCount());
+		assertEquals(AUTOMATON.classCount(), automaton.classCount());
+		
+		for (char character = 0 ; character < 256 ; character++) {
+			
+			assertEquals(AUTOMATON.characterClass(character), automaton.characterClass(character));
+			assertArrayEquals(AUTOMATON.startingRoots(character), automaton.startingRoots(character));
+			
+			for (int state = 0 ; state < AUTOMATON.stateCount() ; state++) {
+				assertEquals(
+					AUTOMATON.nextState(state, character), automaton.nextState(state, character));
+			}
+			
+		}
+		
+		for (int state = 0 ; state < AUTOMATON.stateCount() ; state++) {
+			assertEquals(AUTOMATON.acceptedRoot(state), automaton.acceptedRoot(state));
+		}
+		
+	}
+	
+	@Test
+	void tables_with_other_fingerprint_are_not_read() throws IOException {
+		
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		
+		AUTOMATON.write(output, LexerAutomaton.fingerprint(ROOT_REGEXES, false));
+		
+		assertNull(LexerAutomaton.read(new ByteArrayInputStream(output.toByteArray()),
+			LexerAutomaton.fingerprint(ROOT_REGEXES, true)));
+		
+	}
+	
+	// Testing LexerAutomaton#fingerprint(List, boolean) method
+	
+	@Test
+	void fingerprint_depends_on_roots_and_their_order() {
+		
+		List<LexerRegex> reorderedRoots = new ArrayList<>(ROOT_REGEXES);
+		
+		Collections.swap(reorderedRoots, 0, 1);
+		
+		long fingerprint = LexerAutomaton.fingerprint(ROOT_REGEXES, false);
+		
+		assertEquals(fingerprint, LexerAutomaton.fingerprint(new ArrayList<>(ROOT_REGEXES), false));
+		assertNotEquals(fingerprint, LexerAutomaton.fingerprint(reorderedRoots, false));
+		assertNotEquals(fingerprint,
+			LexerAutomaton.fingerprint(ROOT_REGEXES.subList(0, 4), false));
+		
+	}
+	
+	// Testing LexerAutomaton#load(InputStream, List, boolean) method
+	
+	@Test
+	void automaton_is_compiled_when_tables_are_missing_or_corrupted() {
+		
+		LexerAutomaton missingTablesAutomaton   = LexerAutomaton.load(null, ROOT_REGEXES, false);
+		LexerAutomaton corruptedTablesAutomaton = LexerAutomaton.load(
+			new ByteArrayInputStream(new byte[] { 1, 2, 3 }), ROOT_REGEXES, false);
+		
+		assertEquals(AUTOMATON.stateCount(), missingTablesAutomaton.stateCount());
+		assertEquals(AUTOMATON.stateCount(), corruptedTablesAutomaton.stateCount());
+		
+	}
+	
+}
@@ -0,0 +1,130 @@
+package com.adacore.adaintellij.analysis.lexical.regex;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the LexerRegex class.
+ */
+final class LexerRegexTest {
+	
+	// Constants
+	
+	private static final LexerRegex LETTERS_REGEX =
+		new OneOrMoreRegex(new GeneralCategoryRegex("Ll"));
+	
+	private static final LexerRegex ABC_OR_DIGITS_REGEX = UnionRegex.fromRegexes(
+		new UnitRegex("abc"),
+		new ZeroOrMoreRegex(UnionRegex.fromRange('0', '9'))
+	);
+	
+	// Testing LexerRegex#equals(Object) and LexerRegex#hashCode() methods
+	
+	@Test
+	void structurally_equal_regexes_are_equal() {
+		
+		LexerRegex regex = ConcatenationRegex.fromRegexes(
+			new UnitRegex("a"), new ZeroOrOneRegex(new UnitRegex("b")));
+		LexerRegex equalRegex = ConcatenationRegex.fromRegexes(
+			new UnitRegex("a"), new ZeroOrOneRegex(new UnitRegex("b")));
+		
+		assertEquals(regex, equalRegex);
+		assertEquals(regex.hashCode(), equalRegex.hashCode());
+		
+	}
+	
+	@Test
+	void regexes_with_different_priorities_are_not_equal() {
+		assertNotEquals(new UnitRegex("if"), new UnitRegex("if", 1));
+	}
+	
+	// Testing LexerRegex#advanced(char) method
+	
+	@Test
+	void advanced_regexes_are_memoized() {
+		
+		assertSame(ABC_OR_DIGITS_REGEX.advanced('a'), ABC_OR_DIGITS_REGEX.advanced('a'));
+		assertSame(LETTERS_REGEX.advanced('é'), LETTERS_REGEX.advanced('é'));
+		
+		assertNull(ABC_OR_DIGITS_REGEX.advanced('d'));
+		assertNull(ABC_OR_DIGITS_REGEX.advanced('d'));
+		
+	}
+	
+	@Test
+	void characters_of_the_same_class_share_derivatives() {
+		
+		assertSame(ABC_OR_DIGITS_REGEX.advanced('1'), ABC_OR_DIGITS_REGEX.advanced('7'));
+		assertSame(LETTERS_REGEX.advanced('é'), LETTERS_REGEX.advanced('α'));
+		
+		assertNull(LETTERS_REGEX.advanced('É'));
+		
+	}
+	
+	@Test
+	void structurally_equal_derivatives_are_the_same_instance() {
+		
+		LexerRegex regex      = new OneOrMoreRegex(new UnitRegex("ab"));
+		LexerRegex equalRegex = new OneOrMoreRegex(new UnitRegex("ab"));
+		
+		assertSame(regex.advanced('a'), equalRegex.advanced('a'));
+		
+	}
+	
+	@Test
+	void derivatives_of_repetitions_do_not_grow() {
+		
+		LexerRegex commentRegex = ConcatenationRegex.fromRegexes(
+			new UnitRegex("--"),
+			new ZeroOrMoreRegex(NotRegex.fromRegex(new UnitRegex("\n")))
+		);
+		
+		LexerRegex regex = commentRegex.advanced('-').advanced('-').advanced('x');
+		
+		assertEquals(new ZeroOrMoreRegex(NotRegex.fromRegex(new UnitRegex("\n"))), regex);
+		assertSame(regex, regex.advanced('y'));
+		
+	}
+	
+	@Test
+	void duplicate_union_derivatives_are_merged() {
+		
+		LexerRegex regex = UnionRegex.fromRegexes(
+			new UnitRegex("ab"),
+			ConcatenationRegex.fromRegexes(new UnitRegex("a"), new UnitRegex("b"))
+		);
+		
+		assertEquals(new UnitRegex("b"), regex.advanced('a'));
+		
+	}
+	
+	@Test
+	void union_derivatives_do_not_depend_on_operand_order() {
+		
+		LexerRegex regex = UnionRegex.fromRegexes(
+			new UnitRegex("abc"),
+			new UnitRegex("abd")
+		);
+		LexerRegex swappedRegex = UnionRegex.fromRegexes(
+			new UnitRegex("abd"),
+			new UnitRegex("abc")
+		);
+		
+		assertSame(regex.advanced('a'), swappedRegex.advanced('a'));
+		
+	}
+	
+	// Testing LexerRegex#intern() method
+	
+	@Test
+	void interned_regexes_are_canonical() {
+		
+		LexerRegex regex = new UnitRegex("interned").intern();
+		
+		assertSame(regex, new UnitRegex("interned").intern());
+		assertSame(regex, regex.intern());
+		
+	}
+	
+}
@@ -59,15 +59,25 @@ final class UnionRegexTest {
 		
 		assertTrue(UnionRegex.fromList(regexes) instanceof UnionRegex);
 		
+		assertTrue(UnionRegex.fromRegexes(
+			LOWER_CASE_A_UNIT_REGEX,
+			new UnitRegex("bc")
+		) instanceof UnionRegex);
+		
+	}
+	
+	@Test
+	void helper_construction_methods_collapse_single_characters_to_char_class_regex() {
+		
 		assertTrue(UnionRegex.fromRegexes(
 			LOWER_CASE_A_UNIT_REGEX,
 			LOWER_CASE_B_UNIT_REGEX,
 			LOWER_CASE_C_UNIT_REGEX,
 			LOWER_CASE_D_UNIT_REGEX,
 			LOWER_CASE_E_UNIT_REGEX
-		) instanceof UnionRegex);
+		) instanceof CharClassRegex);
 		
-		assertTrue(UnionRegex.fromRange('a', 'c') instanceof UnionRegex);
+		assertTrue(UnionRegex.fromRange('a', 'c') instanceof CharClassRegex);
 		
 	}
 	
@@ -111,22 +121,16 @@ final class UnionRegexTest {
 		UnionRegex regex =
 			(UnionRegex)UnionRegex.fromRegexes(
 				LOWER_CASE_A_UNIT_REGEX,
-				LOWER_CASE_B_UNIT_REGEX,
-				LOWER_CASE_C_UNIT_REGEX,
-				LOWER_CASE_D_UNIT_REGEX,
-				LOWER_CASE_E_UNIT_REGEX
+				new UnitRegex("bc"),
+				LOWER_CASE_D_UNIT_REGEX
 			);
 		
 		// Testing
 		
 		assertEquals(LOWER_CASE_A_UNIT_REGEX, regex.FIRST_REGEX);
 		regex = (UnionRegex)regex.SECOND_REGEX;
-		assertEquals(LOWER_CASE_B_UNIT_REGEX, regex.FIRST_REGEX);
-		regex = (UnionRegex)regex.SECOND_REGEX;
-		assertEquals(LOWER_CASE_C_UNIT_REGEX, regex.FIRST_REGEX);
-		regex = (UnionRegex)regex.SECOND_REGEX;
-		assertEquals(LOWER_CASE_D_UNIT_REGEX, regex.FIRST_REGEX);
-		assertEquals(LOWER_CASE_E_UNIT_REGEX, regex.SECOND_REGEX);
+		assertEquals(new UnitRegex("bc"), regex.FIRST_REGEX);
+		assertEquals(LOWER_CASE_D_UNIT_REGEX, regex.SECOND_REGEX);
 		
 	}
 	
@@ -135,18 +139,11 @@ final class UnionRegexTest {
 		
 		// Initialization
 		
-		UnionRegex regex = (UnionRegex)UnionRegex.fromRange('a', 'e');
+		CharClassRegex regex = (CharClassRegex)UnionRegex.fromRange('a', 'e');
 		
 		// Testing
 		
-		assertEquals("a", ((UnitRegex)regex.FIRST_REGEX).SEQUENCE);
-		regex = (UnionRegex)regex.SECOND_REGEX;
-		assertEquals("b", ((UnitRegex)regex.FIRST_REGEX).SEQUENCE);
-		regex = (UnionRegex)regex.SECOND_REGEX;
-		assertEquals("c", ((UnitRegex)regex.FIRST_REGEX).SEQUENCE);
-		regex = (UnionRegex)regex.SECOND_REGEX;
-		assertEquals("d", ((UnitRegex)regex.FIRST_REGEX).SEQUENCE);
-		assertEquals("e", ((UnitRegex)regex.SECOND_REGEX).SEQUENCE);
+		assertArrayEquals(new char[] { 'a', 'e' }, regex.RANGES);
 		
 	}
 	
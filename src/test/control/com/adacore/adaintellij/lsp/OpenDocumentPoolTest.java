@@ -0,0 +1,218 @@
+package com.adacore.adaintellij.lsp;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the OpenDocumentPool class.
+ */
+final class OpenDocumentPoolTest {
+	
+	/**
+	 * The sizes of the documents that can be opened, by URI.
+	 */
+	private Map<String, Long> documentSizes;
+	
+	/**
+	 * The URIs of the documents opened and closed by the pool,
+	 * in order.
+	 */
+	private List<String> openedDocuments;
+	private List<String> closedDocuments;
+	
+	/**
+	 * The pool under test.
+	 */
+	private OpenDocumentPool pool;
+	
+	@BeforeEach
+	void setUp() {
+		
+		documentSizes   = new HashMap<>();
+		openedDocuments = new ArrayList<>();
+		closedDocuments = new ArrayList<>();
+		
+		pool = new OpenDocumentPool(
+			documentUri -> {
+				Long size = documentSizes.get(documentUri);
+				if (size != null) { openedDocuments.add(documentUri); }
+				return size;
+			},
+			closedDocuments::add
+		);
+		
+	}
+	
+	/**
+	 * Adds a document of the given size that can be opened, and opens
+	 * it in the pool for a request that completes immediately.
+	 *
+	 * @param documentUri The URI of the document.
+	 * @param size The size of the document.
+	 */
+	private void use(String documentUri, long size) {
+		documentSizes.put(documentUri, size);
+		assertTrue(pool.acquire(documentUri));
+		pool.release(documentUri);
+	}
+	
+	// Testing OpenDocumentPool#acquire(String) and
+	// OpenDocumentPool#release(String) methods
+	
+	@Test
+	void acquire_opens_documents_only_once() {
+		
+		use("a", 1);
+		use("a", 1);
+		
+		assertEquals(Collections.singletonList("a"), openedDocuments);
+		assertTrue(pool.contains("a"));
+		assertTrue(closedDocuments.isEmpty());
+		
+	}
+	
+	@Test
+	void acquire_fails_if_opener_does_not_open_document() {
+		
+		assertFalse(pool.acquire("unknown"));
+		assertFalse(pool.contains("unknown"));
+		
+	}
+	
+	@Test
+	void least_recently_used_document_is_evicted_past_count_bound() {
+		
+		for (int i = 0 ; i < OpenDocumentPool.MAX_DOCUMENTS ; i++) { use("d" + i, 1); }
+		
+		assertTrue(closedDocuments.isEmpty());
+		
+		// Use the first document again so that the second one
+		// becomes the least recently used
+		
+		use("d0", 1);
+		use("extra", 1);
+		
+		assertEquals(Collections.singletonList("d1"), closedDocuments);
+		assertTrue(pool.contains("d0"));
+		assertFalse(pool.contains("d1"));
+		
+	}
+	
+	@Test
+	void least_recently_used_document_is_evicted_past_size_bound() {
+		
+		use("a", OpenDocumentPool.MAX_SIZE / 2);
+		use("b", OpenDocumentPool.MAX_SIZE / 2);
+		
+		assertTrue(closedDocuments.isEmpty());
+		
+		use("c", 1);
+		
+		assertEquals(Collections.singletonList("a"), closedDocuments);
+		assertTrue(pool.contains("b"));
+		assertTrue(pool.contains("c"));
+		
+	}
+	
+	@Test
+	void acquired_document_is_not_evicted_until_released() {
+		
+		documentSizes.put("pinned", OpenDocumentPool.MAX_SIZE);
+		
+		assertTrue(pool.acquire("pinned"));
+		
+		use("a", 1);
+		use("b", 1);
+		
+		// The pinned document is the least recently used one and keeps
+		// the pool past its size bound, but the others are evicted
+		
+		assertEquals(Arrays.asList("a", "b"), closedDocuments);
+		assertTrue(pool.contains("pinned"));
+		
+		// Once released, the pinned document is evicted as soon as the
+		// pool grows past its size bound again
+		
+		pool.release("pinned");
+		
+		assertEquals(Arrays.asList("a", "b"), closedDocuments);
+		assertTrue(pool.contains("pinned"));
+		
+		use("c", 1);
+		
+		assertEquals(Arrays.asList("a", "b", "pinned"), closedDocuments);
+		assertFalse(pool.contains("pinned"));
+		assertTrue(pool.contains("c"));
+		
+	}
+	
+	@Test
+	void opener_and_closer_are_called_outside_pool_monitor() {
+		
+		List<Boolean> monitorHeld = new ArrayList<>();
+		
+		OpenDocumentPool[] observedPool = new OpenDocumentPool[1];
+		
+		observedPool[0] = new OpenDocumentPool(
+			documentUri -> {
+				monitorHeld.add(Thread.holdsLock(observedPool[0]));
+				return OpenDocumentPool.MAX_SIZE;
+			},
+			documentUri -> monitorHeld.add(Thread.holdsLock(observedPool[0]))
+		);
+		
+		assertTrue(observedPool[0].acquire("a"));
+		observedPool[0].release("a");
+		assertTrue(observedPool[0].acquire("b"));
+		observedPool[0].release("b");
+		
+		// Opening "a", opening "b" and closing "a"
+		
+		assertEquals(Arrays.asList(false, false, false), monitorHeld);
+		
+	}
+	
+	// Testing OpenDocumentPool#resize(String, long) method
+	
+	@Test
+	void resize_evicts_documents_past_size_bound() {
+		
+		use("a", 1);
+		use("b", 1);
+		
+		pool.resize("a", OpenDocumentPool.MAX_SIZE);
+		
+		assertEquals(Collections.singletonList("b"), closedDocuments);
+		assertTrue(pool.contains("a"));
+		
+		pool.resize("a", OpenDocumentPool.MAX_SIZE + 1);
+		
+		assertEquals(Arrays.asList("b", "a"), closedDocuments);
+		assertFalse(pool.contains("a"));
+		
+	}
+	
+	// Testing OpenDocumentPool#remove(String) method
+	
+	@Test
+	void remove_takes_document_out_without_closing_it() {
+		
+		use("a", OpenDocumentPool.MAX_SIZE);
+		
+		assertTrue(pool.remove("a"));
+		assertFalse(pool.contains("a"));
+		assertFalse(pool.remove("a"));
+		assertTrue(closedDocuments.isEmpty());
+		
+		// The size of the removed document no longer counts
+		
+		use("b", OpenDocumentPool.MAX_SIZE);
+		
+		assertTrue(closedDocuments.isEmpty());
+		
+	}
+	
+}
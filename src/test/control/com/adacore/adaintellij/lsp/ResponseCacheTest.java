@@ -0,0 +1,141 @@
+package com.adacore.adaintellij.lsp;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for the ResponseCache class.
+ */
+final class ResponseCacheTest {
+	
+	/**
+	 * Caches the given response to the request with the given key,
+	 * made on the given document in the current generation.
+	 *
+	 * @param cache The cache to use.
+	 * @param key The key of the request.
+	 * @param documentUri The URI of the document of the request.
+	 * @param crossDocument Whether or not the response is cross-document.
+	 * @param response The response to cache.
+	 */
+	private static void put(
+		ResponseCache cache,
+		String        key,
+		String        documentUri,
+		boolean       crossDocument,
+		Object        response
+	) {
+		cache.put(key, documentUri, crossDocument, cache.generation(), response);
+	}
+	
+	// Testing ResponseCache#key(String, String, int, Object...) method
+	
+	@Test
+	void key_distinguishes_versions_and_parameters() {
+		
+		String key = ResponseCache.key("textDocument/definition", "file:///a.adb", 1, 2, 3);
+		
+		assertEquals(key, ResponseCache.key("textDocument/definition", "file:///a.adb", 1, 2, 3));
+		assertNotEquals(key, ResponseCache.key("textDocument/definition", "file:///a.adb", 2, 2, 3));
+		assertNotEquals(key, ResponseCache.key("textDocument/definition", "file:///a.adb", 1, 2, 4));
+		assertNotEquals(key, ResponseCache.key("textDocument/references", "file:///a.adb", 1, 2, 3));
+		
+	}
+	
+	// Testing ResponseCache#get(String) and
+	// ResponseCache#put(String, String, boolean, long, Object) methods
+	
+	@Test
+	void cached_response_is_returned() {
+		
+		ResponseCache cache = new ResponseCache();
+		
+		assertNull(cache.get("key"));
+		
+		put(cache, "key", "file:///a.adb", false, "response");
+		
+		assertEquals("response", cache.get("key"));
+		assertTrue(cache.statistics().startsWith("1 hits, 1 misses"));
+		
+	}
+	
+	@Test
+	void response_to_request_of_previous_generation_is_not_cached() {
+		
+		ResponseCache cache = new ResponseCache();
+		
+		long generation = cache.generation();
+		
+		cache.documentChanged("file:///b.adb");
+		
+		cache.put("key", "file:///a.adb", false, generation, "stale response");
+		
+		assertNull(cache.get("key"));
+		
+		cache.put("key", "file:///a.adb", false, cache.generation(), "response");
+		
+		assertEquals("response", cache.get("key"));
+		
+	}
+	
+	@Test
+	void least_recently_used_response_is_evicted_past_bound() {
+		
+		ResponseCache cache = new ResponseCache();
+		
+		for (int i = 0 ; i < ResponseCache.MAX_ENTRIES ; i++) {
+			put(cache, "key" + i, "file:///a.adb", false, i);
+		}
+		
+		assertEquals(0, cache.get("key0"));
+		
+		put(cache, "extra", "file:///a.adb", false, "extra");
+		
+		assertEquals(0, cache.get("key0"));
+		assertNull(cache.get("key1"));
+		assertEquals("extra", cache.get("extra"));
+		
+	}
+	
+	// Testing ResponseCache#documentChanged(String) method
+	
+	@Test
+	void document_change_invalidates_its_responses_and_cross_document_ones() {
+		
+		ResponseCache cache = new ResponseCache();
+		
+		put(cache, "a-symbols", "file:///a.adb", false, "a symbols");
+		put(cache, "b-symbols", "file:///b.adb", false, "b symbols");
+		put(cache, "b-references", "file:///b.adb", true, "b references");
+		
+		cache.documentChanged("file:///a.adb");
+		
+		assertNull(cache.get("a-symbols"));
+		assertNull(cache.get("b-references"));
+		assertEquals("b symbols", cache.get("b-symbols"));
+		
+	}
+	
+	// Testing ResponseCache#clear() method
+	
+	@Test
+	void clear_invalidates_all_responses_and_pending_requests() {
+		
+		ResponseCache cache = new ResponseCache();
+		
+		put(cache, "key", "file:///a.adb", false, "response");
+		
+		long generation = cache.generation();
+		
+		cache.clear();
+		
+		assertNull(cache.get("key"));
+		
+		cache.put("other", "file:///a.adb", false, generation, "stale response");
+		
+		assertNull(cache.get("other"));
+		
+	}
+	
+}